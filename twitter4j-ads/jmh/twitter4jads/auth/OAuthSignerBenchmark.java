@@ -0,0 +1,58 @@
+package twitter4jads.auth;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import twitter4jads.conf.ConfigurationBuilder;
+import twitter4jads.internal.http.HttpParameter;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time and allocations of one signature by {@link OAuthSigner} and by the code it replaced. Run with
+ * {@code gradle jmh -Pbenchmark=OAuthSignerBenchmark}; the gc profiler reports the bytes per signature as
+ * {@code gc.alloc.rate.norm}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OAuthSignerBenchmark {
+
+    private static final String CONSUMER_KEY = "xvz1evFS4wEEPTGEFPHBog";
+    private static final String CONSUMER_SECRET = "kAcSOqF21Fu85e7zjz7ZN2U4ZRhfV3WpwPAoE3Z7kBw";
+    private static final AccessToken TOKEN = new AccessToken("370773112-GmHxMAgYyLbNEtIKZeRNFsMKPR9EyMZeS9weJAEb",
+                                                             "LswwdoUaIvS8ltyTt5jkRh4J50vUPVVHtR2YPi5kE");
+    private static final String URL = "https://ads-api.twitter.com/11/stats/accounts/18ce54d4x5t?entity=LINE_ITEM&granularity=DAY";
+    private static final HttpParameter[] PARAMS = {new HttpParameter("entity_ids", "8u94t,8v53k,8wztq"),
+            new HttpParameter("metric_groups", "ENGAGEMENT,BILLING"), new HttpParameter("start_time", "2017-05-19T07:00:00Z")};
+
+    private OAuthAuthorization authorization;
+
+    @Setup
+    public void setUp() {
+        authorization = new OAuthAuthorization(new ConfigurationBuilder().setOAuthConsumerKey(CONSUMER_KEY)
+                                                                         .setOAuthConsumerSecret(CONSUMER_SECRET)
+                                                                         .build());
+    }
+
+    @Benchmark
+    public String signer() {
+        return authorization.generateAuthorizationHeader("GET", URL, PARAMS, "4629346538", "1318622958", TOKEN);
+    }
+
+    @Benchmark
+    public String previousSigner() {
+        return PreviousOAuthSigner.authorizationHeader(CONSUMER_KEY, CONSUMER_SECRET, "GET", URL, PARAMS, "4629346538", "1318622958",
+                                                       TOKEN, null);
+    }
+}
@@ -1,7 +1,7 @@
 package twitter4jads;
 
-import com.google.gson.Gson;
 import org.apache.commons.lang3.StringUtils;
+import twitter4jads.internal.async.TwitterAdsExecutors;
 import twitter4jads.internal.http.HttpParameter;
 import twitter4jads.internal.http.HttpResponse;
 import twitter4jads.internal.models4j.RateLimitStatus;
@@ -9,10 +9,21 @@ import twitter4jads.internal.models4j.TwitterException;
 import twitter4jads.models.ads.TwitterRuntimeException;
 import twitter4jads.util.TwitterAdHttpUtils;
 import twitter4jads.util.TwitterAdUtil;
+import twitter4jads.util.TwitterAdsGson;
 
+import java.io.Closeable;
 import java.io.IOException;
+import java.lang.ref.WeakReference;
 import java.lang.reflect.Type;
 import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * User: poly
@@ -20,6 +31,14 @@ import java.util.*;
  * Time: 11:56 AM
  */
 public class BaseAdsListResponseIterable<T> implements Iterable<BaseAdsListResponse<T>> {
+    private static final int SPLIT_LISTING_THREADS = 8;
+    private static final int PREFETCH_THREADS = 8;
+    // split listing workers only send requests, and prefetchers never wait on split listing, so the pools cannot starve each other
+    private static final ExecutorService SPLIT_LISTING_EXECUTOR =
+            TwitterAdsExecutors.newSharedThreadPool("Twitter4J Ads Split Listing", SPLIT_LISTING_THREADS, 1, TimeUnit.MINUTES);
+    private static final ExecutorService PREFETCH_EXECUTOR =
+            TwitterAdsExecutors.newSharedThreadPool("Twitter4J Ads Page Prefetcher", PREFETCH_THREADS, 1, TimeUnit.MINUTES);
+
     private final TwitterAdsClient twitterAdsClient;
     private BaseAdsListResponse<T> data;
     private final String baseUrl;
@@ -27,6 +46,8 @@ public class BaseAdsListResponseIterable<T> implements Iterable<BaseAdsListRespo
     private String nextCursor;
     private final List<HttpParameter> baseParameters;
     private boolean isCostBasedRateLimit;
+    // the sub-request iterated after this one when a request was split
+    private BaseAdsListResponseIterable<T> following;
 
     public BaseAdsListResponseIterable(TwitterAdsClient twitterAdsClient, String baseUrl, List<HttpParameter> baseParameters, Type type,
                                        HttpResponse response, boolean isCostBasedRateLimit) throws IOException, TwitterException {
@@ -36,9 +57,7 @@ public class BaseAdsListResponseIterable<T> implements Iterable<BaseAdsListRespo
         this.twitterAdsClient = twitterAdsClient;
         this.baseUrl = baseUrl;
         this.baseParameters = baseParameters == null ? Collections.<HttpParameter>emptyList() : Collections.unmodifiableList(baseParameters);
-        Gson gson = new Gson();
-
-        this.data = gson.fromJson(response.asString(), type);
+        this.data = response.asObject(TwitterAdsGson.GSON, type);
         if (this.data == null) {
             this.data = new BaseAdsListResponse<>();
         }
@@ -56,11 +75,100 @@ public class BaseAdsListResponseIterable<T> implements Iterable<BaseAdsListRespo
         }
     }
 
+    /**
+     * Sends one list request per parameter list, up to {@code parallelism} at a time with the calling thread sending its
+     * share, and chains the responses so that they are iterated as one: all the pages of the first request, then all the
+     * pages of the second and so on. Only the first page of every request is fetched here, the following ones are fetched
+     * on iteration.
+     */
+    static <T> BaseAdsListResponseIterable<T> fetchAll(final TwitterAdsClient twitterAdsClient, final String baseUrl,
+                                                       final List<List<HttpParameter>> requests, final Type type,
+                                                       final boolean isCostBasedRateLimit, int parallelism) throws TwitterException {
+        final SplitResponses<T> responses = new SplitResponses<>(requests.size());
+        final AtomicInteger nextRequest = new AtomicInteger();
+        Runnable worker = new Runnable() {
+            @Override
+            public void run() {
+                int index;
+                while (!responses.failed() && (index = nextRequest.getAndIncrement()) < requests.size()) {
+                    try {
+                        responses.set(index, twitterAdsClient.<T>executeHttpListRequest(baseUrl, requests.get(index), type, isCostBasedRateLimit));
+                    } catch (TwitterException | RuntimeException e) {
+                        responses.fail(e);
+                    }
+                }
+            }
+        };
+        List<Future<?>> workers = new ArrayList<>();
+        for (int i = 1; i < Math.min(parallelism, requests.size()); i++) {
+            workers.add(SPLIT_LISTING_EXECUTOR.submit(worker));
+        }
+        worker.run();
+        try {
+            for (Future<?> future : workers) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            responses.fail(e);
+            for (Future<?> future : workers) {
+                future.cancel(true);
+            }
+        } catch (ExecutionException e) {
+            responses.fail(e.getCause());
+        }
+        Throwable error = responses.error();
+        if (error instanceof TwitterException) {
+            throw (TwitterException) error;
+        } else if (error instanceof RuntimeException) {
+            throw (RuntimeException) error;
+        } else if (error != null) {
+            throw new TwitterException("Could not fetch data.", error);
+        }
+        return concat(responses.toList());
+    }
+
+    /**
+     * Chains the iterables so that the pages of each one are followed by the pages of the next. Iterables whose first
+     * page is empty are left out unless all of them are.
+     */
+    static <T> BaseAdsListResponseIterable<T> concat(List<BaseAdsListResponseIterable<T>> parts) {
+        BaseAdsListResponseIterable<T> first = null;
+        BaseAdsListResponseIterable<T> last = null;
+        for (BaseAdsListResponseIterable<T> part : parts) {
+            if (!part.hasData() && part.getNextCursor() == null) {
+                continue;
+            }
+            if (first == null) {
+                first = part;
+            } else {
+                last.following = part;
+            }
+            last = part;
+        }
+        return first == null ? parts.get(0) : first;
+    }
+
     @Override
     public BaseAdsListResponseIterator<T> iterator() {
         return new BaseAdsListResponseIterator<>(this);
     }
 
+    /**
+     * Returns an iterator that fetches the following pages in the background while the current one is being processed.
+     * At most {@code prefetchDepth} pages are fetched ahead of the caller; the background fetch waits once that many are
+     * buffered. Closing the iterator stops the background fetch right away; an iterator dropped without closing stops it
+     * once garbage collected.
+     *
+     * @param prefetchDepth maximum number of pages fetched ahead of the caller
+     */
+    public PrefetchingBaseAdsListResponseIterator<T> prefetchingIterator(int prefetchDepth) {
+        if (prefetchDepth < 1) {
+            throw new IllegalArgumentException("Prefetch depth must be at least 1");
+        }
+        return new PrefetchingBaseAdsListResponseIterator<>(this, prefetchDepth);
+    }
+
     public static class BaseAdsListResponseIterator<T> implements Iterator<BaseAdsListResponse<T>> {
         private BaseAdsListResponseIterable<T> baseAdsListResponseIterable;
         private boolean initialResponse = true;
@@ -101,12 +209,207 @@ public class BaseAdsListResponseIterable<T> implements Iterable<BaseAdsListRespo
         }
     }
 
+    /**
+     * Returns pages as soon as they are available: the page after the current one is only waited for when it is asked for.
+     * The background fetch runs on a bounded pool; when none of its threads is free shortly after the caller asks for the
+     * second page, the iterator fetches the pages itself instead of waiting for one. The fetch stops when the iterator is
+     * closed or garbage collected.
+     */
+    public static class PrefetchingBaseAdsListResponseIterator<T> implements Iterator<BaseAdsListResponse<T>>, Closeable {
+        private static final long OFFER_TIMEOUT_MILLIS = 500;
+        private static final long START_TIMEOUT_MILLIS = 500;
+
+        private final BlockingQueue<PrefetchedPage<T>> pages;
+        private final AtomicBoolean started = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+        private final Future<?> fetcher;
+        private PrefetchedPage<T> firstPage;
+        // the page the caller fetches from if the background fetch never starts, null once it has
+        private BaseAdsListResponseIterable<T> current;
+        private boolean fetchingInBackground;
+        private boolean fetchingHere;
+        private boolean last;
+
+        private PrefetchingBaseAdsListResponseIterator(BaseAdsListResponseIterable<T> first, int prefetchDepth) {
+            this.pages = new ArrayBlockingQueue<>(prefetchDepth);
+            this.firstPage = new PrefetchedPage<>(first, null);
+            if (firstPage.last) {
+                this.fetcher = null;
+                return;
+            }
+            this.current = first;
+            this.fetcher = PREFETCH_EXECUTOR.submit(fetcher(first, pages, started, closed, new WeakReference<Object>(this)));
+        }
+
+        // static so that the task does not keep the iterator reachable once the caller has dropped it
+        private static <T> Runnable fetcher(final BaseAdsListResponseIterable<T> first, final BlockingQueue<PrefetchedPage<T>> pages,
+                                            final AtomicBoolean started, final AtomicBoolean closed,
+                                            final WeakReference<Object> consumer) {
+            return new Runnable() {
+                @Override
+                public void run() {
+                    if (!started.compareAndSet(false, true)) {
+                        return;
+                    }
+                    BaseAdsListResponseIterable<T> current = first;
+                    try {
+                        PrefetchedPage<T> page;
+                        do {
+                            page = fetchNextPage(current);
+                            current = page.source;
+                            while (!pages.offer(page, OFFER_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                                if (closed.get() || consumer.get() == null) {
+                                    return;
+                                }
+                            }
+                        } while (!page.last && !closed.get());
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            };
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !closed.get() && (firstPage != null || !last);
+        }
+
+        @Override
+        public BaseAdsListResponse<T> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException("No more data to fetch");
+            }
+            PrefetchedPage<T> page;
+            if (firstPage != null) {
+                page = firstPage;
+                firstPage = null;
+            } else {
+                page = takeNextPage();
+            }
+            last = page.last;
+            if (page.error != null) {
+                throw new TwitterRuntimeException(page.error, new TwitterException("Could not fetch more data."));
+            }
+            return page.data;
+        }
+
+        private PrefetchedPage<T> takeNextPage() {
+            try {
+                if (!fetchingHere && !fetchingInBackground) {
+                    PrefetchedPage<T> page = pages.poll(START_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+                    if (page == null && started.compareAndSet(false, true)) {
+                        // every prefetch thread is busy, fetching here cannot be slower than waiting for one
+                        fetcher.cancel(false);
+                        fetchingHere = true;
+                    } else {
+                        fetchingInBackground = true;
+                        current = null;
+                        if (page != null) {
+                            return page;
+                        }
+                    }
+                }
+                if (fetchingHere) {
+                    PrefetchedPage<T> page = fetchNextPage(current);
+                    current = page.source;
+                    return page;
+                }
+                return pages.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                close();
+                throw new TwitterRuntimeException(e, new TwitterException("Interrupted while fetching more data."));
+            }
+        }
+
+        @Override
+        public void remove() {
+            // NOT SUPPORTED OPERATION
+        }
+
+        /**
+         * Stops the background fetch. Pages that were already fetched are dropped.
+         */
+        @Override
+        public void close() {
+            closed.set(true);
+            started.set(true);
+            firstPage = null;
+            current = null;
+            pages.clear();
+            if (fetcher != null) {
+                fetcher.cancel(true);
+            }
+        }
+    }
+
+    private static <T> PrefetchedPage<T> fetchNextPage(BaseAdsListResponseIterable<T> current) {
+        try {
+            return new PrefetchedPage<>(current.fetchNextResponse(), null);
+        } catch (IOException | TwitterException | RuntimeException e) {
+            return new PrefetchedPage<>(null, e);
+        }
+    }
+
+    private static class SplitResponses<T> {
+        private final List<BaseAdsListResponseIterable<T>> responses;
+        private volatile Throwable error;
+
+        private SplitResponses(int size) {
+            this.responses = new ArrayList<>(Collections.<BaseAdsListResponseIterable<T>>nCopies(size, null));
+        }
+
+        private synchronized void set(int index, BaseAdsListResponseIterable<T> response) {
+            responses.set(index, response);
+        }
+
+        private synchronized void fail(Throwable e) {
+            if (error == null) {
+                error = e;
+            }
+        }
+
+        private boolean failed() {
+            return error != null;
+        }
+
+        private Throwable error() {
+            return error;
+        }
+
+        private synchronized List<BaseAdsListResponseIterable<T>> toList() {
+            return new ArrayList<>(responses);
+        }
+    }
+
+    private static class PrefetchedPage<T> {
+        // the iterable the page was read from, to fetch the following page
+        private final BaseAdsListResponseIterable<T> source;
+        private final BaseAdsListResponse<T> data;
+        private final Exception error;
+        private final boolean last;
+
+        private PrefetchedPage(BaseAdsListResponseIterable<T> source, Exception error) {
+            this.source = source;
+            this.data = source == null ? null : source.getData();
+            this.error = error;
+            this.last = source == null || !source.hasNext();
+        }
+    }
+
     private BaseAdsListResponseIterable<T> fetchNextResponse() throws IOException, TwitterException {
+        if (StringUtils.isBlank(getNextCursor())) {
+            return following;
+        }
         List<HttpParameter> parameters = TwitterAdUtil.createMutableList(baseParameters);
         parameters = removeParamIfExist(parameters, "cursor");
         parameters.add(new HttpParameter("cursor", getNextCursor()));
         HttpResponse httpResponse = twitterAdsClient.get(baseUrl, parameters.toArray(new HttpParameter[parameters.size()]));
-        return new BaseAdsListResponseIterable<>(twitterAdsClient, baseUrl, baseParameters, type, httpResponse, isCostBasedRateLimit);
+        BaseAdsListResponseIterable<T> next =
+                new BaseAdsListResponseIterable<>(twitterAdsClient, baseUrl, baseParameters, type, httpResponse, isCostBasedRateLimit);
+        next.following = following;
+        return next;
     }
 
     private List<HttpParameter> removeParamIfExist(List<HttpParameter> parameters, String param) {
@@ -125,7 +428,7 @@ public class BaseAdsListResponseIterable<T> implements Iterable<BaseAdsListRespo
     }
 
     public boolean hasData() {
-        return data != null && data.getData() != null && !data.getData().isEmpty();
+        return (data != null && data.getData() != null && !data.getData().isEmpty()) || (following != null && following.hasData());
     }
 
     private BaseAdsListResponse<T> getData() {
@@ -133,9 +436,13 @@ public class BaseAdsListResponseIterable<T> implements Iterable<BaseAdsListRespo
     }
 
     private boolean hasNext() {
-        return StringUtils.isNotBlank(getNextCursor());
+        return StringUtils.isNotBlank(getNextCursor()) || following != null;
     }
 
+    /**
+     * @return the cursor of the next page; when the request was split into several, the cursor of the sub-request the
+     * current page belongs to
+     */
     public String getNextCursor() {
         return nextCursor;
     }
@@ -0,0 +1,370 @@
+package twitter4jads;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import twitter4jads.internal.http.EndpointTemplate;
+import twitter4jads.internal.http.HttpParameter;
+import twitter4jads.internal.http.RequestMethod;
+import twitter4jads.internal.models4j.RateLimitStatus;
+import twitter4jads.util.TwitterAdUtil;
+
+import java.lang.reflect.Type;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Read-through cache of ads entities fetched by id, e.g. {@code getCampaignById} or {@code getAdAccountById}, for
+ * clients that read the same objects over and over.
+ * <p/>
+ * Entries are keyed by account, entity type and id, and every entity type is cached for its own time to live; types that
+ * are not configured are never cached. The cache is bounded by {@link Builder#setMaximumSize(long)} and evicts the least
+ * recently read entries of a segment first. Create, update and delete calls made through the client the cache is set on
+ * invalidate the entities they may have changed: the entity itself for an update, the whole account for deletes, which
+ * cascade to child entities, batches and other calls. Changes made elsewhere are only seen once the entry expires.
+ * <p/>
+ * Hits deserialize the cached body again, so callers never share a response object.
+ *
+ * @see TwitterAdsClient#setEntityCache(EntityCache)
+ */
+public class EntityCache {
+    public static final String ACCOUNTS = "accounts";
+    public static final String CAMPAIGNS = "campaigns";
+    public static final String LINE_ITEMS = "line_items";
+    public static final String FUNDING_INSTRUMENTS = "funding_instruments";
+    public static final String WEBSITE_CARDS = "cards/website";
+
+    private static final String ACCOUNT_PATH = "/" + ACCOUNTS + "/" + EndpointTemplate.ID;
+    private static final String ID_SUFFIX = "/" + EndpointTemplate.ID;
+
+    private final Map<String, Long> timeToLiveMillis;
+    private final Cache<EntityKey, ConcurrentMap<String, CachedResponse>> cache;
+    private final ConcurrentMap<String, TypeStatistics> statistics = new ConcurrentHashMap<>();
+    // bumped by every invalidation, a response read while one happened may be stale and is not cached
+    private final AtomicLong generation = new AtomicLong();
+
+    private EntityCache(Builder builder) {
+        this.timeToLiveMillis = Collections.unmodifiableMap(new HashMap<>(builder.timeToLiveMillis));
+        this.cache = CacheBuilder.newBuilder()
+                                 .maximumSize(builder.maximumSize)
+                                 .expireAfterWrite(Collections.max(timeToLiveMillis.values()), TimeUnit.MILLISECONDS)
+                                 .recordStats()
+                                 .build();
+        for (String entityType : timeToLiveMillis.keySet()) {
+            statistics.put(entityType, new TypeStatistics());
+        }
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * @return the cached response to a GET of the url, null if there is none or the entity type is not cached
+     */
+    <T> BaseAdsResponse<T> get(String url, HttpParameter[] params, Type type) {
+        EntityKey key = keyOf(url);
+        if (key == null) {
+            return null;
+        }
+        TypeStatistics typeStatistics = statistics.get(key.entityType);
+        ConcurrentMap<String, CachedResponse> variants = cache.getIfPresent(key);
+        CachedResponse cached = variants == null ? null : variants.get(variantOf(params));
+        if (cached == null || cached.expiresAt < System.currentTimeMillis()) {
+            typeStatistics.misses.increment();
+            return null;
+        }
+        typeStatistics.hits.increment();
+        BaseAdsResponse<T> response = TwitterAdsClient.GSON_INSTANCE.fromJson(cached.body, type);
+        if (response != null) {
+            response.setRateLimitStatus(cached.rateLimitStatus);
+        }
+        return response;
+    }
+
+    /**
+     * @return whether GET responses of the url are cached
+     */
+    boolean isCached(String url) {
+        return keyOf(url) != null;
+    }
+
+    /**
+     * @return token to pass to {@link #put}, taken before sending the request
+     */
+    long generation() {
+        return generation.get();
+    }
+
+    /**
+     * Caches the body of a GET response, unless an invalidation happened since the generation was taken.
+     */
+    void put(String url, HttpParameter[] params, String body, RateLimitStatus rateLimitStatus, long generationBeforeRequest) {
+        final EntityKey key = keyOf(url);
+        if (key == null || body == null || generation.get() != generationBeforeRequest) {
+            return;
+        }
+        ConcurrentMap<String, CachedResponse> variants;
+        try {
+            variants = cache.get(key, ConcurrentHashMap::new);
+        } catch (ExecutionException e) {
+            return;
+        }
+        long expiresAt = System.currentTimeMillis() + timeToLiveMillis.get(key.entityType);
+        variants.put(variantOf(params), new CachedResponse(body, rateLimitStatus, expiresAt));
+        if (generation.get() != generationBeforeRequest) {
+            // invalidated while being stored
+            cache.invalidate(key);
+        }
+    }
+
+    /**
+     * Drops the entities a create, update or delete request may have changed.
+     */
+    void invalidate(RequestMethod method, String url) {
+        String path = EndpointTemplate.pathOf(url);
+        int account = path.indexOf(ACCOUNT_PATH);
+        if (account == -1) {
+            return;
+        }
+        String accountId = EndpointTemplate.accountId(url);
+        String entityPath = path.substring(account + ACCOUNT_PATH.length());
+        if (account == 0 && method == RequestMethod.POST && isEntityType(entityPath)) {
+            // a create, nothing cached yet
+            return;
+        }
+        if (account == 0 && method != RequestMethod.DELETE && isEntityPath(entityPath)) {
+            // an update of one entity
+            EntityKey key = keyOf(url);
+            if (key != null) {
+                generation.incrementAndGet();
+                cache.invalidate(key);
+            }
+            return;
+        }
+        // batches, deletes that cascade to child entities and anything else
+        generation.incrementAndGet();
+        for (EntityKey cached : cache.asMap().keySet()) {
+            if (cached.accountId.equals(accountId)) {
+                cache.invalidate(cached);
+            }
+        }
+    }
+
+    /**
+     * Drops every entry.
+     */
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        cache.invalidateAll();
+    }
+
+    /**
+     * @return number of entities cached, expired ones included until they are evicted
+     */
+    public long size() {
+        return cache.size();
+    }
+
+    /**
+     * @return entries evicted to stay within the maximum size or because they expired
+     */
+    public long getEvictionCount() {
+        return cache.stats().evictionCount();
+    }
+
+    /**
+     * @return hits and misses per entity type
+     */
+    public Map<String, Statistics> getStatistics() {
+        Map<String, Statistics> result = new TreeMap<>();
+        for (Map.Entry<String, TypeStatistics> entry : statistics.entrySet()) {
+            result.put(entry.getKey(), new Statistics(entry.getValue().hits.sum(), entry.getValue().misses.sum()));
+        }
+        return result;
+    }
+
+    /**
+     * @return key of the entity a GET of the url reads, null if it is not one of the cached entity types
+     */
+    private EntityKey keyOf(String url) {
+        String path = EndpointTemplate.pathOf(url);
+        if (!path.startsWith(ACCOUNT_PATH)) {
+            return null;
+        }
+        String entityPath = path.substring(ACCOUNT_PATH.length());
+        if (!isEntityPath(entityPath)) {
+            return null;
+        }
+        String entityType = entityPath.isEmpty() ? ACCOUNTS : entityPath.substring(1, entityPath.length() - ID_SUFFIX.length());
+        if (!timeToLiveMillis.containsKey(entityType)) {
+            return null;
+        }
+        return new EntityKey(EndpointTemplate.accountId(url), entityType, lastSegment(url));
+    }
+
+    /**
+     * @return whether the path below the account is that of one entity, e.g. /cards/website/:id, or empty for the
+     * account itself
+     */
+    private static boolean isEntityPath(String entityPath) {
+        return entityPath.isEmpty()
+               || (entityPath.endsWith(ID_SUFFIX) && isEntityType(entityPath.substring(0, entityPath.length() - ID_SUFFIX.length())));
+    }
+
+    /**
+     * @return whether the path is made of literal segments only, e.g. /cards/website
+     */
+    private static boolean isEntityType(String path) {
+        return path.length() > 1 && path.charAt(0) == '/' && !path.contains(EndpointTemplate.ID);
+    }
+
+    private static String lastSegment(String url) {
+        int end = url.indexOf('?');
+        if (end == -1) {
+            end = url.length();
+        }
+        while (end > 0 && url.charAt(end - 1) == '/') {
+            end--;
+        }
+        return url.substring(url.lastIndexOf('/', end - 1) + 1, end);
+    }
+
+    private static String variantOf(HttpParameter[] params) {
+        if (params == null || params.length == 0) {
+            return "";
+        }
+        HttpParameter[] sorted = params.clone();
+        Arrays.sort(sorted);
+        return HttpParameter.encodeParameters(sorted);
+    }
+
+    public static class Builder {
+        private long maximumSize = 10000;
+        private final Map<String, Long> timeToLiveMillis = new HashMap<>();
+
+        /**
+         * @param maximumSize most entities kept, 10000 by default
+         */
+        public Builder setMaximumSize(long maximumSize) {
+            this.maximumSize = maximumSize;
+            return this;
+        }
+
+        /**
+         * Caches the entities of a type for the given time. Only the types given a time to live are cached.
+         *
+         * @param entityType e.g. {@link #CAMPAIGNS} or {@link #WEBSITE_CARDS}, the path of the entities below the account
+         */
+        public Builder setTimeToLive(String entityType, long timeToLive, TimeUnit unit) {
+            TwitterAdUtil.ensureNotNull(entityType, "entityType");
+            if (timeToLive <= 0) {
+                throw new IllegalArgumentException("timeToLive must be positive");
+            }
+            timeToLiveMillis.put(entityType, unit.toMillis(timeToLive));
+            return this;
+        }
+
+        public EntityCache build() {
+            if (timeToLiveMillis.isEmpty()) {
+                throw new IllegalArgumentException("At least one entity type must be given a time to live");
+            }
+            return new EntityCache(this);
+        }
+    }
+
+    /**
+     * Hits and misses of one entity type since the cache was created.
+     */
+    public static final class Statistics {
+        private final long hits;
+        private final long misses;
+
+        private Statistics(long hits, long misses) {
+            this.hits = hits;
+            this.misses = misses;
+        }
+
+        public long getHits() {
+            return hits;
+        }
+
+        public long getMisses() {
+            return misses;
+        }
+
+        /**
+         * @return share of the reads served from the cache, 1 when there was none
+         */
+        public double getHitRatio() {
+            long reads = hits + misses;
+            return reads == 0 ? 1.0 : (double) hits / reads;
+        }
+
+        @Override
+        public String toString() {
+            return "Statistics{" +
+                   "hits=" + hits +
+                   ", misses=" + misses +
+                   ", hitRatio=" + getHitRatio() +
+                   '}';
+        }
+    }
+
+    private static final class TypeStatistics {
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder misses = new LongAdder();
+    }
+
+    private static final class CachedResponse {
+        private final String body;
+        private final RateLimitStatus rateLimitStatus;
+        private final long expiresAt;
+
+        private CachedResponse(String body, RateLimitStatus rateLimitStatus, long expiresAt) {
+            this.body = body;
+            this.rateLimitStatus = rateLimitStatus;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private static final class EntityKey {
+        private final String accountId;
+        private final String entityType;
+        private final String entityId;
+
+        private EntityKey(String accountId, String entityType, String entityId) {
+            this.accountId = accountId;
+            this.entityType = entityType;
+            this.entityId = entityId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof EntityKey)) {
+                return false;
+            }
+            EntityKey that = (EntityKey) o;
+            return accountId.equals(that.accountId) && entityType.equals(that.entityType) && entityId.equals(that.entityId);
+        }
+
+        @Override
+        public int hashCode() {
+            int result = accountId.hashCode();
+            result = 31 * result + entityType.hashCode();
+            result = 31 * result + entityId.hashCode();
+            return result;
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package twitter4jads;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import twitter4jads.internal.models4j.TwitterException;
+import twitter4jads.models.ads.TwitterRuntimeException;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.lang.reflect.Type;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import static twitter4jads.util.TwitterAdsGson.GSON;
+
+/**
+ * Reads the output file of an async stats job one entity at a time, so memory use does not grow with the file.
+ * <p/>
+ * Understands a single {@code {"data": [...], ...}} document, a bare array, and newline delimited json where every line
+ * is either such a document or a single entity. Read errors are thrown as {@link TwitterRuntimeException}. The
+ * underlying stream is closed once the last entity has been read, on error, or on {@link #close()}.
+ */
+public class StatsJobDataIterator<T> implements Iterator<T>, Closeable {
+    private static final String DATA = "data";
+
+    private static final TypeAdapter<JsonElement> JSON_ELEMENT_ADAPTER = GSON.getAdapter(JsonElement.class);
+
+    private final JsonReader reader;
+    private final Type type;
+
+    private boolean inArray;
+    private boolean inDocument;
+    private boolean done;
+    private T next;
+
+    /**
+     * @param in   the decompressed job output
+     * @param type type of the entities in the output, e.g. {@code TwitterEntityStatistics.class}
+     */
+    public StatsJobDataIterator(Reader in, Type type) {
+        this.reader = new JsonReader(in);
+        this.reader.setLenient(true);
+        this.type = type;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next != null) {
+            return true;
+        }
+        if (done) {
+            return false;
+        }
+        try {
+            next = readNext();
+        } catch (IOException | JsonParseException e) {
+            close();
+            throw new TwitterRuntimeException(e, new TwitterException("Could not read stats job data.", e));
+        }
+        if (next == null) {
+            close();
+        }
+        return next != null;
+    }
+
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException("No more data to read");
+        }
+        T result = next;
+        next = null;
+        return result;
+    }
+
+    @Override
+    public void remove() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void close() {
+        done = true;
+        try {
+            reader.close();
+        } catch (IOException ignore) {
+        }
+    }
+
+    private T readNext() throws IOException {
+        while (true) {
+            if (inArray) {
+                if (reader.hasNext()) {
+                    T element = GSON.fromJson(reader, type);
+                    if (element != null) {
+                        return element;
+                    }
+                    continue;
+                }
+                reader.endArray();
+                inArray = false;
+                if (inDocument) {
+                    // anything after the data array, e.g. "request", is of no interest
+                    while (reader.hasNext()) {
+                        reader.nextName();
+                        reader.skipValue();
+                    }
+                    reader.endObject();
+                    inDocument = false;
+                }
+                continue;
+            }
+
+            JsonToken token = reader.peek();
+            if (token == JsonToken.END_DOCUMENT) {
+                return null;
+            }
+            if (token == JsonToken.BEGIN_ARRAY) {
+                reader.beginArray();
+                inArray = true;
+                continue;
+            }
+            if (token != JsonToken.BEGIN_OBJECT) {
+                reader.skipValue();
+                continue;
+            }
+
+            // either a {"data": [...]} document or a single entity; only the latter is buffered
+            reader.beginObject();
+            JsonObject fields = new JsonObject();
+            while (reader.hasNext()) {
+                String name = reader.nextName();
+                if (DATA.equals(name) && reader.peek() == JsonToken.BEGIN_ARRAY) {
+                    reader.beginArray();
+                    inArray = true;
+                    inDocument = true;
+                    break;
+                }
+                fields.add(name, JSON_ELEMENT_ADAPTER.read(reader));
+            }
+            if (inArray) {
+                continue;
+            }
+            reader.endObject();
+            if (!fields.has(DATA)) {
+                return GSON.fromJson(fields, type);
+            }
+        }
+    }
+}
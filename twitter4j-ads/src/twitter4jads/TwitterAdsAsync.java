@@ -0,0 +1,99 @@
+package twitter4jads;
+
+import twitter4jads.models.ads.AdAccount;
+import twitter4jads.models.ads.Campaign;
+import twitter4jads.models.ads.CustomAudience;
+import twitter4jads.models.ads.FundingInstrument;
+import twitter4jads.models.ads.LineItem;
+import twitter4jads.models.ads.PromotedTweets;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Asynchronous counterpart of {@link TwitterAds}. The most used calls have typed methods below; every other method of
+ * every TwitterAds*Api can be issued through {@link #execute(TwitterAdsCallable)}. All of them return immediately with a
+ * {@link CompletableFuture} of the API response.
+ * <p/>
+ * Calls run on a pool owned by this instance, with as many threads as the HTTP connection pool has connections (see
+ * {@link twitter4jads.conf.Configuration#getHttpMaxTotalConnections()}) or
+ * {@link twitter4jads.conf.Configuration#getAsyncNumThreads()} if that is larger. Each call holds a thread of the pool
+ * while its request is in flight, so concurrency is bounded by the pool size instead of by the number of calling threads.
+ * A call whose first request is to be retried gives its thread back while it waits, see
+ * {@link twitter4jads.internal.http.RetryDeferral}.
+ */
+public interface TwitterAdsAsync extends java.io.Serializable {
+
+    /**
+     * @param callable the call to make, e.g. {@code ads -> ads.getCampaignApi().getCampaignById(accountId, campaignId, false)}
+     * @return future completed with the result of the call, or exceptionally with the {@link twitter4jads.internal.models4j.TwitterException}
+     * it threw
+     */
+    <R> CompletableFuture<R> execute(TwitterAdsCallable<R> callable);
+
+    /**
+     * @see twitter4jads.api.TwitterAdsAccountApi#getAdAccountById(String, boolean)
+     */
+    CompletableFuture<BaseAdsResponse<AdAccount>> getAdAccountById(String accountId, boolean withDeleted);
+
+    /**
+     * @see twitter4jads.api.TwitterAdsFundingInstrumentApi#getFundingInstrumentById(String, String, boolean)
+     */
+    CompletableFuture<BaseAdsResponse<FundingInstrument>> getFundingInstrumentById(String accountId, String fundingInstrumentId,
+                                                                                  boolean withDeleted);
+
+    /**
+     * @see twitter4jads.api.TwitterAdsCampaignApi#getCampaignById(String, String, boolean)
+     */
+    CompletableFuture<BaseAdsResponse<Campaign>> getCampaignById(String accountId, String campaignId, boolean withDeleted);
+
+    /**
+     * @see twitter4jads.api.TwitterAdsCampaignApi#createCampaign(Campaign)
+     */
+    CompletableFuture<BaseAdsResponse<Campaign>> createCampaign(Campaign campaign);
+
+    /**
+     * @see twitter4jads.api.TwitterAdsCampaignApi#deleteCampaign(String, String)
+     */
+    CompletableFuture<BaseAdsResponse<Campaign>> deleteCampaign(String accountId, String campaignId);
+
+    /**
+     * @see twitter4jads.api.TwitterAdsLineItemApi#getLineItemById(String, String, boolean)
+     */
+    CompletableFuture<BaseAdsResponse<LineItem>> getLineItemById(String accountId, String lineItemId, boolean withDeleted);
+
+    /**
+     * @see twitter4jads.api.TwitterAdsLineItemApi#createLineItem(LineItem)
+     */
+    CompletableFuture<BaseAdsResponse<LineItem>> createLineItem(LineItem lineItem);
+
+    /**
+     * @see twitter4jads.api.TwitterAdsLineItemApi#deleteLineItem(String, String)
+     */
+    CompletableFuture<BaseAdsResponse<LineItem>> deleteLineItem(String accountId, String lineItemId);
+
+    /**
+     * @see twitter4jads.api.TwitterAdsPromotedTweetApi#getPromotedTweetsById(String, String)
+     */
+    CompletableFuture<BaseAdsResponse<PromotedTweets>> getPromotedTweetsById(String accountId, String promotedTweetId);
+
+    /**
+     * @see twitter4jads.api.TwitterAdsPromotedTweetApi#deletePromotedTweets(String, String)
+     */
+    CompletableFuture<BaseAdsResponse<PromotedTweets>> deletePromotedTweets(String accountId, String promotedTweetId);
+
+    /**
+     * @see twitter4jads.api.TwitterAdsAudienceApi#getCustomAudienceForId(String, String)
+     */
+    CompletableFuture<BaseAdsResponse<CustomAudience>> getCustomAudienceForId(String accountId, String customAudienceId);
+
+    /**
+     * @return the synchronous API the calls are executed against
+     */
+    TwitterAds getTwitterAds();
+
+    /**
+     * Stops accepting calls. Calls submitted before still run; calls submitted afterwards complete exceptionally with a
+     * {@link java.util.concurrent.RejectedExecutionException}.
+     */
+    void shutdown();
+}
@@ -0,0 +1,229 @@
+package twitter4jads;
+
+import twitter4jads.auth.Authorization;
+import twitter4jads.conf.Configuration;
+import twitter4jads.internal.async.TwitterAdsExecutors;
+import twitter4jads.internal.http.RetryDeferral;
+import twitter4jads.internal.models4j.TwitterException;
+import twitter4jads.models.ads.AdAccount;
+import twitter4jads.models.ads.Campaign;
+import twitter4jads.models.ads.CustomAudience;
+import twitter4jads.models.ads.FundingInstrument;
+import twitter4jads.models.ads.LineItem;
+import twitter4jads.models.ads.PromotedTweets;
+import twitter4jads.util.TwitterAdUtil;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs {@link TwitterAdsCallable}s against a {@link TwitterAdsImpl} on a pool owned by this instance. When the first
+ * request of a call is to be retried, the call gives its thread back and is run again once the retry delay has passed.
+ */
+public class TwitterAdsAsyncImpl implements TwitterAdsAsync {
+
+    private static final long serialVersionUID = -3407470395207950216L;
+    private static final ScheduledExecutorService RETRY_SCHEDULER =
+            TwitterAdsExecutors.newScheduledThreadPool("Twitter4J Ads Async Retry Scheduler", 1);
+
+    private final TwitterAds twitterAds;
+    // a deserialized instance gets a pool of its own, see readObject
+    private transient ExecutorService executor;
+
+    TwitterAdsAsyncImpl(Configuration conf, Authorization auth) {
+        this(new TwitterAdsImpl(conf, auth), newExecutor(conf));
+    }
+
+    TwitterAdsAsyncImpl(TwitterAds twitterAds, ExecutorService executor) {
+        this.twitterAds = twitterAds;
+        this.executor = executor;
+    }
+
+    @Override
+    public <R> CompletableFuture<R> execute(final TwitterAdsCallable<R> callable) {
+        TwitterAdUtil.ensureNotNull(callable, "Callable");
+        final CompletableFuture<R> future = new CompletableFuture<>();
+        final RetryDeferral retryDeferral = new RetryDeferral();
+        submit(future, new Runnable() {
+            @Override
+            public void run() {
+                if (future.isDone()) {
+                    // cancelled before it was picked up
+                    return;
+                }
+                R result = null;
+                Throwable failure = null;
+                retryDeferral.begin();
+                try {
+                    result = callable.call(twitterAds);
+                } catch (Throwable e) {
+                    failure = e;
+                } finally {
+                    retryDeferral.end();
+                }
+                if (retryDeferral.isDeferred()) {
+                    // the request is backing off: come back once the delay has passed instead of holding the thread
+                    final Runnable retry = this;
+                    RETRY_SCHEDULER.schedule(new Runnable() {
+                        @Override
+                        public void run() {
+                            submit(future, retry);
+                        }
+                    }, retryDeferral.getDeferredDelayMillis(), TimeUnit.MILLISECONDS);
+                } else if (failure != null) {
+                    future.completeExceptionally(failure);
+                } else {
+                    future.complete(result);
+                }
+            }
+        });
+        return future;
+    }
+
+    private void submit(CompletableFuture<?> future, Runnable call) {
+        try {
+            executor.execute(call);
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(e);
+        }
+    }
+
+    @Override
+    public CompletableFuture<BaseAdsResponse<AdAccount>> getAdAccountById(final String accountId, final boolean withDeleted) {
+        return execute(new TwitterAdsCallable<BaseAdsResponse<AdAccount>>() {
+            @Override
+            public BaseAdsResponse<AdAccount> call(TwitterAds twitterAds) throws TwitterException {
+                return twitterAds.getAccountApi().getAdAccountById(accountId, withDeleted);
+            }
+        });
+    }
+
+    @Override
+    public CompletableFuture<BaseAdsResponse<FundingInstrument>> getFundingInstrumentById(final String accountId,
+                                                                                         final String fundingInstrumentId,
+                                                                                         final boolean withDeleted) {
+        return execute(new TwitterAdsCallable<BaseAdsResponse<FundingInstrument>>() {
+            @Override
+            public BaseAdsResponse<FundingInstrument> call(TwitterAds twitterAds) throws TwitterException {
+                return twitterAds.getFundingInstrumentApi().getFundingInstrumentById(accountId, fundingInstrumentId, withDeleted);
+            }
+        });
+    }
+
+    @Override
+    public CompletableFuture<BaseAdsResponse<Campaign>> getCampaignById(final String accountId, final String campaignId,
+                                                                        final boolean withDeleted) {
+        return execute(new TwitterAdsCallable<BaseAdsResponse<Campaign>>() {
+            @Override
+            public BaseAdsResponse<Campaign> call(TwitterAds twitterAds) throws TwitterException {
+                return twitterAds.getCampaignApi().getCampaignById(accountId, campaignId, withDeleted);
+            }
+        });
+    }
+
+    @Override
+    public CompletableFuture<BaseAdsResponse<Campaign>> createCampaign(final Campaign campaign) {
+        return execute(new TwitterAdsCallable<BaseAdsResponse<Campaign>>() {
+            @Override
+            public BaseAdsResponse<Campaign> call(TwitterAds twitterAds) throws TwitterException {
+                return twitterAds.getCampaignApi().createCampaign(campaign);
+            }
+        });
+    }
+
+    @Override
+    public CompletableFuture<BaseAdsResponse<Campaign>> deleteCampaign(final String accountId, final String campaignId) {
+        return execute(new TwitterAdsCallable<BaseAdsResponse<Campaign>>() {
+            @Override
+            public BaseAdsResponse<Campaign> call(TwitterAds twitterAds) throws TwitterException {
+                return twitterAds.getCampaignApi().deleteCampaign(accountId, campaignId);
+            }
+        });
+    }
+
+    @Override
+    public CompletableFuture<BaseAdsResponse<LineItem>> getLineItemById(final String accountId, final String lineItemId,
+                                                                        final boolean withDeleted) {
+        return execute(new TwitterAdsCallable<BaseAdsResponse<LineItem>>() {
+            @Override
+            public BaseAdsResponse<LineItem> call(TwitterAds twitterAds) throws TwitterException {
+                return twitterAds.getLineItemApi().getLineItemById(accountId, lineItemId, withDeleted);
+            }
+        });
+    }
+
+    @Override
+    public CompletableFuture<BaseAdsResponse<LineItem>> createLineItem(final LineItem lineItem) {
+        return execute(new TwitterAdsCallable<BaseAdsResponse<LineItem>>() {
+            @Override
+            public BaseAdsResponse<LineItem> call(TwitterAds twitterAds) throws TwitterException {
+                return twitterAds.getLineItemApi().createLineItem(lineItem);
+            }
+        });
+    }
+
+    @Override
+    public CompletableFuture<BaseAdsResponse<LineItem>> deleteLineItem(final String accountId, final String lineItemId) {
+        return execute(new TwitterAdsCallable<BaseAdsResponse<LineItem>>() {
+            @Override
+            public BaseAdsResponse<LineItem> call(TwitterAds twitterAds) throws TwitterException {
+                return twitterAds.getLineItemApi().deleteLineItem(accountId, lineItemId);
+            }
+        });
+    }
+
+    @Override
+    public CompletableFuture<BaseAdsResponse<PromotedTweets>> getPromotedTweetsById(final String accountId, final String promotedTweetId) {
+        return execute(new TwitterAdsCallable<BaseAdsResponse<PromotedTweets>>() {
+            @Override
+            public BaseAdsResponse<PromotedTweets> call(TwitterAds twitterAds) throws TwitterException {
+                return twitterAds.getPromotedTweetApi().getPromotedTweetsById(accountId, promotedTweetId);
+            }
+        });
+    }
+
+    @Override
+    public CompletableFuture<BaseAdsResponse<PromotedTweets>> deletePromotedTweets(final String accountId, final String promotedTweetId) {
+        return execute(new TwitterAdsCallable<BaseAdsResponse<PromotedTweets>>() {
+            @Override
+            public BaseAdsResponse<PromotedTweets> call(TwitterAds twitterAds) throws TwitterException {
+                return twitterAds.getPromotedTweetApi().deletePromotedTweets(accountId, promotedTweetId);
+            }
+        });
+    }
+
+    @Override
+    public CompletableFuture<BaseAdsResponse<CustomAudience>> getCustomAudienceForId(final String accountId, final String customAudienceId) {
+        return execute(new TwitterAdsCallable<BaseAdsResponse<CustomAudience>>() {
+            @Override
+            public BaseAdsResponse<CustomAudience> call(TwitterAds twitterAds) throws TwitterException {
+                return twitterAds.getCustomAudienceApi().getCustomAudienceForId(accountId, customAudienceId);
+            }
+        });
+    }
+
+    @Override
+    public TwitterAds getTwitterAds() {
+        return twitterAds;
+    }
+
+    @Override
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private static ExecutorService newExecutor(Configuration conf) {
+        return TwitterAdsExecutors.newFixedThreadPool("Twitter4J Ads Async", Math.max(conf.getHttpMaxTotalConnections(),
+                                                                                     conf.getAsyncNumThreads()));
+    }
+
+    private void readObject(ObjectInputStream stream) throws IOException, ClassNotFoundException {
+        stream.defaultReadObject();
+        executor = newExecutor(twitterAds.getTwitterAdsClient().getConfiguration());
+    }
+}
@@ -0,0 +1,14 @@
+package twitter4jads;
+
+import twitter4jads.internal.models4j.TwitterException;
+
+/**
+ * A unit of work against the synchronous {@link TwitterAds} API, e.g.
+ * {@code ads -> ads.getLineItemApi().getLineItemById(accountId, lineItemId, false)}.
+ *
+ * @see TwitterAdsAsync#execute(TwitterAdsCallable)
+ */
+public interface TwitterAdsCallable<R> {
+
+    R call(TwitterAds twitterAds) throws TwitterException;
+}
@@ -1,13 +1,20 @@
 package twitter4jads;
 
-import com.google.common.reflect.TypeToken;
 import com.google.gson.Gson;
 import org.apache.commons.lang3.StringUtils;
 import twitter4jads.auth.Authorization;
 import twitter4jads.auth.OAuthSupport;
 import twitter4jads.conf.Configuration;
+import twitter4jads.internal.async.MediaProcessingWatcher;
+import twitter4jads.internal.async.TwitterAdsExecutors;
+import twitter4jads.internal.http.ExponentialBackoffRetryPolicy;
 import twitter4jads.internal.http.HttpParameter;
 import twitter4jads.internal.http.HttpResponse;
+import twitter4jads.internal.http.HttpResponseEvent;
+import twitter4jads.internal.http.RateLimitScheduler;
+import twitter4jads.internal.http.RequestMethod;
+import twitter4jads.internal.http.RetryPolicy;
+import twitter4jads.internal.models4j.RateLimitStatus;
 import twitter4jads.internal.models4j.TwitterAPIMonitor;
 import twitter4jads.internal.models4j.TwitterException;
 import twitter4jads.internal.models4j.TwitterImpl;
@@ -16,17 +23,25 @@ import twitter4jads.models.TwitterTonUploadResponse;
 import twitter4jads.models.ads.HttpVerb;
 import twitter4jads.models.media.TwitterLibraryMedia;
 import twitter4jads.models.media.TwitterMediaLibraryStatus;
+import twitter4jads.util.TwitterAdHttpUtils;
 import twitter4jads.util.TwitterAdUtil;
+import twitter4jads.util.TwitterAdsGson;
 
 import java.io.IOException;
 import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 import static twitter4jads.TwitterAdsConstants.*;
 import static twitter4jads.models.media.TwitterMediaLibraryStatus.TRANSCODE_FAILED;
 import static twitter4jads.util.TwitterAdUtil.constructBaseAdsResponse;
+import static twitter4jads.util.TwitterAdsGson.responseType;
 
 /**
  * User: abhay
@@ -36,10 +51,15 @@ import static twitter4jads.util.TwitterAdUtil.constructBaseAdsResponse;
 public class TwitterAdsClient extends TwitterImpl implements OAuthSupport {
 
     public static final String ADS_API_URL = "https://ads-api.twitter.com/";
-    public static final Gson GSON_INSTANCE = new Gson();
+    public static final Gson GSON_INSTANCE = TwitterAdsGson.GSON;
+
+    // sub-requests of a split list request sent at the same time
+    private static final int MAX_CONCURRENT_SPLIT_REQUESTS = 4;
 
     private static final Map<String, String> requestHeaders;
 
+    private transient volatile EntityCache entityCache;
+
     static {
         requestHeaders = new HashMap<>();
         requestHeaders.put("X-Twitter-Client-Version", Version.getVersion());
@@ -92,6 +112,51 @@ public class TwitterAdsClient extends TwitterImpl implements OAuthSupport {
         return response;
     }
 
+    /**
+     * Same as {@link #executeHttpListRequest(String, List, Type)} for a request filtered by lists of ids. A list longer
+     * than the API accepts is split: one sub-request is sent per chunk of {@code maxIdsPerRequest} ids (per combination
+     * of chunks when several lists are too long), a few at a time, and the responses are returned as one iterable that
+     * pages through each of them in turn. Entities are returned in the order of the chunks, a sort applies within each
+     * sub-request.
+     *
+     * @param idFilters        ids per parameter name, e.g. {@link TwitterAdsConstants#PARAM_LINE_ITEM_IDS}; empty lists are left out
+     * @param maxIdsPerRequest most ids the endpoint accepts in one parameter
+     */
+    public <T> BaseAdsListResponseIterable<T> executeHttpListRequest(String baseUrl, List<HttpParameter> params, Type type,
+                                                                     Map<String, Collection<String>> idFilters, int maxIdsPerRequest)
+            throws TwitterException {
+        List<List<HttpParameter>> requests = Collections.singletonList(params == null ? new ArrayList<HttpParameter>() : params);
+        for (Map.Entry<String, Collection<String>> filter : idFilters.entrySet()) {
+            if (TwitterAdUtil.isNotEmpty(filter.getValue())) {
+                requests = withIdChunks(requests, filter.getKey(), filter.getValue(), maxIdsPerRequest);
+            }
+        }
+        if (requests.size() == 1) {
+            return executeHttpListRequest(baseUrl, requests.get(0), type);
+        }
+        for (HttpParameter param : requests.get(0)) {
+            if (PARAM_CURSOR.equals(param.getName())) {
+                throw new IllegalArgumentException("A cursor can not be used with more than " + maxIdsPerRequest + " ids.");
+            }
+        }
+        return BaseAdsListResponseIterable.fetchAll(this, baseUrl, requests, type, false, MAX_CONCURRENT_SPLIT_REQUESTS);
+    }
+
+    private static List<List<HttpParameter>> withIdChunks(List<List<HttpParameter>> requests, String name, Collection<String> ids,
+                                                          int maxIdsPerRequest) {
+        // a repeated id would be returned by every chunk holding it
+        List<String> distinctIds = new ArrayList<>(new LinkedHashSet<>(ids));
+        List<List<HttpParameter>> split = new ArrayList<>();
+        for (List<HttpParameter> request : requests) {
+            for (int from = 0; from < distinctIds.size(); from += maxIdsPerRequest) {
+                List<HttpParameter> chunk = new ArrayList<>(request);
+                chunk.add(new HttpParameter(name, TwitterAdUtil.getCsv(distinctIds.subList(from, Math.min(distinctIds.size(), from + maxIdsPerRequest)))));
+                split.add(chunk);
+            }
+        }
+        return split;
+    }
+
     public <T> BaseAdsListResponseIterable<T> constructBaseAdsListResponse(String baseUrl, HttpResponse httpResponse, List<HttpParameter> params,
                                                                            Type type, boolean isCostBasedRateLimit)
             throws TwitterException, IOException {
@@ -99,51 +164,19 @@ public class TwitterAdsClient extends TwitterImpl implements OAuthSupport {
     }
 
     public <T> BaseAdsResponse<T> executeHttpRequest(String baseUrl, HttpParameter[] params, Type type, HttpVerb httpVerb) throws TwitterException {
-        HttpResponse httpResponse;
-        String stringResponse;
-        BaseAdsResponse<T> response = null;
-        //noinspection Duplicates
-        switch (httpVerb) {
-            case GET:
-                try {
-                    httpResponse = get(baseUrl, params);
-                    stringResponse = httpResponse.asString();
-                    response = constructBaseAdsResponse(httpResponse, stringResponse, type);
-                } catch (IOException e) {
-                    throw new TwitterException("Failed to parse response.", e);
-                }
-                break;
-            case PUT:
-                try {
-                    httpResponse = put(baseUrl, params);
-                    stringResponse = httpResponse.asString();
-                    response = constructBaseAdsResponse(httpResponse, stringResponse, type);
-                } catch (IOException e) {
-                    throw new TwitterException("Failed to parse response.", e);
-                }
-                break;
-            case POST:
-                //noinspection Duplicates
-                try {
-                    httpResponse = postRequest(baseUrl, params);
-                    stringResponse = httpResponse.asString();
-                    response = constructBaseAdsResponse(httpResponse, stringResponse, type);
-                } catch (IOException e) {
-                    throw new TwitterException("Failed to parse response.", e);
-                }
-                break;
-            case DELETE:
-                try {
-                    httpResponse = delete(baseUrl, params);
-                    stringResponse = httpResponse.asString();
-                    response = constructBaseAdsResponse(httpResponse, stringResponse, type);
-                } catch (IOException e) {
-                    throw new TwitterException("Failed to parse response.", e);
-                }
-                break;
+        final EntityCache cache = entityCache;
+        if (cache != null && httpVerb == HttpVerb.GET && type != null && cache.isCached(baseUrl)) {
+            return executeCachedGet(cache, baseUrl, params, type);
+        }
+        HttpResponse httpResponse = executeHttpVerb(baseUrl, params, httpVerb);
+        if (httpResponse == null) {
+            return null;
+        }
+        try {
+            return constructBaseAdsResponse(httpResponse, type);
+        } catch (IOException e) {
+            throw new TwitterException("Failed to parse response.", e);
         }
-
-        return response;
     }
 
     public HttpResponse postRequest(String url, String requestBody) throws TwitterException {
@@ -194,91 +227,143 @@ public class TwitterAdsClient extends TwitterImpl implements OAuthSupport {
     }
 
     public <T> T executeRequest(String baseUrl, HttpParameter[] params, Type typeToken, HttpVerb httpVerb) throws TwitterException {
-        HttpResponse httpResponse;
-        String stringResponse;
-        T response = null;
-        switch (httpVerb) {
-            case GET:
-                try {
-                    httpResponse = getRequest(baseUrl, params);
-                    stringResponse = httpResponse.asString();
-                    response = constructHTTPRequestResponse(stringResponse, typeToken);
-                } catch (IOException e) {
-                    throw new TwitterException("Failed to parse response.", e);
-                }
-                break;
-            case PUT:
-                try {
-                    httpResponse = put(baseUrl, params);
-                    stringResponse = httpResponse.asString();
-                    response = constructHTTPRequestResponse(stringResponse, typeToken);
-                } catch (IOException e) {
-                    throw new TwitterException("Failed to parse response.", e);
-                }
-                break;
-            case POST:
-                try {
-                    httpResponse = postRequest(baseUrl, params);
-                    stringResponse = httpResponse.asString();
-                    response = constructHTTPRequestResponse(stringResponse, typeToken);
-                } catch (IOException e) {
-                    throw new TwitterException("Failed to parse response.", e);
-                }
-                break;
-            case DELETE:
-                try {
-                    httpResponse = delete(baseUrl, params);
-                    stringResponse = httpResponse.asString();
-                    response = constructHTTPRequestResponse(stringResponse, typeToken);
-                } catch (IOException e) {
-                    throw new TwitterException("Failed to parse response.", e);
-                }
-                break;
+        HttpResponse httpResponse = executeHttpVerb(baseUrl, params, httpVerb);
+        if (httpResponse == null) {
+            return null;
         }
-        return response;
+        return constructHTTPRequestResponse(httpResponse, typeToken);
     }
 
     //https://twittercommunity.com/t/details-for-media-library-media-status/117756
     public TwitterLibraryMedia waitForMediaProcessing(String accountId, String mediaKey, long maxWaitTime) throws TwitterException {
-        Long totalWaitTime = 0L;
-        String url = getBaseAdsAPIUrl() + PREFIX_ACCOUNTS_URI_5 + accountId + PATH_MEDIA_LIBRARY + SLASH + mediaKey;
-
-        Type type = new TypeToken<BaseAdsResponse<TwitterLibraryMedia>>() {
-        }.getType();
-        while (totalWaitTime < maxWaitTime) {
-            final BaseAdsResponse<TwitterLibraryMedia> response = executeHttpRequest(url, null, type, HttpVerb.GET);
-            final TwitterLibraryMedia media = response.getData();
-            TwitterMediaLibraryStatus status;
-            try {
-                status = TwitterMediaLibraryStatus.valueOf(media.getMediaStatus());
-            } catch (Exception eX) {
-                return null;
-            }
+        return TwitterAdsExecutors.await(waitForMediaProcessingAsync(accountId, mediaKey, maxWaitTime), "media processing");
+    }
+
+    /**
+     * Polls the media library status of the media on the shared {@link MediaProcessingWatcher} instead of the calling thread.
+     *
+     * @return completes with the media once transcoded, with null if the status is unknown or processing takes longer than
+     * maxWaitTime, and exceptionally if transcoding failed
+     */
+    public CompletableFuture<TwitterLibraryMedia> waitForMediaProcessingAsync(String accountId, String mediaKey, long maxWaitTime) {
+        final String url = getBaseAdsAPIUrl() + PREFIX_ACCOUNTS_URI_5 + accountId + PATH_MEDIA_LIBRARY + SLASH + mediaKey;
+        final Type type = responseType(TwitterLibraryMedia.class);
+        return MediaProcessingWatcher.getInstance().watch(url, new MediaProcessingWatcher.StatusCheck<TwitterLibraryMedia>() {
+            @Override
+            public MediaProcessingWatcher.Status<TwitterLibraryMedia> check() throws TwitterException {
+                final BaseAdsResponse<TwitterLibraryMedia> response = executeHttpRequest(url, null, type, HttpVerb.GET);
+                final TwitterLibraryMedia media = response.getData();
+                TwitterMediaLibraryStatus status;
+                try {
+                    status = TwitterMediaLibraryStatus.valueOf(media.getMediaStatus());
+                } catch (Exception eX) {
+                    return MediaProcessingWatcher.Status.done(null);
+                }
 
-            switch (status) {
-                case TRANSCODE_FAILED:
-                    throw new TwitterException("Media processing error. Status: " + TRANSCODE_FAILED.name());
-                case TRANSCODE_COMPLETED:
-                    return media;
-                case TRANSCODE_PENDING:
-                case TRANSCODE_IN_PROGRESS:
-                    TwitterAdUtil.reallySleep(WAIT_INTERVAL);
-                    totalWaitTime += WAIT_INTERVAL;
-                    break;
+                switch (status) {
+                    case TRANSCODE_FAILED:
+                        throw new TwitterException("Media processing error. Status: " + TRANSCODE_FAILED.name());
+                    case TRANSCODE_COMPLETED:
+                        return MediaProcessingWatcher.Status.done(media);
+                    case TRANSCODE_PENDING:
+                    case TRANSCODE_IN_PROGRESS:
+                    default:
+                        return MediaProcessingWatcher.Status.checkAgainAfter(WAIT_INTERVAL);
+                }
             }
-        }
 
-        return null;
+            @Override
+            public TwitterLibraryMedia timedOut() {
+                return null;
+            }
+        }, 0, maxWaitTime);
     }
 
     public Configuration getConf() {
         return super.getConfiguration();
     }
 
+    /**
+     * Replaces the default retries, which back off exponentially from the configured retry interval and never retry a
+     * POST, e.g. with an {@link ExponentialBackoffRetryPolicy} allowing retries of an endpoint known to be idempotent.
+     */
+    public void setRetryPolicy(RetryPolicy retryPolicy) {
+        http.setRetryPolicy(retryPolicy);
+    }
+
+    /**
+     * @return the remaining rate limit budget last reported for each account and endpoint this client has called,
+     * keyed like "GET 18ce54d4x5t /accounts/:id/line_items"
+     */
+    public Map<String, RateLimitStatus> getRateLimitBudget() {
+        final RateLimitScheduler scheduler = http.getRateLimitScheduler();
+        if (scheduler == null) {
+            return Collections.emptyMap();
+        }
+        return scheduler.getRateLimitStatuses();
+    }
+
+    /**
+     * Serves the reads by id of the entity types the cache is configured for from it, and has the create, update and
+     * delete calls of this client invalidate it. Null turns caching off.
+     */
+    public void setEntityCache(EntityCache entityCache) {
+        this.entityCache = entityCache;
+    }
+
+    public EntityCache getEntityCache() {
+        return entityCache;
+    }
+
+    @Override
+    public void httpResponseReceived(HttpResponseEvent event) {
+        super.httpResponseReceived(event);
+        final EntityCache cache = entityCache;
+        final RequestMethod method = event.getRequest().getMethod();
+        if (cache != null && method != RequestMethod.GET && method != RequestMethod.HEAD) {
+            // failed writes too, they may have been applied
+            cache.invalidate(method, event.getRequest().getURL());
+        }
+    }
+
     // ------------------------------------------------------------------- PRIVATE METHODS -------------------------------------------------
 
-    private <T> T constructHTTPRequestResponse(String response, Type typeToken) throws IOException {
-        return GSON_INSTANCE.fromJson(response, typeToken);
+    private <T> BaseAdsResponse<T> executeCachedGet(EntityCache cache, String baseUrl, HttpParameter[] params, Type type) throws TwitterException {
+        BaseAdsResponse<T> cached = cache.get(baseUrl, params, type);
+        if (cached != null) {
+            return cached;
+        }
+        long generation = cache.generation();
+        HttpResponse httpResponse = get(baseUrl, params);
+        String body = httpResponse.asString();
+        BaseAdsResponse<T> response = GSON_INSTANCE.fromJson(body, type);
+        if (response == null) {
+            return null;
+        }
+        RateLimitStatus rateLimitStatus = TwitterAdHttpUtils.createFromResponseHeader(httpResponse);
+        response.setRateLimitStatus(rateLimitStatus);
+        cache.put(baseUrl, params, body, rateLimitStatus, generation);
+        return response;
+    }
+
+
+    private <T> T constructHTTPRequestResponse(HttpResponse response, Type typeToken) throws TwitterException {
+        return response.asObject(GSON_INSTANCE, typeToken);
+    }
+
+    private HttpResponse executeHttpVerb(String baseUrl, HttpParameter[] params, HttpVerb httpVerb) throws TwitterException {
+        switch (httpVerb) {
+            case GET:
+                return get(baseUrl, params);
+            case PUT:
+                return put(baseUrl, params);
+            case POST:
+                return postRequest(baseUrl, params);
+            case DELETE:
+                return delete(baseUrl, params);
+            default:
+                return null;
+        }
     }
 
     public HttpResponse get(String url) throws TwitterException {
@@ -288,15 +373,19 @@ public class TwitterAdsClient extends TwitterImpl implements OAuthSupport {
             return http.get(url, null, auth);
         } else {
             // intercept HTTP call for monitoring purposes
-            HttpResponse response = null;
+            int statusCode = -1;
             long start = System.currentTimeMillis();
             try {
-                response = http.get(url, null, auth);
+                HttpResponse response = http.get(url, null, auth);
+                statusCode = response.getStatusCode();
+                return response;
+            } catch (TwitterException te) {
+                statusCode = te.getStatusCode();
+                throw te;
             } finally {
                 long elapsedTime = System.currentTimeMillis() - start;
-                TwitterAPIMonitor.getInstance().methodCalled(url, elapsedTime, isOk(response));
+                TwitterAPIMonitor.getInstance().methodCalled(RequestMethod.GET, url, elapsedTime, statusCode);
             }
-            return response;
         }
     }
 
@@ -306,15 +395,19 @@ public class TwitterAdsClient extends TwitterImpl implements OAuthSupport {
             return http.get(url, params, auth);
         } else {
             // intercept HTTP call for monitoring purposes
-            HttpResponse response = null;
+            int statusCode = -1;
             long start = System.currentTimeMillis();
             try {
-                response = http.get(url, params, auth);
+                HttpResponse response = http.get(url, params, auth);
+                statusCode = response.getStatusCode();
+                return response;
+            } catch (TwitterException te) {
+                statusCode = te.getStatusCode();
+                throw te;
             } finally {
                 long elapsedTime = System.currentTimeMillis() - start;
-                TwitterAPIMonitor.getInstance().methodCalled(url, elapsedTime, isOk(response));
+                TwitterAPIMonitor.getInstance().methodCalled(RequestMethod.GET, url, elapsedTime, statusCode);
             }
-            return response;
         }
     }
 
@@ -324,37 +417,41 @@ public class TwitterAdsClient extends TwitterImpl implements OAuthSupport {
             return http.post(url, params, auth);
         } else {
             // intercept HTTP call for monitoring purposes
-            HttpResponse response = null;
+            int statusCode = -1;
             long start = System.currentTimeMillis();
             try {
-                response = http.post(url, params, auth);
+                HttpResponse response = http.post(url, params, auth);
+                statusCode = response.getStatusCode();
+                return response;
+            } catch (TwitterException te) {
+                statusCode = te.getStatusCode();
+                throw te;
             } finally {
                 long elapsedTime = System.currentTimeMillis() - start;
-                TwitterAPIMonitor.getInstance().methodCalled(url, elapsedTime, isOk(response));
+                TwitterAPIMonitor.getInstance().methodCalled(RequestMethod.POST, url, elapsedTime, statusCode);
             }
-            return response;
         }
     }
 
-    private boolean isOk(HttpResponse response) {
-        return response != null && response.getStatusCode() < 300;
-    }
-
     protected HttpResponse put(String url, HttpParameter[] params) throws TwitterException {
         ensureAuthorizationEnabled();
         if (!conf.isMBeanEnabled()) {
             return http.put(url, params, auth);
         } else {
             // intercept HTTP call for monitoring purposes
-            HttpResponse response = null;
+            int statusCode = -1;
             long start = System.currentTimeMillis();
             try {
-                response = http.put(url, params, auth);
+                HttpResponse response = http.put(url, params, auth);
+                statusCode = response.getStatusCode();
+                return response;
+            } catch (TwitterException te) {
+                statusCode = te.getStatusCode();
+                throw te;
             } finally {
                 long elapsedTime = System.currentTimeMillis() - start;
-                TwitterAPIMonitor.getInstance().methodCalled(url, elapsedTime, isOk(response));
+                TwitterAPIMonitor.getInstance().methodCalled(RequestMethod.PUT, url, elapsedTime, statusCode);
             }
-            return response;
         }
     }
 
@@ -364,15 +461,19 @@ public class TwitterAdsClient extends TwitterImpl implements OAuthSupport {
             return http.delete(url, null, auth);
         } else {
             // intercept HTTP call for monitoring purposes
-            HttpResponse response = null;
+            int statusCode = -1;
             long start = System.currentTimeMillis();
             try {
-                response = http.delete(url, null, auth);
+                HttpResponse response = http.delete(url, null, auth);
+                statusCode = response.getStatusCode();
+                return response;
+            } catch (TwitterException te) {
+                statusCode = te.getStatusCode();
+                throw te;
             } finally {
                 long elapsedTime = System.currentTimeMillis() - start;
-                TwitterAPIMonitor.getInstance().methodCalled(url, elapsedTime, isOk(response));
+                TwitterAPIMonitor.getInstance().methodCalled(RequestMethod.DELETE, url, elapsedTime, statusCode);
             }
-            return response;
         }
     }
 
@@ -382,15 +483,19 @@ public class TwitterAdsClient extends TwitterImpl implements OAuthSupport {
             return http.delete(url, params, auth);
         } else {
             // intercept HTTP call for monitoring purposes
-            HttpResponse response = null;
+            int statusCode = -1;
             long start = System.currentTimeMillis();
             try {
-                response = http.delete(url, params, auth);
+                HttpResponse response = http.delete(url, params, auth);
+                statusCode = response.getStatusCode();
+                return response;
+            } catch (TwitterException te) {
+                statusCode = te.getStatusCode();
+                throw te;
             } finally {
                 long elapsedTime = System.currentTimeMillis() - start;
-                TwitterAPIMonitor.getInstance().methodCalled(url, elapsedTime, isOk(response));
+                TwitterAPIMonitor.getInstance().methodCalled(RequestMethod.DELETE, url, elapsedTime, statusCode);
             }
-            return response;
         }
     }
 
@@ -400,15 +505,19 @@ public class TwitterAdsClient extends TwitterImpl implements OAuthSupport {
             return http.get(url, params, auth);
         } else {
             // intercept HTTP call for monitoring purposes
-            HttpResponse response = null;
+            int statusCode = -1;
             long start = System.currentTimeMillis();
             try {
-                response = http.get(url, params, auth);
+                HttpResponse response = http.get(url, params, auth);
+                statusCode = response.getStatusCode();
+                return response;
+            } catch (TwitterException te) {
+                statusCode = te.getStatusCode();
+                throw te;
             } finally {
                 long elapsedTime = System.currentTimeMillis() - start;
-                TwitterAPIMonitor.getInstance().methodCalled(url, elapsedTime, isOk(response));
+                TwitterAPIMonitor.getInstance().methodCalled(RequestMethod.GET, url, elapsedTime, statusCode);
             }
-            return response;
         }
     }
 
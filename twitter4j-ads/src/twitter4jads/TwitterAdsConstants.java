@@ -191,6 +191,7 @@ public interface TwitterAdsConstants {
     String PARAM_COMMAND = "command";
     String PARAM_POSTER_IMAGE_ID = "poster_image_media_id";
     String PARAM_MEDIA_ID = "media_id";
+    String PARAM_MEDIA = "media";
     String PARAM_MEDIA_DATA = "media_data";
     String PARAM_MEDIA_TYPE = "media_type";
     String PARAM_MEDIA_CATEGORY = "media_category";
@@ -240,6 +241,7 @@ public interface TwitterAdsConstants {
     Long MAX_IMAGE_SIZE_FOR_TWITTER_IN_BYTES = 5242775L;//5MB
     Long MAX_CHUNK_SIZE_IN_BYTES = (long) 5242880;
     int CHUNK_SIZE_IN_BYTES = 4000000;
+    int MEDIA_UPLOAD_PARALLELISM = 4;
     int SUCCESSFULL_CALL_BEGIN_CODE = 200;
     int SUCCESSFULL_CALL_END_CODE = 299;
     long MAX_WAIT_TIME_TRANSCODING = TimeUnit.MINUTES.toMillis(10);
@@ -251,6 +253,11 @@ public interface TwitterAdsConstants {
     long MAX_WAIT_INTERVAL_FIVE_HUNDRED_MIB = TimeUnit.MINUTES.toMillis(45);
     long SIXTY_FOUR_MB = 64 * 1024 * 1024;
 
+    int MAX_STATS_JOB_ENTITY_IDS = 20;
+    int MAX_STATS_JOB_IDS_PER_REQUEST = 200;
+    int MAX_SYNC_STATS_ENTITY_IDS = 20;
+    long MAX_SYNC_STATS_TIME_SPAN = TimeUnit.DAYS.toMillis(7);
+
     /**
      * for lead generation card stat
      */
@@ -362,6 +369,8 @@ public interface TwitterAdsConstants {
     String PATH_ORGANIC_TWEETS_STATS = "/organic_tweets";
 
     String PATH_REACH_STATS = "/reach/campaigns/";
+    String PATH_AUCTION_INSIGHTS = "/auction_insights";
+    String PATH_BID_GUIDANCE = "/campaigns/bid_guidance";
     String SLASH = "/";
 
     /**
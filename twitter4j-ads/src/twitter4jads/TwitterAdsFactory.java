@@ -133,4 +133,13 @@ public class TwitterAdsFactory {
     public TwitterAds getAdsInstance() {
         return new TwitterAdsImpl(conf, AuthorizationFactory.getInstance(conf));
     }
+
+    /**
+     * Returns an asynchronous ads API instance associated with the configuration bound to this factory.
+     *
+     * @return asynchronous ads API instance
+     */
+    public TwitterAdsAsync getAdsAsyncInstance() {
+        return new TwitterAdsAsyncImpl(conf, AuthorizationFactory.getInstance(conf));
+    }
 }
@@ -37,6 +37,9 @@ import twitter4jads.impl.TwitterCallToActionApiImpl;
 import twitter4jads.impl.TwitterDraftTweetsApiImpl;
 import twitter4jads.impl.TwitterScheduledTweetsApiImpl;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+
 /**
  * User: poly
  * Date: 29/01/14
@@ -45,27 +48,32 @@ import twitter4jads.impl.TwitterScheduledTweetsApiImpl;
 public class TwitterAdsImpl implements TwitterAds {
 
     private final TwitterAdsClient twitterAdsClient;
-    private final TwitterAdsTargetingApi targetingApi;
-    private final TwitterAdsAccountApi accountApi;
-    private final TwitterAdsLineItemApi lineItemApi;
-    private final TwitterAdsCardsApi cardsApi;
-    private final TwitterAdsFundingInstrumentApi fundingInstrumentApi;
-    private final TwitterAdsMediaApi promotedApi;
-    private final TwitterAdsPromotedTweetApi promotedTweetApi;
-    private final TwitterAdsAudienceApi customAudienceApi;
-    private final TwitterAdsStatApi statApi;
-    private final TwitterAdsMediaUploadApi mediaUploadApi;
-    private final TwitterAdsWebEventApi webEventApi;
-    private final TwitterAdsCampaignApi campaignApi;
-    private final TwitterAdsBiddingApi biddingApi;
-    private final TwitterAdsPreviewApi adsPreviewApi;
-    private final TwitterCallToActionApi callToActionApi;
-    private final TwitterScheduledTweetApi scheduledTweetApi;
-
-    private final TwitterDraftTweetApi draftTweetApi;
+    // the apis only hold the client, they are built again from it on deserialization
+    private transient TwitterAdsTargetingApi targetingApi;
+    private transient TwitterAdsAccountApi accountApi;
+    private transient TwitterAdsLineItemApi lineItemApi;
+    private transient TwitterAdsCardsApi cardsApi;
+    private transient TwitterAdsFundingInstrumentApi fundingInstrumentApi;
+    private transient TwitterAdsMediaApi promotedApi;
+    private transient TwitterAdsPromotedTweetApi promotedTweetApi;
+    private transient TwitterAdsAudienceApi customAudienceApi;
+    private transient TwitterAdsStatApi statApi;
+    private transient TwitterAdsMediaUploadApi mediaUploadApi;
+    private transient TwitterAdsWebEventApi webEventApi;
+    private transient TwitterAdsCampaignApi campaignApi;
+    private transient TwitterAdsBiddingApi biddingApi;
+    private transient TwitterAdsPreviewApi adsPreviewApi;
+    private transient TwitterCallToActionApi callToActionApi;
+    private transient TwitterScheduledTweetApi scheduledTweetApi;
+
+    private transient TwitterDraftTweetApi draftTweetApi;
 
     TwitterAdsImpl(Configuration conf, Authorization auth) {
         this.twitterAdsClient = new TwitterAdsClient(conf, auth);
+        createApis();
+    }
+
+    private void createApis() {
         this.targetingApi = new TwitterAdsTargetingApiImpl(twitterAdsClient);
         this.accountApi = new TwitterAdsAccountApiImpl(twitterAdsClient);
         this.lineItemApi = new TwitterAdsLineItemApiImpl(twitterAdsClient);
@@ -85,6 +93,11 @@ public class TwitterAdsImpl implements TwitterAds {
         this.draftTweetApi = new TwitterDraftTweetsApiImpl(twitterAdsClient);
     }
 
+    private void readObject(ObjectInputStream stream) throws IOException, ClassNotFoundException {
+        stream.defaultReadObject();
+        createApis();
+    }
+
     @Override
     public TwitterAdsClient getTwitterAdsClient() {
         return twitterAdsClient;
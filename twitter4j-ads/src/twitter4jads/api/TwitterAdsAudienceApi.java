@@ -7,11 +7,16 @@ import twitter4jads.BaseAdsListResponseIterable;
 import twitter4jads.BaseAdsResponse;
 import twitter4jads.internal.models4j.TwitterException;
 import twitter4jads.models.ads.CustomAudience;
+import twitter4jads.models.ads.audience.CustomAudienceBatchResult;
 import twitter4jads.models.ads.audience.CustomAudienceMatchingRules;
 import twitter4jads.models.ads.audience.CustomAudienceOperation;
+import twitter4jads.models.ads.audience.CustomAudienceOperationType;
 import twitter4jads.models.ads.audience.CustomAudiencePermission;
+import twitter4jads.models.ads.audience.CustomAudienceUserDetails;
 
+import java.util.Iterator;
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * User: abhay
@@ -93,6 +98,33 @@ public interface TwitterAdsAudienceApi {
                                                                List<CustomAudienceOperation> operations)
             throws TwitterException;
 
+    /**
+     * Streams users into a custom audience without holding them all in memory. Batches of
+     * {@link twitter4jads.TwitterAdsConstants#CUSTOM_AUDIENCE_UPDATE_BATCH_SIZE} users are built while {@code users} is read and up
+     * to {@code parallelism} batches are sent at the same time. A batch failing on a network error, a server error or a rate
+     * limit is sent again on its own with exponential backoff, since sending a batch twice adds or removes the same users.
+     * Users rejected by the API are reported, not retried. Unlike {@link #updateCustomAudienceById(String, String, List)} the
+     * upload does not stop at the first failed batch.
+     *
+     * @param accountId        The identifier for the leveraged account.
+     * @param customAudienceId The identifier for a specific tailored audience.
+     * @param operationType    Whether the users are added or removed.
+     * @param effectiveFrom    (optional) Start of the membership of the users.
+     * @param expireAt         (optional) End of the membership of the users.
+     * @param users            Users to upload, identifiers hex encoded SHA-256 hashes. Users repeated within a batch are sent once,
+     *                         users without identifiers or with any other identifier are not sent but reported in
+     *                         {@link CustomAudienceBatchResult#getRejectedUsers()}. An exception thrown by the iterator stops
+     *                         the upload and is thrown to the caller once the batches in flight are done.
+     * @param parallelism      Number of batches in flight.
+     * @param listener         Receives the result of every batch, never concurrently. An exception it throws stops the
+     *                         upload and is thrown to the caller once the batches in flight are done.
+     * @return number of batches that did not succeed completely
+     * @throws TwitterException if interrupted
+     */
+    int uploadCustomAudienceUsers(String accountId, String customAudienceId, CustomAudienceOperationType operationType, String effectiveFrom,
+                                  String expireAt, Iterator<CustomAudienceUserDetails> users, int parallelism,
+                                  Consumer<CustomAudienceBatchResult> listener) throws TwitterException;
+
     /**
      * @param accountId
      * @param requestBody
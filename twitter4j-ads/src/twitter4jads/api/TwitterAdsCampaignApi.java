@@ -20,9 +20,10 @@ public interface TwitterAdsCampaignApi {
 
     /**
      * @param accountId            The identifier for the leveraged account.
-     * @param campaignIds          (optional) Scope the response to just the desired campaigns by specifying a comma-separated list of identifiers. Up to 50 ids may be provided.
+     * @param campaignIds          (optional) Scope the response to just the desired campaigns by specifying a comma-separated list of identifiers.
+     *                             More ids than one request accepts are fetched with several requests.
      * @param fundingInstrumentIds (optional) Scope the response to just the desired funding instruments by specifying a comma-separated list of identifiers.
-     *                             Up to 50 ids may be provided.
+     *                             More ids than one request accepts are fetched with several requests.
      * @param withDeleted          Include deleted results in your request. Defaults to false.
      * @param count                (optional) Specifies the number of campaigns to try and retrieve, up to a maximum of 1000 per distinct request.
      * @param cursor               (optional) Specify a cursor to retrieve data from a specific page (function automatically handles paging upon iteration when you do not specify cursor value).
@@ -19,7 +19,7 @@ public interface TwitterAdsFundingInstrumentApi {
     /**
      * @param accountId            The identifier for the leveraged account.
      * @param withDeleted          Include deleted results in your request. Defaults to false.
-     * @param fundingInstrumentIds (optional) Scope the response to just the desired funding instruments by specifying a Collection of identifiers. Up to 50 ids may be provided.
+     * @param fundingInstrumentIds (optional) Scope the response to just the desired funding instruments by specifying a Collection of identifiers. More ids than one request accepts are fetched with several requests.
      * @param sortByField          (optional) Sorts by supported attribute in ascending or descending order.
      * @return Retrieve some or all funding instruments associated with the account.
      * @throws TwitterException
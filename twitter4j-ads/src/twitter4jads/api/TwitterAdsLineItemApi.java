@@ -30,9 +30,9 @@ public interface TwitterAdsLineItemApi {
 
     /**
      * @param accountId            The identifier for the leveraged account.
-     * @param campaignIds          (optional) Scope the response to just the desired campaigns by specifying a Collection of identifiers. Up to 50 ids may be provided.
-     * @param lineItemIds          (optional) Scope the response to just the desired line items by specifying a Collection of identifiers. Up to 50 ids may be provided.
-     * @param fundingInstrumentIds (optional) Scope the response to just the desired funding instruments by specifying a Collection of identifiers. Up to 50 ids may be provided.
+     * @param campaignIds          (optional) Scope the response to just the desired campaigns by specifying a Collection of identifiers. More ids than one request accepts are fetched with several requests.
+     * @param lineItemIds          (optional) Scope the response to just the desired line items by specifying a Collection of identifiers. More ids than one request accepts are fetched with several requests.
+     * @param fundingInstrumentIds (optional) Scope the response to just the desired funding instruments by specifying a Collection of identifiers. More ids than one request accepts are fetched with several requests.
      * @param count                (optional) Specifies the number of campaigns to try and retrieve, up to a maximum of 1000 per distinct request.
      * @param cursor               (optional) Specify a cursor to retrieve data from a specific page (function automatically handles paging upon iteration when you do not specify cursor value).
      * @param sortByField          (optional) Specify to return the line items according to the sorted parameter given.
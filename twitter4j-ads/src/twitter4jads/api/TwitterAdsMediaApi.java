@@ -8,6 +8,8 @@ import twitter4jads.models.media.TwitterAccountMediaCreative;
 import twitter4jads.models.media.TwitterLibraryMedia;
 import twitter4jads.models.media.TwitterMediaLibraryType;
 
+import java.util.concurrent.CompletableFuture;
+
 /**
  * User: abhishekanand
  * Date: 16/05/16 12:25 PM.
@@ -55,5 +57,10 @@ public interface TwitterAdsMediaApi {
 
     TwitterLibraryMedia waitForProcessingAndGetMedia(String accountId, String mediaKey) throws TwitterException;
 
+    /**
+     * Same as {@link #waitForProcessingAndGetMedia(String, String)}, without blocking a thread while the media is processed.
+     */
+    CompletableFuture<TwitterLibraryMedia> waitForProcessingAndGetMediaAsync(String accountId, String mediaKey);
+
     BaseAdsResponse<TwitterLibraryMedia> deleteLibraryMediaByKey(String accoundId, String mediaKey) throws TwitterException;
 }
@@ -1,6 +1,7 @@
 package twitter4jads.api;
 
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 import twitter4jads.internal.models4j.TwitterException;
 import twitter4jads.models.media.TwitterMediaType;
@@ -16,4 +17,14 @@ public interface TwitterAdsMediaUploadApi {
             String name)
             throws TwitterException;
 
+    /**
+     * Uploads the media on the calling thread, but does not wait for Twitter to process it.
+     *
+     * @return completes with the media key once the media has been processed, exceptionally if processing failed
+     * @throws TwitterException if the upload itself failed
+     */
+    CompletableFuture<String> uploadMediaAndGetMediaKeyAsync(String mediaUrl, Set<String> accountUserIds,
+            TwitterMediaType twitterMediaType, String name)
+            throws TwitterException;
+
 }
@@ -4,6 +4,7 @@ import com.google.common.base.Optional;
 import twitter4jads.BaseAdsListResponse;
 import twitter4jads.BaseAdsListResponseIterable;
 import twitter4jads.BaseAdsResponse;
+import twitter4jads.StatsJobDataIterator;
 import twitter4jads.internal.models4j.TwitterException;
 import twitter4jads.models.Granularity;
 import twitter4jads.models.TwitterSegmentationType;
@@ -35,6 +36,16 @@ public interface TwitterAdsStatApi {
                                                                         long startTime, long endTime, boolean withDeleted, Granularity granularity,
                                                                         Placement placement) throws TwitterException;
 
+    /**
+     * Same as {@link #fetchStatsSync(String, TwitterEntityType, Collection, long, long, boolean, Granularity, Placement)}, but the
+     * metrics are parsed into primitive columns ({@link CompactTwitterAdStatistics}) which need a fraction of the heap when
+     * ingesting stats for many entities.
+     */
+    BaseAdsListResponseIterable<CompactTwitterEntityStatistics> fetchCompactStatsSync(String accountId, TwitterEntityType twitterEntity,
+                                                                                      Collection<String> ids, long startTime, long endTime,
+                                                                                      boolean withDeleted, Granularity granularity,
+                                                                                      Placement placement) throws TwitterException;
+
     BaseAdsListResponseIterable<TwitterAuctionInsights> fetchAuctionInsights(String accountId, Collection<String> lineItemIds, long startTime,
                                                                              long endTime, Granularity granularity, Placement placement)
         throws TwitterException;
@@ -74,6 +85,21 @@ public interface TwitterAdsStatApi {
      */
     BaseAdsListResponse<TwitterEntityStatistics> fetchJobDataAsync(String dataUrl) throws TwitterException;
 
+    /**
+     * Reads the output of a finished async job one entity at a time instead of loading the whole file. The iterator must be
+     * closed if it is abandoned before the end.
+     *
+     * @param dataUrl   The path given as output via a completed async job.
+     * @return iterator over the analytics data of the job
+     * @throws TwitterException if the output could not be downloaded
+     */
+    StatsJobDataIterator<TwitterEntityStatistics> streamJobDataAsync(String dataUrl) throws TwitterException;
+
+    /**
+     * Same as {@link #streamJobDataAsync(String)}, with the metrics parsed into {@link CompactTwitterAdStatistics}.
+     */
+    StatsJobDataIterator<CompactTwitterEntityStatistics> streamCompactJobDataAsync(String dataUrl) throws TwitterException;
+
 
     /**
      * @param accountId         The identifier for the leveraged account.
@@ -18,20 +18,12 @@ package twitter4jads.auth;
 
 import twitter4jads.internal.models4j.TwitterException;
 import twitter4jads.conf.Configuration;
-import twitter4jads.internal.http.BASE64Encoder;
 import twitter4jads.internal.http.HttpClientWrapper;
 import twitter4jads.internal.http.HttpParameter;
 import twitter4jads.internal.http.HttpRequest;
-import twitter4jads.internal.logging.Logger;
-import twitter4jads.internal.util.z_T4JInternalStringUtil;
-
-import javax.crypto.Mac;
-import javax.crypto.spec.SecretKeySpec;
-import java.io.UnsupportedEncodingException;
-import java.net.URLDecoder;
-import java.security.InvalidKeyException;
-import java.security.NoSuchAlgorithmException;
+
 import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * @author Yusuke Yamamoto - yusuke at mac.com
@@ -41,9 +33,6 @@ public class OAuthAuthorization implements Authorization, java.io.Serializable,
     private final Configuration conf;
     private transient static HttpClientWrapper http;
 
-    private static final String HMAC_SHA1 = "HmacSHA1";
-    private static final HttpParameter OAUTH_SIGNATURE_METHOD = new HttpParameter("oauth_signature_method", "HMAC-SHA1");
-    private static final Logger logger = Logger.getLogger(OAuthAuthorization.class);
     private static final long serialVersionUID = -4368426677157998618L;
     private String consumerKey = "";
     private String consumerSecret;
@@ -52,6 +41,8 @@ public class OAuthAuthorization implements Authorization, java.io.Serializable,
 
     private OAuthToken oauthToken = null;
 
+    private transient volatile OAuthSigner signer;
+
     // constructors
 
     /**
@@ -208,106 +199,39 @@ public class OAuthAuthorization implements Authorization, java.io.Serializable,
 
 
     /*package*/ String generateAuthorizationHeader(String method, String url, HttpParameter[] params, String nonce, String timestamp, OAuthToken otoken) {
-        if (null == params) {
-            params = new HttpParameter[0];
-        }
-        List<HttpParameter> oauthHeaderParams = new ArrayList<HttpParameter>(5);
-        oauthHeaderParams.add(new HttpParameter("oauth_consumer_key", consumerKey));
-        oauthHeaderParams.add(OAUTH_SIGNATURE_METHOD);
-        oauthHeaderParams.add(new HttpParameter("oauth_timestamp", timestamp));
-        oauthHeaderParams.add(new HttpParameter("oauth_nonce", nonce));
-        oauthHeaderParams.add(new HttpParameter("oauth_version", "1.0"));
-        if (otoken != null) {
-            oauthHeaderParams.add(new HttpParameter("oauth_token", otoken.getToken()));
-        }
-        List<HttpParameter> signatureBaseParams = new ArrayList<HttpParameter>(oauthHeaderParams.size() + params.length);
-        signatureBaseParams.addAll(oauthHeaderParams);
-        if (!HttpParameter.containsFile(params)) {
-            signatureBaseParams.addAll(toParamList(params));
-        }
-        parseGetParameters(url, signatureBaseParams);
-        StringBuilder base = new StringBuilder(method).append("&")
-                .append(HttpParameter.encode(constructRequestURL(url))).append("&");
-        base.append(HttpParameter.encode(normalizeRequestParameters(signatureBaseParams)));
-        String oauthBaseString = base.toString();
-        logger.debug("OAuth base string: ", oauthBaseString);
-        String signature = generateSignature(oauthBaseString, otoken);
-        logger.debug("OAuth signature: ", signature);
-
-        oauthHeaderParams.add(new HttpParameter("oauth_signature", signature));
-
-        // http://oauth.net/core/1.0/#rfc.section.9.1.1
-        if (realm != null) {
-            oauthHeaderParams.add(new HttpParameter("realm", realm));
-        }
-        return "OAuth " + encodeParameters(oauthHeaderParams, ",", true);
-    }
-
-    private void parseGetParameters(String url, List<HttpParameter> signatureBaseParams) {
-        int queryStart = url.indexOf("?");
-        if (-1 != queryStart) {
-            String[] queryStrs = z_T4JInternalStringUtil.split(url.substring(queryStart + 1), "&");
-            try {
-                for (String query : queryStrs) {
-                    String[] split = z_T4JInternalStringUtil.split(query, "=");
-                    if (split.length == 2) {
-                        signatureBaseParams.add(
-                                new HttpParameter(URLDecoder.decode(split[0],
-                                        "UTF-8"), URLDecoder.decode(split[1],
-                                        "UTF-8")));
-                    } else {
-                        signatureBaseParams.add(
-                                new HttpParameter(URLDecoder.decode(split[0],
-                                        "UTF-8"), ""));
-                    }
-                }
-            } catch (UnsupportedEncodingException ignore) {
-            }
+        return getSigner(otoken).authorizationHeader(method, url, params, nonce, timestamp, realm);
+    }
 
+    /**
+     * @return the signer for the consumer and token, created again only when either changed since the last request
+     */
+    private OAuthSigner getSigner(OAuthToken token) {
+        OAuthSigner signer = this.signer;
+        if (signer == null || !signer.isFor(consumerKey, consumerSecret, token)) {
+            signer = new OAuthSigner(consumerKey, consumerSecret, token);
+            this.signer = signer;
         }
-
+        return signer;
     }
 
-    private static Random RAND = new Random();
-
     /**
      * @return generated authorization header
      * @see <a href="http://oauth.net/core/1.0a/#rfc.section.5.4.1">OAuth Core - 5.4.1.  Authorization Header</a>
      */
     /*package*/ String generateAuthorizationHeader(String method, String url, HttpParameter[] params, OAuthToken token) {
         long timestamp = System.currentTimeMillis() / 1000;
-        long nonce = timestamp + RAND.nextInt();
-        return generateAuthorizationHeader(method, url, params, String.valueOf(nonce), String.valueOf(timestamp), token);
+        return generateAuthorizationHeader(method, url, params, generateNonce(timestamp), String.valueOf(timestamp), token);
+    }
+
+    private static String generateNonce(long timestamp) {
+        return String.valueOf(timestamp + ThreadLocalRandom.current().nextInt());
     }
 
     public List<HttpParameter> generateOAuthSignatureHttpParams(String method, String url) {
         long timestamp = System.currentTimeMillis() / 1000;
-        long nonce = timestamp + RAND.nextInt();
-
-        List<HttpParameter> oauthHeaderParams = new ArrayList<HttpParameter>(5);
-        oauthHeaderParams.add(new HttpParameter("oauth_consumer_key", consumerKey));
-        oauthHeaderParams.add(OAUTH_SIGNATURE_METHOD);
-        oauthHeaderParams.add(new HttpParameter("oauth_timestamp", timestamp));
-        oauthHeaderParams.add(new HttpParameter("oauth_nonce", nonce));
-        oauthHeaderParams.add(new HttpParameter("oauth_version", "1.0"));
-        if (oauthToken != null) {
-            oauthHeaderParams.add(new HttpParameter("oauth_token", oauthToken.getToken()));
-        }
-
-        List<HttpParameter> signatureBaseParams = new ArrayList<HttpParameter>(oauthHeaderParams.size());
-        signatureBaseParams.addAll(oauthHeaderParams);
-        parseGetParameters(url, signatureBaseParams);
-
-        StringBuilder base = new StringBuilder(method).append("&")
-                .append(HttpParameter.encode(constructRequestURL(url))).append("&");
-        base.append(HttpParameter.encode(normalizeRequestParameters(signatureBaseParams)));
-
-        String oauthBaseString = base.toString();
-        String signature = generateSignature(oauthBaseString, oauthToken);
-
-        oauthHeaderParams.add(new HttpParameter("oauth_signature", signature));
-
-        return oauthHeaderParams;
+        HttpParameter[] oauthParams = getSigner(oauthToken).signedOAuthParameters(method, url, null, generateNonce(timestamp),
+                                                                                  String.valueOf(timestamp));
+        return toParamList(oauthParams);
     }
 
     /**
@@ -319,31 +243,7 @@ public class OAuthAuthorization implements Authorization, java.io.Serializable,
      * @see <a href="http://oauth.net/core/1.0a/#rfc.section.9.2.1">OAuth Core - 9.2.1.  Generating Signature</a>
      */
     /*package*/ String generateSignature(String data, OAuthToken token) {
-        byte[] byteHMAC = null;
-        try {
-            Mac mac = Mac.getInstance(HMAC_SHA1);
-            SecretKeySpec spec;
-            if (null == token) {
-                String oauthSignature = HttpParameter.encode(consumerSecret) + "&";
-                spec = new SecretKeySpec(oauthSignature.getBytes(), HMAC_SHA1);
-            } else {
-                spec = token.getSecretKeySpec();
-                if (null == spec) {
-                    String oauthSignature = HttpParameter.encode(consumerSecret) + "&" + HttpParameter.encode(token.getTokenSecret());
-                    spec = new SecretKeySpec(oauthSignature.getBytes(), HMAC_SHA1);
-                    token.setSecretKeySpec(spec);
-                }
-            }
-            mac.init(spec);
-            byteHMAC = mac.doFinal(data.getBytes());
-        } catch (InvalidKeyException ike) {
-            logger.error("Failed initialize \"Message Authentication Code\" (MAC)", ike);
-            throw new AssertionError(ike);
-        } catch (NoSuchAlgorithmException nsae) {
-            logger.error("Failed to get HmacSHA1 \"Message Authentication Code\" (MAC)", nsae);
-            throw new AssertionError(nsae);
-        }
-        return BASE64Encoder.encode(byteHMAC);
+        return getSigner(token).sign(data);
     }
 
     /*package*/
@@ -0,0 +1,288 @@
+package twitter4jads.auth;
+
+import twitter4jads.internal.http.BASE64Encoder;
+import twitter4jads.internal.http.HttpParameter;
+import twitter4jads.internal.logging.Logger;
+import twitter4jads.internal.util.z_T4JInternalStringUtil;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.UnsupportedEncodingException;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.security.InvalidKeyException;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * HMAC-SHA1 signer for one consumer and token.
+ * <p/>
+ * Everything that does not change between requests is prepared once: the oauth parameters of the consumer and token,
+ * the signing key and, per thread, an initialized {@link Mac}. The signature base string and the header are built in a
+ * per thread buffer, encoding every parameter straight into it.
+ *
+ * @see <a href="http://oauth.net/core/1.0a/#signing_process">OAuth Core 1.0a - 9. Signing Requests</a>
+ */
+final class OAuthSigner {
+    private static final Logger logger = Logger.getLogger(OAuthSigner.class);
+
+    private static final String HMAC_SHA1 = "HmacSHA1";
+    private static final HttpParameter OAUTH_SIGNATURE_METHOD = new HttpParameter("oauth_signature_method", "HMAC-SHA1");
+    private static final HttpParameter OAUTH_VERSION = new HttpParameter("oauth_version", "1.0");
+    // buffers grown past this by a huge request are not kept for the next one
+    private static final int MAX_RETAINED_BUFFER_SIZE = 64 * 1024;
+
+    private static final ThreadLocal<StringBuilder> BUFFER = new ThreadLocal<StringBuilder>() {
+        @Override
+        protected StringBuilder initialValue() {
+            return new StringBuilder(1024);
+        }
+    };
+    private static final ThreadLocal<byte[]> BYTES = new ThreadLocal<byte[]>() {
+        @Override
+        protected byte[] initialValue() {
+            return new byte[1024];
+        }
+    };
+
+    private final String consumerKey;
+    private final String consumerSecret;
+    private final String token;
+    private final String tokenSecret;
+    private final HttpParameter oauthConsumerKey;
+    private final HttpParameter oauthToken;
+    private final SecretKeySpec keySpec;
+    private final ThreadLocal<Mac> mac = new ThreadLocal<Mac>() {
+        @Override
+        protected Mac initialValue() {
+            try {
+                Mac mac = Mac.getInstance(HMAC_SHA1);
+                mac.init(keySpec);
+                return mac;
+            } catch (InvalidKeyException ike) {
+                logger.error("Failed initialize \"Message Authentication Code\" (MAC)", ike);
+                throw new AssertionError(ike);
+            } catch (NoSuchAlgorithmException nsae) {
+                logger.error("Failed to get HmacSHA1 \"Message Authentication Code\" (MAC)", nsae);
+                throw new AssertionError(nsae);
+            }
+        }
+    };
+
+    /**
+     * @param token null to sign with the consumer secret only, e.g. for a request token
+     */
+    OAuthSigner(String consumerKey, String consumerSecret, OAuthToken token) {
+        this.consumerKey = consumerKey;
+        this.consumerSecret = consumerSecret;
+        this.token = token == null ? null : token.getToken();
+        this.tokenSecret = token == null ? null : token.getTokenSecret();
+        this.oauthConsumerKey = new HttpParameter("oauth_consumer_key", consumerKey);
+        this.oauthToken = token == null ? null : new HttpParameter("oauth_token", this.token);
+
+        StringBuilder key = new StringBuilder();
+        HttpParameter.encode(consumerSecret, key);
+        key.append('&');
+        if (token != null) {
+            HttpParameter.encode(tokenSecret, key);
+        }
+        this.keySpec = new SecretKeySpec(key.toString().getBytes(StandardCharsets.UTF_8), HMAC_SHA1);
+    }
+
+    /**
+     * @return whether this signer signs for the consumer and token
+     */
+    boolean isFor(String consumerKey, String consumerSecret, OAuthToken token) {
+        if (!this.consumerKey.equals(consumerKey) || !this.consumerSecret.equals(consumerSecret)) {
+            return false;
+        }
+        if (token == null) {
+            return this.token == null;
+        }
+        return Objects.equals(this.token, token.getToken()) && Objects.equals(this.tokenSecret, token.getTokenSecret());
+    }
+
+    /**
+     * @return the oauth parameters of the request in header order, oauth_signature last
+     */
+    HttpParameter[] signedOAuthParameters(String method, String url, HttpParameter[] params, String nonce, String timestamp) {
+        HttpParameter[] oauthParams = oauthParameters(nonce, timestamp, 1);
+        oauthParams[oauthParams.length - 1] = new HttpParameter("oauth_signature", sign(method, url, params, oauthParams));
+        return oauthParams;
+    }
+
+    /**
+     * @return value of the Authorization header
+     * @see <a href="http://oauth.net/core/1.0a/#rfc.section.5.4.1">OAuth Core - 5.4.1.  Authorization Header</a>
+     */
+    String authorizationHeader(String method, String url, HttpParameter[] params, String nonce, String timestamp, String realm) {
+        HttpParameter[] oauthParams = oauthParameters(nonce, timestamp, 0);
+        String signature = sign(method, url, params, oauthParams);
+
+        StringBuilder header = buffer();
+        header.append("OAuth ");
+        for (HttpParameter param : oauthParams) {
+            appendHeaderParameter(header, param.getName(), param.getValue());
+            header.append(',');
+        }
+        appendHeaderParameter(header, "oauth_signature", signature);
+        // http://oauth.net/core/1.0/#rfc.section.9.1.1
+        if (realm != null) {
+            header.append(',');
+            appendHeaderParameter(header, "realm", realm);
+        }
+        return release(header);
+    }
+
+    /**
+     * Computes RFC 2104-compliant HMAC signature.
+     *
+     * @see <a href="http://oauth.net/core/1.0a/#rfc.section.9.2.1">OAuth Core - 9.2.1.  Generating Signature</a>
+     */
+    String sign(CharSequence data) {
+        int length = data.length();
+        byte[] bytes = BYTES.get();
+        boolean ascii = true;
+        if (bytes.length < length) {
+            bytes = new byte[Math.max(length, bytes.length * 2)];
+            if (bytes.length <= MAX_RETAINED_BUFFER_SIZE) {
+                BYTES.set(bytes);
+            }
+        }
+        for (int i = 0; i < length && ascii; i++) {
+            char c = data.charAt(i);
+            bytes[i] = (byte) c;
+            ascii = c < 0x80;
+        }
+        Mac mac = this.mac.get();
+        if (ascii) {
+            mac.update(bytes, 0, length);
+        } else {
+            // never for a base string built here, everything in it is percent-encoded
+            mac.update(data.toString().getBytes(StandardCharsets.UTF_8));
+        }
+        return BASE64Encoder.encode(mac.doFinal());
+    }
+
+    private HttpParameter[] oauthParameters(String nonce, String timestamp, int extraSlots) {
+        HttpParameter[] oauthParams = new HttpParameter[(oauthToken == null ? 5 : 6) + extraSlots];
+        oauthParams[0] = oauthConsumerKey;
+        oauthParams[1] = OAUTH_SIGNATURE_METHOD;
+        oauthParams[2] = new HttpParameter("oauth_timestamp", timestamp);
+        oauthParams[3] = new HttpParameter("oauth_nonce", nonce);
+        oauthParams[4] = OAUTH_VERSION;
+        if (oauthToken != null) {
+            oauthParams[5] = oauthToken;
+        }
+        return oauthParams;
+    }
+
+    private String sign(String method, String url, HttpParameter[] params, HttpParameter[] oauthParams) {
+        HttpParameter[] signatureBaseParams = collectSignatureBaseParameters(url, params, oauthParams);
+        // The parameters are sorted by name, then by value, and each pair is encoded twice: once to normalize it and
+        // once more as part of the base string.
+        // http://oauth.net/core/1.0#rfc.section.9.1.1
+        Arrays.sort(signatureBaseParams);
+
+        StringBuilder base = buffer();
+        base.append(method).append('&');
+        HttpParameter.encode(OAuthAuthorization.constructRequestURL(url), base);
+        base.append('&');
+        for (int i = 0; i < signatureBaseParams.length; i++) {
+            if (i != 0) {
+                base.append("%26");
+            }
+            HttpParameter.encodeTwice(signatureBaseParams[i].getName(), base);
+            base.append("%3D");
+            HttpParameter.encodeTwice(signatureBaseParams[i].getValue(), base);
+        }
+        if (logger.isDebugEnabled()) {
+            logger.debug("OAuth base string: ", base.toString());
+        }
+        String signature = sign(base);
+        release(base);
+        logger.debug("OAuth signature: ", signature);
+        return signature;
+    }
+
+    private static HttpParameter[] collectSignatureBaseParameters(String url, HttpParameter[] params, HttpParameter[] oauthParams) {
+        int oauthCount = 0;
+        while (oauthCount < oauthParams.length && oauthParams[oauthCount] != null) {
+            oauthCount++;
+        }
+        boolean signParams = params != null && !HttpParameter.containsFile(params);
+        int paramCount = signParams ? params.length : 0;
+        int queryStart = url.indexOf('?');
+        int queryCount = 0;
+        if (queryStart != -1) {
+            queryCount = 1;
+            for (int i = url.indexOf('&', queryStart); i != -1; i = url.indexOf('&', i + 1)) {
+                queryCount++;
+            }
+            if (url.length() > queryStart + 1 && url.endsWith("&")) {
+                queryCount--;
+            }
+        }
+
+        HttpParameter[] collected = new HttpParameter[oauthCount + paramCount + queryCount];
+        System.arraycopy(oauthParams, 0, collected, 0, oauthCount);
+        if (signParams) {
+            System.arraycopy(params, 0, collected, oauthCount, paramCount);
+        }
+        int index = oauthCount + paramCount;
+        if (queryStart != -1) {
+            // HTTP GET parameters added to the URL
+            int start = queryStart + 1;
+            while (index < collected.length) {
+                int end = url.indexOf('&', start);
+                if (end == -1) {
+                    end = url.length();
+                }
+                String query = url.substring(start, end);
+                int separator = query.indexOf('=');
+                if (separator != -1 && query.indexOf('=', separator + 1) == -1) {
+                    collected[index++] = new HttpParameter(decode(query.substring(0, separator)), decode(query.substring(separator + 1)));
+                } else {
+                    // same as splitting at every '=' and keeping a value only for exactly two parts
+                    String[] split = z_T4JInternalStringUtil.split(query, "=");
+                    collected[index++] = new HttpParameter(decode(split[0]), split.length == 2 ? decode(split[1]) : "");
+                }
+                start = end + 1;
+            }
+        }
+        return collected;
+    }
+
+    private static String decode(String value) {
+        if (value.indexOf('%') == -1 && value.indexOf('+') == -1) {
+            return value;
+        }
+        try {
+            return URLDecoder.decode(value, "UTF-8");
+        } catch (UnsupportedEncodingException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    private static void appendHeaderParameter(StringBuilder header, String name, String value) {
+        HttpParameter.encode(name, header);
+        header.append("=\"");
+        HttpParameter.encode(value, header);
+        header.append('"');
+    }
+
+    private static StringBuilder buffer() {
+        StringBuilder buffer = BUFFER.get();
+        buffer.setLength(0);
+        return buffer;
+    }
+
+    private static String release(StringBuilder buffer) {
+        String value = buffer.toString();
+        if (buffer.capacity() > MAX_RETAINED_BUFFER_SIZE) {
+            BUFFER.set(new StringBuilder(1024));
+        }
+        return value;
+    }
+}
@@ -0,0 +1,225 @@
+package twitter4jads.helpers;
+
+import com.google.common.base.Optional;
+import com.google.common.collect.Lists;
+import twitter4jads.BaseAdsListResponse;
+import twitter4jads.BaseAdsResponse;
+import twitter4jads.StatsJobDataIterator;
+import twitter4jads.api.TwitterAdsStatApi;
+import twitter4jads.internal.async.TwitterAdsExecutors;
+import twitter4jads.internal.logging.Logger;
+import twitter4jads.internal.models4j.TwitterException;
+import twitter4jads.models.Granularity;
+import twitter4jads.models.TwitterSegmentationType;
+import twitter4jads.models.ads.JobDetails;
+import twitter4jads.models.ads.Placement;
+import twitter4jads.models.ads.TwitterAsyncQueryStatus;
+import twitter4jads.models.ads.TwitterEntityStatistics;
+import twitter4jads.models.ads.TwitterEntityType;
+import twitter4jads.models.ads.TwitterRuntimeException;
+import twitter4jads.util.TwitterAdUtil;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static twitter4jads.TwitterAdsConstants.MAX_STATS_JOB_ENTITY_IDS;
+import static twitter4jads.TwitterAdsConstants.MAX_STATS_JOB_IDS_PER_REQUEST;
+
+/**
+ * Runs the whole async analytics flow: create job, poll, download.
+ * <p/>
+ * The entity ids are split into chunks the API accepts and one job per chunk is created concurrently. All outstanding
+ * jobs of a run are then polled together, one {@link TwitterAdsStatApi#getJobExecutionDetails} call per
+ * {@link twitter4jads.TwitterAdsConstants#MAX_STATS_JOB_IDS_PER_REQUEST} jobs. The poll interval starts at the initial interval,
+ * doubles up to the max interval while nothing finishes, and drops back once a job completes. Finished jobs are downloaded
+ * in parallel while the others are still being polled.
+ */
+public class AsyncStatsJobRunner {
+    private static final Logger logger = Logger.getLogger(AsyncStatsJobRunner.class);
+
+    private final TwitterAdsStatApi statApi;
+    private final ExecutorService executor;
+
+    private volatile long initialPollIntervalMillis = TimeUnit.SECONDS.toMillis(5);
+    private volatile long maxPollIntervalMillis = TimeUnit.MINUTES.toMillis(1);
+    private volatile long timeoutMillis = TimeUnit.HOURS.toMillis(1);
+
+    /**
+     * @param statApi     api used to create, poll and download the jobs
+     * @param parallelism number of jobs created or downloaded at the same time
+     */
+    public AsyncStatsJobRunner(TwitterAdsStatApi statApi, int parallelism) {
+        TwitterAdUtil.ensureNotNull(statApi, "statApi");
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism must be at least 1");
+        }
+        this.statApi = statApi;
+        this.executor = TwitterAdsExecutors.newFixedThreadPool("Twitter4J Ads Stats Job Runner", parallelism);
+    }
+
+    public void setPollInterval(long initialInterval, long maxInterval, TimeUnit unit) {
+        if (initialInterval <= 0 || maxInterval < initialInterval) {
+            throw new IllegalArgumentException("Poll intervals must satisfy 0 < initialInterval <= maxInterval");
+        }
+        this.initialPollIntervalMillis = unit.toMillis(initialInterval);
+        this.maxPollIntervalMillis = unit.toMillis(maxInterval);
+    }
+
+    /**
+     * @param timeout how long a run waits for its jobs to finish
+     */
+    public void setTimeout(long timeout, TimeUnit unit) {
+        this.timeoutMillis = unit.toMillis(timeout);
+    }
+
+    /**
+     * Creates jobs for all given entities, waits for them and hands every downloaded {@link TwitterEntityStatistics} to the
+     * consumer. The consumer is never called concurrently. Returns once all jobs have been downloaded.
+     *
+     * @throws TwitterException if a job could not be created, failed, did not finish within the timeout or could not be
+     *                          downloaded. Statistics of the other jobs have been handed to the consumer by then.
+     *                          An exception thrown by the consumer is thrown as it is, once no download is running any more.
+     * @see TwitterAdsStatApi#createAsyncJob
+     */
+    public void run(final String accountId, final TwitterEntityType twitterEntityType, Collection<String> ids, final long startTime,
+                    final long endTime, final boolean withDeleted, final Granularity granularity, final Placement placement,
+                    final Optional<TwitterSegmentationType> twitterSegmentationType, Consumer<TwitterEntityStatistics> consumer)
+            throws TwitterException {
+        TwitterAdUtil.ensureNotNull(accountId, "accountId");
+        TwitterAdUtil.ensureNotNull(ids, "entityIds");
+        TwitterAdUtil.ensureNotNull(consumer, "consumer");
+        final long deadline = System.currentTimeMillis() + timeoutMillis;
+
+        final List<Future<BaseAdsResponse<JobDetails>>> creations = new ArrayList<>();
+        for (final List<String> chunk : Lists.partition(new ArrayList<>(ids), MAX_STATS_JOB_ENTITY_IDS)) {
+            creations.add(TwitterAdsExecutors.submit(executor, new Callable<BaseAdsResponse<JobDetails>>() {
+                @Override
+                public BaseAdsResponse<JobDetails> call() throws TwitterException {
+                    return statApi.createAsyncJob(accountId, twitterEntityType, chunk, startTime, endTime, withDeleted, granularity,
+                                                  placement, twitterSegmentationType);
+                }
+            }));
+        }
+        final Set<String> pendingJobIds = new LinkedHashSet<>();
+        TwitterException error = null;
+        for (Future<BaseAdsResponse<JobDetails>> creation : creations) {
+            try {
+                BaseAdsResponse<JobDetails> created = TwitterAdsExecutors.await(creation, "stats jobs");
+                if (created == null || created.getData() == null || created.getData().getJobId() == null) {
+                    throw new TwitterException("Stats job was not created, the response holds no job");
+                }
+                pendingJobIds.add(created.getData().getJobId());
+            } catch (TwitterException e) {
+                // keep going, jobs already created are still worth collecting
+                error = error == null ? e : error;
+            } catch (RuntimeException e) {
+                TwitterAdsExecutors.cancelAndAwait(creations);
+                throw e;
+            }
+        }
+
+        final List<Future<?>> downloads = new ArrayList<>();
+        final List<String> failedJobIds = new ArrayList<>();
+        final Consumer<TwitterEntityStatistics> serializedConsumer = serialize(consumer);
+        long pollInterval = initialPollIntervalMillis;
+        try {
+            while (!pendingJobIds.isEmpty()) {
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    break;
+                }
+                TwitterAdUtil.reallySleep(Math.min(pollInterval, remaining));
+
+                boolean progress = false;
+                for (List<String> batch : Lists.partition(new ArrayList<>(pendingJobIds), MAX_STATS_JOB_IDS_PER_REQUEST)) {
+                    for (BaseAdsListResponse<JobDetails> page : statApi.getJobExecutionDetails(accountId, batch)) {
+                        if (page.getData() == null) {
+                            continue;
+                        }
+                        for (final JobDetails job : page.getData()) {
+                            if (job == null || job.getStatus() == null) {
+                                continue;
+                            }
+                            if (job.getStatus() == TwitterAsyncQueryStatus.SUCCESS && pendingJobIds.remove(job.getJobId())) {
+                                downloads.add(TwitterAdsExecutors.submit(executor, new Callable<Void>() {
+                                    @Override
+                                    public Void call() throws TwitterException {
+                                        download(job, serializedConsumer);
+                                        return null;
+                                    }
+                                }));
+                                progress = true;
+                            } else if (job.getStatus() == TwitterAsyncQueryStatus.FAILED && pendingJobIds.remove(job.getJobId())) {
+                                failedJobIds.add(job.getJobId());
+                                progress = true;
+                            }
+                        }
+                    }
+                }
+                pollInterval = progress ? initialPollIntervalMillis : Math.min(maxPollIntervalMillis, pollInterval * 2);
+            }
+        } catch (TwitterException e) {
+            error = error == null ? e : error;
+        } catch (TwitterRuntimeException e) {
+            // thrown by the status pages after the first one
+            error = error == null ? new TwitterException("Could not poll stats jobs", e) : error;
+        } finally {
+            try {
+                for (Future<?> download : downloads) {
+                    try {
+                        TwitterAdsExecutors.await(download, "stats jobs");
+                    } catch (TwitterException e) {
+                        error = error == null ? e : error;
+                    }
+                }
+            } finally {
+                // the consumer throwing ends the loop above, the downloads after it must still be over before returning
+                TwitterAdsExecutors.cancelAndAwait(downloads);
+            }
+        }
+
+        if (error != null) {
+            throw error;
+        }
+        if (!failedJobIds.isEmpty()) {
+            throw new TwitterException("Stats jobs failed: " + failedJobIds);
+        }
+        if (!pendingJobIds.isEmpty()) {
+            throw new TwitterException("Timed out waiting for stats jobs: " + pendingJobIds);
+        }
+    }
+
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private void download(JobDetails job, Consumer<TwitterEntityStatistics> consumer) throws TwitterException {
+        if (logger.isDebugEnabled()) {
+            logger.debug("Downloading stats job " + job.getJobId());
+        }
+        try (StatsJobDataIterator<TwitterEntityStatistics> statistics = statApi.streamJobDataAsync(job.getUrl())) {
+            while (statistics.hasNext()) {
+                consumer.accept(statistics.next());
+            }
+        } catch (TwitterRuntimeException e) {
+            throw e.getTwitterException();
+        }
+    }
+
+    private static Consumer<TwitterEntityStatistics> serialize(final Consumer<TwitterEntityStatistics> consumer) {
+        return new Consumer<TwitterEntityStatistics>() {
+            @Override
+            public synchronized void accept(TwitterEntityStatistics statistics) {
+                consumer.accept(statistics);
+            }
+        };
+    }
+}
@@ -0,0 +1,334 @@
+package twitter4jads.helpers;
+
+import twitter4jads.internal.async.TwitterAdsExecutors;
+import twitter4jads.internal.models4j.TwitterException;
+import twitter4jads.models.ads.TwitterRuntimeException;
+import twitter4jads.models.ads.audience.CustomAudienceUserDetails;
+import twitter4jads.util.TwitterAdUtil;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Normalizes and SHA-256 hashes the identifiers of custom audience users, as the Audience API expects them.
+ * <p/>
+ * Normalization follows the Audience API rules:
+ * <ul>
+ * <li>email: surrounding whitespace removed, lower case</li>
+ * <li>phone number: E.164 digits only, i.e. country code and number without '+', leading zeros, spaces or punctuation</li>
+ * <li>handle: surrounding whitespace and a leading '@' removed, lower case</li>
+ * <li>device id: surrounding whitespace removed, case kept as reported by the device (IDFA upper case, AdID lower case)</li>
+ * <li>twitter id: digits only</li>
+ * </ul>
+ * Values that are empty after normalization are dropped. Every thread hashes with its own {@link MessageDigest} and
+ * buffers, so the only allocation per value is the resulting hex string.
+ * <p/>
+ * {@link #hash(Iterator)} hashes a stream of users on a pool of worker threads and can be handed straight to
+ * {@link twitter4jads.api.TwitterAdsAudienceApi#uploadCustomAudienceUsers}.
+ */
+public class AudienceIdentifierHasher {
+
+    private static final int USERS_PER_TASK = 1000;
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private static final ThreadLocal<HashState> HASH_STATE = new ThreadLocal<HashState>() {
+        @Override
+        protected HashState initialValue() {
+            return new HashState();
+        }
+    };
+
+    private final ExecutorService executor;
+    private final int parallelism;
+
+    /**
+     * @param parallelism number of threads hashing at the same time
+     */
+    public AudienceIdentifierHasher(int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism must be at least 1");
+        }
+        this.parallelism = parallelism;
+        this.executor = TwitterAdsExecutors.newFixedThreadPool("Twitter4J Ads Audience Hasher", parallelism);
+    }
+
+    /**
+     * Hashes users with plain identifiers while they are read. {@code users} is only read from the thread iterating the
+     * result, which returns the hashed users in the order of {@code users}. Only a bounded number of users is read ahead.
+     * A failure while hashing is thrown as {@link TwitterRuntimeException} from the iterator.
+     *
+     * @param users users holding plain, not yet normalized identifiers
+     * @return users holding normalized and hashed identifiers
+     */
+    public Iterator<CustomAudienceUserDetails> hash(final Iterator<CustomAudienceUserDetails> users) {
+        TwitterAdUtil.ensureNotNull(users, "users");
+        return new Iterator<CustomAudienceUserDetails>() {
+            private final ArrayDeque<Future<List<CustomAudienceUserDetails>>> tasks = new ArrayDeque<>();
+            private Iterator<CustomAudienceUserDetails> current = new ArrayList<CustomAudienceUserDetails>().iterator();
+
+            @Override
+            public boolean hasNext() {
+                while (!current.hasNext()) {
+                    // keep every worker busy with the next chunk while the current one is consumed
+                    while (tasks.size() < parallelism * 2 && users.hasNext()) {
+                        submit();
+                    }
+                    if (tasks.isEmpty()) {
+                        return false;
+                    }
+                    try {
+                        current = TwitterAdsExecutors.await(tasks.poll(), "audience users to be hashed").iterator();
+                    } catch (TwitterException e) {
+                        throw new TwitterRuntimeException(e.getCause(), e);
+                    }
+                }
+                return true;
+            }
+
+            @Override
+            public CustomAudienceUserDetails next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException("No more users to hash");
+                }
+                return current.next();
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+
+            private void submit() {
+                final List<CustomAudienceUserDetails> chunk = new ArrayList<>(USERS_PER_TASK);
+                while (chunk.size() < USERS_PER_TASK && users.hasNext()) {
+                    chunk.add(users.next());
+                }
+                tasks.add(executor.submit(new Callable<List<CustomAudienceUserDetails>>() {
+                    @Override
+                    public List<CustomAudienceUserDetails> call() {
+                        List<CustomAudienceUserDetails> hashed = new ArrayList<>(chunk.size());
+                        for (CustomAudienceUserDetails user : chunk) {
+                            hashed.add(hashUser(user));
+                        }
+                        return hashed;
+                    }
+                }));
+            }
+        };
+    }
+
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * Normalizes and hashes the identifiers of a single user on the calling thread.
+     *
+     * @param user user holding plain, not yet normalized identifiers
+     * @return a new user holding the hashed identifiers
+     */
+    public static CustomAudienceUserDetails hashUser(CustomAudienceUserDetails user) {
+        TwitterAdUtil.ensureNotNull(user, "user");
+        CustomAudienceUserDetails hashed = new CustomAudienceUserDetails();
+        hashed.setEmails(hashAll(user.getEmails(), IdentifierType.EMAIL));
+        hashed.setPhoneNumbers(hashAll(user.getPhoneNumbers(), IdentifierType.PHONE_NUMBER));
+        hashed.setDeviceIds(hashAll(user.getDeviceIds(), IdentifierType.DEVICE_ID));
+        hashed.setTwitterHandles(hashAll(user.getTwitterHandles(), IdentifierType.TWITTER_HANDLE));
+        hashed.setTwitterIds(hashAll(user.getTwitterIds(), IdentifierType.TWITTER_ID));
+        return hashed;
+    }
+
+    /**
+     * @return the hex encoded SHA-256 of the normalized email, null if nothing is left after normalization
+     */
+    public static String hashEmail(String email) {
+        return hash(email, IdentifierType.EMAIL);
+    }
+
+    /**
+     * @param phoneNumber phone number including the country code, e.g. {@code +1 (303) 555-1234} or {@code 0013035551234}
+     * @return the hex encoded SHA-256 of the normalized phone number, null if nothing is left after normalization
+     */
+    public static String hashPhoneNumber(String phoneNumber) {
+        return hash(phoneNumber, IdentifierType.PHONE_NUMBER);
+    }
+
+    /**
+     * @return the hex encoded SHA-256 of the normalized device id, null if nothing is left after normalization
+     */
+    public static String hashDeviceId(String deviceId) {
+        return hash(deviceId, IdentifierType.DEVICE_ID);
+    }
+
+    /**
+     * @return the hex encoded SHA-256 of the normalized handle, null if nothing is left after normalization
+     */
+    public static String hashTwitterHandle(String twitterHandle) {
+        return hash(twitterHandle, IdentifierType.TWITTER_HANDLE);
+    }
+
+    /**
+     * @return the hex encoded SHA-256 of the normalized twitter id, null if nothing is left after normalization
+     */
+    public static String hashTwitterId(String twitterId) {
+        return hash(twitterId, IdentifierType.TWITTER_ID);
+    }
+
+    private static Set<String> hashAll(Set<String> values, IdentifierType type) {
+        if (values == null) {
+            return null;
+        }
+        Set<String> hashed = new HashSet<>(values.size() * 4 / 3 + 1);
+        for (String value : values) {
+            String hash = hash(value, type);
+            if (hash != null) {
+                hashed.add(hash);
+            }
+        }
+        return hashed.isEmpty() ? null : hashed;
+    }
+
+    private static String hash(String value, IdentifierType type) {
+        if (value == null) {
+            return null;
+        }
+        HashState state = HASH_STATE.get();
+        StringBuilder normalized = state.normalized;
+        normalized.setLength(0);
+        type.normalize(value, normalized);
+        if (normalized.length() == 0) {
+            return null;
+        }
+        return state.sha256Hex(normalized);
+    }
+
+    private enum IdentifierType {
+        EMAIL {
+            @Override
+            void normalize(String value, StringBuilder out) {
+                int end = trimmedEnd(value);
+                for (int i = trimmedStart(value); i < end; i++) {
+                    out.append(Character.toLowerCase(value.charAt(i)));
+                }
+            }
+        },
+        PHONE_NUMBER {
+            @Override
+            void normalize(String value, StringBuilder out) {
+                for (int i = 0; i < value.length(); i++) {
+                    char c = value.charAt(i);
+                    // leading zeros are either an international call prefix or a trunk prefix, neither is part of E.164
+                    if (c >= '0' && c <= '9' && (c != '0' || out.length() > 0)) {
+                        out.append(c);
+                    }
+                }
+            }
+        },
+        DEVICE_ID {
+            @Override
+            void normalize(String value, StringBuilder out) {
+                out.append(value, trimmedStart(value), trimmedEnd(value));
+            }
+        },
+        TWITTER_HANDLE {
+            @Override
+            void normalize(String value, StringBuilder out) {
+                int start = trimmedStart(value);
+                int end = trimmedEnd(value);
+                if (start < end && value.charAt(start) == '@') {
+                    start++;
+                }
+                for (int i = start; i < end; i++) {
+                    out.append(Character.toLowerCase(value.charAt(i)));
+                }
+            }
+        },
+        TWITTER_ID {
+            @Override
+            void normalize(String value, StringBuilder out) {
+                for (int i = 0; i < value.length(); i++) {
+                    char c = value.charAt(i);
+                    if (c >= '0' && c <= '9') {
+                        out.append(c);
+                    }
+                }
+            }
+        };
+
+        abstract void normalize(String value, StringBuilder out);
+
+        private static int trimmedStart(String value) {
+            int start = 0;
+            while (start < value.length() && Character.isWhitespace(value.charAt(start))) {
+                start++;
+            }
+            return start;
+        }
+
+        private static int trimmedEnd(String value) {
+            int end = value.length();
+            while (end > 0 && Character.isWhitespace(value.charAt(end - 1))) {
+                end--;
+            }
+            return end;
+        }
+    }
+
+    /**
+     * Per thread digest and buffers, reused for every value hashed on the thread.
+     */
+    private static final class HashState {
+        private final MessageDigest digest;
+        private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder();
+        private final StringBuilder normalized = new StringBuilder(64);
+        private final char[] hex = new char[64];
+        private ByteBuffer bytes = ByteBuffer.allocate(128);
+
+        private HashState() {
+            try {
+                digest = MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new AssertionError(e);
+            }
+        }
+
+        private String sha256Hex(CharSequence value) {
+            int maxBytes = (int) (value.length() * encoder.maxBytesPerChar());
+            if (bytes.capacity() < maxBytes) {
+                bytes = ByteBuffer.allocate(maxBytes);
+            }
+            bytes.clear();
+            encoder.reset();
+            CoderResult result = encoder.encode(CharBuffer.wrap(value), bytes, true);
+            if (!result.isError()) {
+                result = encoder.flush(bytes);
+            }
+            if (result.isError()) {
+                // unpaired surrogates cannot be uploaded in any form
+                throw new IllegalArgumentException("Identifier is not valid unicode text");
+            }
+            digest.update(bytes.array(), 0, bytes.position());
+            byte[] hash = digest.digest();
+            for (int i = 0; i < hash.length; i++) {
+                hex[i * 2] = HEX[(hash[i] >> 4) & 0xF];
+                hex[i * 2 + 1] = HEX[hash[i] & 0xF];
+            }
+            return new String(hex);
+        }
+    }
+}
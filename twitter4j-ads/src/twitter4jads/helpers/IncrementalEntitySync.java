@@ -0,0 +1,466 @@
+package twitter4jads.helpers;
+
+import com.google.common.base.Optional;
+import org.joda.time.DateTime;
+import twitter4jads.BaseAdsListResponse;
+import twitter4jads.BaseAdsListResponseIterable;
+import twitter4jads.api.TwitterAdsCampaignApi;
+import twitter4jads.api.TwitterAdsCardsApi;
+import twitter4jads.api.TwitterAdsLineItemApi;
+import twitter4jads.api.TwitterAdsPromotedTweetApi;
+import twitter4jads.internal.models4j.TwitterException;
+import twitter4jads.models.ads.Campaign;
+import twitter4jads.models.ads.LineItem;
+import twitter4jads.models.ads.PromotedTweets;
+import twitter4jads.models.ads.TwitterRuntimeException;
+import twitter4jads.models.ads.cards.Card;
+import twitter4jads.models.ads.sort.CampaignSortByField;
+import twitter4jads.models.ads.sort.CardsSortByField;
+import twitter4jads.models.ads.sort.LineItemsSortByField;
+import twitter4jads.models.ads.sort.PromotedTweetsSortByField;
+import twitter4jads.util.TwitterAdUtil;
+
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fetches only the entities of an account that changed since the previous run.
+ * <p/>
+ * A high-water mark is kept per account and entity type: the latest updated_at seen. Every run lists the entities sorted
+ * by updated_at descending, deleted ones included, and stops paging at the first entity older than the mark, so an
+ * account where nothing changed costs one request. Changes are reported as inserts (created after the mark), updates and
+ * deletes. The first run of an account reports every live entity as an insert.
+ * <p/>
+ * The ids seen at the mark, or within the overlap window before it, are kept with the mark so that an entity updated in
+ * the same second as the previous run is neither missed nor reported twice. The mark is only saved once the listener has
+ * seen every change, so a failed run is replayed by the next one.
+ * <p/>
+ * Thread-safe as long as the store is; runs for different accounts may go in parallel, runs for the same account and
+ * entity type should not.
+ */
+public class IncrementalEntitySync<T> {
+    private static final int MAX_PAGE_SIZE = 1000;
+    private static final int MAX_CARDS_PAGE_SIZE = 200;
+
+    private final String entityType;
+    private final EntitySource<T> source;
+    private final HighWaterMarkStore store;
+    private volatile long overlapMillis;
+
+    /**
+     * @param entityType name the marks of these entities are stored under, e.g. "campaigns"
+     * @param source     listing of the entities, see {@link #campaigns}, {@link #lineItems}, {@link #promotedTweets} and
+     *                   {@link #cards}
+     * @param store      where the marks are kept between runs
+     */
+    public IncrementalEntitySync(String entityType, EntitySource<T> source, HighWaterMarkStore store) {
+        TwitterAdUtil.ensureNotNull(entityType, "entityType");
+        TwitterAdUtil.ensureNotNull(source, "source");
+        TwitterAdUtil.ensureNotNull(store, "store");
+        this.entityType = entityType;
+        this.source = source;
+        this.store = store;
+    }
+
+    /**
+     * Pages this far past the mark on every run, for updates whose updated_at is only visible in the listing some time
+     * after it was set. Entities already reported in the window are not reported again. Defaults to 0.
+     */
+    public void setOverlap(long overlap, TimeUnit unit) {
+        if (overlap < 0) {
+            throw new IllegalArgumentException("overlap can not be negative");
+        }
+        this.overlapMillis = unit.toMillis(overlap);
+    }
+
+    /**
+     * Reports the entities of the account changed since the previous run to the listener, then moves the mark.
+     *
+     * @throws TwitterException when a page could not be fetched; the mark is left where it was
+     */
+    public SyncResult sync(String accountId, Listener<T> listener) throws TwitterException {
+        TwitterAdUtil.ensureNotNull(accountId, "accountId");
+        TwitterAdUtil.ensureNotNull(listener, "listener");
+        HighWaterMark previous = store.load(accountId, entityType);
+        long overlap = overlapMillis;
+        long stopBefore = previous == null ? Long.MIN_VALUE : previous.getUpdatedAt() - overlap;
+
+        long newMark = previous == null ? Long.MIN_VALUE : previous.getUpdatedAt();
+        Map<String, Long> seen = new HashMap<>();
+        int inserted = 0;
+        int updated = 0;
+        int deleted = 0;
+        int pages = 0;
+        try {
+            listing:
+            for (BaseAdsListResponse<T> page : source.listByUpdatedAtDesc(accountId)) {
+                pages++;
+                if (page.getData() == null) {
+                    continue;
+                }
+                for (T entity : page.getData()) {
+                    Date updatedAt = source.getUpdatedAt(entity);
+                    long updatedAtMillis = updatedAt == null ? Long.MIN_VALUE : updatedAt.getTime();
+                    if (updatedAt != null && updatedAtMillis < stopBefore) {
+                        break listing;
+                    }
+                    String id = source.getId(entity);
+                    if (previous != null && updatedAt != null && previous.isReported(id, updatedAtMillis)) {
+                        continue;
+                    }
+                    if (source.isDeleted(entity)) {
+                        if (previous != null) {
+                            listener.onDelete(accountId, entity);
+                            deleted++;
+                        }
+                    } else if (previous == null || isCreatedAfter(entity, id, previous)) {
+                        listener.onInsert(accountId, entity);
+                        inserted++;
+                    } else {
+                        listener.onUpdate(accountId, entity);
+                        updated++;
+                    }
+                    if (updatedAt != null) {
+                        newMark = Math.max(newMark, updatedAtMillis);
+                        seen.put(id, updatedAtMillis);
+                    }
+                }
+            }
+        } catch (TwitterRuntimeException e) {
+            throw e.getTwitterException();
+        }
+
+        if (newMark != Long.MIN_VALUE) {
+            store.save(accountId, entityType, new HighWaterMark(newMark, reportedWithin(previous, seen, newMark - overlap)));
+        }
+        return new SyncResult(inserted, updated, deleted, pages);
+    }
+
+    private boolean isCreatedAfter(T entity, String id, HighWaterMark mark) {
+        Date createdAt = source.getCreatedAt(entity);
+        if (createdAt == null) {
+            return false;
+        }
+        // created in the second of the mark: new unless the previous run reported it
+        return createdAt.getTime() > mark.getUpdatedAt()
+               || (createdAt.getTime() == mark.getUpdatedAt() && !mark.getReported().containsKey(id));
+    }
+
+    private static Map<String, Long> reportedWithin(HighWaterMark previous, Map<String, Long> seen, long from) {
+        Map<String, Long> reported = new HashMap<>();
+        if (previous != null) {
+            for (Map.Entry<String, Long> entry : previous.getReported().entrySet()) {
+                if (entry.getValue() >= from) {
+                    reported.put(entry.getKey(), entry.getValue());
+                }
+            }
+        }
+        for (Map.Entry<String, Long> entry : seen.entrySet()) {
+            if (entry.getValue() >= from) {
+                reported.put(entry.getKey(), entry.getValue());
+            }
+        }
+        return reported;
+    }
+
+    /**
+     * Campaigns of an account, deleted ones included.
+     */
+    public static EntitySource<Campaign> campaigns(final TwitterAdsCampaignApi campaignApi) {
+        TwitterAdUtil.ensureNotNull(campaignApi, "campaignApi");
+        return new EntitySource<Campaign>() {
+            @Override
+            public BaseAdsListResponseIterable<Campaign> listByUpdatedAtDesc(String accountId) throws TwitterException {
+                return campaignApi.getAllCampaigns(accountId, Optional.<Collection<String>>absent(), Optional.<Collection<String>>absent(), true,
+                                                   Optional.of(MAX_PAGE_SIZE), Optional.<String>absent(), Optional.of(CampaignSortByField.UPDATED_AT_DESC));
+            }
+
+            @Override
+            public String getId(Campaign campaign) {
+                return campaign.getId();
+            }
+
+            @Override
+            public Date getCreatedAt(Campaign campaign) {
+                return campaign.getCreateTime();
+            }
+
+            @Override
+            public Date getUpdatedAt(Campaign campaign) {
+                return campaign.getUpdateTime();
+            }
+
+            @Override
+            public boolean isDeleted(Campaign campaign) {
+                return Boolean.TRUE.equals(campaign.getDeleted());
+            }
+        };
+    }
+
+    /**
+     * Line items of an account, deleted ones included.
+     */
+    public static EntitySource<LineItem> lineItems(final TwitterAdsLineItemApi lineItemApi) {
+        TwitterAdUtil.ensureNotNull(lineItemApi, "lineItemApi");
+        return new EntitySource<LineItem>() {
+            @Override
+            public BaseAdsListResponseIterable<LineItem> listByUpdatedAtDesc(String accountId) throws TwitterException {
+                return lineItemApi.getAllLineItems(accountId, Optional.<Collection<String>>absent(), Optional.<Collection<String>>absent(),
+                                                   Optional.<Collection<String>>absent(), Optional.of(MAX_PAGE_SIZE), true, null,
+                                                   Optional.of(LineItemsSortByField.UPDATED_AT));
+            }
+
+            @Override
+            public String getId(LineItem lineItem) {
+                return lineItem.getId();
+            }
+
+            @Override
+            public Date getCreatedAt(LineItem lineItem) {
+                return lineItem.getCreatedAt();
+            }
+
+            @Override
+            public Date getUpdatedAt(LineItem lineItem) {
+                return lineItem.getUpdatedAt();
+            }
+
+            @Override
+            public boolean isDeleted(LineItem lineItem) {
+                return Boolean.TRUE.equals(lineItem.getDeleted());
+            }
+        };
+    }
+
+    /**
+     * Promoted tweets of an account, deleted ones included.
+     */
+    public static EntitySource<PromotedTweets> promotedTweets(final TwitterAdsPromotedTweetApi promotedTweetApi) {
+        TwitterAdUtil.ensureNotNull(promotedTweetApi, "promotedTweetApi");
+        return new EntitySource<PromotedTweets>() {
+            @Override
+            public BaseAdsListResponseIterable<PromotedTweets> listByUpdatedAtDesc(String accountId) throws TwitterException {
+                return promotedTweetApi.getAllPromotedTweets(accountId, true, Optional.<Collection<String>>absent(), Optional.of(MAX_PAGE_SIZE), null,
+                                                             Optional.of(PromotedTweetsSortByField.UPDATED_AT_DESC));
+            }
+
+            @Override
+            public String getId(PromotedTweets promotedTweets) {
+                return promotedTweets.getId();
+            }
+
+            @Override
+            public Date getCreatedAt(PromotedTweets promotedTweets) {
+                return promotedTweets.getCreatedAt();
+            }
+
+            @Override
+            public Date getUpdatedAt(PromotedTweets promotedTweets) {
+                return promotedTweets.getUpdatedAt();
+            }
+
+            @Override
+            public boolean isDeleted(PromotedTweets promotedTweets) {
+                return Boolean.TRUE.equals(promotedTweets.getDeleted());
+            }
+        };
+    }
+
+    /**
+     * Cards of an account, deleted ones included.
+     */
+    public static EntitySource<Card> cards(final TwitterAdsCardsApi cardsApi) {
+        TwitterAdUtil.ensureNotNull(cardsApi, "cardsApi");
+        return new EntitySource<Card>() {
+            @Override
+            public BaseAdsListResponseIterable<Card> listByUpdatedAtDesc(String accountId) throws TwitterException {
+                return cardsApi.getCards(accountId, null, null, null, false, Optional.<String>absent(),
+                                         Optional.of(CardsSortByField.UPDATED_AT_DESC.getField()), true, Optional.of(MAX_CARDS_PAGE_SIZE),
+                                         Optional.<String>absent());
+            }
+
+            @Override
+            public String getId(Card card) {
+                return card.getId();
+            }
+
+            @Override
+            public Date getCreatedAt(Card card) {
+                return parseDate(card.getCreatedAt());
+            }
+
+            @Override
+            public Date getUpdatedAt(Card card) {
+                return parseDate(card.getUpdatedAt());
+            }
+
+            @Override
+            public boolean isDeleted(Card card) {
+                return card.isDeleted();
+            }
+
+            // cards carry their timestamps as ISO-8601 strings
+            private Date parseDate(String date) {
+                return date == null ? null : new DateTime(date).toDate();
+            }
+        };
+    }
+
+    /**
+     * A listing of one entity type and how to read the fields the sync needs.
+     */
+    public interface EntitySource<T> {
+
+        /**
+         * @return all the entities of the account, deleted ones included, sorted by updated_at descending
+         */
+        BaseAdsListResponseIterable<T> listByUpdatedAtDesc(String accountId) throws TwitterException;
+
+        String getId(T entity);
+
+        Date getCreatedAt(T entity);
+
+        Date getUpdatedAt(T entity);
+
+        boolean isDeleted(T entity);
+    }
+
+    /**
+     * Receives the changes of a run, from the most recently updated entity to the oldest.
+     */
+    public interface Listener<T> {
+
+        void onInsert(String accountId, T entity);
+
+        void onUpdate(String accountId, T entity);
+
+        void onDelete(String accountId, T entity);
+    }
+
+    /**
+     * Keeps the marks between runs, e.g. in the database the changes are written to.
+     */
+    public interface HighWaterMarkStore {
+
+        /**
+         * @return the mark saved for the account and entity type, null before the first run
+         */
+        HighWaterMark load(String accountId, String entityType);
+
+        void save(String accountId, String entityType, HighWaterMark mark);
+    }
+
+    /**
+     * Keeps the marks in memory, for a process that syncs the accounts over and over.
+     */
+    public static class InMemoryHighWaterMarkStore implements HighWaterMarkStore {
+        private final ConcurrentMap<String, HighWaterMark> marks = new ConcurrentHashMap<>();
+
+        @Override
+        public HighWaterMark load(String accountId, String entityType) {
+            return marks.get(key(accountId, entityType));
+        }
+
+        @Override
+        public void save(String accountId, String entityType, HighWaterMark mark) {
+            marks.put(key(accountId, entityType), mark);
+        }
+
+        private static String key(String accountId, String entityType) {
+            return accountId + ' ' + entityType;
+        }
+    }
+
+    /**
+     * Latest updated_at seen for an account and entity type, with the entities already reported close to it.
+     */
+    public static final class HighWaterMark implements Serializable {
+        private static final long serialVersionUID = -3128840962270581637L;
+
+        private final long updatedAt;
+        private final Map<String, Long> reported;
+
+        /**
+         * @param updatedAt latest updated_at seen, in epoch milliseconds
+         * @param reported  updated_at of the entities reported at or shortly before the mark, by id
+         */
+        public HighWaterMark(long updatedAt, Map<String, Long> reported) {
+            this.updatedAt = updatedAt;
+            this.reported = reported == null ? Collections.<String, Long>emptyMap() : Collections.unmodifiableMap(new HashMap<>(reported));
+        }
+
+        public long getUpdatedAt() {
+            return updatedAt;
+        }
+
+        public Map<String, Long> getReported() {
+            return reported;
+        }
+
+        private boolean isReported(String id, long entityUpdatedAt) {
+            Long reportedUpdatedAt = reported.get(id);
+            return reportedUpdatedAt != null && reportedUpdatedAt == entityUpdatedAt;
+        }
+
+        @Override
+        public String toString() {
+            return "HighWaterMark{" +
+                   "updatedAt=" + updatedAt +
+                   ", reported=" + reported.size() +
+                   '}';
+        }
+    }
+
+    /**
+     * What a run reported.
+     */
+    public static final class SyncResult {
+        private final int inserted;
+        private final int updated;
+        private final int deleted;
+        private final int pages;
+
+        private SyncResult(int inserted, int updated, int deleted, int pages) {
+            this.inserted = inserted;
+            this.updated = updated;
+            this.deleted = deleted;
+            this.pages = pages;
+        }
+
+        public int getInserted() {
+            return inserted;
+        }
+
+        public int getUpdated() {
+            return updated;
+        }
+
+        public int getDeleted() {
+            return deleted;
+        }
+
+        /**
+         * @return number of pages fetched
+         */
+        public int getPages() {
+            return pages;
+        }
+
+        @Override
+        public String toString() {
+            return "SyncResult{" +
+                   "inserted=" + inserted +
+                   ", updated=" + updated +
+                   ", deleted=" + deleted +
+                   ", pages=" + pages +
+                   '}';
+        }
+    }
+}
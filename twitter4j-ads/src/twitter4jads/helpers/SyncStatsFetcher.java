@@ -0,0 +1,154 @@
+package twitter4jads.helpers;
+
+import com.google.common.collect.Lists;
+import twitter4jads.BaseAdsListResponse;
+import twitter4jads.api.TwitterAdsStatApi;
+import twitter4jads.internal.async.TwitterAdsExecutors;
+import twitter4jads.internal.models4j.TwitterException;
+import twitter4jads.models.Granularity;
+import twitter4jads.models.ads.Placement;
+import twitter4jads.models.ads.TwitterEntityStatistics;
+import twitter4jads.models.ads.TwitterEntityType;
+import twitter4jads.util.TwitterAdUtil;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static twitter4jads.TwitterAdsConstants.MAX_SYNC_STATS_ENTITY_IDS;
+import static twitter4jads.TwitterAdsConstants.MAX_SYNC_STATS_TIME_SPAN;
+
+/**
+ * Fetches synchronous stats for any number of entities over any time range.
+ * <p/>
+ * The request is split into chunks of {@link twitter4jads.TwitterAdsConstants#MAX_SYNC_STATS_ENTITY_IDS} ids and windows of
+ * {@link twitter4jads.TwitterAdsConstants#MAX_SYNC_STATS_TIME_SPAN}, which are fetched concurrently. Requests that would exceed
+ * the rate limit are held back by the rate limit scheduler of the client, see
+ * {@link twitter4jads.TwitterAdsClient#getRateLimitBudget()}. Once a request fails, the requests that have not started
+ * are cancelled, so that a failed fetch does not use up more of the rate limit.
+ * <p/>
+ * {@link Granularity#TOTAL} stats cannot be put together from several windows, so their time range must fit into one.
+ */
+public class SyncStatsFetcher {
+
+    private final TwitterAdsStatApi statApi;
+    private final ExecutorService executor;
+
+    /**
+     * @param statApi     api used to fetch the stats
+     * @param parallelism number of requests in flight at the same time
+     */
+    public SyncStatsFetcher(TwitterAdsStatApi statApi, int parallelism) {
+        TwitterAdUtil.ensureNotNull(statApi, "statApi");
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism must be at least 1");
+        }
+        this.statApi = statApi;
+        this.executor = TwitterAdsExecutors.newFixedThreadPool("Twitter4J Ads Sync Stats Fetcher", parallelism);
+    }
+
+    /**
+     * @return stats per entity id, in the order of {@code entityIds}; every list holds one element per time window, oldest first
+     * @throws TwitterException        if any of the requests failed
+     * @throws IllegalArgumentException if the granularity is TOTAL and the time range is longer than one window
+     * @see TwitterAdsStatApi#fetchStatsSync
+     */
+    public Map<String, List<TwitterEntityStatistics>> fetch(String accountId, TwitterEntityType twitterEntity, Collection<String> entityIds,
+                                                            long startTime, long endTime, boolean withDeleted, Granularity granularity,
+                                                            Placement placement) throws TwitterException {
+        final Map<String, List<TwitterEntityStatistics>> statisticsById = new LinkedHashMap<>();
+        for (String entityId : entityIds) {
+            statisticsById.put(entityId, new ArrayList<TwitterEntityStatistics>());
+        }
+        final List<Future<List<TwitterEntityStatistics>>> requests = submit(accountId, twitterEntity, entityIds, startTime, endTime,
+                                                                            withDeleted, granularity, placement);
+        try {
+            // requests are awaited in submission order, id chunk by id chunk and window by window, so every list is in time order
+            for (Future<List<TwitterEntityStatistics>> request : requests) {
+                for (TwitterEntityStatistics statistics : TwitterAdsExecutors.await(request, "stats requests")) {
+                    List<TwitterEntityStatistics> statisticsForId = statisticsById.get(statistics.getId());
+                    if (statisticsForId == null) {
+                        statisticsForId = new ArrayList<>();
+                        statisticsById.put(statistics.getId(), statisticsForId);
+                    }
+                    statisticsForId.add(statistics);
+                }
+            }
+        } finally {
+            // no-op once every request is done; after a failure the outcome of the others no longer matters
+            TwitterAdsExecutors.cancelAndAwait(requests);
+        }
+        return statisticsById;
+    }
+
+    /**
+     * Same as {@link #fetch(String, TwitterEntityType, Collection, long, long, boolean, Granularity, Placement)}, but hands
+     * each {@link TwitterEntityStatistics} to the consumer as soon as its request completes. The consumer is only called
+     * from the calling thread.
+     */
+    public void fetch(String accountId, TwitterEntityType twitterEntity, Collection<String> entityIds, long startTime, long endTime,
+                      boolean withDeleted, Granularity granularity, Placement placement, Consumer<TwitterEntityStatistics> consumer)
+            throws TwitterException {
+        TwitterAdUtil.ensureNotNull(consumer, "consumer");
+        final List<Future<List<TwitterEntityStatistics>>> requests = submit(accountId, twitterEntity, entityIds, startTime, endTime,
+                                                                            withDeleted, granularity, placement);
+        try {
+            for (Future<List<TwitterEntityStatistics>> request : requests) {
+                for (TwitterEntityStatistics statistics : TwitterAdsExecutors.await(request, "stats requests")) {
+                    consumer.accept(statistics);
+                }
+            }
+        } finally {
+            TwitterAdsExecutors.cancelAndAwait(requests);
+        }
+    }
+
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private List<Future<List<TwitterEntityStatistics>>> submit(final String accountId, final TwitterEntityType twitterEntity,
+                                                               Collection<String> entityIds, long startTime, long endTime,
+                                                               final boolean withDeleted, final Granularity granularity,
+                                                               final Placement placement) {
+        TwitterAdUtil.ensureNotNull(accountId, "accountId");
+        TwitterAdUtil.ensureNotNull(entityIds, "entityIds");
+        if (endTime <= startTime) {
+            throw new IllegalArgumentException("endTime must be after startTime");
+        }
+        if (granularity == Granularity.TOTAL && endTime - startTime > MAX_SYNC_STATS_TIME_SPAN) {
+            throw new IllegalArgumentException("TOTAL stats can be fetched for at most " + TimeUnit.MILLISECONDS.toDays(MAX_SYNC_STATS_TIME_SPAN)
+                                               + " days, use DAY or HOUR granularity for longer time ranges");
+        }
+
+        final List<Future<List<TwitterEntityStatistics>>> requests = new ArrayList<>();
+        for (final List<String> chunk : Lists.partition(new ArrayList<>(entityIds), MAX_SYNC_STATS_ENTITY_IDS)) {
+            for (long windowStart = startTime; windowStart < endTime; windowStart += MAX_SYNC_STATS_TIME_SPAN) {
+                final long start = windowStart;
+                final long end = Math.min(windowStart + MAX_SYNC_STATS_TIME_SPAN, endTime);
+                requests.add(TwitterAdsExecutors.submit(executor, new Callable<List<TwitterEntityStatistics>>() {
+                    @Override
+                    public List<TwitterEntityStatistics> call() throws TwitterException {
+                        List<TwitterEntityStatistics> statistics = new ArrayList<>();
+                        for (BaseAdsListResponse<TwitterEntityStatistics> page : statApi.fetchStatsSync(accountId, twitterEntity, chunk, start,
+                                                                                                        end, withDeleted, granularity,
+                                                                                                        placement)) {
+                            if (page.getData() != null) {
+                                statistics.addAll(page.getData());
+                            }
+                        }
+                        return statistics;
+                    }
+                }));
+            }
+        }
+        return requests;
+    }
+}
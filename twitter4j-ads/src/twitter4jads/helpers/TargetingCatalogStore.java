@@ -0,0 +1,438 @@
+package twitter4jads.helpers;
+
+import com.google.common.base.Optional;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import twitter4jads.BaseAdsListResponse;
+import twitter4jads.BaseAdsListResponseIterable;
+import twitter4jads.api.TwitterAdsTargetingApi;
+import twitter4jads.internal.async.TwitterAdsExecutors;
+import twitter4jads.internal.logging.Logger;
+import twitter4jads.internal.models4j.TwitterException;
+import twitter4jads.models.LocationType;
+import twitter4jads.models.ads.IabCategory;
+import twitter4jads.models.ads.TargetingCriteria;
+import twitter4jads.models.ads.TargetingLocation;
+import twitter4jads.models.ads.TwitterBehaviorTaxonomy;
+import twitter4jads.models.ads.TwitterRuntimeException;
+import twitter4jads.util.TwitterAdUtil;
+import twitter4jads.util.TwitterAdsGson;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Keeps the global targeting catalogs (locations, interests, platforms, ...) in memory, so that listing or searching
+ * them does not page through the API on every call. Meant to be shared by the whole process.
+ * <p/>
+ * A catalog is loaded the first time it is asked for, then refreshed in the background every refresh interval; a failed
+ * refresh keeps serving the previous version. With a snapshot directory, every version is also written there as gzipped
+ * JSON, and a process starting up serves the snapshot right away while the catalog is refreshed in the background.
+ * <p/>
+ * {@link #search(Catalog, String, LocationType, int)} answers the lookups of the API's {@code q} parameter from a
+ * {@link TargetingTypeahead} built with every version of a catalog.
+ */
+public class TargetingCatalogStore {
+    private static final Logger logger = Logger.getLogger(TargetingCatalogStore.class);
+
+    private static final int REFRESH_THREADS = 1;
+    private static final int MAX_PAGE_SIZE = 1000;
+    private static final String SNAPSHOT_SUFFIX = ".json.gz";
+    private static final ScheduledThreadPoolExecutor REFRESHER =
+            TwitterAdsExecutors.newScheduledThreadPool("Twitter4J Ads Targeting Catalog Refresher", REFRESH_THREADS);
+
+    private final TwitterAdsTargetingApi targetingApi;
+    private final File snapshotDirectory;
+    private final long refreshIntervalMillis;
+    private final ConcurrentMap<String, CatalogState<?>> catalogs = new ConcurrentHashMap<>();
+
+    /**
+     * @param targetingApi      api the catalogs are loaded with
+     * @param snapshotDirectory directory the catalogs are saved to for warm starts, null to keep them in memory only
+     * @param refreshInterval   time between two loads of a catalog
+     */
+    public TargetingCatalogStore(TwitterAdsTargetingApi targetingApi, File snapshotDirectory, long refreshInterval, TimeUnit unit) {
+        TwitterAdUtil.ensureNotNull(targetingApi, "targetingApi");
+        if (refreshInterval <= 0) {
+            throw new IllegalArgumentException("refreshInterval must be positive");
+        }
+        this.targetingApi = targetingApi;
+        this.snapshotDirectory = snapshotDirectory;
+        this.refreshIntervalMillis = unit.toMillis(refreshInterval);
+    }
+
+    /**
+     * @return the whole catalog, loaded from the snapshot or the API on first use
+     * @throws TwitterException if the catalog had never been loaded and could not be
+     */
+    public <T> List<T> get(Catalog<T> catalog) throws TwitterException {
+        return state(catalog).loaded().items;
+    }
+
+    /**
+     * @param q     part of a name, e.g. "york", "new y" or "ork" for New York
+     * @param limit most entries returned
+     * @return best matching entries first, see {@link TargetingTypeahead#search(String, LocationType, int)}
+     * @throws TwitterException if the catalog had never been loaded and could not be
+     */
+    public <T> List<T> search(Catalog<T> catalog, String q, int limit) throws TwitterException {
+        return search(catalog, q, null, limit);
+    }
+
+    /**
+     * @param q            part of a name, e.g. "york", "new y" or "ork" for New York
+     * @param locationType (optional) only entries of this type
+     * @param limit        most entries returned
+     * @return best matching entries first, see {@link TargetingTypeahead#search(String, LocationType, int)}
+     * @throws TwitterException if the catalog had never been loaded and could not be
+     */
+    public <T> List<T> search(Catalog<T> catalog, String q, LocationType locationType, int limit) throws TwitterException {
+        return state(catalog).loaded().typeahead.search(q, locationType, limit);
+    }
+
+    /**
+     * @return when the catalog being served was loaded from the API, 0 if it has not been loaded yet
+     */
+    public long getLoadedAt(Catalog<?> catalog) {
+        CatalogState<?> state = catalogs.get(catalog.getName());
+        LoadedCatalog<?> loaded = state == null ? null : state.current;
+        return loaded == null ? 0 : loaded.loadedAt;
+    }
+
+    /**
+     * Loads the catalog from the API now instead of waiting for the next refresh.
+     */
+    public void refresh(Catalog<?> catalog) throws TwitterException {
+        state(catalog).refresh();
+    }
+
+    /**
+     * Stops the background refreshes of this store. Catalogs already loaded are still served.
+     */
+    public void close() {
+        for (CatalogState<?> state : catalogs.values()) {
+            state.stopRefreshing();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> CatalogState<T> state(Catalog<T> catalog) {
+        TwitterAdUtil.ensureNotNull(catalog, "catalog");
+        CatalogState<?> state = catalogs.get(catalog.getName());
+        if (state == null) {
+            state = new CatalogState<>(catalog);
+            CatalogState<?> existing = catalogs.putIfAbsent(catalog.getName(), state);
+            if (existing != null) {
+                state = existing;
+            }
+        }
+        return (CatalogState<T>) state;
+    }
+
+    private final class CatalogState<T> {
+        private final Catalog<T> catalog;
+        // one load at a time, so that a slow load never replaces a newer version or its snapshot
+        private final Object refreshLock = new Object();
+        private volatile LoadedCatalog<T> current;
+        private ScheduledFuture<?> refreshing;
+
+        private CatalogState(Catalog<T> catalog) {
+            this.catalog = catalog;
+        }
+
+        private LoadedCatalog<T> loaded() throws TwitterException {
+            LoadedCatalog<T> loaded = current;
+            if (loaded != null) {
+                return loaded;
+            }
+            synchronized (this) {
+                if (current == null) {
+                    LoadedCatalog<T> snapshot = readSnapshot();
+                    if (snapshot != null) {
+                        current = snapshot;
+                        long age = System.currentTimeMillis() - snapshot.loadedAt;
+                        scheduleRefresh(Math.max(0, refreshIntervalMillis - age));
+                    } else {
+                        refresh();
+                        scheduleRefresh(refreshIntervalMillis);
+                    }
+                }
+                return current;
+            }
+        }
+
+        private void refresh() throws TwitterException {
+            synchronized (refreshLock) {
+                List<T> items = new ArrayList<>();
+                try {
+                    for (BaseAdsListResponse<T> page : catalog.loader.load(targetingApi)) {
+                        if (page.getData() != null) {
+                            items.addAll(page.getData());
+                        }
+                    }
+                } catch (TwitterRuntimeException e) {
+                    throw e.getTwitterException();
+                }
+                LoadedCatalog<T> loaded = new LoadedCatalog<>(catalog, items, System.currentTimeMillis());
+                current = loaded;
+                writeSnapshot(loaded);
+            }
+        }
+
+        private synchronized void scheduleRefresh(long initialDelayMillis) {
+            if (refreshing != null) {
+                return;
+            }
+            refreshing = REFRESHER.scheduleWithFixedDelay(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        refresh();
+                    } catch (TwitterException | RuntimeException e) {
+                        logger.warn("Could not refresh targeting catalog " + catalog.getName() + ", serving the previous version: ", e.getMessage());
+                    }
+                }
+            }, initialDelayMillis, refreshIntervalMillis, TimeUnit.MILLISECONDS);
+        }
+
+        private synchronized void stopRefreshing() {
+            if (refreshing != null) {
+                refreshing.cancel(false);
+                refreshing = null;
+            }
+        }
+
+        private LoadedCatalog<T> readSnapshot() {
+            File file = snapshotFile();
+            if (file == null || !file.isFile()) {
+                return null;
+            }
+            try (Reader reader = new InputStreamReader(new GZIPInputStream(new FileInputStream(file)), StandardCharsets.UTF_8)) {
+                JsonObject snapshot = new JsonParser().parse(reader).getAsJsonObject();
+                List<T> items = new ArrayList<>();
+                for (JsonElement item : snapshot.getAsJsonArray("items")) {
+                    items.add(TwitterAdsGson.GSON.fromJson(item, catalog.itemType));
+                }
+                return new LoadedCatalog<>(catalog, items, snapshot.get("loaded_at").getAsLong());
+            } catch (IOException | RuntimeException e) {
+                logger.warn("Ignoring unreadable snapshot of targeting catalog " + catalog.getName() + ": ", e.getMessage());
+                return null;
+            }
+        }
+
+        private void writeSnapshot(LoadedCatalog<T> loaded) {
+            File file = snapshotFile();
+            if (file == null) {
+                return;
+            }
+            Path temporary = null;
+            try {
+                Files.createDirectories(snapshotDirectory.toPath());
+                temporary = Files.createTempFile(snapshotDirectory.toPath(), file.getName(), ".tmp");
+                JsonObject snapshot = new JsonObject();
+                snapshot.addProperty("loaded_at", loaded.loadedAt);
+                JsonArray items = new JsonArray();
+                for (T item : loaded.items) {
+                    items.add(TwitterAdsGson.GSON.toJsonTree(item, catalog.itemType));
+                }
+                snapshot.add("items", items);
+                try (Writer writer = new OutputStreamWriter(new GZIPOutputStream(Files.newOutputStream(temporary)), StandardCharsets.UTF_8)) {
+                    TwitterAdsGson.GSON.toJson(snapshot, writer);
+                }
+                // readers never see a partly written snapshot
+                Files.move(temporary, file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException | RuntimeException e) {
+                logger.warn("Could not write snapshot of targeting catalog " + catalog.getName() + ": ", e.getMessage());
+            } finally {
+                deleteQuietly(temporary);
+            }
+        }
+
+        private void deleteQuietly(Path temporary) {
+            if (temporary != null) {
+                try {
+                    Files.deleteIfExists(temporary);
+                } catch (IOException ignore) {
+                }
+            }
+        }
+
+        private File snapshotFile() {
+            return snapshotDirectory == null ? null : new File(snapshotDirectory, catalog.getName() + SNAPSHOT_SUFFIX);
+        }
+    }
+
+    private static final class LoadedCatalog<T> {
+        private final List<T> items;
+        private final TargetingTypeahead<T> typeahead;
+        private final long loadedAt;
+
+        private LoadedCatalog(Catalog<T> catalog, List<T> items, long loadedAt) {
+            this.items = Collections.unmodifiableList(items);
+            this.typeahead = new TargetingTypeahead<>(items, catalog.attributes);
+            this.loadedAt = loadedAt;
+        }
+    }
+
+    /**
+     * A global catalog: how to load it and how its entries are searched.
+     *
+     * @param <T> type of the catalog entries
+     */
+    public static final class Catalog<T> {
+        public static final Catalog<TargetingLocation> LOCATIONS = new Catalog<>("locations", TargetingLocation.class,
+                new Loader<TargetingLocation>() {
+                    @Override
+                    public BaseAdsListResponseIterable<TargetingLocation> load(TwitterAdsTargetingApi api) throws TwitterException {
+                        return api.getAllTargetingLocations(Optional.<LocationType>absent(), null, null, Optional.of(MAX_PAGE_SIZE));
+                    }
+                }, TargetingTypeahead.LOCATIONS);
+
+        public static final Catalog<TargetingCriteria> INTERESTS = criteria("interests", new Loader<TargetingCriteria>() {
+            @Override
+            public BaseAdsListResponseIterable<TargetingCriteria> load(TwitterAdsTargetingApi api) throws TwitterException {
+                return api.getAllTargetingInterests(null);
+            }
+        });
+
+        public static final Catalog<TargetingCriteria> PLATFORMS = criteria("platforms", new Loader<TargetingCriteria>() {
+            @Override
+            public BaseAdsListResponseIterable<TargetingCriteria> load(TwitterAdsTargetingApi api) throws TwitterException {
+                return api.getAllTargetingPlatforms(null);
+            }
+        });
+
+        public static final Catalog<TargetingCriteria> LOCALES = criteria("locales", new Loader<TargetingCriteria>() {
+            @Override
+            public BaseAdsListResponseIterable<TargetingCriteria> load(TwitterAdsTargetingApi api) throws TwitterException {
+                return api.getAllTargetingLocales(null);
+            }
+        });
+
+        public static final Catalog<TargetingCriteria> NETWORK_OPERATORS = criteria("network_operators", new Loader<TargetingCriteria>() {
+            @Override
+            public BaseAdsListResponseIterable<TargetingCriteria> load(TwitterAdsTargetingApi api) throws TwitterException {
+                return api.getAllTargetingNetworkOperators(null);
+            }
+        });
+
+        public static final Catalog<TargetingCriteria> TV_MARKETS = criteria("tv_markets", new Loader<TargetingCriteria>() {
+            @Override
+            public BaseAdsListResponseIterable<TargetingCriteria> load(TwitterAdsTargetingApi api) throws TwitterException {
+                return api.getAllTVMarkets();
+            }
+        });
+
+        public static final Catalog<TargetingCriteria> TV_GENRES = criteria("tv_genres", new Loader<TargetingCriteria>() {
+            @Override
+            public BaseAdsListResponseIterable<TargetingCriteria> load(TwitterAdsTargetingApi api) throws TwitterException {
+                return api.getAllTargetingTVGenres();
+            }
+        });
+
+        public static final Catalog<TwitterBehaviorTaxonomy> BEHAVIOR_TAXONOMIES = new Catalog<>("behavior_taxonomies", TwitterBehaviorTaxonomy.class,
+                new Loader<TwitterBehaviorTaxonomy>() {
+                    @Override
+                    public BaseAdsListResponseIterable<TwitterBehaviorTaxonomy> load(TwitterAdsTargetingApi api) throws TwitterException {
+                        return api.getBehaviorTaxonomy(null, Optional.of(MAX_PAGE_SIZE), Optional.<String>absent());
+                    }
+                }, new NameOnly<TwitterBehaviorTaxonomy>() {
+                    @Override
+                    public String nameOf(TwitterBehaviorTaxonomy taxonomy) {
+                        return taxonomy.getName();
+                    }
+                });
+
+        public static final Catalog<IabCategory> IAB_CATEGORIES = new Catalog<>("iab_categories", IabCategory.class, new Loader<IabCategory>() {
+            @Override
+            public BaseAdsListResponseIterable<IabCategory> load(TwitterAdsTargetingApi api) throws TwitterException {
+                return api.getAllIabCategories(null);
+            }
+        }, new NameOnly<IabCategory>() {
+            @Override
+            public String nameOf(IabCategory category) {
+                return category.getName();
+            }
+        });
+
+        private final String name;
+        private final Class<T> itemType;
+        private final Loader<T> loader;
+        private final TargetingTypeahead.Attributes<T> attributes;
+
+        /**
+         * @param name       unique name of the catalog, also the name of its snapshot file
+         * @param itemType   type the entries are deserialized to
+         * @param loader     loads the whole catalog
+         * @param attributes name, weight and location type of an entry, for {@link #search(Catalog, String, LocationType, int)}
+         */
+        public Catalog(String name, Class<T> itemType, Loader<T> loader, TargetingTypeahead.Attributes<T> attributes) {
+            TwitterAdUtil.ensureNotNull(name, "name");
+            TwitterAdUtil.ensureNotNull(itemType, "itemType");
+            TwitterAdUtil.ensureNotNull(loader, "loader");
+            TwitterAdUtil.ensureNotNull(attributes, "attributes");
+            this.name = name;
+            this.itemType = itemType;
+            this.loader = loader;
+            this.attributes = attributes;
+        }
+
+        private static Catalog<TargetingCriteria> criteria(String name, Loader<TargetingCriteria> loader) {
+            return new Catalog<>(name, TargetingCriteria.class, loader, TargetingTypeahead.CRITERIA);
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public String toString() {
+            return "Catalog{" + name + '}';
+        }
+    }
+
+    public interface Loader<T> {
+
+        /**
+         * @return every page of the catalog
+         */
+        BaseAdsListResponseIterable<T> load(TwitterAdsTargetingApi api) throws TwitterException;
+    }
+
+    /**
+     * Entries only searched by name, ranked in catalog order.
+     */
+    private abstract static class NameOnly<T> implements TargetingTypeahead.Attributes<T> {
+
+        @Override
+        public long weightOf(T entry) {
+            return 0;
+        }
+
+        @Override
+        public LocationType locationTypeOf(T entry) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,403 @@
+package twitter4jads.helpers;
+
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+import twitter4jads.models.LocationType;
+import twitter4jads.models.ads.TargetingCriteria;
+import twitter4jads.models.ads.TargetingLocation;
+import twitter4jads.util.TwitterAdUtil;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Search-as-you-type index over a whole targeting catalog, e.g. every location or interest, answering the lookups of a
+ * targeting editor locally instead of with one {@code q} request per keystroke.
+ * <p/>
+ * Names are matched ignoring case, accents and punctuation, anywhere in the name: names starting with the query come
+ * first, then names with a word starting with it, then names containing it; within each group the entries are ranked
+ * by their weight, e.g. the estimated users of an interest. Results can be restricted to a {@link LocationType}.
+ * <p/>
+ * Every trigram of the names, and every one and two characters long name and word start, maps to the array of the
+ * entries containing it in rank order. A lookup checks the entries starting like the query, then the entries having a
+ * word starting like it, then the entries of its rarest trigram, and stops as soon as it has enough of them. The index
+ * is immutable and can be searched by any number of threads.
+ *
+ * @param <T> type of the catalog entries
+ * @see TargetingCatalogStore
+ */
+public class TargetingTypeahead<T> {
+    private static final int START_LENGTH = 2;
+    private static final int GRAM_LENGTH = 3;
+    private static final char WORD_START = ' ';
+    private static final char NAME_START = '^';
+    private static final int[] NO_ENTRIES = new int[0];
+    private static final byte NO_LOCATION_TYPE = -1;
+
+    private static final int NAME_PREFIX = 0;
+    private static final int WORD_PREFIX = 1;
+    private static final int INFIX = 2;
+    private static final int NO_MATCH = -1;
+
+    private static final Pattern ACCENTS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    /**
+     * Locations ranked by type, countries first, as the API gives no population.
+     */
+    public static final Attributes<TargetingLocation> LOCATIONS = new Attributes<TargetingLocation>() {
+        @Override
+        public String nameOf(TargetingLocation location) {
+            return location.getName();
+        }
+
+        @Override
+        public long weightOf(TargetingLocation location) {
+            return location.getLocationType() == null ? 0 : locationTypeWeight(location.getLocationType());
+        }
+
+        @Override
+        public LocationType locationTypeOf(TargetingLocation location) {
+            return location.getLocationType();
+        }
+    };
+
+    /**
+     * Criteria ranked by their estimated users, when the catalog gives them.
+     */
+    public static final Attributes<TargetingCriteria> CRITERIA = new Attributes<TargetingCriteria>() {
+        @Override
+        public String nameOf(TargetingCriteria criteria) {
+            return criteria.getName();
+        }
+
+        @Override
+        public long weightOf(TargetingCriteria criteria) {
+            return criteria.getEstimatedUsers() == null ? 0 : criteria.getEstimatedUsers();
+        }
+
+        @Override
+        public LocationType locationTypeOf(TargetingCriteria criteria) {
+            return criteria.getLocationType();
+        }
+    };
+
+    // entries by decreasing weight, so that postings in ascending order are in rank order
+    private final List<T> entries;
+    private final String[] names;
+    private final byte[] locationTypes;
+    private final int[][] locationTypeRanks;
+    private final Map<String, int[]> postings;
+
+    /**
+     * @param entries    the whole catalog
+     * @param attributes name, weight and location type of an entry
+     */
+    public TargetingTypeahead(Collection<T> entries, Attributes<T> attributes) {
+        TwitterAdUtil.ensureNotNull(entries, "entries");
+        TwitterAdUtil.ensureNotNull(attributes, "attributes");
+        List<T> unranked = new ArrayList<>(entries);
+        final long[] weights = new long[unranked.size()];
+        Integer[] order = new Integer[unranked.size()];
+        for (int i = 0; i < order.length; i++) {
+            weights[i] = attributes.weightOf(unranked.get(i));
+            order[i] = i;
+        }
+        // stable, entries of the same weight keep the catalog order
+        Arrays.sort(order, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer a, Integer b) {
+                return Long.compare(weights[b], weights[a]);
+            }
+        });
+
+        // the same names come back over and over, e.g. cities of different countries
+        Interner<String> interner = Interners.newStrongInterner();
+        List<T> ranked = new ArrayList<>(order.length);
+        names = new String[order.length];
+        locationTypes = new byte[order.length];
+        for (int rank = 0; rank < order.length; rank++) {
+            T entry = unranked.get(order[rank]);
+            ranked.add(entry);
+            names[rank] = interner.intern(normalize(attributes.nameOf(entry)));
+            LocationType locationType = attributes.locationTypeOf(entry);
+            locationTypes[rank] = locationType == null ? NO_LOCATION_TYPE : (byte) locationType.ordinal();
+        }
+        this.entries = Collections.unmodifiableList(ranked);
+        this.locationTypeRanks = buildLocationTypeRanks(locationTypes);
+        this.postings = buildPostings(names);
+    }
+
+    private static int[][] buildLocationTypeRanks(byte[] locationTypes) {
+        int[] counts = new int[LocationType.values().length];
+        for (byte locationType : locationTypes) {
+            if (locationType != NO_LOCATION_TYPE) {
+                counts[locationType]++;
+            }
+        }
+        int[][] ranks = new int[counts.length][];
+        for (int locationType = 0; locationType < counts.length; locationType++) {
+            ranks[locationType] = new int[counts[locationType]];
+            counts[locationType] = 0;
+        }
+        for (int rank = 0; rank < locationTypes.length; rank++) {
+            byte locationType = locationTypes[rank];
+            if (locationType != NO_LOCATION_TYPE) {
+                ranks[locationType][counts[locationType]++] = rank;
+            }
+        }
+        return ranks;
+    }
+
+    /**
+     * Counts the entries of every gram first, so that each posting array is allocated once at its final size.
+     */
+    private static Map<String, int[]> buildPostings(String[] names) {
+        Map<String, int[]> counts = new HashMap<>();
+        for (int rank = 0; rank < names.length; rank++) {
+            for (String gram : gramsOf(names[rank])) {
+                int[] count = counts.get(gram);
+                if (count == null) {
+                    counts.put(gram, new int[]{1});
+                } else {
+                    count[0]++;
+                }
+            }
+        }
+        Map<String, int[]> postings = new HashMap<>(counts.size() * 4 / 3 + 1);
+        for (Map.Entry<String, int[]> count : counts.entrySet()) {
+            postings.put(count.getKey(), new int[count.getValue()[0]]);
+            // from now on the next position to fill
+            count.getValue()[0] = 0;
+        }
+        for (int rank = 0; rank < names.length; rank++) {
+            for (String gram : gramsOf(names[rank])) {
+                postings.get(gram)[counts.get(gram)[0]++] = rank;
+            }
+        }
+        return postings;
+    }
+
+    /**
+     * @return the distinct one and two characters long name and word starts of the name, each behind its marker, and its
+     * trigrams with a word start marker in front
+     */
+    private static Collection<String> gramsOf(String name) {
+        List<String> grams = new ArrayList<>();
+        for (int length = 1; length <= START_LENGTH; length++) {
+            addDistinct(grams, NAME_START + name.substring(0, Math.min(length, name.length())));
+        }
+        String marked = WORD_START + name;
+        for (int start = 0; start < marked.length(); start++) {
+            if (marked.charAt(start) == WORD_START) {
+                for (int length = 1; length <= START_LENGTH; length++) {
+                    addDistinct(grams, marked.substring(start, Math.min(start + 1 + length, marked.length())));
+                }
+            }
+            if (start + GRAM_LENGTH <= marked.length()) {
+                addDistinct(grams, marked.substring(start, start + GRAM_LENGTH));
+            }
+        }
+        return grams;
+    }
+
+    private static void addDistinct(List<String> grams, String gram) {
+        if (gram.length() > 1 && !grams.contains(gram)) {
+            grams.add(gram);
+        }
+    }
+
+    /**
+     * @param q     part of a name, e.g. "york", "new y" or "ork" for New York
+     * @param limit most entries returned
+     * @return best matching entries first; the heaviest entries for a blank query
+     */
+    public List<T> search(String q, int limit) {
+        return search(q, null, limit);
+    }
+
+    /**
+     * @param q            part of a name, e.g. "york", "new y" or "ork" for New York
+     * @param locationType (optional) only entries of this type
+     * @param limit        most entries returned
+     * @return best matching entries first; the heaviest entries for a blank query
+     */
+    public List<T> search(String q, LocationType locationType, int limit) {
+        if (limit <= 0) {
+            return Collections.emptyList();
+        }
+        String query = normalize(q);
+        byte wantedType = locationType == null ? NO_LOCATION_TYPE : (byte) locationType.ordinal();
+        List<T> result = new ArrayList<>(Math.min(limit, entries.size()));
+        if (query.isEmpty()) {
+            if (wantedType != NO_LOCATION_TYPE) {
+                collect(locationTypeRanks[wantedType], query, NAME_PREFIX, wantedType, limit, result);
+                return result;
+            }
+            for (int rank = 0; rank < entries.size() && result.size() < limit; rank++) {
+                result.add(entries.get(rank));
+            }
+            return result;
+        }
+        // each group is looked up on its own, so that a lookup stops as soon as the best entries are found
+        String start = query.substring(0, Math.min(query.length(), START_LENGTH));
+        int[] nameStarts = postingsOf(NAME_START + start);
+        int[] wordStarts = postingsOf(WORD_START + start);
+        if (query.length() < GRAM_LENGTH) {
+            // too short to be told apart inside words, only name and word starts match
+            collect(nameStarts, query, NAME_PREFIX, wantedType, limit, result);
+            collect(wordStarts, query, WORD_PREFIX, wantedType, limit, result);
+        } else {
+            int[] candidates = candidatesOf(query);
+            collect(shorter(nameStarts, candidates), query, NAME_PREFIX, wantedType, limit, result);
+            collect(shorter(wordStarts, candidates), query, WORD_PREFIX, wantedType, limit, result);
+            collect(candidates, query, INFIX, wantedType, limit, result);
+        }
+        return result;
+    }
+
+    /**
+     * Adds the candidates matching the query the given way, in rank order, until the result is full.
+     */
+    private void collect(int[] candidates, String query, int matchType, byte wantedType, int limit, List<T> result) {
+        for (int i = 0; i < candidates.length && result.size() < limit; i++) {
+            int rank = candidates[i];
+            if ((wantedType == NO_LOCATION_TYPE || locationTypes[rank] == wantedType) && matchType(names[rank], query) == matchType) {
+                result.add(entries.get(rank));
+            }
+        }
+    }
+
+    /**
+     * @return the entries having every trigram of the query, in rank order
+     */
+    private int[] candidatesOf(String query) {
+        int[][] grams = new int[query.length() - GRAM_LENGTH + 1][];
+        for (int start = 0; start < grams.length; start++) {
+            grams[start] = postingsOf(query.substring(start, start + GRAM_LENGTH));
+        }
+        Arrays.sort(grams, new Comparator<int[]>() {
+            @Override
+            public int compare(int[] a, int[] b) {
+                return Integer.compare(a.length, b.length);
+            }
+        });
+        int[] candidates = grams[0];
+        for (int i = 1; i < grams.length && candidates.length > 0; i++) {
+            candidates = intersect(candidates, grams[i]);
+        }
+        return candidates;
+    }
+
+    /**
+     * Galloping intersection, in time proportional to the shorter array times the log of the longer one.
+     */
+    private static int[] intersect(int[] shorter, int[] longer) {
+        int[] both = new int[shorter.length];
+        int count = 0;
+        int from = 0;
+        for (int i = 0; i < shorter.length && from < longer.length; i++) {
+            int rank = shorter[i];
+            int step = 1;
+            int to = from;
+            while (to < longer.length && longer[to] < rank) {
+                from = to + 1;
+                to += step;
+                step <<= 1;
+            }
+            int at = Arrays.binarySearch(longer, from, Math.min(to + 1, longer.length), rank);
+            if (at >= 0) {
+                both[count++] = rank;
+                from = at + 1;
+            } else {
+                from = -at - 1;
+            }
+        }
+        return Arrays.copyOf(both, count);
+    }
+
+    private static int[] shorter(int[] a, int[] b) {
+        return a.length <= b.length ? a : b;
+    }
+
+    private int[] postingsOf(String gram) {
+        int[] ranks = postings.get(gram);
+        return ranks == null ? NO_ENTRIES : ranks;
+    }
+
+    private static int matchType(String name, String query) {
+        if (name.startsWith(query)) {
+            return NAME_PREFIX;
+        }
+        int at = name.indexOf(query);
+        if (at == -1) {
+            return NO_MATCH;
+        }
+        for (; at != -1; at = name.indexOf(query, at + 1)) {
+            if (name.charAt(at - 1) == WORD_START) {
+                return WORD_PREFIX;
+            }
+        }
+        return INFIX;
+    }
+
+    /**
+     * @return number of entries indexed
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * @return the text lower-cased, without accents, with words separated by single spaces
+     */
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String decomposed = ACCENTS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+        return SEPARATORS.matcher(decomposed.toLowerCase(Locale.ROOT)).replaceAll(" ").trim();
+    }
+
+    private static long locationTypeWeight(LocationType locationType) {
+        switch (locationType) {
+            case COUNTRIES:
+                return 4;
+            case REGIONS:
+                return 3;
+            case METROS:
+                return 2;
+            case CITIES:
+                return 1;
+            default:
+                return 0;
+        }
+    }
+
+    /**
+     * What the index needs to know about a catalog entry.
+     */
+    public interface Attributes<T> {
+
+        String nameOf(T entry);
+
+        /**
+         * @return rank of the entry among entries matching as well, heaviest first, e.g. its reach
+         */
+        long weightOf(T entry);
+
+        /**
+         * @return type the entry is filtered by, null if it is not a location
+         */
+        LocationType locationTypeOf(T entry);
+    }
+}
@@ -3,7 +3,6 @@ package twitter4jads.impl;
 import com.google.gson.annotations.SerializedName;
 import twitter4jads.models.ads.audience.CustomAudienceUserDetails;
 
-import java.util.Set;
 
 /**
  * Twitter V5 Audience API params structure User: mayankbhargava
@@ -13,8 +12,9 @@ import java.util.Set;
  */
 class NewAdsAudienceApiParams {
 
+    // a Set or a CompactCustomAudienceUsers; declared as Object so that gson serializes it by its runtime type
     @SerializedName("users")
-    private Set<CustomAudienceUserDetails> customAudienceUserDetails;
+    private Object customAudienceUserDetails;
 
     @SerializedName("effective_at")
     private String effectiveAt;     //in ISO 8601
@@ -22,11 +22,12 @@ class NewAdsAudienceApiParams {
     @SerializedName("expire_at")
     private String expireAt;        //in ISO 8601
 
-    public Set<CustomAudienceUserDetails> getCustomAudienceUserDetails() {
-        return customAudienceUserDetails;
+    @SuppressWarnings("unchecked")
+    public Iterable<CustomAudienceUserDetails> getCustomAudienceUserDetails() {
+        return (Iterable<CustomAudienceUserDetails>) customAudienceUserDetails;
     }
 
-    public void setCustomAudienceUserDetails(Set<CustomAudienceUserDetails> customAudienceUserDetails) {
+    public void setCustomAudienceUserDetails(Iterable<CustomAudienceUserDetails> customAudienceUserDetails) {
         this.customAudienceUserDetails = customAudienceUserDetails;
     }
 
@@ -5,6 +5,8 @@ import static twitter4jads.TwitterAdsConstants.PARAM_WITH_DELETED;
 import static twitter4jads.TwitterAdsConstants.PATH_FEATURES;
 import static twitter4jads.TwitterAdsConstants.PATH_PROMOTABLE_USERS;
 import static twitter4jads.TwitterAdsConstants.PREFIX_ACCOUNTS_URI_5;
+import static twitter4jads.util.TwitterAdsGson.listResponseType;
+import static twitter4jads.util.TwitterAdsGson.responseType;
 
 import java.lang.reflect.Type;
 import java.util.ArrayList;
@@ -14,7 +16,6 @@ import org.apache.commons.collections.CollectionUtils;
 
 import com.google.common.base.Optional;
 import com.google.common.collect.Lists;
-import com.google.gson.reflect.TypeToken;
 
 import twitter4jads.BaseAdsListResponse;
 import twitter4jads.BaseAdsListResponseIterable;
@@ -51,8 +52,7 @@ public class TwitterAdsAccountApiImpl implements TwitterAdsAccountApi {
         if (sortByField!= null && sortByField.isPresent()) {
             param.add(new HttpParameter(PARAM_SORT_BY, sortByField.get().getField()));
         }
-        Type type = new TypeToken<BaseAdsListResponse<AdAccount>>() {
-        }.getType();
+        Type type = listResponseType(AdAccount.class);
 
         return twitterAdsClient.executeHttpListRequest(baseUrl, param, type);
     }
@@ -64,8 +64,7 @@ public class TwitterAdsAccountApiImpl implements TwitterAdsAccountApi {
 
         final String baseUrl = twitterAdsClient.getBaseAdsAPIUrl() + PREFIX_ACCOUNTS_URI_5 + accountId;
         param = new HttpParameter[]{new HttpParameter(PARAM_WITH_DELETED, withDeleted)};
-        Type type = new TypeToken<BaseAdsResponse<AdAccount>>() {
-        }.getType();
+        Type type = responseType(AdAccount.class);
 
         return twitterAdsClient.executeHttpRequest(baseUrl, param, type, HttpVerb.GET);
     }
@@ -76,10 +75,9 @@ public class TwitterAdsAccountApiImpl implements TwitterAdsAccountApi {
         final HttpResponse httpResponse = twitterAdsClient.getWithoutMergeOfParams(baseUrl, null);
         final List<String> permissionsFromChannel = Lists.newArrayList();
         try {
-            Type type = new TypeToken<BaseAdsListResponse<String>>() {
-            }.getType();
+            Type type = listResponseType(String.class);
 
-            final BaseAdsListResponse<String> permissions = TwitterAdUtil.constructBaseAdsListResponse(httpResponse, httpResponse.asString(), type);
+            final BaseAdsListResponse<String> permissions = TwitterAdUtil.constructBaseAdsListResponse(httpResponse, type);
             if (permissions == null || CollectionUtils.isEmpty(permissions.getData())) {
                 throw new TwitterException("Empty response returned for Account Permissions");
             }
@@ -101,8 +99,7 @@ public class TwitterAdsAccountApiImpl implements TwitterAdsAccountApi {
 
         final String baseUrl = twitterAdsClient.getBaseAdsAPIUrl() + PREFIX_ACCOUNTS_URI_5 + accountId
                 + PATH_PROMOTABLE_USERS;
-        final Type type = new TypeToken<BaseAdsListResponse<PromotableUser>>() {
-        }.getType();
+        final Type type = listResponseType(PromotableUser.class);
 
         return twitterAdsClient.executeHttpListRequest(baseUrl, params, type);
     }
@@ -14,20 +14,30 @@ import twitter4jads.BaseAdsResponse;
 import twitter4jads.ErrorResponse;
 import twitter4jads.TwitterAdsClient;
 import twitter4jads.api.TwitterAdsAudienceApi;
+import twitter4jads.internal.async.TwitterAdsExecutors;
+import twitter4jads.internal.http.ExponentialBackoffRetryPolicy;
 import twitter4jads.internal.http.HttpParameter;
+import twitter4jads.internal.http.HttpRequest;
 import twitter4jads.internal.http.HttpResponse;
+import twitter4jads.internal.http.RequestMethod;
+import twitter4jads.internal.http.RetryPolicy;
 import twitter4jads.internal.models4j.RateLimitStatus;
 import twitter4jads.internal.models4j.TwitterException;
 import twitter4jads.models.ads.CustomAudience;
 import twitter4jads.models.ads.HttpVerb;
 import twitter4jads.models.ads.audience.AudienceApiResponse;
+import twitter4jads.models.ads.audience.CompactCustomAudienceUsers;
+import twitter4jads.models.ads.audience.CustomAudienceBatchResult;
 import twitter4jads.models.ads.audience.CustomAudienceMatchingRules;
 import twitter4jads.models.ads.audience.CustomAudienceOperation;
+import twitter4jads.models.ads.audience.CustomAudienceOperationType;
 import twitter4jads.models.ads.audience.CustomAudiencePermission;
 import twitter4jads.models.ads.audience.CustomAudiencePermissionLevel;
 import twitter4jads.models.ads.audience.CustomAudienceUserDetails;
 import twitter4jads.util.TwitterAdUtil;
+import twitter4jads.util.TwitterAdsGson;
 
+import java.io.IOException;
 import java.lang.reflect.Type;
 import java.util.ArrayList;
 import java.util.Comparator;
@@ -35,6 +45,13 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.PriorityQueue;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 import static twitter4jads.TwitterAdsConstants.CUSTOM_AUDIENCE_UPDATE_BATCH_SIZE;
@@ -51,6 +68,8 @@ import static twitter4jads.TwitterAdsConstants.USERS;
 import static twitter4jads.internal.http.HttpResponseCode.BAD_REQUEST;
 import static twitter4jads.internal.http.HttpResponseCode.NOT_FOUND;
 import static twitter4jads.internal.http.HttpResponseCode.TOO_MANY_REQUESTS;
+import static twitter4jads.util.TwitterAdsGson.listResponseType;
+import static twitter4jads.util.TwitterAdsGson.responseType;
 
 /**
  * User: abhay
@@ -60,9 +79,22 @@ import static twitter4jads.internal.http.HttpResponseCode.TOO_MANY_REQUESTS;
 public class TwitterAdsAudienceApiImpl implements TwitterAdsAudienceApi {
 
     private final TwitterAdsClient twitterAdsClient;
-    private static final Gson GSON = new Gson();
+    private static final Gson GSON = TwitterAdsGson.GSON;
     private static final long SIXTY_FOUR_MB = 64 * 1024 * 1024;
     private static final Set<Integer> acceptableApiErrors = Sets.newHashSet(BAD_REQUEST, NOT_FOUND, TOO_MANY_REQUESTS);
+    private static final int UPLOAD_THREADS = 8;
+    private static final int MAX_BATCH_RETRIES = 3;
+
+    // sending a batch twice adds or removes the same users, so its POST is retried like an idempotent request
+    private static final RetryPolicy BATCH_RETRY_POLICY =
+            new ExponentialBackoffRetryPolicy.Builder().setMaxRetries(MAX_BATCH_RETRIES)
+                                                       .setBaseDelayMillis(TimeUnit.SECONDS.toMillis(2))
+                                                       .setRetryableMethods(RequestMethod.POST)
+                                                       .build();
+
+    // shared by all streamed uploads; the parallelism of one upload bounds the batches it holds, not the threads
+    private static final ExecutorService UPLOADER =
+            TwitterAdsExecutors.newSharedThreadPool("Twitter4J Ads Audience Uploader", UPLOAD_THREADS, 1, TimeUnit.MINUTES);
 
     public TwitterAdsAudienceApiImpl(TwitterAdsClient twitterAdsClient) {
         this.twitterAdsClient = twitterAdsClient;
@@ -90,8 +122,7 @@ public class TwitterAdsAudienceApiImpl implements TwitterAdsAudienceApi {
             params.add(new HttpParameter(PARAM_Q, q.get()));
         }
 
-        final Type type = new TypeToken<BaseAdsListResponse<CustomAudience>>() {
-        }.getType();
+        final Type type = listResponseType(CustomAudience.class);
 
         return twitterAdsClient.executeHttpListRequest(baseUrl, params, type);
     }
@@ -103,8 +134,7 @@ public class TwitterAdsAudienceApiImpl implements TwitterAdsAudienceApi {
         TwitterAdUtil.ensureNotNull(customAudienceId, "customAudienceId");
         final String baseUrl = twitterAdsClient.getBaseAdsAPIUrl() + PREFIX_ACCOUNTS_URI_5 + accountId
                 + PATH_CUSTOM_AUDIENCE + customAudienceId;
-        final Type type = new TypeToken<BaseAdsResponse<CustomAudience>>() {
-        }.getType();
+        final Type type = responseType(CustomAudience.class);
 
         return twitterAdsClient.executeHttpRequest(baseUrl, null, type, HttpVerb.GET);
     }
@@ -115,8 +145,7 @@ public class TwitterAdsAudienceApiImpl implements TwitterAdsAudienceApi {
         TwitterAdUtil.ensureNotNull(customAudienceId, "customAudienceId");
         final String baseUrl = twitterAdsClient.getBaseAdsAPIUrl() + PREFIX_ACCOUNTS_URI_5 + accountId
                 + PATH_CUSTOM_AUDIENCE + customAudienceId;
-        final Type type = new TypeToken<BaseAdsResponse<CustomAudience>>() {
-        }.getType();
+        final Type type = responseType(CustomAudience.class);
 
         return twitterAdsClient.executeHttpRequest(baseUrl, null, type, HttpVerb.DELETE);
     }
@@ -131,8 +160,7 @@ public class TwitterAdsAudienceApiImpl implements TwitterAdsAudienceApi {
         final List<HttpParameter> params = new ArrayList<>();
         params.add(new HttpParameter("name", name));
 
-        final Type type = new TypeToken<BaseAdsResponse<CustomAudience>>() {
-        }.getType();
+        final Type type = responseType(CustomAudience.class);
         return twitterAdsClient.executeHttpRequest(baseUrl, params.toArray(new HttpParameter[params.size()]), type, HttpVerb.POST);
     }
 
@@ -151,8 +179,7 @@ public class TwitterAdsAudienceApiImpl implements TwitterAdsAudienceApi {
             params.add(new HttpParameter("rule_value", customAudienceMatchingRules.getRuleValue()));
         }
 
-        final Type type = new TypeToken<BaseAdsResponse<CustomAudienceMatchingRules>>() {
-        }.getType();
+        final Type type = responseType(CustomAudienceMatchingRules.class);
         return twitterAdsClient.executeHttpRequest(baseUrl, params.toArray(new HttpParameter[params.size()]), type, HttpVerb.POST);
     }
 
@@ -167,7 +194,7 @@ public class TwitterAdsAudienceApiImpl implements TwitterAdsAudienceApi {
         Type type = new TypeToken<BaseAdsListBatchPostResponse<CustomAudience>>() {
         }.getType();
         final HttpResponse httpResponse = twitterAdsClient.postBatchRequest(baseUrl, requestBody);
-        return GSON.fromJson(httpResponse.asString(), type);
+        return httpResponse.asObject(GSON, type);
     }
 
     @Override
@@ -181,7 +208,6 @@ public class TwitterAdsAudienceApiImpl implements TwitterAdsAudienceApi {
         final String baseUrl =
                 twitterAdsClient.getBaseAdsAPIUrl() + PREFIX_ACCOUNTS_URI_5 + accountId + PATH_CUSTOM_AUDIENCE
                         + customAudienceId + SLASH + USERS;
-        final Gson gson = new Gson();
         final List<CustomAudienceOperation> result = Lists.newArrayList();
 
         final Iterator<List<CustomAudienceOperation>> batchIterator = generateBatchSequence(operations);
@@ -190,7 +216,7 @@ public class TwitterAdsAudienceApiImpl implements TwitterAdsAudienceApi {
             final List<CustomAudienceOperation> batch = batchIterator.next();
             final List<NewAdsAudienceApiOperation> apiOperation =
                     batch.stream().map(this::generateRequestOperation).collect(Collectors.toList());
-            final String requestBody = gson.toJson(apiOperation);
+            final String requestBody = GSON.toJson(apiOperation);
             final AudienceApiResponse apiResponse = publishAudienceWithRetry(baseUrl, requestBody);
             final boolean errorFlag = handleAudienceUpdateResponse(batch, apiResponse, result);
             if (errorFlag) {
@@ -201,6 +227,101 @@ public class TwitterAdsAudienceApiImpl implements TwitterAdsAudienceApi {
         return result;
     }
 
+    @Override
+    public int uploadCustomAudienceUsers(String accountId, String customAudienceId, CustomAudienceOperationType operationType,
+                                         String effectiveFrom, String expireAt, Iterator<CustomAudienceUserDetails> users, int parallelism,
+                                         Consumer<CustomAudienceBatchResult> listener) throws TwitterException {
+        TwitterAdUtil.ensureNotNull(accountId, "AccountId");
+        TwitterAdUtil.ensureNotNull(customAudienceId, "customAudienceId");
+        TwitterAdUtil.ensureNotNull(operationType, "operationType");
+        TwitterAdUtil.ensureNotNull(users, "users");
+        TwitterAdUtil.ensureNotNull(listener, "listener");
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism must be at least 1");
+        }
+
+        final String baseUrl =
+                twitterAdsClient.getBaseAdsAPIUrl() + PREFIX_ACCOUNTS_URI_5 + accountId + PATH_CUSTOM_AUDIENCE
+                        + customAudienceId + SLASH + USERS;
+        // bounds the batches held in memory, not only the ones being sent
+        final Semaphore inFlight = new Semaphore(parallelism);
+        final AtomicInteger failedBatches = new AtomicInteger();
+        final AtomicReference<RuntimeException> failure = new AtomicReference<>();
+        final AtomicBoolean abandoned = new AtomicBoolean();
+        final Object listenerLock = new Object();
+        int batchNumber = 0;
+        boolean completed = false;
+        try {
+            while (failure.get() == null && users.hasNext()) {
+                final CompactCustomAudienceUsers batchUsers = new CompactCustomAudienceUsers(CUSTOM_AUDIENCE_UPDATE_BATCH_SIZE);
+                final List<CustomAudienceUserDetails> rejectedUsers = Lists.newArrayList();
+                while (batchUsers.size() + rejectedUsers.size() < CUSTOM_AUDIENCE_UPDATE_BATCH_SIZE && users.hasNext()) {
+                    final CustomAudienceUserDetails user = users.next();
+                    if (CompactCustomAudienceUsers.hasIdentifiers(user) && CompactCustomAudienceUsers.isHashed(user)) {
+                        batchUsers.add(user);
+                    } else {
+                        rejectedUsers.add(user);
+                    }
+                }
+                if (batchUsers.isEmpty() && rejectedUsers.isEmpty()) {
+                    break;
+                }
+                final CustomAudienceOperation operation = new CustomAudienceOperation();
+                operation.setOperationType(operationType);
+                operation.setEffectiveFrom(effectiveFrom);
+                operation.setExpireAt(expireAt);
+                operation.setCompactUsers(batchUsers);
+                final int number = batchNumber++;
+
+                inFlight.acquire();
+                UPLOADER.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        try {
+                            if (abandoned.get() || failure.get() != null) {
+                                return;
+                            }
+                            final CustomAudienceBatchResult result = batchUsers.isEmpty() ?
+                                    new CustomAudienceBatchResult(number, operation, 0, null, rejectedUsers) :
+                                    uploadBatch(baseUrl, number, operation, rejectedUsers);
+                            if (!result.isSuccessful()) {
+                                failedBatches.incrementAndGet();
+                            }
+                            synchronized (listenerLock) {
+                                if (failure.get() == null) {
+                                    listener.accept(result);
+                                }
+                            }
+                        } catch (RuntimeException e) {
+                            failure.compareAndSet(null, e);
+                        } finally {
+                            inFlight.release();
+                        }
+                    }
+                });
+            }
+            // wait for the last batches
+            inFlight.acquire(parallelism);
+            completed = true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TwitterException("Interrupted while uploading custom audience users", e);
+        } finally {
+            if (!completed) {
+                // users could not be read: drop the queued batches, and let the ones being sent finish before the failure
+                // reaches the caller
+                abandoned.set(true);
+                if (!Thread.currentThread().isInterrupted()) {
+                    inFlight.acquireUninterruptibly(parallelism);
+                }
+            }
+        }
+        if (failure.get() != null) {
+            throw failure.get();
+        }
+        return failedBatches.get();
+    }
+
     @Override
     public BaseAdsListResponse<CustomAudiencePermission> getCustomAudiencePermission(String accountId, String customAudienceId) throws
             TwitterException {
@@ -210,8 +331,7 @@ public class TwitterAdsAudienceApiImpl implements TwitterAdsAudienceApi {
                 + PATH_CUSTOM_AUDIENCE + customAudienceId
                 + PATH_CUSTOM_AUDIENCE_PERMISSIONS;
 
-        final Type type = new TypeToken<BaseAdsListResponse<CustomAudiencePermission>>() {
-        }.getType();
+        final Type type = listResponseType(CustomAudiencePermission.class);
         return twitterAdsClient.executeRequest(baseUrl, null, type, HttpVerb.GET);
     }
 
@@ -229,8 +349,7 @@ public class TwitterAdsAudienceApiImpl implements TwitterAdsAudienceApi {
         params.add(new HttpParameter("granted_account_id", grantedAccountId));
         params.add(new HttpParameter("permission_level", CustomAudiencePermissionLevel.READ_WRITE.name()));
 
-        final Type type = new TypeToken<BaseAdsResponse<CustomAudiencePermission>>() {
-        }.getType();
+        final Type type = responseType(CustomAudiencePermission.class);
         return twitterAdsClient.executeHttpRequest(baseUrl, params.toArray(new HttpParameter[params.size()]), type, HttpVerb.POST);
     }
 
@@ -238,7 +357,7 @@ public class TwitterAdsAudienceApiImpl implements TwitterAdsAudienceApi {
 
     private Iterator<List<CustomAudienceOperation>> generateBatchSequence(List<CustomAudienceOperation> operations) {
         PriorityQueue<CustomAudienceOperation> operationPriorityQueue =
-                new PriorityQueue<>(Comparator.<CustomAudienceOperation>comparingInt(operation -> operation.getUsers().size()).reversed());
+                new PriorityQueue<>(Comparator.<CustomAudienceOperation>comparingInt(CustomAudienceOperation::getUserCount).reversed());
 
         for (CustomAudienceOperation operation : operations) {
             operationPriorityQueue.offer(operation);
@@ -255,7 +374,7 @@ public class TwitterAdsAudienceApiImpl implements TwitterAdsAudienceApi {
                 List<CustomAudienceOperation> toReturn = Lists.newArrayList();
                 int totalSize = 0;
                 while (totalSize < CUSTOM_AUDIENCE_UPDATE_BATCH_SIZE && !operationPriorityQueue.isEmpty()) {
-                    int peekSize = operationPriorityQueue.peek().getUsers().size();
+                    int peekSize = operationPriorityQueue.peek().getUserCount();
                     if (totalSize + peekSize < CUSTOM_AUDIENCE_UPDATE_BATCH_SIZE) {
                         totalSize += peekSize;
                         toReturn.add(operationPriorityQueue.poll());
@@ -270,14 +389,21 @@ public class TwitterAdsAudienceApiImpl implements TwitterAdsAudienceApi {
                         fractionalTopOperation.setEffectiveFrom(topOperation.getEffectiveFrom());
                         fractionalTopOperation.setExpireAt(topOperation.getExpireAt());
 
-                        Set<CustomAudienceUserDetails> fractionalTopOperationUsers = Sets.newHashSet();
-                        Iterator<CustomAudienceUserDetails> topOperationUsersIterator = topOperation.getUsers().iterator();
-                        while (diff > 0 && topOperationUsersIterator.hasNext()) {
-                            fractionalTopOperationUsers.add(topOperationUsersIterator.next());
-                            diff--;
+                        if (topOperation.getCompactUsers() != null) {
+                            // views share the packed users, nothing is copied
+                            CompactCustomAudienceUsers compactUsers = topOperation.getCompactUsers();
+                            fractionalTopOperation.setCompactUsers(compactUsers.subList(0, diff));
+                            topOperation.setCompactUsers(compactUsers.subList(diff, compactUsers.size()));
+                        } else {
+                            Set<CustomAudienceUserDetails> fractionalTopOperationUsers = Sets.newHashSet();
+                            Iterator<CustomAudienceUserDetails> topOperationUsersIterator = topOperation.getUsers().iterator();
+                            while (diff > 0 && topOperationUsersIterator.hasNext()) {
+                                fractionalTopOperationUsers.add(topOperationUsersIterator.next());
+                                diff--;
+                            }
+                            topOperation.getUsers().removeAll(fractionalTopOperationUsers);
+                            fractionalTopOperation.setUsers(fractionalTopOperationUsers);
                         }
-                        topOperation.getUsers().removeAll(fractionalTopOperationUsers);
-                        fractionalTopOperation.setUsers(fractionalTopOperationUsers);
 
                         operationPriorityQueue.offer(topOperation);
                         toReturn.add(fractionalTopOperation);
@@ -296,7 +422,8 @@ public class TwitterAdsAudienceApiImpl implements TwitterAdsAudienceApi {
         NewAdsAudienceApiParams apiParams = new NewAdsAudienceApiParams();
         apiParams.setExpireAt(operation.getExpireAt());
         apiParams.setEffectiveAt(operation.getEffectiveFrom());
-        apiParams.setCustomAudienceUserDetails(operation.getUsers());
+        apiParams.setCustomAudienceUserDetails(
+                operation.getCompactUsers() != null ? operation.getCompactUsers() : operation.getUsers());
 
         apiOperation.setParams(apiParams);
         return apiOperation;
@@ -334,6 +461,56 @@ public class TwitterAdsAudienceApiImpl implements TwitterAdsAudienceApi {
         return null;
     }
 
+    /**
+     * Sends a batch, again on its own after a network error, a server error or a rate limit, with the backoff of
+     * {@link #BATCH_RETRY_POLICY}. The other batches carry on meanwhile.
+     */
+    private CustomAudienceBatchResult uploadBatch(String baseUrl, int batchNumber, CustomAudienceOperation operation,
+                                                  List<CustomAudienceUserDetails> rejectedUsers) {
+        final String requestBody = GSON.toJson(Lists.newArrayList(generateRequestOperation(operation)));
+        final HttpRequest request = new HttpRequest(RequestMethod.POST, baseUrl, null, requestBody, null, null);
+        int retryCount = 0;
+        long previousDelayMillis = 0;
+        long waitedMillis = 0;
+        while (true) {
+            try {
+                final AudienceApiResponse apiResponse = publishAudience(baseUrl, requestBody);
+                // rejected users are reported, not retried: sending them again would not change the outcome
+                handleAudienceUpdateResponse(Lists.newArrayList(operation), apiResponse, Lists.<CustomAudienceOperation>newArrayList());
+                final Long successCount = apiResponse.getData() == null ? null : apiResponse.getData().getSuccessCount();
+                return new CustomAudienceBatchResult(batchNumber, operation, successCount == null ? 0 : successCount, null, rejectedUsers);
+            } catch (TwitterException eX) {
+                long delayMillis = RetryPolicy.NO_RETRY;
+                if (eX.isCausedByNetworkIssue() || eX.getResponse() != null) {
+                    delayMillis = BATCH_RETRY_POLICY.retryDelayMillis(request, retryCount, eX.getResponse(),
+                                                                      eX.isCausedByNetworkIssue() ? (IOException) eX.getCause() : null,
+                                                                      previousDelayMillis, waitedMillis);
+                }
+                if (delayMillis == RetryPolicy.NO_RETRY) {
+                    return new CustomAudienceBatchResult(batchNumber, operation, 0, eX, rejectedUsers);
+                }
+                TwitterAdUtil.reallySleep(delayMillis);
+                retryCount++;
+                previousDelayMillis = delayMillis;
+                waitedMillis += delayMillis;
+            }
+        }
+    }
+
+    private AudienceApiResponse publishAudience(String baseUrl, String requestBody) throws TwitterException {
+        try {
+            final HttpResponse httpResponse = twitterAdsClient.postRequest(baseUrl, requestBody);
+            return TwitterAdUtil.constructAudienceApiResponse(httpResponse, httpResponse.asString());
+        } catch (TwitterException eX) {
+            // a rate limit that outlasted the retry policy fails the batch
+            if (eX.getStatusCode() == TOO_MANY_REQUESTS || !acceptableApiErrors.contains(eX.getStatusCode())
+                    || StringUtils.isBlank(eX.getActualDetailMessage()) || eX.getResponse() == null) {
+                throw eX;
+            }
+            return TwitterAdUtil.constructAudienceApiResponse(eX.getResponse(), eX.getActualDetailMessage());
+        }
+    }
+
     private boolean shouldRetryForRateLimitError(RateLimitStatus rateLimitStatus) {
         if (rateLimitStatus.getRemaining() == 0 && rateLimitStatus.getSecondsUntilReset() > 0) {
             return true;
@@ -365,7 +542,7 @@ public class TwitterAdsAudienceApiImpl implements TwitterAdsAudienceApi {
             return totalSize;
         }
         for (CustomAudienceOperation operation : batch) {
-            totalSize += operation.getUsers().size();
+            totalSize += operation.getUserCount();
         }
         return totalSize;
     }
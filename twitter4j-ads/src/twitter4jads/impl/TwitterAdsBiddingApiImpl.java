@@ -14,6 +14,9 @@ import twitter4jads.util.TwitterAdUtil;
 import java.lang.reflect.Type;
 import java.util.List;
 
+import static twitter4jads.TwitterAdsConstants.PATH_ACCOUNTS;
+import static twitter4jads.TwitterAdsConstants.PATH_BID_GUIDANCE;
+
 
 /**
  * User: prashant
@@ -35,7 +38,7 @@ public class TwitterAdsBiddingApiImpl implements TwitterAdsBiddingApi {
         TwitterAdUtil.ensureNotNull(accountId, "accountId");
         TwitterAdUtil.ensureNotNull(campaignType, "campaignType");
         List<HttpParameter> params = Lists.newArrayList();
-        String baseUrl = "https://ads.twitter.com/" + "accounts/" + accountId + "/campaigns/bid_guidance";
+        String baseUrl = "https://ads.twitter.com/" + PATH_ACCOUNTS + accountId + PATH_BID_GUIDANCE;
         //noinspection ConstantConditions
         params.add(new HttpParameter("account", accountId));
         params.add(new HttpParameter("campaign_type", campaignType));
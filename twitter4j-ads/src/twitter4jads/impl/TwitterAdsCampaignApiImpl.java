@@ -1,8 +1,6 @@
 package twitter4jads.impl;
 
 import com.google.common.base.Optional;
-import com.google.gson.reflect.TypeToken;
-import twitter4jads.BaseAdsListResponse;
 import twitter4jads.BaseAdsListResponseIterable;
 import twitter4jads.BaseAdsResponse;
 import twitter4jads.TwitterAdsClient;
@@ -19,9 +17,13 @@ import twitter4jads.util.TwitterAdUtil;
 import java.lang.reflect.Type;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import static twitter4jads.TwitterAdsConstants.*;
+import static twitter4jads.util.TwitterAdsGson.listResponseType;
+import static twitter4jads.util.TwitterAdsGson.responseType;
 
 /**
  * User: abhay
@@ -42,28 +44,24 @@ public class TwitterAdsCampaignApiImpl implements TwitterAdsCampaignApi {
                                                                  Optional<Collection<String>> fundingInstrumentIds, boolean withDeleted, Optional<Integer> count,
                                                                  Optional<String> cursor, Optional<CampaignSortByField> sortByField) throws TwitterException {
         TwitterAdUtil.ensureNotNull(accountId, "accountId");
-        String campaignIdsAsString = null;
-        String fundingInstrumentIdsAsString = null;
+        final Map<String, Collection<String>> idFilters = new LinkedHashMap<>();
         if (campaignIds != null && campaignIds.isPresent()) {
-            TwitterAdUtil.ensureMaxSize(campaignIds.get(), MAX_REQUEST_PARAMETER_SIZE);
-            campaignIdsAsString = TwitterAdUtil.getCsv(campaignIds.get());
+            idFilters.put(PARAM_CAMPAIGN_IDS, campaignIds.get());
         }
         if (fundingInstrumentIds != null && fundingInstrumentIds.isPresent()) {
-            TwitterAdUtil.ensureMaxSize(fundingInstrumentIds.get(), MAX_REQUEST_PARAMETER_SIZE);
-            fundingInstrumentIdsAsString = TwitterAdUtil.getCsv(fundingInstrumentIds.get());
+            idFilters.put(PARAM_FUNDING_INSTRUMENT_IDS, fundingInstrumentIds.get());
         }
 
         List<HttpParameter> params =
-                getCampaignParameters(accountId, Optional.fromNullable(campaignIdsAsString), Optional.fromNullable(fundingInstrumentIdsAsString), withDeleted, count, cursor);
+                getCampaignParameters(accountId, Optional.<String>absent(), Optional.<String>absent(), withDeleted, count, cursor);
 
         if (sortByField != null && sortByField.isPresent()) {
             params.add(new HttpParameter(PARAM_SORT_BY, sortByField.get().getField()));
         }
         final String baseUrl = twitterAdsClient.getBaseAdsAPIUrl() + PREFIX_ACCOUNTS_URI_5 + accountId + PATH_CAMPAIGN;
 
-        final Type type = new TypeToken<BaseAdsListResponse<Campaign>>() {
-        }.getType();
-        return twitterAdsClient.executeHttpListRequest(baseUrl, params, type);
+        final Type type = listResponseType(Campaign.class);
+        return twitterAdsClient.executeHttpListRequest(baseUrl, params, type, idFilters, MAX_REQUEST_PARAMETER_SIZE);
     }
 
     @Override
@@ -75,8 +73,7 @@ public class TwitterAdsCampaignApiImpl implements TwitterAdsCampaignApi {
                 + campaignId;
         final HttpParameter[] params = new HttpParameter[]{new HttpParameter(PARAM_WITH_DELETED, withDeleted)};
 
-        final Type type = new TypeToken<BaseAdsResponse<Campaign>>() {
-        }.getType();
+        final Type type = responseType(Campaign.class);
         return twitterAdsClient.executeHttpRequest(baseUrl, params, type, HttpVerb.GET);
     }
 
@@ -91,8 +88,7 @@ public class TwitterAdsCampaignApiImpl implements TwitterAdsCampaignApi {
         }
 
         final String baseUrl = twitterAdsClient.getBaseAdsAPIUrl() + PREFIX_ACCOUNTS_URI_5 + accountId + PATH_CAMPAIGN;
-        Type type = new TypeToken<BaseAdsResponse<Campaign>>() {
-        }.getType();
+        Type type = responseType(Campaign.class);
         return twitterAdsClient.executeHttpRequest(baseUrl, parameters, type, HttpVerb.POST);
     }
 
@@ -107,8 +103,7 @@ public class TwitterAdsCampaignApiImpl implements TwitterAdsCampaignApi {
                         status, standardDelivery, frequencyCap, durationInDays, budgetOptimization);
         final String baseUrl = twitterAdsClient.getBaseAdsAPIUrl() + PREFIX_ACCOUNTS_URI_5 + accountId + PATH_CAMPAIGN
                 + campaignId;
-        final Type type = new TypeToken<BaseAdsResponse<Campaign>>() {
-        }.getType();
+        final Type type = responseType(Campaign.class);
         return twitterAdsClient.executeHttpRequest(baseUrl, params.toArray(new HttpParameter[params.size()]), type, HttpVerb.PUT);
 
     }
@@ -120,8 +115,7 @@ public class TwitterAdsCampaignApiImpl implements TwitterAdsCampaignApi {
 
         final String baseUrl = twitterAdsClient.getBaseAdsAPIUrl() + PREFIX_ACCOUNTS_URI_5 + accountId + PATH_CAMPAIGN
                 + campaignId;
-        final Type type = new TypeToken<BaseAdsResponse<Campaign>>() {
-        }.getType();
+        final Type type = responseType(Campaign.class);
         return twitterAdsClient.executeHttpRequest(baseUrl, null, type, HttpVerb.DELETE);
     }
 
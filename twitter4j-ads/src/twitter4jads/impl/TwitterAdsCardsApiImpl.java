@@ -3,7 +3,6 @@ package twitter4jads.impl;
 import com.google.common.base.Optional;
 import com.google.common.collect.Lists;
 import com.google.gson.Gson;
-import com.google.gson.reflect.TypeToken;
 import org.apache.commons.lang3.StringUtils;
 import twitter4jads.*;
 import twitter4jads.api.TwitterAdsCardsApi;
@@ -17,6 +16,7 @@ import twitter4jads.models.ads.TwitterUUIDResponse;
 import twitter4jads.models.ads.cards.*;
 import twitter4jads.models.media.TwitterLibraryMedia;
 import twitter4jads.util.TwitterAdUtil;
+import twitter4jads.util.TwitterAdsGson;
 
 import java.io.IOException;
 import java.io.InputStream;
@@ -27,6 +27,8 @@ import java.util.List;
 
 import static twitter4jads.TwitterAdsConstants.*;
 import static twitter4jads.util.TwitterAdUtil.isNotNullOrEmpty;
+import static twitter4jads.util.TwitterAdsGson.listResponseType;
+import static twitter4jads.util.TwitterAdsGson.responseType;
 
 /**
  * User: abhay
@@ -35,7 +37,7 @@ import static twitter4jads.util.TwitterAdUtil.isNotNullOrEmpty;
  */
 public class TwitterAdsCardsApiImpl implements TwitterAdsCardsApi {
 
-    private static final Gson GSON = new Gson();
+    private static final Gson GSON = TwitterAdsGson.GSON;
 
     private final TwitterAdsClient twitterAdsClient;
 
@@ -89,8 +91,7 @@ public class TwitterAdsCardsApiImpl implements TwitterAdsCardsApi {
 
         String url = twitterAdsClient.getBaseAdsAPIUrl() + TwitterAdsConstants.PREFIX_ACCOUNTS_URI_5 + accountId
                 + PATH_CARDS;
-        Type type = new TypeToken<BaseAdsListResponse<TwitterImageAppDownloadCard>>() {
-        }.getType();
+        Type type = listResponseType(TwitterImageAppDownloadCard.class);
         return twitterAdsClient.executeHttpListRequest(url, params, type);
     }
 
@@ -101,11 +102,10 @@ public class TwitterAdsCardsApiImpl implements TwitterAdsCardsApi {
 
         final String url = twitterAdsClient.getBaseAdsAPIUrl() + TwitterAdsConstants.PREFIX_ACCOUNTS_URI_5 +
                 card.getAccountId() + PATH_CARDS;
-        final Type type = new TypeToken<BaseAdsResponse<Card>>() {
-        }.getType();
+        final Type type = responseType(Card.class);
 
         HttpResponse httpResponse = twitterAdsClient.postRequest(url, GSON.toJson(card));
-        return GSON.fromJson(httpResponse.asString(), type);
+        return httpResponse.asObject(GSON, type);
     }
 
     @Override
@@ -115,12 +115,11 @@ public class TwitterAdsCardsApiImpl implements TwitterAdsCardsApi {
 
         final String url = twitterAdsClient.getBaseAdsAPIUrl() + TwitterAdsConstants.PREFIX_ACCOUNTS_URI_5 +
                 card.getAccountId() + PATH_CARDS;
-        final Type type = new TypeToken<BaseAdsResponse<Card>>() {
-        }.getType();
+        final Type type = responseType(Card.class);
 
 
         HttpResponse httpResponse = twitterAdsClient.putRequest(url, GSON.toJson(card));
-        return GSON.fromJson(httpResponse.asString(), type);
+        return httpResponse.asObject(GSON, type);
     }
 
     @Override
@@ -129,8 +128,7 @@ public class TwitterAdsCardsApiImpl implements TwitterAdsCardsApi {
         TwitterAdUtil.ensureNotNull(accountId, "Account Id");
         String url = twitterAdsClient.getBaseAdsAPIUrl() + TwitterAdsConstants.PREFIX_ACCOUNTS_URI_5 + accountId
                 + PATH_CARDS + cardId;
-        Type type = new TypeToken<BaseAdsResponse<TwitterImageAppDownloadCard>>() {
-        }.getType();
+        Type type = responseType(TwitterImageAppDownloadCard.class);
         return twitterAdsClient.executeHttpRequest(url, null, type, HttpVerb.DELETE);
     }
 
@@ -150,8 +148,7 @@ public class TwitterAdsCardsApiImpl implements TwitterAdsCardsApi {
         }
         String url = twitterAdsClient.getBaseAdsAPIUrl() + TwitterAdsConstants.PREFIX_ACCOUNTS_URI_5 + accountId
                 + PATH_IMAGE_APP_DOWNLOAD_CARDS;
-        Type type = new TypeToken<BaseAdsListResponse<TwitterImageAppDownloadCard>>() {
-        }.getType();
+        Type type = listResponseType(TwitterImageAppDownloadCard.class);
         return twitterAdsClient.executeHttpListRequest(url, params, type);
     }
 
@@ -172,8 +169,7 @@ public class TwitterAdsCardsApiImpl implements TwitterAdsCardsApi {
         }
         String url = twitterAdsClient.getBaseAdsAPIUrl() + TwitterAdsConstants.PREFIX_ACCOUNTS_URI_5 + accountId
                 + PATH_VIDEO_APP_DOWNLOAD_CARDS;
-        Type type = new TypeToken<BaseAdsListResponse<TwitterVideoAppDownloadCard>>() {
-        }.getType();
+        Type type = listResponseType(TwitterVideoAppDownloadCard.class);
         return twitterAdsClient.executeHttpListRequest(url, params, type);
     }
 
@@ -184,8 +180,7 @@ public class TwitterAdsCardsApiImpl implements TwitterAdsCardsApi {
         TwitterAdUtil.ensureNotNull(accountId, "Account Id");
         String url = twitterAdsClient.getBaseAdsAPIUrl() + TwitterAdsConstants.PREFIX_ACCOUNTS_URI_5 + accountId
                 + PATH_WEBSITE_CARDS + cardId;
-        Type type = new TypeToken<BaseAdsResponse<TwitterWebsiteCard>>() {
-        }.getType();
+        Type type = responseType(TwitterWebsiteCard.class);
         return twitterAdsClient.executeHttpRequest(url, null, type, HttpVerb.DELETE);
     }
 
@@ -196,8 +191,7 @@ public class TwitterAdsCardsApiImpl implements TwitterAdsCardsApi {
         TwitterAdUtil.ensureNotNull(cardId, "CardId");
         String url = twitterAdsClient.getBaseAdsAPIUrl() + TwitterAdsConstants.PREFIX_ACCOUNTS_URI_5 + accountId
                 + PATH_WEBSITE_CARDS + cardId;
-        Type type = new TypeToken<BaseAdsResponse<TwitterWebsiteCard>>() {
-        }.getType();
+        Type type = responseType(TwitterWebsiteCard.class);
         return twitterAdsClient.executeHttpRequest(url, null, type, HttpVerb.GET);
     }
 
@@ -216,8 +210,7 @@ public class TwitterAdsCardsApiImpl implements TwitterAdsCardsApi {
         }
 
         String url = twitterAdsClient.getBaseAdsAPIUrl() + PREFIX_ACCOUNTS_URI_5 + accountId + PATH_WEBSITE_CARDS;
-        Type type = new TypeToken<BaseAdsListResponse<TwitterWebsiteCard>>() {
-        }.getType();
+        Type type = listResponseType(TwitterWebsiteCard.class);
         return twitterAdsClient.executeHttpListRequest(url, params, type);
     }
 
@@ -237,8 +230,7 @@ public class TwitterAdsCardsApiImpl implements TwitterAdsCardsApi {
         }
         String url = twitterAdsClient.getBaseAdsAPIUrl() + TwitterAdsConstants.PREFIX_ACCOUNTS_URI_5 + accountId
                 + PATH_APP_DOWNLOAD_CARDS;
-        Type type = new TypeToken<BaseAdsListResponse<TwitterMobileAppCard>>() {
-        }.getType();
+        Type type = listResponseType(TwitterMobileAppCard.class);
         return twitterAdsClient.executeHttpListRequest(url, params, type);
     }
 
@@ -249,8 +241,7 @@ public class TwitterAdsCardsApiImpl implements TwitterAdsCardsApi {
         TwitterAdUtil.ensureNotNull(cardId, "CardId");
         String url = twitterAdsClient.getBaseAdsAPIUrl() + TwitterAdsConstants.PREFIX_ACCOUNTS_URI_5 + accountId
                 + PATH_APP_DOWNLOAD_CARDS + cardId;
-        Type type = new TypeToken<BaseAdsResponse<TwitterMobileAppCard>>() {
-        }.getType();
+        Type type = responseType(TwitterMobileAppCard.class);
         return twitterAdsClient.executeHttpRequest(url, null, type, HttpVerb.GET);
     }
 
@@ -261,8 +252,7 @@ public class TwitterAdsCardsApiImpl implements TwitterAdsCardsApi {
         TwitterAdUtil.ensureNotNull(accountId, "Account Id");
         String url = twitterAdsClient.getBaseAdsAPIUrl() + TwitterAdsConstants.PREFIX_ACCOUNTS_URI_5 + accountId
                 + PATH_VIDEO_APP_DOWNLOAD_CARDS + cardId;
-        Type type = new TypeToken<BaseAdsResponse<TwitterVideoAppDownloadCard>>() {
-        }.getType();
+        Type type = responseType(TwitterVideoAppDownloadCard.class);
         return twitterAdsClient.executeHttpRequest(url, null, type, HttpVerb.DELETE);
     }
 
@@ -273,8 +263,7 @@ public class TwitterAdsCardsApiImpl implements TwitterAdsCardsApi {
         TwitterAdUtil.ensureNotNull(accountId, "Account Id");
         String url = twitterAdsClient.getBaseAdsAPIUrl() + TwitterAdsConstants.PREFIX_ACCOUNTS_URI_5 + accountId
                 + PATH_APP_DOWNLOAD_CARDS + cardId;
-        Type type = new TypeToken<BaseAdsResponse<TwitterMobileAppCard>>() {
-        }.getType();
+        Type type = responseType(TwitterMobileAppCard.class);
         return twitterAdsClient.executeHttpRequest(url, null, type, HttpVerb.DELETE);
     }
 
@@ -285,8 +274,7 @@ public class TwitterAdsCardsApiImpl implements TwitterAdsCardsApi {
         TwitterAdUtil.ensureNotNull(accountId, "Account Id");
         String url = twitterAdsClient.getBaseAdsAPIUrl() + TwitterAdsConstants.PREFIX_ACCOUNTS_URI_5 + accountId
                 + PATH_IMAGE_APP_DOWNLOAD_CARDS + cardId;
-        Type type = new TypeToken<BaseAdsResponse<TwitterImageAppDownloadCard>>() {
-        }.getType();
+        Type type = responseType(TwitterImageAppDownloadCard.class);
         return twitterAdsClient.executeHttpRequest(url, null, type, HttpVerb.DELETE);
     }
 
@@ -299,8 +287,7 @@ public class TwitterAdsCardsApiImpl implements TwitterAdsCardsApi {
                 validateAndCreateParamsForLeadGenerationCardStat(accountId, cardId, startTime, endTime, granularity, metric, withDeleted);
         String url = twitterAdsClient.getBaseAdsAPIUrl() + PREFIX_STATS_ACCOUNTS_URI + accountId + PATH_LEAD_GENERATION_CARDS + cardId;
         HttpParameter[] parameters = params.toArray(new HttpParameter[params.size()]);
-        Type typeToken = new TypeToken<BaseAdsResponse<TwitterLeadGenerationStat>>() {
-        }.getType();
+        Type typeToken = responseType(TwitterLeadGenerationStat.class);
         return twitterAdsClient.executeHttpRequest(url, parameters, typeToken, HttpVerb.GET);
     }
 
@@ -320,8 +307,7 @@ public class TwitterAdsCardsApiImpl implements TwitterAdsCardsApi {
         }
         String url = twitterAdsClient.getBaseAdsAPIUrl() + TwitterAdsConstants.PREFIX_ACCOUNTS_URI_5 + accountId
                 + PATH_IMAGE_CONVERSATION_CARDS;
-        Type type = new TypeToken<BaseAdsListResponse<TwitterImageConversationCard>>() {
-        }.getType();
+        Type type = listResponseType(TwitterImageConversationCard.class);
         return twitterAdsClient.executeHttpListRequest(url, params, type);
     }
 
@@ -341,8 +327,7 @@ public class TwitterAdsCardsApiImpl implements TwitterAdsCardsApi {
         }
         String url = twitterAdsClient.getBaseAdsAPIUrl() + TwitterAdsConstants.PREFIX_ACCOUNTS_URI_5 + accountId
                 + PATH_VIDEO_CONVERSATION_CARDS;
-        Type type = new TypeToken<BaseAdsListResponse<TwitterVideoConversationCard>>() {
-        }.getType();
+        Type type = listResponseType(TwitterVideoConversationCard.class);
         return twitterAdsClient.executeHttpListRequest(url, params, type);
     }
 
@@ -364,8 +349,7 @@ public class TwitterAdsCardsApiImpl implements TwitterAdsCardsApi {
 
         final String url = twitterAdsClient.getBaseAdsAPIUrl() + PREFIX_ACCOUNTS_URI_5 + accountId
                 + PATH_VIDEO_WEBSITE_CARDS;
-        Type type = new TypeToken<BaseAdsListResponse<TwitterVideoWebsiteCard>>() {
-        }.getType();
+        Type type = listResponseType(TwitterVideoWebsiteCard.class);
 
         return twitterAdsClient.executeHttpListRequest(url, params, type);
     }
@@ -381,8 +365,7 @@ public class TwitterAdsCardsApiImpl implements TwitterAdsCardsApi {
         String url = twitterAdsClient.getBaseAdsAPIUrl() + TwitterAdsConstants.PREFIX_ACCOUNTS_URI_5 + accountId
                 + PATH_WEBSITE_CARDS + cardId;
         HttpParameter[] parameters = params.toArray(new HttpParameter[params.size()]);
-        Type type = new TypeToken<BaseAdsResponse<TwitterWebsiteCard>>() {
-        }.getType();
+        Type type = responseType(TwitterWebsiteCard.class);
         return twitterAdsClient.executeHttpRequest(url, parameters, type, HttpVerb.PUT);
     }
 
@@ -393,8 +376,7 @@ public class TwitterAdsCardsApiImpl implements TwitterAdsCardsApi {
                 websiteUrl, imageMediaKey);
         final String url = twitterAdsClient.getBaseAdsAPIUrl() + PREFIX_ACCOUNTS_URI_5 + accountId + PATH_WEBSITE_CARDS;
         final HttpParameter[] parameters = params.toArray(new HttpParameter[params.size()]);
-        Type type = new TypeToken<BaseAdsResponse<TwitterWebsiteCard>>() {
-        }.getType();
+        Type type = responseType(TwitterWebsiteCard.class);
 
         return twitterAdsClient.executeHttpRequest(url, parameters, type, HttpVerb.POST);
     }
@@ -412,8 +394,7 @@ public class TwitterAdsCardsApiImpl implements TwitterAdsCardsApi {
         String url = twitterAdsClient.getBaseAdsAPIUrl() + TwitterAdsConstants.PREFIX_ACCOUNTS_URI_5 + accountId
                 + PATH_APP_DOWNLOAD_CARDS;
         HttpParameter[] parameters = params.toArray(new HttpParameter[params.size()]);
-        Type type = new TypeToken<BaseAdsResponse<TwitterMobileAppCard>>() {
-        }.getType();
+        Type type = responseType(TwitterMobileAppCard.class);
         return twitterAdsClient.executeHttpRequest(url, parameters, type, HttpVerb.POST);
     }
 
@@ -431,8 +412,7 @@ public class TwitterAdsCardsApiImpl implements TwitterAdsCardsApi {
         String url = twitterAdsClient.getBaseAdsAPIUrl() + TwitterAdsConstants.PREFIX_ACCOUNTS_URI_5 + accountId
                 + PATH_APP_DOWNLOAD_CARDS + cardId;
         HttpParameter[] parameters = params.toArray(new HttpParameter[params.size()]);
-        Type type = new TypeToken<BaseAdsResponse<TwitterMobileAppCard>>() {
-        }.getType();
+        Type type = responseType(TwitterMobileAppCard.class);
         return twitterAdsClient.executeHttpRequest(url, parameters, type, HttpVerb.PUT);
     }
 
@@ -447,8 +427,7 @@ public class TwitterAdsCardsApiImpl implements TwitterAdsCardsApi {
         String url = twitterAdsClient.getBaseAdsAPIUrl() + TwitterAdsConstants.PREFIX_ACCOUNTS_URI_5 + accountId
                 + PATH_IMAGE_APP_DOWNLOAD_CARDS;
         HttpParameter[] parameters = params.toArray(new HttpParameter[params.size()]);
-        Type type = new TypeToken<BaseAdsResponse<TwitterImageAppDownloadCard>>() {
-        }.getType();
+        Type type = responseType(TwitterImageAppDownloadCard.class);
         return twitterAdsClient.executeHttpRequest(url, parameters, type, HttpVerb.POST);
     }
 
@@ -465,8 +444,7 @@ public class TwitterAdsCardsApiImpl implements TwitterAdsCardsApi {
         String url = twitterAdsClient.getBaseAdsAPIUrl() + TwitterAdsConstants.PREFIX_ACCOUNTS_URI_5 + accountId
                 + PATH_IMAGE_APP_DOWNLOAD_CARDS + cardId;
         HttpParameter[] parameters = params.toArray(new HttpParameter[params.size()]);
-        Type type = new TypeToken<BaseAdsResponse<TwitterImageAppDownloadCard>>() {
-        }.getType();
+        Type type = responseType(TwitterImageAppDownloadCard.class);
         return twitterAdsClient.executeHttpRequest(url, parameters, type, HttpVerb.PUT);
     }
 
@@ -482,8 +460,7 @@ public class TwitterAdsCardsApiImpl implements TwitterAdsCardsApi {
         String url = twitterAdsClient.getBaseAdsAPIUrl() + TwitterAdsConstants.PREFIX_ACCOUNTS_URI_5 + accountId
                 + PATH_VIDEO_APP_DOWNLOAD_CARDS;
         HttpParameter[] parameters = params.toArray(new HttpParameter[params.size()]);
-        Type type = new TypeToken<BaseAdsResponse<TwitterVideoAppDownloadCard>>() {
-        }.getType();
+        Type type = responseType(TwitterVideoAppDownloadCard.class);
 
         final BaseAdsResponse<TwitterVideoAppDownloadCard> twitterVideoAppDownloadResponse =
                 twitterAdsClient.executeHttpRequest(url, parameters, type, HttpVerb.POST);
@@ -525,8 +502,7 @@ public class TwitterAdsCardsApiImpl implements TwitterAdsCardsApi {
         String url = twitterAdsClient.getBaseAdsAPIUrl() + TwitterAdsConstants.PREFIX_ACCOUNTS_URI_5 + accountId
                 + PATH_VIDEO_APP_DOWNLOAD_CARDS + cardId;
         HttpParameter[] parameters = params.toArray(new HttpParameter[params.size()]);
-        Type type = new TypeToken<BaseAdsResponse<TwitterVideoAppDownloadCard>>() {
-        }.getType();
+        Type type = responseType(TwitterVideoAppDownloadCard.class);
 
         final BaseAdsResponse<TwitterVideoAppDownloadCard> twitterVideoAppDownloadResponse =
                 twitterAdsClient.executeHttpRequest(url, parameters, type, HttpVerb.PUT);
@@ -565,8 +541,7 @@ public class TwitterAdsCardsApiImpl implements TwitterAdsCardsApi {
         String url = twitterAdsClient.getBaseAdsAPIUrl() + TwitterAdsConstants.PREFIX_ACCOUNTS_URI_5 + accountId
                 + PATH_IMAGE_CONVERSATION_CARDS;
         HttpParameter[] parameters = params.toArray(new HttpParameter[params.size()]);
-        Type type = new TypeToken<BaseAdsResponse<TwitterImageConversationCard>>() {
-        }.getType();
+        Type type = responseType(TwitterImageConversationCard.class);
         return twitterAdsClient.executeHttpRequest(url, parameters, type, HttpVerb.POST);
     }
 
@@ -589,8 +564,7 @@ public class TwitterAdsCardsApiImpl implements TwitterAdsCardsApi {
         String url = twitterAdsClient.getBaseAdsAPIUrl() + TwitterAdsConstants.PREFIX_ACCOUNTS_URI_5 + accountId
                 + PATH_IMAGE_CONVERSATION_CARDS + cardId;
         HttpParameter[] parameters = params.toArray(new HttpParameter[params.size()]);
-        Type type = new TypeToken<BaseAdsResponse<TwitterImageConversationCard>>() {
-        }.getType();
+        Type type = responseType(TwitterImageConversationCard.class);
         return twitterAdsClient.executeHttpRequest(url, parameters, type, HttpVerb.PUT);
     }
 
@@ -601,8 +575,7 @@ public class TwitterAdsCardsApiImpl implements TwitterAdsCardsApi {
         TwitterAdUtil.ensureNotNull(accountId, "Account Id");
         String url = twitterAdsClient.getBaseAdsAPIUrl() + TwitterAdsConstants.PREFIX_ACCOUNTS_URI_5 + accountId
                 + PATH_IMAGE_CONVERSATION_CARDS + cardId;
-        Type type = new TypeToken<BaseAdsResponse<TwitterImageConversationCard>>() {
-        }.getType();
+        Type type = responseType(TwitterImageConversationCard.class);
         return twitterAdsClient.executeHttpRequest(url, null, type, HttpVerb.DELETE);
     }
 
@@ -625,8 +598,7 @@ public class TwitterAdsCardsApiImpl implements TwitterAdsCardsApi {
         String url = twitterAdsClient.getBaseAdsAPIUrl() + TwitterAdsConstants.PREFIX_ACCOUNTS_URI_5 + accountId
                 + PATH_VIDEO_CONVERSATION_CARDS;
         HttpParameter[] parameters = params.toArray(new HttpParameter[params.size()]);
-        Type type = new TypeToken<BaseAdsResponse<TwitterVideoConversationCard>>() {
-        }.getType();
+        Type type = responseType(TwitterVideoConversationCard.class);
 
         return twitterAdsClient.executeHttpRequest(url, parameters, type, HttpVerb.POST);
     }
@@ -657,8 +629,7 @@ public class TwitterAdsCardsApiImpl implements TwitterAdsCardsApi {
         String url = twitterAdsClient.getBaseAdsAPIUrl() + TwitterAdsConstants.PREFIX_ACCOUNTS_URI_5 + accountId
                 + PATH_VIDEO_CONVERSATION_CARDS + cardId;
         HttpParameter[] parameters = params.toArray(new HttpParameter[params.size()]);
-        Type type = new TypeToken<BaseAdsResponse<TwitterVideoConversationCard>>() {
-        }.getType();
+        Type type = responseType(TwitterVideoConversationCard.class);
 
         return twitterAdsClient.executeHttpRequest(url, parameters, type, HttpVerb.PUT);
     }
@@ -670,8 +641,7 @@ public class TwitterAdsCardsApiImpl implements TwitterAdsCardsApi {
         TwitterAdUtil.ensureNotNull(accountId, "Account Id");
         String url = twitterAdsClient.getBaseAdsAPIUrl() + TwitterAdsConstants.PREFIX_ACCOUNTS_URI_5 + accountId
                 + PATH_VIDEO_CONVERSATION_CARDS + cardId;
-        Type type = new TypeToken<BaseAdsResponse<TwitterVideoConversationCard>>() {
-        }.getType();
+        Type type = responseType(TwitterVideoConversationCard.class);
         return twitterAdsClient.executeHttpRequest(url, null, type, HttpVerb.DELETE);
     }
 
@@ -690,8 +660,7 @@ public class TwitterAdsCardsApiImpl implements TwitterAdsCardsApi {
         final String url = twitterAdsClient.getBaseAdsAPIUrl() + PREFIX_ACCOUNTS_URI_5 + accountId
                 + PATH_VIDEO_WEBSITE_CARDS;
         final HttpParameter[] parameters = params.toArray(new HttpParameter[params.size()]);
-        Type type = new TypeToken<BaseAdsResponse<TwitterVideoWebsiteCard>>() {
-        }.getType();
+        Type type = responseType(TwitterVideoWebsiteCard.class);
 
         return twitterAdsClient.executeHttpRequest(url, parameters, type, HttpVerb.POST);
 
@@ -708,8 +677,7 @@ public class TwitterAdsCardsApiImpl implements TwitterAdsCardsApi {
         final String url = twitterAdsClient.getBaseAdsAPIUrl() + PREFIX_ACCOUNTS_URI_5 + accountId
                 + PATH_VIDEO_WEBSITE_CARDS + cardId;
         final HttpParameter[] parameters = params.toArray(new HttpParameter[params.size()]);
-        Type type = new TypeToken<BaseAdsResponse<TwitterVideoWebsiteCard>>() {
-        }.getType();
+        Type type = responseType(TwitterVideoWebsiteCard.class);
 
         return twitterAdsClient.executeHttpRequest(url, parameters, type, HttpVerb.PUT);
     }
@@ -722,8 +690,7 @@ public class TwitterAdsCardsApiImpl implements TwitterAdsCardsApi {
 
         final String url = twitterAdsClient.getBaseAdsAPIUrl() + PREFIX_ACCOUNTS_URI_5 + accountId
                 + PATH_VIDEO_WEBSITE_CARDS + cardId;
-        Type type = new TypeToken<BaseAdsResponse<TwitterVideoWebsiteCard>>() {
-        }.getType();
+        Type type = responseType(TwitterVideoWebsiteCard.class);
 
         return twitterAdsClient.executeHttpRequest(url, null, type, HttpVerb.DELETE);
     }
@@ -761,8 +728,7 @@ public class TwitterAdsCardsApiImpl implements TwitterAdsCardsApi {
         TwitterAdUtil.ensureNotNull(accountId, "Account Id");
         String url = twitterAdsClient.getBaseAdsAPIUrl() + TwitterAdsConstants.PREFIX_ACCOUNTS_URI_5 + accountId
                 + PATH_VIDEO_CONVERSATION_CARDS + cardId;
-        Type type = new TypeToken<BaseAdsResponse<TwitterVideoConversationCard>>() {
-        }.getType();
+        Type type = responseType(TwitterVideoConversationCard.class);
         return twitterAdsClient.executeHttpRequest(url, null, type, HttpVerb.GET);
     }
 
@@ -951,8 +917,7 @@ public class TwitterAdsCardsApiImpl implements TwitterAdsCardsApi {
         TwitterAdUtil.ensureNotNull(accountId, "Account Id");
         String url = twitterAdsClient.getBaseAdsAPIUrl() + TwitterAdsConstants.PREFIX_ACCOUNTS_URI_5 + accountId
                 + PATH_IMAGE_CONVERSATION_CARDS + cardId;
-        Type type = new TypeToken<BaseAdsResponse<TwitterImageConversationCard>>() {
-        }.getType();
+        Type type = responseType(TwitterImageConversationCard.class);
         return twitterAdsClient.executeHttpRequest(url, null, type, HttpVerb.GET);
     }
 
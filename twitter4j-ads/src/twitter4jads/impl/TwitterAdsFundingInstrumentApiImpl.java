@@ -4,16 +4,18 @@ import static twitter4jads.TwitterAdsConstants.PARAM_FUNDING_INSTRUMENT_IDS;
 import static twitter4jads.TwitterAdsConstants.PARAM_SORT_BY;
 import static twitter4jads.TwitterAdsConstants.PARAM_WITH_DELETED;
 import static twitter4jads.TwitterAdsConstants.PATH_FUNDING_INSTRUMENTS;
+import static twitter4jads.util.TwitterAdsGson.listResponseType;
+import static twitter4jads.util.TwitterAdsGson.responseType;
 
 import java.lang.reflect.Type;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import com.google.common.base.Optional;
-import com.google.gson.reflect.TypeToken;
 
-import twitter4jads.BaseAdsListResponse;
 import twitter4jads.BaseAdsListResponseIterable;
 import twitter4jads.BaseAdsResponse;
 import twitter4jads.TwitterAdsClient;
@@ -45,24 +47,20 @@ public class TwitterAdsFundingInstrumentApiImpl implements TwitterAdsFundingInst
     public BaseAdsListResponseIterable<FundingInstrument> getAllFundingInstruments(String accountId,boolean withDeleted, Optional<Collection<String>> fundingInstrumentIds,
                                                                                    Optional<FundingInstrumentSortByField> sortByField) throws TwitterException {
         TwitterAdUtil.ensureNotNull(accountId, "accountId");
-        String fundingInstrumentIdsAsString = null;
+        final Map<String, Collection<String>> idFilters = new LinkedHashMap<>();
         if (fundingInstrumentIds != null && fundingInstrumentIds.isPresent()) {
-            TwitterAdUtil.ensureMaxSize(fundingInstrumentIds.get(), MAX_REQUEST_PARAMETER_SIZE);
-            fundingInstrumentIdsAsString = TwitterAdUtil.getCsv(fundingInstrumentIds.get());
+            idFilters.put(PARAM_FUNDING_INSTRUMENT_IDS, fundingInstrumentIds.get());
         }
 
         final List<HttpParameter> params = new ArrayList<>();
         params.add(new HttpParameter(PARAM_WITH_DELETED, withDeleted));
-        if (TwitterAdUtil.isNotNullOrEmpty(fundingInstrumentIdsAsString)) {
-            params.add(new HttpParameter(PARAM_FUNDING_INSTRUMENT_IDS, fundingInstrumentIdsAsString));
-        }
         if(sortByField != null && sortByField.isPresent()) {
             params.add(new HttpParameter(PARAM_SORT_BY, sortByField.get().getField()));
         }
         String baseUrl = twitterAdsClient.getBaseAdsAPIUrl() + TwitterAdsConstants.PREFIX_ACCOUNTS_URI_5 + accountId
                 + PATH_FUNDING_INSTRUMENTS;
-        Type type = new TypeToken<BaseAdsListResponse<FundingInstrument>>() {}.getType();
-        return twitterAdsClient.executeHttpListRequest(baseUrl, params, type);
+        Type type = listResponseType(FundingInstrument.class);
+        return twitterAdsClient.executeHttpListRequest(baseUrl, params, type, idFilters, MAX_REQUEST_PARAMETER_SIZE);
     }
 
     @Override
@@ -74,8 +72,7 @@ public class TwitterAdsFundingInstrumentApiImpl implements TwitterAdsFundingInst
                 + PATH_FUNDING_INSTRUMENTS + fundingInstrumentId;
         HttpParameter[] param  = new HttpParameter[]{new HttpParameter(PARAM_WITH_DELETED, withDeleted)};
 
-        final Type type = new TypeToken<BaseAdsResponse<FundingInstrument>>() {
-        }.getType();
+        final Type type = responseType(FundingInstrument.class);
         return twitterAdsClient.executeHttpRequest(baseUrl, param, type, HttpVerb.GET);
     }
 }
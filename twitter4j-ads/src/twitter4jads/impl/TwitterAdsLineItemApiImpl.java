@@ -1,7 +1,6 @@
 package twitter4jads.impl;
 
 import com.google.common.base.Optional;
-import com.google.gson.reflect.TypeToken;
 import org.apache.commons.collections.CollectionUtils;
 import org.apache.commons.lang3.StringUtils;
 import twitter4jads.*;
@@ -24,6 +23,8 @@ import java.text.SimpleDateFormat;
 import java.util.*;
 
 import static twitter4jads.TwitterAdsConstants.*;
+import static twitter4jads.util.TwitterAdsGson.listResponseType;
+import static twitter4jads.util.TwitterAdsGson.responseType;
 
 /**
  * User: abhay
@@ -76,9 +77,8 @@ public class TwitterAdsLineItemApiImpl implements TwitterAdsLineItemApi {
                 + PATH_LINE_ITEMS;
         final HttpResponse httpResponse = twitterAdsClient.postRequest(baseUrl, parameters);
         try {
-            Type type = new TypeToken<BaseAdsResponse<LineItem>>() {
-            }.getType();
-            return TwitterAdUtil.constructBaseAdsResponse(httpResponse, httpResponse.asString(), type);
+            Type type = responseType(LineItem.class);
+            return TwitterAdUtil.constructBaseAdsResponse(httpResponse, type);
         } catch (IOException e) {
             throw new TwitterException("Failed to parse line item.");
         }
@@ -105,8 +105,7 @@ public class TwitterAdsLineItemApiImpl implements TwitterAdsLineItemApi {
         String baseUrl = twitterAdsClient.getBaseAdsAPIUrl() + TwitterAdsConstants.PREFIX_ACCOUNTS_URI_5 + accountId
                 + PATH_LINE_ITEMS +
                 lineItemId;
-        Type type = new TypeToken<BaseAdsResponse<LineItem>>() {
-        }.getType();
+        Type type = responseType(LineItem.class);
 
         return twitterAdsClient.executeHttpRequest(baseUrl, params.toArray(new HttpParameter[params.size()]), type, HttpVerb.PUT);
     }
@@ -118,8 +117,7 @@ public class TwitterAdsLineItemApiImpl implements TwitterAdsLineItemApi {
 
         final String baseUrl = twitterAdsClient.getBaseAdsAPIUrl() + PREFIX_ACCOUNTS_URI_5 + accountId + PATH_LINE_ITEMS
                 + lineItemId;
-        final Type type = new TypeToken<BaseAdsResponse<LineItem>>() {
-        }.getType();
+        final Type type = responseType(LineItem.class);
         return twitterAdsClient.executeHttpRequest(baseUrl, null, type, HttpVerb.DELETE);
     }
 
@@ -128,33 +126,25 @@ public class TwitterAdsLineItemApiImpl implements TwitterAdsLineItemApi {
                                                                  Optional<Collection<String>> fundingInstrumentIds, Optional<Integer> count, boolean withDeleted,
                                                                  String cursor, Optional<LineItemsSortByField> sortByField) throws TwitterException {
         TwitterAdUtil.ensureNotNull(accountId, "accountId");
-        String campaignIdsAsString = null;
-        String lineItemIdsAsString = null;
-        String fundingInstrumentIdsAsString = null;
+        final Map<String, Collection<String>> idFilters = new LinkedHashMap<>();
         if (campaignIds != null && campaignIds.isPresent()) {
-            TwitterAdUtil.ensureMaxSize(campaignIds.get(), MAX_REQUEST_PARAMETER_SIZE);
-            campaignIdsAsString = TwitterAdUtil.getCsv(campaignIds.get());
+            idFilters.put(PARAM_CAMPAIGN_IDS, campaignIds.get());
         }
         if (lineItemIds != null && lineItemIds.isPresent()) {
-            TwitterAdUtil.ensureMaxSize(lineItemIds.get(), MAX_REQUEST_PARAMETER_SIZE);
-            lineItemIdsAsString = TwitterAdUtil.getCsv(lineItemIds.get());
+            idFilters.put(PARAM_LINE_ITEM_IDS, lineItemIds.get());
         }
-        if (lineItemIds != null && fundingInstrumentIds.isPresent()) {
-            TwitterAdUtil.ensureMaxSize(fundingInstrumentIds.get(), MAX_REQUEST_PARAMETER_SIZE);
-            fundingInstrumentIdsAsString = TwitterAdUtil.getCsv(fundingInstrumentIds.get());
+        if (fundingInstrumentIds != null && fundingInstrumentIds.isPresent()) {
+            idFilters.put(PARAM_FUNDING_INSTRUMENT_IDS, fundingInstrumentIds.get());
         }
 
-        final List<HttpParameter> params =
-                validateLineItemParameters(accountId, campaignIdsAsString, lineItemIdsAsString, fundingInstrumentIdsAsString, count, withDeleted,
-                        cursor);
+        final List<HttpParameter> params = validateLineItemParameters(accountId, null, null, null, count, withDeleted, cursor);
         if (sortByField != null && sortByField.isPresent()) {
             params.add(new HttpParameter(PARAM_SORT_BY, sortByField.get().getField()));
         }
         final String baseUrl = twitterAdsClient.getBaseAdsAPIUrl() + PREFIX_ACCOUNTS_URI_5 + accountId
                 + PATH_LINE_ITEMS;
-        final Type type = new TypeToken<BaseAdsListResponse<LineItem>>() {
-        }.getType();
-        return twitterAdsClient.executeHttpListRequest(baseUrl, params, type);
+        final Type type = listResponseType(LineItem.class);
+        return twitterAdsClient.executeHttpListRequest(baseUrl, params, type, idFilters, MAX_REQUEST_PARAMETER_SIZE);
     }
 
     @Override
@@ -164,8 +154,7 @@ public class TwitterAdsLineItemApiImpl implements TwitterAdsLineItemApi {
         String baseUrl = twitterAdsClient.getBaseAdsAPIUrl() + TwitterAdsConstants.PREFIX_ACCOUNTS_URI_5 + accountId
                 + PATH_LINE_ITEMS + lineItemId;
         HttpParameter[] params = new HttpParameter[]{new HttpParameter(PARAM_WITH_DELETED, withDeleted)};
-        Type type = new TypeToken<BaseAdsResponse<LineItem>>() {
-        }.getType();
+        Type type = responseType(LineItem.class);
         return twitterAdsClient.executeHttpRequest(baseUrl, params, type, HttpVerb.GET);
     }
 
@@ -183,9 +172,8 @@ public class TwitterAdsLineItemApiImpl implements TwitterAdsLineItemApi {
                 + PATH_PROMOTED_ACCOUNTS;
         final HttpResponse httpResponse = twitterAdsClient.postRequest(baseUrl, params.toArray(new HttpParameter[params.size()]));
         try {
-            final Type type = new TypeToken<BaseAdsResponse<PromotedAccount>>() {
-            }.getType();
-            return TwitterAdUtil.constructBaseAdsResponse(httpResponse, httpResponse.asString(), type);
+            final Type type = responseType(PromotedAccount.class);
+            return TwitterAdUtil.constructBaseAdsResponse(httpResponse, type);
         } catch (IOException e) {
             throw new TwitterException("Failed to parse promoted accounts.");
         }
@@ -212,8 +200,7 @@ public class TwitterAdsLineItemApiImpl implements TwitterAdsLineItemApi {
         }
         String baseUrl = twitterAdsClient.getBaseAdsAPIUrl() + TwitterAdsConstants.PREFIX_ACCOUNTS_URI_5 + accountId
                 + PATH_PROMOTED_ACCOUNTS;
-        Type type = new TypeToken<BaseAdsListResponse<PromotedAccount>>() {
-        }.getType();
+        Type type = listResponseType(PromotedAccount.class);
         return twitterAdsClient.executeHttpListRequest(baseUrl, params, type);
     }
 
@@ -236,9 +223,8 @@ public class TwitterAdsLineItemApiImpl implements TwitterAdsLineItemApi {
                 + PRE_ROLL_CALL_TO_ACTION;
         final HttpResponse httpResponse = twitterAdsClient.postRequest(baseUrl, params.toArray(new HttpParameter[params.size()]));
         try {
-            final Type type = new TypeToken<BaseAdsResponse<TwitterMediaCallToAction>>() {
-            }.getType();
-            return TwitterAdUtil.constructBaseAdsResponse(httpResponse, httpResponse.asString(), type);
+            final Type type = responseType(TwitterMediaCallToAction.class);
+            return TwitterAdUtil.constructBaseAdsResponse(httpResponse, type);
         } catch (IOException e) {
             throw new TwitterException("Failed to parse call to action response.");
         }
@@ -265,9 +251,8 @@ public class TwitterAdsLineItemApiImpl implements TwitterAdsLineItemApi {
                 + PATH_MEDIA_CREATIVES;
         final HttpResponse httpResponse = twitterAdsClient.postRequest(baseUrl, params.toArray(new HttpParameter[params.size()]));
         try {
-            final Type type = new TypeToken<BaseAdsResponse<AssociateMediaCreativeResponse>>() {
-            }.getType();
-            return TwitterAdUtil.constructBaseAdsResponse(httpResponse, httpResponse.asString(), type);
+            final Type type = responseType(AssociateMediaCreativeResponse.class);
+            return TwitterAdUtil.constructBaseAdsResponse(httpResponse, type);
         } catch (IOException e) {
             throw new TwitterException("Failed to parse response for associate media to account", e);
         }
@@ -294,8 +279,7 @@ public class TwitterAdsLineItemApiImpl implements TwitterAdsLineItemApi {
 
         final String baseUrl = twitterAdsClient.getBaseAdsAPIUrl() + PREFIX_ACCOUNTS_URI_5 + accountId
                 + PATH_PROMOTED_ACCOUNTS;
-        final Type type = new TypeToken<BaseAdsListResponse<PromotedAccount>>() {
-        }.getType();
+        final Type type = listResponseType(PromotedAccount.class);
         return twitterAdsClient.executeHttpListRequest(baseUrl, params, type);
     }
 
@@ -320,9 +304,8 @@ public class TwitterAdsLineItemApiImpl implements TwitterAdsLineItemApi {
                 + PRE_ROLL_CALL_TO_ACTION + "/" + channelId;
         final HttpResponse httpResponse = twitterAdsClient.putRequest(baseUrl, params.toArray(new HttpParameter[params.size()]));
         try {
-            final Type type = new TypeToken<BaseAdsResponse<TwitterMediaCallToAction>>() {
-            }.getType();
-            return TwitterAdUtil.constructBaseAdsResponse(httpResponse, httpResponse.asString(), type);
+            final Type type = responseType(TwitterMediaCallToAction.class);
+            return TwitterAdUtil.constructBaseAdsResponse(httpResponse, type);
         } catch (IOException e) {
             throw new TwitterException("Failed to parse call to action response.");
         }
@@ -338,8 +321,7 @@ public class TwitterAdsLineItemApiImpl implements TwitterAdsLineItemApi {
 
         final String baseUrl = twitterAdsClient.getBaseAdsAPIUrl() + PREFIX_ACCOUNTS_URI_5 + accountId
                 + PRE_ROLL_CALL_TO_ACTION + "/" + channelId;
-        final Type type = new TypeToken<BaseAdsResponse<TwitterMediaCallToAction>>() {
-        }.getType();
+        final Type type = responseType(TwitterMediaCallToAction.class);
         return twitterAdsClient.executeHttpRequest(baseUrl, params.toArray(new HttpParameter[params.size()]), type, HttpVerb.DELETE);
     }
 
@@ -360,8 +342,7 @@ public class TwitterAdsLineItemApiImpl implements TwitterAdsLineItemApi {
 
         final String baseUrl = twitterAdsClient.getBaseAdsAPIUrl() + PREFIX_ACCOUNTS_URI_5 + accountId
                 + PATH_LINE_ITEM_APPS;
-        final Type type = new TypeToken<BaseAdsResponse<LineItemAppResponse>>() {
-        }.getType();
+        final Type type = responseType(LineItemAppResponse.class);
         return twitterAdsClient.executeHttpRequest(baseUrl, params.toArray(new HttpParameter[params.size()]), type, HttpVerb.POST);
     }
 
@@ -372,8 +353,7 @@ public class TwitterAdsLineItemApiImpl implements TwitterAdsLineItemApi {
 
         final String baseUrl = twitterAdsClient.getBaseAdsAPIUrl() + PREFIX_ACCOUNTS_URI_5 + accountId
                 + PATH_LINE_ITEM_APPS + "/" + lineItemAppId;
-        final Type type = new TypeToken<BaseAdsResponse<LineItemAppResponse>>() {
-        }.getType();
+        final Type type = responseType(LineItemAppResponse.class);
         return twitterAdsClient.executeHttpRequest(baseUrl, null, type, HttpVerb.GET);
     }
 
@@ -403,8 +383,7 @@ public class TwitterAdsLineItemApiImpl implements TwitterAdsLineItemApi {
 
         final String baseUrl = twitterAdsClient.getBaseAdsAPIUrl() + PREFIX_ACCOUNTS_URI_5 + accountId
                 + PATH_LINE_ITEM_APPS;
-        final Type type = new TypeToken<BaseAdsListResponse<LineItemAppResponse>>() {
-        }.getType();
+        final Type type = listResponseType(LineItemAppResponse.class);
         return twitterAdsClient.executeHttpListRequest(baseUrl, params, type);
     }
 
@@ -415,8 +394,7 @@ public class TwitterAdsLineItemApiImpl implements TwitterAdsLineItemApi {
 
         final String baseUrl = twitterAdsClient.getBaseAdsAPIUrl() + PREFIX_ACCOUNTS_URI_5 + accountId
                 + PATH_LINE_ITEM_APPS + "/" + lineItemAppId;
-        final Type type = new TypeToken<BaseAdsResponse<LineItemAppResponse>>() {
-        }.getType();
+        final Type type = responseType(LineItemAppResponse.class);
         return twitterAdsClient.executeHttpRequest(baseUrl, null, type, HttpVerb.DELETE);
     }
 
@@ -20,18 +20,19 @@ import static twitter4jads.TwitterAdsConstants.PATH_MEDIA_CREATIVES;
 import static twitter4jads.TwitterAdsConstants.PATH_MEDIA_LIBRARY;
 import static twitter4jads.TwitterAdsConstants.PREFIX_ACCOUNTS_URI_5;
 import static twitter4jads.TwitterAdsConstants.SLASH;
+import static twitter4jads.util.TwitterAdsGson.listResponseType;
+import static twitter4jads.util.TwitterAdsGson.responseType;
 
 import java.lang.reflect.Type;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 
 import org.apache.commons.lang3.StringUtils;
 
 import com.google.common.collect.Lists;
-import com.google.common.reflect.TypeToken;
 
-import twitter4jads.BaseAdsListResponse;
 import twitter4jads.BaseAdsListResponseIterable;
 import twitter4jads.BaseAdsResponse;
 import twitter4jads.TwitterAdsClient;
@@ -71,8 +72,7 @@ public class TwitterAdsMediaApiImpl implements TwitterAdsMediaApi {
             parameters.add(new HttpParameter(PARAM_SORT_BY, sortBy));
         }
 
-        final Type type = new TypeToken<BaseAdsListResponse<TwitterAccountMedia>>() {
-        }.getType();
+        final Type type = listResponseType(TwitterAccountMedia.class);
         return twitterAdsClient.executeHttpListRequest(baseUrl, parameters, type);
     }
 
@@ -83,8 +83,7 @@ public class TwitterAdsMediaApiImpl implements TwitterAdsMediaApi {
 
         final String baseUrl = twitterAdsClient.getBaseAdsAPIUrl() + PREFIX_ACCOUNTS_URI_5 + accountId
                 + PATH_ACCOUNT_MEDIA + "/" + accountMediaId;
-        final Type type = new TypeToken<BaseAdsResponse<TwitterAccountMedia>>() {
-        }.getType();
+        final Type type = responseType(TwitterAccountMedia.class);
         return twitterAdsClient.executeHttpRequest(baseUrl, null, type, HttpVerb.GET);
     }
 
@@ -101,8 +100,7 @@ public class TwitterAdsMediaApiImpl implements TwitterAdsMediaApi {
             parameters.add(new HttpParameter(PARAM_WITH_DELETED, fetchDeleted));
         }
 
-        final Type type = new TypeToken<BaseAdsListResponse<TwitterAccountMediaCreative>>() {
-        }.getType();
+        final Type type = listResponseType(TwitterAccountMediaCreative.class);
         return twitterAdsClient.executeHttpListRequest(baseUrl, parameters, type);
     }
 
@@ -113,8 +111,7 @@ public class TwitterAdsMediaApiImpl implements TwitterAdsMediaApi {
 
         final String baseUrl = twitterAdsClient.getBaseAdsAPIUrl() + PREFIX_ACCOUNTS_URI_5 + accountId
                 + PATH_MEDIA_LIBRARY + "/" + mediaKey;
-        final Type type = new TypeToken<BaseAdsResponse<TwitterLibraryMedia>>() {
-        }.getType();
+        final Type type = responseType(TwitterLibraryMedia.class);
         return twitterAdsClient.executeHttpRequest(baseUrl, null, type, HttpVerb.GET);
     }
 
@@ -138,8 +135,7 @@ public class TwitterAdsMediaApiImpl implements TwitterAdsMediaApi {
             parameters.add(new HttpParameter(PARAM_COUNT, 50));
         }
 
-        final Type type = new TypeToken<BaseAdsListResponse<TwitterLibraryMedia>>() {
-        }.getType();
+        final Type type = listResponseType(TwitterLibraryMedia.class);
         return twitterAdsClient.executeHttpListRequest(baseUrl, parameters, type);
     }
 
@@ -151,8 +147,7 @@ public class TwitterAdsMediaApiImpl implements TwitterAdsMediaApi {
 
         final String baseUrl = twitterAdsClient.getBaseAdsAPIUrl() + PREFIX_ACCOUNTS_URI_5 + accountId
                 + PATH_MEDIA_CREATIVES + "/" + mediaId;
-        final Type type = new TypeToken<BaseAdsResponse<TwitterAccountMediaCreative>>() {
-        }.getType();
+        final Type type = responseType(TwitterAccountMediaCreative.class);
         return twitterAdsClient.executeHttpRequest(baseUrl, null, type, HttpVerb.DELETE);
     }
 
@@ -173,8 +168,7 @@ public class TwitterAdsMediaApiImpl implements TwitterAdsMediaApi {
 
         final String baseUrl = twitterAdsClient.getBaseAdsAPIUrl() + PREFIX_ACCOUNTS_URI_5 + accountId
                 + PATH_MEDIA_CREATIVES;
-        final Type type = new TypeToken<BaseAdsResponse<TwitterAccountMediaCreative>>() {
-        }.getType();
+        final Type type = responseType(TwitterAccountMediaCreative.class);
         return twitterAdsClient.executeHttpRequest(baseUrl, params.toArray(new HttpParameter[params.size()]), type, HttpVerb.POST);
     }
 
@@ -218,8 +212,7 @@ public class TwitterAdsMediaApiImpl implements TwitterAdsMediaApi {
 
         final String url = twitterAdsClient.getBaseAdsAPIUrl() + PREFIX_ACCOUNTS_URI_5 + accountId + PATH_MEDIA_LIBRARY
                 + "/" + mediaKey;
-        final Type type = new TypeToken<BaseAdsResponse<TwitterLibraryMedia>>() {
-        }.getType();
+        final Type type = responseType(TwitterLibraryMedia.class);
         return twitterAdsClient.executeHttpRequest(url, params.toArray(new HttpParameter[params.size()]), type, HttpVerb.PUT);
     }
 
@@ -230,6 +223,13 @@ public class TwitterAdsMediaApiImpl implements TwitterAdsMediaApi {
         return twitterAdsClient.waitForMediaProcessing(accountId, mediaKey, TimeUnit.MINUTES.toMillis(4));
     }
 
+    @Override
+    public CompletableFuture<TwitterLibraryMedia> waitForProcessingAndGetMediaAsync(String accountId, String mediaKey) {
+        TwitterAdUtil.ensureNotNull(accountId, "Account Id");
+        TwitterAdUtil.ensureNotNull(mediaKey, "Media Key");
+        return twitterAdsClient.waitForMediaProcessingAsync(accountId, mediaKey, TimeUnit.MINUTES.toMillis(4));
+    }
+
     @Override
     public BaseAdsResponse<TwitterLibraryMedia> deleteLibraryMediaByKey(String accountId, String mediaKey) throws TwitterException {
         TwitterAdUtil.ensureNotNull(accountId, "Account Id");
@@ -237,8 +237,7 @@ public class TwitterAdsMediaApiImpl implements TwitterAdsMediaApi {
 
         final String url = twitterAdsClient.getBaseAdsAPIUrl() + PREFIX_ACCOUNTS_URI_5 + accountId + PATH_MEDIA_LIBRARY
                 + SLASH + mediaKey;
-        Type type = new TypeToken<BaseAdsResponse<TwitterLibraryMedia>>() {
-        }.getType();
+        Type type = responseType(TwitterLibraryMedia.class);
 
         return twitterAdsClient.executeHttpRequest(url, null, type, HttpVerb.DELETE);
     }
@@ -275,8 +274,7 @@ public class TwitterAdsMediaApiImpl implements TwitterAdsMediaApi {
 
         final String url = twitterAdsClient.getBaseAdsAPIUrl() + PREFIX_ACCOUNTS_URI_5 + accountId + PATH_MEDIA_LIBRARY;
         final HttpParameter[] parameters = params.toArray(new HttpParameter[params.size()]);
-        Type type = new TypeToken<BaseAdsResponse<TwitterLibraryMedia>>() {
-        }.getType();
+        Type type = responseType(TwitterLibraryMedia.class);
 
         return twitterAdsClient.executeHttpRequest(url, parameters, type, HttpVerb.POST);
     }
@@ -3,10 +3,11 @@ package twitter4jads.impl;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.reflect.TypeToken;
-import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.StringUtils;
+import twitter4jads.internal.async.MediaProcessingWatcher;
 import twitter4jads.TwitterAdsClient;
 import twitter4jads.api.TwitterAdsMediaUploadApi;
+import twitter4jads.internal.async.TwitterAdsExecutors;
 import twitter4jads.internal.http.HttpParameter;
 import twitter4jads.internal.http.HttpResponse;
 import twitter4jads.internal.models4j.TwitterException;
@@ -15,19 +16,33 @@ import twitter4jads.internal.models4j.TwitterRuntimeException;
 import twitter4jads.models.ads.HttpVerb;
 import twitter4jads.models.media.TwitterMediaType;
 import twitter4jads.models.video.UploadMediaObjectResponse;
+import twitter4jads.models.video.UploadMediaProcessingInfo;
 import twitter4jads.util.TwitterAdUtil;
 
-import javax.xml.bind.DatatypeConverter;
-import java.io.BufferedInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.lang.reflect.Type;
 import java.net.MalformedURLException;
 import java.net.URL;
-import java.net.URLConnection;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import static twitter4jads.TwitterAdsConstants.*;
+import static twitter4jads.internal.http.HttpResponseCode.INTERNAL_SERVER_ERROR;
+import static twitter4jads.internal.http.HttpResponseCode.TOO_MANY_REQUESTS;
 import static twitter4jads.internal.models4j.TwitterImpl.PARAM_ADDITIONAL_OWNERS;
 
 /**
@@ -39,6 +54,20 @@ public class TwitterAdsMediaUploadApiImpl implements TwitterAdsMediaUploadApi {
 
     private static final Map<Long, Long> VIDEO_SIZE_PROCESSING_WAIT_TIME_MAP;
 
+    private static final int MAX_SEGMENT_UPLOAD_ATTEMPTS = 3;
+    // well within the day an initialized media id stays valid for, and bounds the disk held by abandoned uploads
+    private static final long PENDING_UPLOAD_TTL_MILLIS = TimeUnit.HOURS.toMillis(1);
+    private static final long DEFAULT_CHECK_AFTER_SECONDS = 5;
+    private static final long SEGMENT_RETRY_BACKOFF_MILLIS = TimeUnit.SECONDS.toMillis(2);
+
+    // shared by all uploads, so that concurrent uploads do not multiply the connections to the upload host
+    private static final ExecutorService SEGMENT_UPLOADER =
+            TwitterAdsExecutors.newSharedThreadPool("Twitter4J Ads Media Uploader", MEDIA_UPLOAD_PARALLELISM, 1, TimeUnit.MINUTES);
+
+    // uploads that failed on a transient error, by media and owners, so that asking for the same upload again only sends
+    // the segments that were not acknowledged
+    private static final ConcurrentMap<String, PendingUpload> PENDING_UPLOADS = new ConcurrentHashMap<>();
+
     private final TwitterAdsClient twitterAdsClient;
 
     public TwitterAdsMediaUploadApiImpl(TwitterAdsClient twitterAdsClient) {
@@ -58,6 +87,13 @@ public class TwitterAdsMediaUploadApiImpl implements TwitterAdsMediaUploadApi {
     public String uploadMediaAndGetMediaKey(String mediaUrl, Set<String> accountUserIds,
             TwitterMediaType twitterMediaType, String name)
             throws TwitterException {
+        return TwitterAdsExecutors.await(uploadMediaAndGetMediaKeyAsync(mediaUrl, accountUserIds, twitterMediaType, name), "media processing");
+    }
+
+    @Override
+    public CompletableFuture<String> uploadMediaAndGetMediaKeyAsync(String mediaUrl, Set<String> accountUserIds,
+            TwitterMediaType twitterMediaType, String name)
+            throws TwitterException {
         final UploadMediaObjectResponse responseFromFinalize = uploadAndGetMediaKey(mediaUrl, accountUserIds,
                 twitterMediaType, name);
         String mediaId = responseFromFinalize.getMediaId();
@@ -66,7 +102,7 @@ public class TwitterAdsMediaUploadApiImpl implements TwitterAdsMediaUploadApi {
 
         //as per documentation if media process info is null then the video is ready
         if (responseFromFinalize.getUploadMediaProcessingInfo() == null) {
-            return mediaKey;
+            return CompletableFuture.completedFuture(mediaKey);
         }
 
         if (responseFromFinalize.getUploadMediaProcessingInfo().getUploadErrorInfo() != null) {
@@ -77,10 +113,10 @@ public class TwitterAdsMediaUploadApiImpl implements TwitterAdsMediaUploadApi {
         final Integer progressPercentage = responseFromFinalize.getUploadMediaProcessingInfo().getProgressPercentage();
         if ((TwitterAdUtil.isNotNullOrEmpty(state) && state.equalsIgnoreCase("succeeded")) ||
                 (progressPercentage != null && progressPercentage == 100)) {
-            return mediaKey;
+            return CompletableFuture.completedFuture(mediaKey);
         }
 
-        return waitForVideoProcessingAndReturnKey(mediaId, mediaKey, responseFromFinalize, videoSize);
+        return waitForVideoProcessing(mediaId, mediaKey, responseFromFinalize, videoSize);
     }
 
     // ------------------------------------------------------------------- PRIVATE METHODS ----------------------------------------------------------
@@ -88,26 +124,102 @@ public class TwitterAdsMediaUploadApiImpl implements TwitterAdsMediaUploadApi {
     private UploadMediaObjectResponse uploadAndGetMediaKey(String mediaUrl, Set<String> accountUserIds,
             TwitterMediaType twitterMediaType, String name)
             throws TwitterException {
+        final String uploadKey = uploadKey(mediaUrl, accountUserIds, twitterMediaType, name);
+        PendingUpload upload = claimPendingUpload(uploadKey);
+        boolean resumable = false;
         try {
-            String mediaSizeInBytes = getMediaSizeInBytes(mediaUrl);
-            String mediaId = initiateMediaUpload(mediaSizeInBytes, accountUserIds, twitterMediaType, name);
-            uploadMedia(mediaUrl, mediaId, mediaSizeInBytes);
-            return finalizeMediaUpload(mediaId);
+            if (upload == null) {
+                upload = startUpload(mediaUrl, accountUserIds, twitterMediaType, name);
+            }
+            uploadMedia(upload);
+            return finalizeMediaUpload(upload.mediaId);
         } catch (Exception e) {
             if (e instanceof TwitterException) {
+                resumable = upload != null && isResumable((TwitterException) e);
                 throw (TwitterException) e;
             }
             throw new TwitterException("Error Occurred while uploading Media", e);
+        } finally {
+            if (resumable) {
+                PendingUpload replaced = PENDING_UPLOADS.put(uploadKey, upload);
+                if (replaced != null) {
+                    replaced.discard();
+                }
+            } else if (upload != null) {
+                upload.discard();
+            }
         }
     }
 
-    private String getMediaSizeInBytes(String mediaUrl) throws TwitterException, IOException {
+    private PendingUpload startUpload(String mediaUrl, Set<String> accountUserIds, TwitterMediaType twitterMediaType, String name)
+            throws TwitterException, IOException {
+        Path spooledMedia = spoolMedia(mediaUrl, twitterMediaType);
         try {
-            URLConnection urlConnection = new URL(mediaUrl).openConnection();
-            return urlConnection.getHeaderField("Content-Length");
+            long mediaSize = Files.size(spooledMedia);
+            String mediaId = initiateMediaUpload(String.valueOf(mediaSize), accountUserIds, twitterMediaType, name);
+            return new PendingUpload(spooledMedia, mediaSize, mediaId, System.currentTimeMillis() + PENDING_UPLOAD_TTL_MILLIS);
+        } catch (TwitterException | IOException | RuntimeException e) {
+            Files.deleteIfExists(spooledMedia);
+            throw e;
+        }
+    }
+
+    /**
+     * @return the upload of the same media left by a call that failed on a transient error, null if there is none
+     */
+    private static PendingUpload claimPendingUpload(String uploadKey) {
+        long now = System.currentTimeMillis();
+        for (Map.Entry<String, PendingUpload> entry : PENDING_UPLOADS.entrySet()) {
+            if (entry.getValue().expiresAtMillis <= now && PENDING_UPLOADS.remove(entry.getKey(), entry.getValue())) {
+                entry.getValue().discard();
+            }
+        }
+        return PENDING_UPLOADS.remove(uploadKey);
+    }
+
+    private static String uploadKey(String mediaUrl, Set<String> accountUserIds, TwitterMediaType twitterMediaType, String name) {
+        Set<String> owners = accountUserIds == null ? Collections.<String>emptySet() : new TreeSet<>(accountUserIds);
+        return twitterMediaType + " " + mediaUrl + " " + owners + " " + name;
+    }
+
+    private static boolean isResumable(TwitterException e) {
+        return e.isCausedByNetworkIssue() || e.getStatusCode() >= INTERNAL_SERVER_ERROR || e.getStatusCode() == TOO_MANY_REQUESTS;
+    }
+
+    /**
+     * Downloads the media once into a temp file, so that its segments can be read independently and sent again on retries.
+     */
+    private Path spoolMedia(String mediaUrl, TwitterMediaType twitterMediaType) throws TwitterException, IOException {
+        final URL url;
+        try {
+            url = new URL(mediaUrl);
         } catch (MalformedURLException e) {
             throw new IllegalArgumentException("Invalid media url");
         }
+        final long maxSize = twitterMediaType == TwitterMediaType.IMAGE ? MAX_IMAGE_SIZE_FOR_TWITTER_IN_BYTES : MAX_VIDEO_SIZE_IN_BYTES;
+        final Path spooledMedia = Files.createTempFile("twitter4j-ads-media", ".upload");
+        try (ReadableByteChannel in = Channels.newChannel(url.openStream());
+             FileChannel out = FileChannel.open(spooledMedia, StandardOpenOption.WRITE)) {
+            final ByteBuffer buffer = ByteBuffer.allocateDirect(64 * 1024);
+            long size = 0;
+            while (in.read(buffer) != -1) {
+                buffer.flip();
+                size += buffer.remaining();
+                if (size > maxSize) {
+                    // checked while reading, nothing is gained by downloading the rest of a file that will be rejected
+                    throw new TwitterInvalidParameterException(twitterMediaType == TwitterMediaType.IMAGE ?
+                            "Image should be less than 5 MB in size" : "Video should be less than 500 MB in size");
+                }
+                while (buffer.hasRemaining()) {
+                    out.write(buffer);
+                }
+                buffer.clear();
+            }
+        } catch (TwitterException | IOException | RuntimeException e) {
+            Files.deleteIfExists(spooledMedia);
+            throw e;
+        }
+        return spooledMedia;
     }
 
     private String initiateMediaUpload(String mediaSizeInBytes, Set<String> accountUserIds, TwitterMediaType twitterMediaType, String name)
@@ -197,69 +309,77 @@ public class TwitterAdsMediaUploadApiImpl implements TwitterAdsMediaUploadApi {
         return params.toArray(new HttpParameter[params.size()]);
     }
 
-    private void uploadMedia(String mediaUrl, String mediaId, String mediaSizeInBytes) throws TwitterException, IOException {
-        int segmentIndex = 0;
-        Long bytesLeftToUpload = Long.valueOf(mediaSizeInBytes);
-        InputStream inputStream = null;
-        BufferedInputStream bis = null;
-        try {
-            inputStream = new URL(mediaUrl).openStream();
-            bis = new BufferedInputStream(inputStream);
-
-            while (bytesLeftToUpload > 0) {
-                int totalBytesRead = 0;
-                byte[] chunkToUpload = new byte[2 * TWO_MIB];
-
-                while (totalBytesRead < TWO_MIB) {
-                    byte[] chunk = new byte[TWO_MIB];
-                    int bytesRead = bis.read(chunk);
-                    if (bytesRead == -1) {
-                        break;
-                    } else {
-                        chunk = Arrays.copyOf(chunk, bytesRead);
-                        for (int i = 0; i < bytesRead; i++) {
-                            chunkToUpload[totalBytesRead++] = chunk[i];
-                        }
-                    }
-                }
-
-                if (totalBytesRead > 0) {
-                    chunkToUpload = Arrays.copyOf(chunkToUpload, totalBytesRead);
-                    String base64Encoding = DatatypeConverter.printBase64Binary(chunkToUpload);
-                    appendChunk(mediaId, base64Encoding, segmentIndex);
-                    bytesLeftToUpload -= totalBytesRead;
-                    segmentIndex += 1;
-                } else {
-                    break;
+    /**
+     * Sends the segments of the spooled media that have not been acknowledged yet,
+     * {@link twitter4jads.TwitterAdsConstants#MEDIA_UPLOAD_PARALLELISM} at a time. The API puts segments together by
+     * their index, so they may arrive in any order. Each segment is streamed from the file into a multipart body of known
+     * length; a failed segment is sent again on its own, acknowledged segments are never sent twice.
+     */
+    private void uploadMedia(final PendingUpload upload) throws TwitterException, IOException {
+        try (final FileChannel channel = FileChannel.open(upload.spooledMedia, StandardOpenOption.READ)) {
+            final List<Future<Void>> segments = Lists.newArrayList();
+            for (int segmentIndex = 0; segmentIndex < upload.segmentCount; segmentIndex++) {
+                if (upload.isAcknowledged(segmentIndex)) {
+                    continue;
                 }
+                final int index = segmentIndex;
+                final long position = (long) segmentIndex * CHUNK_SIZE_IN_BYTES;
+                final int length = (int) Math.min(CHUNK_SIZE_IN_BYTES, upload.mediaSize - position);
+                segments.add(TwitterAdsExecutors.submit(SEGMENT_UPLOADER, new Callable<Void>() {
+                    @Override
+                    public Void call() throws TwitterException {
+                        appendSegment(upload.mediaId, new FileSegmentInputStream(channel, position, length), length, index);
+                        upload.acknowledge(index);
+                        return null;
+                    }
+                }));
             }
-        } finally {
-            if (inputStream != null) {
-                IOUtils.closeQuietly(bis);
+            try {
+                for (Future<Void> segment : segments) {
+                    TwitterAdsExecutors.await(segment, "media segments to be uploaded");
+                }
+            } finally {
+                // after a failure the media cannot be finalized anyway. The running segments still read from the channel and
+                // may still be acknowledged, so they are waited for before the channel is closed and the upload is kept for
+                // a resume
+                TwitterAdsExecutors.cancelAndAwait(segments);
             }
         }
     }
 
-    private void appendChunk(String mediaId, String chunk, int segmentIndex) throws TwitterException {
+    private void appendSegment(String mediaId, FileSegmentInputStream segment, int length, int segmentIndex) throws TwitterException {
         String url = twitterAdsClient.getMediaUploadBaseUrl() + "media/upload.json";
 
-        List<HttpParameter> params = createAppendChunkParams(mediaId, chunk, segmentIndex);
+        List<HttpParameter> params = createAppendSegmentParams(mediaId, segment, length, segmentIndex);
         HttpParameter[] parameters = params.toArray(new HttpParameter[params.size()]);
 
-        HttpResponse response = twitterAdsClient.postRequest(url, parameters);
-        int responseCode = response.getStatusCode();
-        if (responseCode < SUCCESSFULL_CALL_BEGIN_CODE || responseCode > SUCCESSFULL_CALL_END_CODE) {
-            throw new TwitterException(response.asString());
+        int attempt = 0;
+        while (true) {
+            attempt++;
+            try {
+                HttpResponse response = twitterAdsClient.postRequest(url, parameters);
+                int responseCode = response.getStatusCode();
+                if (responseCode < SUCCESSFULL_CALL_BEGIN_CODE || responseCode > SUCCESSFULL_CALL_END_CODE) {
+                    throw new TwitterException(response.asString());
+                }
+                return;
+            } catch (TwitterException eX) {
+                // the errors a later resume would get past are worth a retry of the segment alone first
+                if (!isResumable(eX) || attempt >= MAX_SEGMENT_UPLOAD_ATTEMPTS) {
+                    throw eX;
+                }
+                TwitterAdUtil.reallySleep(SEGMENT_RETRY_BACKOFF_MILLIS * attempt);
+            }
         }
-
     }
 
-    private List<HttpParameter> createAppendChunkParams(String mediaId, String chunk, int segment_index) {
+    private List<HttpParameter> createAppendSegmentParams(String mediaId, InputStream segment, int length, int segment_index) {
         List<HttpParameter> params = Lists.newArrayList();
         params.add(new HttpParameter(PARAM_COMMAND, "APPEND"));
         params.add(new HttpParameter(PARAM_MEDIA_ID, mediaId));
-        params.add(new HttpParameter(PARAM_MEDIA_DATA, chunk));
         params.add(new HttpParameter(PARAM_SEGMENT_INDEX, segment_index));
+        // raw bytes, base64 encoding as media_data would cost a third more on the wire and a String per segment
+        params.add(new HttpParameter(PARAM_MEDIA, "segment-" + segment_index, segment, length));
 
         return params;
     }
@@ -272,48 +392,59 @@ public class TwitterAdsMediaUploadApiImpl implements TwitterAdsMediaUploadApi {
         return params.toArray(new HttpParameter[params.size()]);
     }
 
-    private String waitForVideoProcessingAndReturnKey(String mediaIdString, String mediaKey,
-            UploadMediaObjectResponse statusResponse, Long videoSize)
-            throws TwitterException {
-        if (statusResponse == null) {
-            statusResponse = getUploadStatus(mediaIdString);
-        }
+    /**
+     * Polls the upload status on the shared {@link MediaProcessingWatcher}, every time after the check_after_secs of the
+     * previous status.
+     */
+    private CompletableFuture<String> waitForVideoProcessing(final String mediaIdString, final String mediaKey,
+            final UploadMediaObjectResponse finalizeResponse, Long videoSize) {
+        return MediaProcessingWatcher.getInstance().watch(UPLOAD_MEDIA_URL + mediaIdString, new MediaProcessingWatcher.StatusCheck<String>() {
+            private UploadMediaObjectResponse statusResponse = finalizeResponse;
+
+            @Override
+            public MediaProcessingWatcher.Status<String> check() throws TwitterException {
+                statusResponse = getUploadStatus(mediaIdString);
+                if (statusResponse == null) {
+                    throw new TwitterException("Could not upload Video successfully, please select a different video");
+                }
+                //as per documentation if media process info is null then the video is ready
+                if (statusResponse.getUploadMediaProcessingInfo() == null) {
+                    return MediaProcessingWatcher.Status.done(mediaKey);
+                }
+                if (statusResponse.getUploadMediaProcessingInfo().getUploadErrorInfo() != null) {
+                    throw new TwitterException(statusResponse.getUploadMediaProcessingInfo().getUploadErrorInfo().getMessage());
+                }
 
-        Long timeToWait = 0L;
-        Long checkAfterSeconds = statusResponse.getUploadMediaProcessingInfo().getCheckAfterSeconds();
-        Long maxWaitTime = decideMaxWaitTime(videoSize);
-        while (timeToWait < maxWaitTime) {
-            TwitterAdUtil.reallySleep(checkAfterSeconds * 1000);
-            timeToWait = timeToWait + checkAfterSeconds;
-
-            statusResponse = getUploadStatus(mediaIdString);
-            if (statusResponse == null) {
-                throw new TwitterException("Could not upload Video successfully, please select a different video");
-            }
-            //as per documentation if media process info is null then the video is ready
-            if (statusResponse.getUploadMediaProcessingInfo() == null) {
-                return mediaKey;
-            }
-            if (statusResponse.getUploadMediaProcessingInfo().getUploadErrorInfo() != null) {
-                throw new TwitterException(statusResponse.getUploadMediaProcessingInfo().getUploadErrorInfo().getMessage());
+                String state = statusResponse.getUploadMediaProcessingInfo().getState();
+                Integer progressPercentage = statusResponse.getUploadMediaProcessingInfo().getProgressPercentage();
+                if ((TwitterAdUtil.isNotNullOrEmpty(state) && state.equalsIgnoreCase("succeeded")) ||
+                        (progressPercentage != null && progressPercentage == 100)) {
+                    return MediaProcessingWatcher.Status.done(mediaKey);
+                }
+                return MediaProcessingWatcher.Status.checkAgainAfter(checkAfterMillis(statusResponse));
             }
 
-            String state = statusResponse.getUploadMediaProcessingInfo().getState();
-            Integer progressPercentage = statusResponse.getUploadMediaProcessingInfo().getProgressPercentage();
-            if ((TwitterAdUtil.isNotNullOrEmpty(state) && state.equalsIgnoreCase("succeeded")) ||
-                    (progressPercentage != null && progressPercentage == 100)) {
-                return mediaKey;
+            @Override
+            public String timedOut() throws TwitterException {
+                UploadMediaProcessingInfo processingInfo = statusResponse.getUploadMediaProcessingInfo();
+                if (processingInfo.getProgressPercentage() != null &&
+                        processingInfo.getProgressPercentage() < 100 &&
+                        processingInfo.getState() != null &&
+                        processingInfo.getState().equalsIgnoreCase("in_progress")) {
+                    throw new TwitterException(
+                            "Please retry playing the ad, or upload a new video, there is problem at Twitter's end in processing the " + "video");
+                }
+                if (processingInfo.getUploadErrorInfo() != null) {
+                    throw new TwitterException(processingInfo.getUploadErrorInfo().getMessage());
+                }
+                throw new TwitterException("Timed out waiting for the video to be processed");
             }
-        }
+        }, checkAfterMillis(finalizeResponse), decideMaxWaitTime(videoSize));
+    }
 
-        if (statusResponse.getUploadMediaProcessingInfo().getProgressPercentage() != null &&
-                statusResponse.getUploadMediaProcessingInfo().getProgressPercentage() < 100 &&
-                statusResponse.getUploadMediaProcessingInfo().getState() != null &&
-                statusResponse.getUploadMediaProcessingInfo().getState().equalsIgnoreCase("in_progress")) {
-            throw new TwitterException(
-                    "Please retry playing the ad, or upload a new video, there is problem at Twitter's end in processing the " + "video");
-        }
-        throw new TwitterException(statusResponse.getUploadMediaProcessingInfo().getUploadErrorInfo().getMessage());
+    private long checkAfterMillis(UploadMediaObjectResponse statusResponse) {
+        Long checkAfterSeconds = statusResponse.getUploadMediaProcessingInfo().getCheckAfterSeconds();
+        return TimeUnit.SECONDS.toMillis(checkAfterSeconds == null ? DEFAULT_CHECK_AFTER_SECONDS : checkAfterSeconds);
     }
 
     private Long decideMaxWaitTime(Long videoSize) {
@@ -351,4 +482,87 @@ public class TwitterAdsMediaUploadApiImpl implements TwitterAdsMediaUploadApi {
 
         return twitterAdsClient.executeRequest(url, params.toArray(new HttpParameter[params.size()]), type, HttpVerb.GET);
     }
+
+    /**
+     * A media upload past INIT: the spooled media, its media id and the segments the API has acknowledged.
+     */
+    private static final class PendingUpload {
+        private final Path spooledMedia;
+        private final long mediaSize;
+        private final int segmentCount;
+        private final String mediaId;
+        private final long expiresAtMillis;
+        private final BitSet acknowledged;
+
+        private PendingUpload(Path spooledMedia, long mediaSize, String mediaId, long expiresAtMillis) {
+            this.spooledMedia = spooledMedia;
+            this.mediaSize = mediaSize;
+            this.segmentCount = (int) ((mediaSize + CHUNK_SIZE_IN_BYTES - 1) / CHUNK_SIZE_IN_BYTES);
+            this.mediaId = mediaId;
+            this.expiresAtMillis = expiresAtMillis;
+            this.acknowledged = new BitSet(segmentCount);
+        }
+
+        private synchronized boolean isAcknowledged(int segmentIndex) {
+            return acknowledged.get(segmentIndex);
+        }
+
+        private synchronized void acknowledge(int segmentIndex) {
+            acknowledged.set(segmentIndex);
+        }
+
+        private void discard() {
+            try {
+                Files.deleteIfExists(spooledMedia);
+            } catch (IOException ignore) {
+            }
+        }
+    }
+
+    /**
+     * Reads one segment of the spooled media with positional reads, so that all segments can share one channel. Closing it
+     * rewinds instead, because the multipart writer closes the body after every attempt and a retry has to send the
+     * segment again.
+     */
+    private static final class FileSegmentInputStream extends InputStream {
+        private final FileChannel channel;
+        private final long start;
+        private final long end;
+        private long position;
+
+        private FileSegmentInputStream(FileChannel channel, long start, int length) {
+            this.channel = channel;
+            this.start = start;
+            this.end = start + length;
+            this.position = start;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] single = new byte[1];
+            return read(single, 0, 1) == -1 ? -1 : single[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (position >= end) {
+                return -1;
+            }
+            int read = channel.read(ByteBuffer.wrap(b, off, (int) Math.min(len, end - position)), position);
+            if (read > 0) {
+                position += read;
+            }
+            return read;
+        }
+
+        @Override
+        public int available() {
+            return (int) (end - position);
+        }
+
+        @Override
+        public void close() {
+            position = start;
+        }
+    }
 }
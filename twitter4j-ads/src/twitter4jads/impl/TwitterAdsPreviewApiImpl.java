@@ -1,13 +1,13 @@
 package twitter4jads.impl;
 
 import static twitter4jads.TwitterAdsConstants.PARAM_ACCOUNT_ID;
+import static twitter4jads.util.TwitterAdsGson.listResponseType;
 
 import java.io.IOException;
 import java.lang.reflect.Type;
 import java.util.List;
 
 import com.google.common.collect.Lists;
-import com.google.gson.reflect.TypeToken;
 
 import twitter4jads.BaseAdsListResponse;
 import twitter4jads.TwitterAdsClient;
@@ -44,12 +44,11 @@ public class TwitterAdsPreviewApiImpl implements TwitterAdsPreviewApi {
         String baseUrl = twitterAdsClient.getBaseAdsAPIUrl() + TwitterAdsConstants.PREFIX_ACCOUNTS_URI_5 +
                 accountId + TwitterAdsConstants.TWEET_PATH_PREVIEW;
 
-        Type type = new TypeToken<BaseAdsListResponse<TwitterCreativePreview>>() {
-        }.getType();
+        Type type = listResponseType(TwitterCreativePreview.class);
         HttpResponse response = twitterAdsClient.getRequest(baseUrl, parameterList.toArray(new HttpParameter[parameterList.size()]));
 
         try {
-            return TwitterAdUtil.constructBaseAdsListResponse(response, response.asString(), type);
+            return TwitterAdUtil.constructBaseAdsListResponse(response, type);
         } catch (IOException io) {
             throw new TwitterException("Response for tweet preview failed from TwitterApi.");
         }
@@ -23,18 +23,21 @@ import static twitter4jads.TwitterAdsConstants.PATH_PROMOTED_TWEET_V2;
 import static twitter4jads.TwitterAdsConstants.PATH_PROMOTED_VIDEO_TWEET;
 import static twitter4jads.TwitterAdsConstants.PATH_SCHEDULED_PROMOTED_TWEETS;
 import static twitter4jads.TwitterAdsConstants.PREFIX_ACCOUNTS_URI_5;
+import static twitter4jads.util.TwitterAdsGson.listResponseType;
+import static twitter4jads.util.TwitterAdsGson.responseType;
 
 import java.io.IOException;
 import java.lang.reflect.Type;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.apache.commons.collections.CollectionUtils;
 
 import com.google.common.base.Optional;
 import com.google.common.collect.Lists;
-import com.google.gson.reflect.TypeToken;
 
 import twitter4jads.BaseAdsListResponse;
 import twitter4jads.BaseAdsListResponseIterable;
@@ -79,9 +82,9 @@ public class TwitterAdsPromotedTweetApiImpl implements TwitterAdsPromotedTweetAp
         if (TwitterAdUtil.isNotNullOrEmpty(cursor)) {
             params.add(new HttpParameter(PARAM_CURSOR, cursor));
         }
+        final Map<String, Collection<String>> idFilters = new LinkedHashMap<>();
         if (lineItemIds != null && lineItemIds.isPresent()) {
-            TwitterAdUtil.ensureMaxSize(lineItemIds.get(), MAX_REQUEST_PARAMETER_SIZE);
-            params.add(new HttpParameter(TwitterAdsConstants.PARAM_LINE_ITEM_IDS, TwitterAdUtil.getCsv(lineItemIds.get())));
+            idFilters.put(TwitterAdsConstants.PARAM_LINE_ITEM_IDS, lineItemIds.get());
         }
         if (sortByField != null && sortByField.isPresent()) {
             params.add(new HttpParameter(PARAM_SORT_BY, sortByField.get().getField()));
@@ -89,9 +92,8 @@ public class TwitterAdsPromotedTweetApiImpl implements TwitterAdsPromotedTweetAp
 
         final String baseUrl = twitterAdsClient.getBaseAdsAPIUrl() + PREFIX_ACCOUNTS_URI_5 + accountId
                 + PATH_PROMOTED_TWEETS;
-        final Type type = new TypeToken<BaseAdsListResponse<PromotedTweets>>() {
-        }.getType();
-        return twitterAdsClient.executeHttpListRequest(baseUrl, params, type);
+        final Type type = listResponseType(PromotedTweets.class);
+        return twitterAdsClient.executeHttpListRequest(baseUrl, params, type, idFilters, MAX_REQUEST_PARAMETER_SIZE);
     }
 
     @Override
@@ -99,8 +101,7 @@ public class TwitterAdsPromotedTweetApiImpl implements TwitterAdsPromotedTweetAp
         TwitterAdUtil.ensureNotNull(accountId, "accountId");
         TwitterAdUtil.ensureNotNull(promotedTweetsId, "promotedTweetsId");
 
-        final Type type = new TypeToken<BaseAdsResponse<PromotedTweets>>() {
-        }.getType();
+        final Type type = responseType(PromotedTweets.class);
         final String baseUrl = twitterAdsClient.getBaseAdsAPIUrl() + PREFIX_ACCOUNTS_URI_5 + accountId
                 + PATH_PROMOTED_TWEETS + promotedTweetsId;
         return twitterAdsClient.executeHttpRequest(baseUrl, null, type, HttpVerb.GET);
@@ -125,9 +126,8 @@ public class TwitterAdsPromotedTweetApiImpl implements TwitterAdsPromotedTweetAp
                 twitterAdsClient.getBaseAdsAPIUrl() + TwitterAdsConstants.PREFIX_ACCOUNTS_URI_5 + accountId +
                 PATH_PROMOTED_TWEETS, params.toArray(new HttpParameter[params.size()]));
         try {
-            final Type type = new TypeToken<BaseAdsListResponse<PromotedTweets>>() {
-            }.getType();
-            return TwitterAdUtil.constructBaseAdsListResponse(httpResponse, httpResponse.asString(), type);
+            final Type type = listResponseType(PromotedTweets.class);
+            return TwitterAdUtil.constructBaseAdsListResponse(httpResponse, type);
         } catch (IOException e) {
             throw new TwitterException("Failed to parse promoted tweets.");
         }
@@ -141,8 +141,7 @@ public class TwitterAdsPromotedTweetApiImpl implements TwitterAdsPromotedTweetAp
         String baseUrl = twitterAdsClient.getBaseAdsAPIUrl() + TwitterAdsConstants.PREFIX_ACCOUNTS_URI_5 + accountId
                 + PATH_PROMOTED_TWEETS +
                 tweetId;
-        Type type = new TypeToken<BaseAdsResponse<PromotedTweets>>() {
-        }.getType();
+        Type type = responseType(PromotedTweets.class);
         return twitterAdsClient.executeHttpRequest(baseUrl, null, type, HttpVerb.DELETE);
     }
 
@@ -181,8 +180,7 @@ public class TwitterAdsPromotedTweetApiImpl implements TwitterAdsPromotedTweetAp
             String url = twitterAdsClient.getBaseAdsAPIUrl() + TwitterAdsConstants.PREFIX_ACCOUNTS_URI_5 + accountId
                     + PATH_PROMOTED_VIDEO_TWEET;
             HttpParameter[] parameters = params.toArray(new HttpParameter[params.size()]);
-            Type type = new TypeToken<BaseAdsResponse<PromotedTweet>>() {
-            }.getType();
+            Type type = responseType(PromotedTweet.class);
 
             final BaseAdsResponse<PromotedTweet> response = twitterAdsClient.executeHttpRequest(url, parameters, type, HttpVerb.POST);
             final PromotedTweet tweet = response.getData();
@@ -207,8 +205,7 @@ public class TwitterAdsPromotedTweetApiImpl implements TwitterAdsPromotedTweetAp
 
         final String baseUrl = twitterAdsClient.getBaseAdsAPIUrl() + PREFIX_ACCOUNTS_URI_5 + accountId
                 + PATH_SCHEDULED_PROMOTED_TWEETS;
-        final Type type = new TypeToken<BaseAdsResponse<PromotedTweets>>() {
-        }.getType();
+        final Type type = responseType(PromotedTweets.class);
         return twitterAdsClient.executeHttpRequest(baseUrl, params.toArray(new HttpParameter[params.size()]), type, HttpVerb.POST);
     }
 
@@ -219,8 +216,7 @@ public class TwitterAdsPromotedTweetApiImpl implements TwitterAdsPromotedTweetAp
         String baseUrl = twitterAdsClient.getBaseAdsAPIUrl() + TwitterAdsConstants.PREFIX_ACCOUNTS_URI_5 + accountId
                 + PATH_SCHEDULED_PROMOTED_TWEETS +
                 scheduledPromotedTweet;
-        Type type = new TypeToken<BaseAdsResponse<PromotedTweets>>() {
-        }.getType();
+        Type type = responseType(PromotedTweets.class);
         return twitterAdsClient.executeHttpRequest(baseUrl, null, type, HttpVerb.DELETE);
     }
 
@@ -249,8 +245,7 @@ public class TwitterAdsPromotedTweetApiImpl implements TwitterAdsPromotedTweetAp
 
         final String baseUrl = twitterAdsClient.getBaseAdsAPIUrl() + PREFIX_ACCOUNTS_URI_5 + accountId
                 + PATH_SCHEDULED_PROMOTED_TWEETS;
-        final Type type = new TypeToken<BaseAdsListResponse<PromotedTweets>>() {
-        }.getType();
+        final Type type = listResponseType(PromotedTweets.class);
         return twitterAdsClient.executeHttpListRequest(baseUrl, params, type);
     }
 
@@ -269,8 +264,7 @@ public class TwitterAdsPromotedTweetApiImpl implements TwitterAdsPromotedTweetAp
             final String url = twitterAdsClient.getBaseAdsAPIUrl() + PREFIX_ACCOUNTS_URI_5 + accountId
                     + PATH_PROMOTED_TWEET_V2;
             final HttpParameter[] parameters = params.toArray(new HttpParameter[params.size()]);
-            final Type type = new TypeToken<BaseAdsResponse<PromotedTweet>>() {
-            }.getType();
+            final Type type = responseType(PromotedTweet.class);
 
             final BaseAdsResponse<PromotedTweet> response = twitterAdsClient.executeHttpRequest(url, parameters, type, HttpVerb.POST);
             final PromotedTweet tweet = response.getData();
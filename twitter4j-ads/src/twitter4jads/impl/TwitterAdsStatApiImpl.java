@@ -12,16 +12,23 @@ import static twitter4jads.TwitterAdsConstants.PARAM_PLACEMENT;
 import static twitter4jads.TwitterAdsConstants.PARAM_SEGMENTATION_TYPE;
 import static twitter4jads.TwitterAdsConstants.PARAM_START_TIME;
 import static twitter4jads.TwitterAdsConstants.PARAM_WITH_DELETED;
+import static twitter4jads.TwitterAdsConstants.PATH_AUCTION_INSIGHTS;
 import static twitter4jads.TwitterAdsConstants.PATH_REACH_STATS;
 import static twitter4jads.TwitterAdsConstants.PREFIX_ACCOUNTS_URI_5;
 import static twitter4jads.TwitterAdsConstants.PREFIX_STATS_ACCOUNTS_URI;
 import static twitter4jads.TwitterAdsConstants.V5_PREFIX_STATS_JOB_ACCOUNTS_URI;
+import static twitter4jads.util.TwitterAdsGson.listResponseType;
+import static twitter4jads.util.TwitterAdsGson.responseType;
 
-import java.io.BufferedReader;
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.Reader;
 import java.lang.reflect.Type;
 import java.net.HttpURLConnection;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
@@ -30,12 +37,12 @@ import java.util.zip.GZIPInputStream;
 import org.apache.commons.lang3.StringUtils;
 
 import com.google.common.base.Optional;
-import com.google.gson.Gson;
-import com.google.gson.reflect.TypeToken;
+import com.google.gson.JsonParseException;
 
 import twitter4jads.BaseAdsListResponse;
 import twitter4jads.BaseAdsListResponseIterable;
 import twitter4jads.BaseAdsResponse;
+import twitter4jads.StatsJobDataIterator;
 import twitter4jads.TwitterAdsClient;
 import twitter4jads.TwitterAdsConstants;
 import twitter4jads.api.TwitterAdsStatApi;
@@ -43,6 +50,7 @@ import twitter4jads.internal.http.HttpParameter;
 import twitter4jads.internal.models4j.TwitterException;
 import twitter4jads.models.Granularity;
 import twitter4jads.models.TwitterSegmentationType;
+import twitter4jads.models.ads.CompactTwitterEntityStatistics;
 import twitter4jads.models.ads.HttpVerb;
 import twitter4jads.models.ads.JobDetails;
 import twitter4jads.models.ads.Placement;
@@ -52,6 +60,7 @@ import twitter4jads.models.ads.TwitterEntityStatistics;
 import twitter4jads.models.ads.TwitterEntityStatisticsMetrics;
 import twitter4jads.models.ads.TwitterEntityType;
 import twitter4jads.util.TwitterAdUtil;
+import twitter4jads.util.TwitterAdsGson;
 
 /**
  * User: abhay
@@ -70,32 +79,23 @@ public class TwitterAdsStatApiImpl implements TwitterAdsStatApi {
                                                                                Collection<String> entityIds, long startTime, long endTime,
                                                                                boolean withDeleted, Granularity granularity, Placement placement)
             throws TwitterException {
-        TwitterAdUtil.ensureNotNull(accountId, "accountId");
-        TwitterAdUtil.ensureNotNull(startTime, "startTime");
-        TwitterAdUtil.ensureNotNull(entityIds, "entityIds");
-        TwitterAdUtil.ensureNotNull(placement, "placement");
-
-        final String startTimeAsString = TwitterAdUtil.convertTimeToZuluFormatAndToUTC(startTime);
-        final String endTimeAsString = TwitterAdUtil.convertTimeToZuluFormatAndToUTC(endTime);
+        final List<HttpParameter> params = getStatsParams(accountId, twitterEntity, entityIds, startTime, endTime, withDeleted, granularity,
+                                                          placement);
         final String baseUrl = twitterAdsClient.getBaseAdsAPIUrl() + PREFIX_STATS_ACCOUNTS_URI + accountId;
+        final Type type = listResponseType(TwitterEntityStatistics.class);
+        return twitterAdsClient.executeHttpListRequest(baseUrl, params, type);
+    }
 
-        final List<HttpParameter> params = new ArrayList<>();
-        params.add(new HttpParameter(GRANULARITY, granularity.toString()));
-        params.add(new HttpParameter(PARAM_START_TIME, startTimeAsString));
-        params.add(new HttpParameter(PARAM_ENTITY_TYPE, twitterEntity.name()));
-
-        if (TwitterAdUtil.isNotNullOrEmpty(endTimeAsString)) {
-            params.add(new HttpParameter(PARAM_END_TIME, endTimeAsString));
-        }
-
-        String metrics = StringUtils.join(getMetrics(twitterEntity, null), ",");
-        params.add(new HttpParameter(PARAM_METRIC_GROUPS, metrics));
-        params.add(new HttpParameter(PARAM_WITH_DELETED, withDeleted));
-        params.add(new HttpParameter(PARAM_ENTITY_IDS, TwitterAdUtil.getCsv(entityIds)));
-        params.add(new HttpParameter(PARAM_PLACEMENT, placement.name()));
-
-        final Type type = new TypeToken<BaseAdsListResponse<TwitterEntityStatistics>>() {
-        }.getType();
+    @Override
+    public BaseAdsListResponseIterable<CompactTwitterEntityStatistics> fetchCompactStatsSync(String accountId, TwitterEntityType twitterEntity,
+                                                                                             Collection<String> entityIds, long startTime,
+                                                                                             long endTime, boolean withDeleted,
+                                                                                             Granularity granularity, Placement placement)
+            throws TwitterException {
+        final List<HttpParameter> params = getStatsParams(accountId, twitterEntity, entityIds, startTime, endTime, withDeleted, granularity,
+                                                          placement);
+        final String baseUrl = twitterAdsClient.getBaseAdsAPIUrl() + PREFIX_STATS_ACCOUNTS_URI + accountId;
+        final Type type = listResponseType(CompactTwitterEntityStatistics.class);
         return twitterAdsClient.executeHttpListRequest(baseUrl, params, type);
     }
 
@@ -110,8 +110,7 @@ public class TwitterAdsStatApiImpl implements TwitterAdsStatApi {
 
         final String startTimeAsString = TwitterAdUtil.convertTimeToZuluFormatAndToUTC(startTime);
         final String endTimeAsString = TwitterAdUtil.convertTimeToZuluFormatAndToUTC(endTime);
-        final String baseUrl = twitterAdsClient.getBaseAdsAPIUrl() + PREFIX_ACCOUNTS_URI_5 + accountId
-                + "/auction_insights";
+        final String baseUrl = twitterAdsClient.getBaseAdsAPIUrl() + PREFIX_ACCOUNTS_URI_5 + accountId + PATH_AUCTION_INSIGHTS;
 
         final List<HttpParameter> params = new ArrayList<>();
         params.add(new HttpParameter(GRANULARITY, granularity.toString()));
@@ -123,8 +122,7 @@ public class TwitterAdsStatApiImpl implements TwitterAdsStatApi {
         params.add(new HttpParameter(PARAM_LINE_ITEM_IDS, TwitterAdUtil.getCsv(lineItemIds)));
         params.add(new HttpParameter(PARAM_PLACEMENT, placement.name()));
 
-        final Type type = new TypeToken<BaseAdsListResponse<TwitterAuctionInsights>>() {
-        }.getType();
+        final Type type = listResponseType(TwitterAuctionInsights.class);
         return twitterAdsClient.executeHttpListRequest(baseUrl, params, type);
     }
 
@@ -163,8 +161,7 @@ public class TwitterAdsStatApiImpl implements TwitterAdsStatApi {
         params.add(new HttpParameter(PARAM_ENTITY_IDS, TwitterAdUtil.getCsv(ids)));
         params.add(new HttpParameter(PARAM_PLACEMENT, placement.name()));
 
-        final Type type = new TypeToken<BaseAdsResponse<JobDetails>>() {
-        }.getType();
+        final Type type = responseType(JobDetails.class);
         return twitterAdsClient.executeHttpRequest(baseUrl, params.toArray(new HttpParameter[params.size()]), type, HttpVerb.POST);
     }
 
@@ -175,18 +172,29 @@ public class TwitterAdsStatApiImpl implements TwitterAdsStatApi {
         params.add(new HttpParameter(PARAM_JOB_IDS, TwitterAdUtil.getCsv(jobIds)));
 
         final String baseUrl = twitterAdsClient.getBaseAdsAPIUrl() + V5_PREFIX_STATS_JOB_ACCOUNTS_URI + accountId;
-        final Type type = new TypeToken<BaseAdsListResponse<JobDetails>>() {
-        }.getType();
+        final Type type = listResponseType(JobDetails.class);
         return twitterAdsClient.executeHttpListRequest(baseUrl, params, type);
     }
 
     @Override
     public BaseAdsListResponse<TwitterEntityStatistics> fetchJobDataAsync(String dataUrl) throws TwitterException {
         // TODO: Use executeHttpListRequest once the bug from twitter is resolved (encoding in headers)
-        final String responseAsString = getResponseFromGZipStream(dataUrl);
-        final Type type = new TypeToken<BaseAdsListResponse<TwitterEntityStatistics>>() {
-        }.getType();
-        return new Gson().fromJson(responseAsString, type);
+        final Type type = listResponseType(TwitterEntityStatistics.class);
+        try (Reader reader = openJobData(dataUrl)) {
+            return TwitterAdsGson.GSON.fromJson(reader, type);
+        } catch (IOException | JsonParseException e) {
+            throw new TwitterException("Could not read stats job data from " + dataUrl, e);
+        }
+    }
+
+    @Override
+    public StatsJobDataIterator<TwitterEntityStatistics> streamJobDataAsync(String dataUrl) throws TwitterException {
+        return new StatsJobDataIterator<>(openJobData(dataUrl), TwitterEntityStatistics.class);
+    }
+
+    @Override
+    public StatsJobDataIterator<CompactTwitterEntityStatistics> streamCompactJobDataAsync(String dataUrl) throws TwitterException {
+        return new StatsJobDataIterator<>(openJobData(dataUrl), CompactTwitterEntityStatistics.class);
     }
 
     @Override
@@ -207,8 +215,7 @@ public class TwitterAdsStatApiImpl implements TwitterAdsStatApi {
             params.add(new HttpParameter(PARAM_END_TIME, endTimeAsString));
         }
 
-        final Type type = new TypeToken<BaseAdsListResponse<TwitterAdStatistics>>() {
-        }.getType();
+        final Type type = listResponseType(TwitterAdStatistics.class);
 
         return twitterAdsClient.executeHttpListRequest(baseUrl, params, type);
     }
@@ -220,8 +227,7 @@ public class TwitterAdsStatApiImpl implements TwitterAdsStatApi {
 
         final String baseUrl = twitterAdsClient.getBaseAdsAPIUrl()
                 + TwitterAdsConstants.V5_PREFIX_STATS_JOB_ACCOUNTS_URI + accountId + "/" + jobId;
-        final Type type = new TypeToken<BaseAdsResponse<JobDetails>>() {
-        }.getType();
+        final Type type = responseType(JobDetails.class);
         return twitterAdsClient.executeHttpRequest(baseUrl, null, type, HttpVerb.DELETE);
     }
 
@@ -229,25 +235,67 @@ public class TwitterAdsStatApiImpl implements TwitterAdsStatApi {
 
     // ------------------------------------------------------------------ PRIVATE METHODS -----------------------------------------------------------
 
-    private String getResponseFromGZipStream(String urlString) {
+    private Reader openJobData(String dataUrl) throws TwitterException {
+        TwitterAdUtil.ensureNotNull(dataUrl, "dataUrl");
+        HttpURLConnection con = null;
         try {
-            final URL url = new URL(urlString);
-            final HttpURLConnection con = (HttpURLConnection) url.openConnection();
+            con = (HttpURLConnection) new URL(dataUrl).openConnection();
             con.setRequestProperty("Accept-Encoding", "gzip");
+            if (twitterAdsClient.getConf().getHttpConnectionTimeout() > 0) {
+                con.setConnectTimeout(twitterAdsClient.getConf().getHttpConnectionTimeout());
+            }
+            if (twitterAdsClient.getConf().getHttpReadTimeout() > 0) {
+                con.setReadTimeout(twitterAdsClient.getConf().getHttpReadTimeout());
+            }
+            final int responseCode = con.getResponseCode();
+            if (responseCode != HttpURLConnection.HTTP_OK) {
+                con.disconnect();
+                throw new TwitterException("Could not download stats job data from " + dataUrl, null, responseCode);
+            }
 
-            final BufferedReader reader = new BufferedReader(new InputStreamReader(new GZIPInputStream(con.getInputStream()), "utf-8"));
-            final StringBuilder builder = new StringBuilder();
-            String line = reader.readLine();
-            while (line != null) {
-                builder.append(line);
-                line = reader.readLine();
+            // the output file is gzipped whether or not the server says so
+            InputStream is = new BufferedInputStream(con.getInputStream());
+            is.mark(2);
+            final boolean gzipped = is.read() == (GZIPInputStream.GZIP_MAGIC & 0xff) && is.read() == (GZIPInputStream.GZIP_MAGIC >> 8);
+            is.reset();
+            if (gzipped) {
+                is = new GZIPInputStream(is);
             }
-            return builder.toString();
-        } catch (Exception e) {
-            // Throw Exception
+            return new InputStreamReader(is, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            if (con != null) {
+                con.disconnect();
+            }
+            throw new TwitterException("Could not download stats job data from " + dataUrl, e);
+        }
+    }
+
+    private List<HttpParameter> getStatsParams(String accountId, TwitterEntityType twitterEntity, Collection<String> entityIds,
+                                               long startTime, long endTime, boolean withDeleted, Granularity granularity,
+                                               Placement placement) {
+        TwitterAdUtil.ensureNotNull(accountId, "accountId");
+        TwitterAdUtil.ensureNotNull(startTime, "startTime");
+        TwitterAdUtil.ensureNotNull(entityIds, "entityIds");
+        TwitterAdUtil.ensureNotNull(placement, "placement");
+
+        final String startTimeAsString = TwitterAdUtil.convertTimeToZuluFormatAndToUTC(startTime);
+        final String endTimeAsString = TwitterAdUtil.convertTimeToZuluFormatAndToUTC(endTime);
+
+        final List<HttpParameter> params = new ArrayList<>();
+        params.add(new HttpParameter(GRANULARITY, granularity.toString()));
+        params.add(new HttpParameter(PARAM_START_TIME, startTimeAsString));
+        params.add(new HttpParameter(PARAM_ENTITY_TYPE, twitterEntity.name()));
+
+        if (TwitterAdUtil.isNotNullOrEmpty(endTimeAsString)) {
+            params.add(new HttpParameter(PARAM_END_TIME, endTimeAsString));
         }
 
-        return null;
+        String metrics = StringUtils.join(getMetrics(twitterEntity, null), ",");
+        params.add(new HttpParameter(PARAM_METRIC_GROUPS, metrics));
+        params.add(new HttpParameter(PARAM_WITH_DELETED, withDeleted));
+        params.add(new HttpParameter(PARAM_ENTITY_IDS, TwitterAdUtil.getCsv(entityIds)));
+        params.add(new HttpParameter(PARAM_PLACEMENT, placement.name()));
+        return params;
     }
 
     private String getMetrics(TwitterEntityType twitterEntity, TwitterSegmentationType twitterSegmentationType) {
@@ -35,6 +35,7 @@ import twitter4jads.models.ads.targeting.AudienceEstimateRequest;
 import twitter4jads.models.ads.targeting.TargetingParamRequest;
 import twitter4jads.models.ads.targeting.TargetingParamResponse;
 import twitter4jads.util.TwitterAdUtil;
+import twitter4jads.util.TwitterAdsGson;
 
 import java.io.IOException;
 import java.lang.reflect.Type;
@@ -121,6 +122,8 @@ import static twitter4jads.TwitterAdsConstants.PATH_TV_SHOWS;
 import static twitter4jads.TwitterAdsConstants.PREFIX_ACCOUNTS_URI_5;
 import static twitter4jads.TwitterAdsConstants.PREFIX_BATCH_ACCOUNTS_V5;
 import static twitter4jads.util.TwitterAdUtil.constructBaseAdsListResponse;
+import static twitter4jads.util.TwitterAdsGson.listResponseType;
+import static twitter4jads.util.TwitterAdsGson.responseType;
 
 /**
  * User: abhay
@@ -131,7 +134,7 @@ public class TwitterAdsTargetingApiImpl implements TwitterAdsTargetingApi {
 
     private static final Integer MAX_REQUEST_PARAMETER_SIZE = 50;
 
-    private static final Gson GSON = new Gson();
+    private static final Gson GSON = TwitterAdsGson.GSON;
     private final TwitterAdsClient twitterAdsClient;
 
     public TwitterAdsTargetingApiImpl(TwitterAdsClient twitterAdsClient) {
@@ -152,8 +155,7 @@ public class TwitterAdsTargetingApiImpl implements TwitterAdsTargetingApi {
 
         final String baseUrl = twitterAdsClient.getBaseAdsAPIUrl() + PREFIX_ACCOUNTS_URI_5 + accountId
                 + PATH_TARGETING_CRITERIA;
-        final Type type = new TypeToken<BaseAdsListResponse<TargetingCriteria>>() {
-        }.getType();
+        final Type type = listResponseType(TargetingCriteria.class);
         return twitterAdsClient.executeHttpListRequest(baseUrl, params, type);
     }
 
@@ -167,8 +169,7 @@ public class TwitterAdsTargetingApiImpl implements TwitterAdsTargetingApi {
                 + PATH_TARGETING_CRITERIA +
                 targetingId;
         HttpParameter[] params = new HttpParameter[]{new HttpParameter(PARAM_WITH_DELETED, withDeleted)};
-        Type type = new TypeToken<BaseAdsResponse<TargetingCriteria>>() {
-        }.getType();
+        Type type = responseType(TargetingCriteria.class);
 
         return twitterAdsClient.executeHttpRequest(baseUrl, params, type, HttpVerb.GET);
     }
@@ -180,8 +181,7 @@ public class TwitterAdsTargetingApiImpl implements TwitterAdsTargetingApi {
         String baseUrl = twitterAdsClient.getBaseAdsAPIUrl() + TwitterAdsConstants.PREFIX_ACCOUNTS_URI_5 + accountId
                 + PATH_TARGETING_CRITERIA +
                 targetingCriteriaId;
-        Type type = new TypeToken<BaseAdsResponse<TargetingCriteria>>() {
-        }.getType();
+        Type type = responseType(TargetingCriteria.class);
 
         return twitterAdsClient.executeHttpRequest(baseUrl, null, type, HttpVerb.DELETE);
     }
@@ -193,8 +193,7 @@ public class TwitterAdsTargetingApiImpl implements TwitterAdsTargetingApi {
         List<HttpParameter> params = validateTargetingLocationParameters(locationType, q, countryCode, count);
         String baseUrl = twitterAdsClient.getBaseAdsAPIUrl() + PATH_TARGETING_CRITERIA_LOCATION;
 
-        Type type = new TypeToken<BaseAdsListResponse<twitter4jads.models.ads.TargetingLocation>>() {
-        }.getType();
+        Type type = listResponseType(twitter4jads.models.ads.TargetingLocation.class);
 
         return twitterAdsClient.executeHttpListRequest(baseUrl, params, type);
     }
@@ -237,8 +236,7 @@ public class TwitterAdsTargetingApiImpl implements TwitterAdsTargetingApi {
 
         final HttpResponse httpResponse = twitterAdsClient.putRequest(baseUrl, params.toArray(new HttpParameter[params.size()]));
         try {
-            final Type type = new TypeToken<BaseAdsListResponse<TargetingCriteria>>() {
-            }.getType();
+            final Type type = listResponseType(TargetingCriteria.class);
 
             final String asString = httpResponse.asString();
             final BaseAdsListResponse<TargetingCriteria> baseAdsListResponse = constructBaseAdsListResponse(httpResponse, asString, type);
@@ -264,8 +262,7 @@ public class TwitterAdsTargetingApiImpl implements TwitterAdsTargetingApi {
 
         final String baseUrl = twitterAdsClient.getBaseAdsAPIUrl() + PREFIX_ACCOUNTS_URI_5 + accountId
                 + PATH_TARGETING_CRITERIA;
-        final Type type = new TypeToken<BaseAdsResponse<TargetingCriteria>>() {
-        }.getType();
+        final Type type = responseType(TargetingCriteria.class);
 
         return twitterAdsClient.executeHttpRequest(baseUrl, params.toArray(new HttpParameter[params.size()]), type, HttpVerb.POST);
     }
@@ -289,11 +286,10 @@ public class TwitterAdsTargetingApiImpl implements TwitterAdsTargetingApi {
 
         final String url = twitterAdsClient.getBaseAdsAPIUrl() + PREFIX_ACCOUNTS_URI_5 + accountId
                 + PATH_AUDIENCE_ESTIMATE;
-        final Type type = new TypeToken<BaseAdsResponse<AudienceEstimate>>() {
-        }.getType();
+        final Type type = responseType(AudienceEstimate.class);
 
         HttpResponse httpResponse = twitterAdsClient.postRequest(url, GSON.toJson(audienceSummaryRequest));
-        return GSON.fromJson(httpResponse.asString(), type);
+        return httpResponse.asObject(GSON, type);
     }
 
     @Override
@@ -304,8 +300,7 @@ public class TwitterAdsTargetingApiImpl implements TwitterAdsTargetingApi {
         }
 
         final String baseUrl = twitterAdsClient.getBaseAdsAPIUrl() + PATH_IAB_CATEGORIES;
-        final Type type = new TypeToken<BaseAdsListResponse<IabCategory>>() {
-        }.getType();
+        final Type type = listResponseType(IabCategory.class);
 
         return twitterAdsClient.executeHttpListRequest(baseUrl, params, type);
     }
@@ -320,7 +315,7 @@ public class TwitterAdsTargetingApiImpl implements TwitterAdsTargetingApi {
         Type typeToken = new TypeToken<TargetingParamResponse>() {
         }.getType();
 
-        return GSON.fromJson(httpResponse.asString(), typeToken);
+        return httpResponse.asObject(GSON, typeToken);
     }
 
 
@@ -339,8 +334,7 @@ public class TwitterAdsTargetingApiImpl implements TwitterAdsTargetingApi {
         }
 
         final String baseUrl = twitterAdsClient.getBaseAdsAPIUrl() + PATH_TV_CHANNELS;
-        Type type = new TypeToken<BaseAdsListResponse<TargetingCriteria>>() {
-        }.getType();
+        Type type = listResponseType(TargetingCriteria.class);
 
         return twitterAdsClient.executeHttpListRequest(baseUrl, params, type);
     }
@@ -354,8 +348,7 @@ public class TwitterAdsTargetingApiImpl implements TwitterAdsTargetingApi {
         }
         params.add(new HttpParameter("location_type", locationType.name()));
         String baseUrl = twitterAdsClient.getBaseAdsAPIUrl() + PATH_TARGETING_CRITERIA_LOCATION;
-        Type type = new TypeToken<BaseAdsListResponse<TargetingLocation>>() {
-        }.getType();
+        Type type = listResponseType(TargetingLocation.class);
 
         return twitterAdsClient.executeHttpListRequest(baseUrl, params, type);
     }
@@ -364,15 +357,14 @@ public class TwitterAdsTargetingApiImpl implements TwitterAdsTargetingApi {
     public BaseAdsListResponseIterable<Conversations> getAllTargetingConversations() throws TwitterException {
         final List<HttpParameter> params = new ArrayList<>();
         final String baseUrl = twitterAdsClient.getBaseAdsAPIUrl() + PATH_TARGETING_CRITERIA_CONVERSATIONS;
-        final Type type = new TypeToken<BaseAdsListResponse<Conversations>>() {
-        }.getType();
+        final Type type = listResponseType(Conversations.class);
 
         return twitterAdsClient.executeHttpListRequest(baseUrl, params, type);
     }
 
     @Override
     public BaseAdsListResponseIterable<IabCategory> getAllIabCategories(String q) throws TwitterException {
-        return hitQueryForPath(q, PATH_IAB_CATEGORIES);
+        return fetchIabCategories(q);
     }
 
     @Override
@@ -383,8 +375,7 @@ public class TwitterAdsTargetingApiImpl implements TwitterAdsTargetingApi {
         List<HttpParameter> params = validateTvShowsParameters(tvMarket, q, count, cursor);
         String baseUrl = twitterAdsClient.getBaseAdsAPIUrl() + PATH_TV_SHOWS;
 
-        final Type type = new TypeToken<BaseAdsListResponse<TargetingCriteria>>() {
-        }.getType();
+        final Type type = listResponseType(TargetingCriteria.class);
 
         return twitterAdsClient.executeHttpListRequest(baseUrl, params, type);
     }
@@ -393,8 +384,7 @@ public class TwitterAdsTargetingApiImpl implements TwitterAdsTargetingApi {
     public BaseAdsListResponseIterable<TargetingCriteria> getAllEvents() throws TwitterException {
         final List<HttpParameter> params = new ArrayList<>();
         final String baseUrl = twitterAdsClient.getBaseAdsAPIUrl() + PATH_TARGETING_CRITERIA_EVENT;
-        final Type type = new TypeToken<BaseAdsListResponse<TargetingCriteria>>() {
-        }.getType();
+        final Type type = listResponseType(TargetingCriteria.class);
 
         return twitterAdsClient.executeHttpListRequest(baseUrl, params, type);
     }
@@ -403,8 +393,7 @@ public class TwitterAdsTargetingApiImpl implements TwitterAdsTargetingApi {
     public BaseAdsListResponseIterable<TargetingCriteria> getAllTVMarkets() throws TwitterException {
         final List<HttpParameter> params = new ArrayList<>();
         final String baseUrl = twitterAdsClient.getBaseAdsAPIUrl() + PATH_TV_MARKETS;
-        final Type type = new TypeToken<BaseAdsListResponse<TargetingCriteria>>() {
-        }.getType();
+        final Type type = listResponseType(TargetingCriteria.class);
 
         return twitterAdsClient.executeHttpListRequest(baseUrl, params, type);
     }
@@ -413,8 +402,7 @@ public class TwitterAdsTargetingApiImpl implements TwitterAdsTargetingApi {
     public BaseAdsListResponseIterable<TargetingCriteria> getAllTargetingTVGenres() throws TwitterException {
         final List<HttpParameter> params = new ArrayList<>();
         final String baseUrl = twitterAdsClient.getBaseAdsAPIUrl() + PATH_TV_GENRES;
-        final Type type = new TypeToken<BaseAdsListResponse<TargetingCriteria>>() {
-        }.getType();
+        final Type type = listResponseType(TargetingCriteria.class);
 
         return twitterAdsClient.executeHttpListRequest(baseUrl, params, type);
     }
@@ -440,11 +428,10 @@ public class TwitterAdsTargetingApiImpl implements TwitterAdsTargetingApi {
                 + PATH_TARGETING_SUGGESTIONS;
         final HttpResponse httpResponse = twitterAdsClient.getRequest(baseUrl, params.toArray(new HttpParameter[params.size()]));
         try {
-            final Type type = new TypeToken<BaseAdsListResponse<TargetingSuggestion>>() {
-            }.getType();
+            final Type type = listResponseType(TargetingSuggestion.class);
 
             final BaseAdsListResponse<TargetingSuggestion> baseAdsListResponse =
-                constructBaseAdsListResponse(httpResponse, httpResponse.asString(), type);
+                constructBaseAdsListResponse(httpResponse, type);
             return baseAdsListResponse == null ? Collections.<TargetingSuggestion>emptyList() : baseAdsListResponse.getData();
         } catch (IOException e) {
             throw new TwitterException("Failed to parse promoted tweets.");
@@ -465,11 +452,10 @@ public class TwitterAdsTargetingApiImpl implements TwitterAdsTargetingApi {
         final String baseUrl = twitterAdsClient.getBaseAdsAPIUrl() + PATH_TARGETING_CRITERIA_APP_STORE_CATEGORIES;
         final HttpResponse httpResponse = twitterAdsClient.getRequest(baseUrl, params.toArray(new HttpParameter[params.size()]));
         try {
-            final Type type = new TypeToken<BaseAdsListResponse<TwitterAppStore>>() {
-            }.getType();
+            final Type type = listResponseType(TwitterAppStore.class);
 
             final BaseAdsListResponse<TwitterAppStore> baseAdsListResponse =
-                constructBaseAdsListResponse(httpResponse, httpResponse.asString(), type);
+                constructBaseAdsListResponse(httpResponse, type);
             return baseAdsListResponse == null ? Collections.<TwitterAppStore>emptyList() : baseAdsListResponse.getData();
         } catch (IOException e) {
             throw new TwitterException("Failed to parse response for app store categories");
@@ -491,8 +477,7 @@ public class TwitterAdsTargetingApiImpl implements TwitterAdsTargetingApi {
         }
 
         final String baseUrl = twitterAdsClient.getBaseAdsAPIUrl() + PATH_BEHAVIORS;
-        final Type type = new TypeToken<BaseAdsListResponse<TwitterBehavior>>() {
-        }.getType();
+        final Type type = listResponseType(TwitterBehavior.class);
 
         return twitterAdsClient.executeHttpListRequest(baseUrl, params, type);
     }
@@ -516,8 +501,7 @@ public class TwitterAdsTargetingApiImpl implements TwitterAdsTargetingApi {
         }
 
         final String baseUrl = twitterAdsClient.getBaseAdsAPIUrl() + PATH_BEHAVIORS_TAXONOMY;
-        final Type type = new TypeToken<BaseAdsListResponse<TwitterBehaviorTaxonomy>>() {
-        }.getType();
+        final Type type = listResponseType(TwitterBehaviorTaxonomy.class);
 
         return twitterAdsClient.executeHttpListRequest(baseUrl, params, type);
     }
@@ -526,8 +510,7 @@ public class TwitterAdsTargetingApiImpl implements TwitterAdsTargetingApi {
     public BaseAdsListResponseIterable<TwitterApplicationList> getAllAppLists(String accountId) throws TwitterException {
         final List<HttpParameter> params = new ArrayList<>();
         final String baseUrl = twitterAdsClient.getBaseAdsAPIUrl() + PREFIX_ACCOUNTS_URI_5 + accountId + PATH_APP_LIST;
-        final Type type = new TypeToken<BaseAdsListResponse<TwitterApplicationList>>() {
-        }.getType();
+        final Type type = listResponseType(TwitterApplicationList.class);
 
         return twitterAdsClient.executeHttpListRequest(baseUrl, params, type);
     }
@@ -538,8 +521,7 @@ public class TwitterAdsTargetingApiImpl implements TwitterAdsTargetingApi {
         final List<HttpParameter> params = new ArrayList<>();
         final String baseUrl = twitterAdsClient.getBaseAdsAPIUrl() + PREFIX_ACCOUNTS_URI_5 + accountId + PATH_APP_LIST
                 + listId;
-        final Type typeToken = new TypeToken<BaseAdsResponse<TwitterApplicationList>>() {
-        }.getType();
+        final Type typeToken = responseType(TwitterApplicationList.class);
 
         return twitterAdsClient.executeHttpRequest(baseUrl, params.toArray(new HttpParameter[params.size()]), typeToken, HttpVerb.GET);
     }
@@ -549,8 +531,7 @@ public class TwitterAdsTargetingApiImpl implements TwitterAdsTargetingApi {
         throws TwitterException {
         final List<HttpParameter> params = validateAndCreateApplicationListParameters(twitterApplicationList);
         final String baseUrl = twitterAdsClient.getBaseAdsAPIUrl() + PREFIX_ACCOUNTS_URI_5 + accountId + PATH_APP_LIST;
-        final Type typeToken = new TypeToken<BaseAdsResponse<TwitterApplicationList>>() {
-        }.getType();
+        final Type typeToken = responseType(TwitterApplicationList.class);
 
         return twitterAdsClient.executeHttpRequest(baseUrl, params.toArray(new HttpParameter[params.size()]), typeToken, HttpVerb.POST);
     }
@@ -565,8 +546,7 @@ public class TwitterAdsTargetingApiImpl implements TwitterAdsTargetingApi {
         }
 
         final String baseUrl = twitterAdsClient.getBaseAdsAPIUrl() + queryPath;
-        final Type type = new TypeToken<BaseAdsListResponse<TargetingCriteria>>() {
-        }.getType();
+        final Type type = listResponseType(TargetingCriteria.class);
 
         return twitterAdsClient.executeHttpListRequest(baseUrl, params, type);
     }
@@ -12,14 +12,14 @@ import static twitter4jads.TwitterAdsConstants.PATH_WEBSITE_TAGS;
 import static twitter4jads.TwitterAdsConstants.PATH_WEB_EVENT_TAGS;
 import static twitter4jads.TwitterAdsConstants.PREFIX_ACCOUNTS_URI_5;
 import static twitter4jads.TwitterAdsConstants.TAG_TYPE;
+import static twitter4jads.util.TwitterAdsGson.listResponseType;
+import static twitter4jads.util.TwitterAdsGson.responseType;
 
 import java.lang.reflect.Type;
 import java.util.List;
 
 import com.google.common.collect.Lists;
-import com.google.gson.reflect.TypeToken;
 
-import twitter4jads.BaseAdsListResponse;
 import twitter4jads.BaseAdsListResponseIterable;
 import twitter4jads.BaseAdsResponse;
 import twitter4jads.TwitterAdsClient;
@@ -65,7 +65,7 @@ public class TwitterAdsWebEventApiImpl implements TwitterAdsWebEventApi {
 
         String url = twitterAdsClient.getBaseAdsAPIUrl() + TwitterAdsConstants.PREFIX_ACCOUNTS_URI_5 + accountId
                 + PATH_WEB_EVENT_TAGS;
-        Type type = new TypeToken<BaseAdsListResponse<WebEventTag>>() {}.getType();
+        Type type = listResponseType(WebEventTag.class);
 
         return twitterAdsClient.executeHttpListRequest(url, params, type);
     }
@@ -77,7 +77,7 @@ public class TwitterAdsWebEventApiImpl implements TwitterAdsWebEventApi {
         HttpParameter[] params = new HttpParameter[]{new HttpParameter(PARAM_WITH_DELETED, withDeleted)};
         String url = twitterAdsClient.getBaseAdsAPIUrl() + TwitterAdsConstants.PREFIX_ACCOUNTS_URI_5 + accountId
                 + PATH_WEB_EVENT_TAGS + webEventTagId;
-        Type type = new TypeToken<BaseAdsResponse<WebEventTag>>() {}.getType();
+        Type type = responseType(WebEventTag.class);
         return twitterAdsClient.executeHttpRequest(url, params, type, HttpVerb.GET);
     }
 
@@ -89,7 +89,7 @@ public class TwitterAdsWebEventApiImpl implements TwitterAdsWebEventApi {
         List<HttpParameter> params = validateAndCreateParamsForCreateWebEventTag(name, clickWindow, viewThroughWindow, type, retargetingEnabled);
         String url = twitterAdsClient.getBaseAdsAPIUrl() + TwitterAdsConstants.PREFIX_ACCOUNTS_URI_5 + accountId
                 + PATH_WEB_EVENT_TAGS;
-        Type typeToken = new TypeToken<BaseAdsResponse<WebEventTag>>() {}.getType();
+        Type typeToken = responseType(WebEventTag.class);
         return twitterAdsClient.executeHttpRequest(url, params.toArray(new HttpParameter[params.size()]), typeToken, HttpVerb.POST);
     }
 
@@ -102,7 +102,7 @@ public class TwitterAdsWebEventApiImpl implements TwitterAdsWebEventApi {
         List<HttpParameter> params = validateAndCreateParamsForUpdateWebEventTag(name, clickWindow, viewThroughWindow, type, retargetingEnabled);
         String url = twitterAdsClient.getBaseAdsAPIUrl() + TwitterAdsConstants.PREFIX_ACCOUNTS_URI_5 + accountId
                 + PATH_WEB_EVENT_TAGS + webEventTagId;
-        Type typeToken = new TypeToken<BaseAdsResponse<WebEventTag>>() {}.getType();
+        Type typeToken = responseType(WebEventTag.class);
         return twitterAdsClient.executeHttpRequest(url, params.toArray(new HttpParameter[params.size()]), typeToken, HttpVerb.PUT);
     }
 
@@ -112,7 +112,7 @@ public class TwitterAdsWebEventApiImpl implements TwitterAdsWebEventApi {
         TwitterAdUtil.ensureNotNull(webEventTagId, "Web Event Tag Id");
         String url = twitterAdsClient.getBaseAdsAPIUrl() + TwitterAdsConstants.PREFIX_ACCOUNTS_URI_5 + accountId
                 + PATH_WEB_EVENT_TAGS + webEventTagId;
-        Type typeToken = new TypeToken<BaseAdsResponse<WebEventTag>>() {}.getType();
+        Type typeToken = responseType(WebEventTag.class);
         return twitterAdsClient.executeHttpRequest(url, null, typeToken, HttpVerb.DELETE);
     }
 
@@ -132,8 +132,7 @@ public class TwitterAdsWebEventApiImpl implements TwitterAdsWebEventApi {
         }
 
         final String url = twitterAdsClient.getBaseAdsAPIUrl() + PREFIX_ACCOUNTS_URI_5 + accountId + PATH_WEBSITE_TAGS;
-        final Type type = new TypeToken<BaseAdsListResponse<TwitterWebsiteTag>>() {
-        }.getType();
+        final Type type = listResponseType(TwitterWebsiteTag.class);
         return twitterAdsClient.executeHttpListRequest(url, params, type);
     }
 
@@ -141,16 +140,14 @@ public class TwitterAdsWebEventApiImpl implements TwitterAdsWebEventApi {
     public BaseAdsResponse<TwitterWebsiteTag> getWebsiteTag(String accountId, boolean withDeleted, String websiteTagId) throws TwitterException {
         final String url = twitterAdsClient.getBaseAdsAPIUrl() + PREFIX_ACCOUNTS_URI_5 + accountId + PATH_WEBSITE_TAGS
                 + websiteTagId;
-        final Type type = new TypeToken<BaseAdsResponse<TwitterWebsiteTag>>() {
-        }.getType();
+        final Type type = responseType(TwitterWebsiteTag.class);
         return twitterAdsClient.executeHttpRequest(url, null, type, HttpVerb.GET);
     }
 
     @Override
     public BaseAdsResponse<TwitterWebsiteTag> createWebsiteTag(String accountId, WebsiteTagType websiteTagType) throws TwitterException {
         final String url = twitterAdsClient.getBaseAdsAPIUrl() + PREFIX_ACCOUNTS_URI_5 + accountId + PATH_WEBSITE_TAGS;
-        final Type type = new TypeToken<BaseAdsResponse<TwitterWebsiteTag>>() {
-        }.getType();
+        final Type type = responseType(TwitterWebsiteTag.class);
 
         final List<HttpParameter> params = Lists.newArrayList();
         params.add(new HttpParameter(TAG_TYPE, websiteTagType.name()));
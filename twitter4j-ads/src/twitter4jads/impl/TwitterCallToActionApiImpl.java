@@ -6,6 +6,7 @@ import static twitter4jads.TwitterAdsConstants.PARAM_LINE_ITEM_ID;
 import static twitter4jads.TwitterAdsConstants.PARAM_WITH_DELETED;
 import static twitter4jads.TwitterAdsConstants.PREFIX_ACCOUNTS_URI_5;
 import static twitter4jads.TwitterAdsConstants.PRE_ROLL_CALL_TO_ACTION;
+import static twitter4jads.util.TwitterAdsGson.responseType;
 
 import java.io.IOException;
 import java.lang.reflect.Type;
@@ -56,9 +57,8 @@ public class TwitterCallToActionApiImpl implements TwitterCallToActionApi {
                 + PRE_ROLL_CALL_TO_ACTION;
         final HttpResponse httpResponse = twitterAdsClient.postRequest(baseUrl, params.toArray(new HttpParameter[params.size()]));
         try {
-            final Type type = new TypeToken<BaseAdsResponse<TwitterMediaCallToAction>>() {
-            }.getType();
-            return TwitterAdUtil.constructBaseAdsResponse(httpResponse, httpResponse.asString(), type);
+            final Type type = responseType(TwitterMediaCallToAction.class);
+            return TwitterAdUtil.constructBaseAdsResponse(httpResponse, type);
         } catch (IOException e) {
             throw new TwitterException("Failed to parse call to action response.");
         }
@@ -82,9 +82,8 @@ public class TwitterCallToActionApiImpl implements TwitterCallToActionApi {
                 + PRE_ROLL_CALL_TO_ACTION + "/" + preRollCTAId;
         final HttpResponse httpResponse = twitterAdsClient.putRequest(baseUrl, params.toArray(new HttpParameter[params.size()]));
         try {
-            final Type type = new TypeToken<BaseAdsResponse<TwitterMediaCallToAction>>() {
-            }.getType();
-            return TwitterAdUtil.constructBaseAdsResponse(httpResponse, httpResponse.asString(), type);
+            final Type type = responseType(TwitterMediaCallToAction.class);
+            return TwitterAdUtil.constructBaseAdsResponse(httpResponse, type);
         } catch (IOException e) {
             throw new TwitterException("Failed to parse call to action response.");
         }
@@ -125,9 +124,8 @@ public class TwitterCallToActionApiImpl implements TwitterCallToActionApi {
                         + callToActionId;
         final HttpResponse httpResponse = twitterAdsClient.putRequest(baseUrl, params.toArray(new HttpParameter[params.size()]));
         try {
-            final Type type = new TypeToken<BaseAdsResponse<TwitterMediaCallToAction>>() {
-            }.getType();
-            return TwitterAdUtil.constructBaseAdsResponse(httpResponse, httpResponse.asString(), type);
+            final Type type = responseType(TwitterMediaCallToAction.class);
+            return TwitterAdUtil.constructBaseAdsResponse(httpResponse, type);
         } catch (IOException e) {
             throw new TwitterException("Failed to parse call to action response.");
         }
@@ -141,8 +139,7 @@ public class TwitterCallToActionApiImpl implements TwitterCallToActionApi {
         final String baseUrl =
                 twitterAdsClient.getBaseAdsAPIUrl() + PREFIX_ACCOUNTS_URI_5 + accountId + PRE_ROLL_CALL_TO_ACTION + "/"
                         + callToActionId;
-        final Type type = new TypeToken<BaseAdsResponse<TwitterMediaCallToAction>>() {
-        }.getType();
+        final Type type = responseType(TwitterMediaCallToAction.class);
         return twitterAdsClient.executeHttpRequest(baseUrl, null, type, HttpVerb.DELETE);
     }
 }
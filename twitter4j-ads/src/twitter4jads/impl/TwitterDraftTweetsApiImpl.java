@@ -8,14 +8,14 @@ import static twitter4jads.TwitterAdsConstants.PARAM_TEXT;
 import static twitter4jads.TwitterAdsConstants.PARAM_USER_ID;
 import static twitter4jads.TwitterAdsConstants.PATH_DRAFT_TWEETS;
 import static twitter4jads.TwitterAdsConstants.PREFIX_ACCOUNTS_URI_5;
+import static twitter4jads.util.TwitterAdsGson.listResponseType;
+import static twitter4jads.util.TwitterAdsGson.responseType;
 
 import java.lang.reflect.Type;
 import java.util.ArrayList;
 import java.util.List;
 
-import com.google.gson.reflect.TypeToken;
 
-import twitter4jads.BaseAdsListResponse;
 import twitter4jads.BaseAdsListResponseIterable;
 import twitter4jads.BaseAdsResponse;
 import twitter4jads.TwitterAdsClient;
@@ -54,8 +54,7 @@ public class TwitterDraftTweetsApiImpl implements TwitterDraftTweetApi {
 
         final String baseUrl = twitterAdsClient.getBaseAdsAPIUrl() + PREFIX_ACCOUNTS_URI_5 + accountId
                 + PATH_DRAFT_TWEETS;
-        final Type type = new TypeToken<BaseAdsListResponse<DraftTweet>>() {
-        }.getType();
+        final Type type = listResponseType(DraftTweet.class);
         return twitterAdsClient.executeHttpListRequest(baseUrl, params, type);
     }
 
@@ -71,8 +70,7 @@ public class TwitterDraftTweetsApiImpl implements TwitterDraftTweetApi {
 
         final String baseUrl = twitterAdsClient.getBaseAdsAPIUrl() + PREFIX_ACCOUNTS_URI_5 + accountId
                 + PATH_DRAFT_TWEETS + draftTweetId;
-        final Type type = new TypeToken<BaseAdsResponse<DraftTweet>>() {
-        }.getType();
+        final Type type = responseType(DraftTweet.class);
         return twitterAdsClient.executeHttpRequest(baseUrl, params.toArray(new HttpParameter[params.size()]), type,
                 HttpVerb.GET);
     }
@@ -99,8 +97,7 @@ public class TwitterDraftTweetsApiImpl implements TwitterDraftTweetApi {
 
         final String baseUrl = twitterAdsClient.getBaseAdsAPIUrl() + PREFIX_ACCOUNTS_URI_5 + accountId
                 + PATH_DRAFT_TWEETS;
-        final Type type = new TypeToken<BaseAdsResponse<DraftTweet>>() {
-        }.getType();
+        final Type type = responseType(DraftTweet.class);
         return twitterAdsClient.executeHttpRequest(baseUrl, params.toArray(new HttpParameter[params.size()]), type,
                 HttpVerb.POST);
     }
@@ -124,8 +121,7 @@ public class TwitterDraftTweetsApiImpl implements TwitterDraftTweetApi {
 
         final String baseUrl = twitterAdsClient.getBaseAdsAPIUrl() + PREFIX_ACCOUNTS_URI_5 + accountId
                 + PATH_DRAFT_TWEETS + draftTweetId;
-        final Type type = new TypeToken<BaseAdsResponse<DraftTweet>>() {
-        }.getType();
+        final Type type = responseType(DraftTweet.class);
         return twitterAdsClient.executeHttpRequest(baseUrl, params.toArray(new HttpParameter[params.size()]), type,
                 HttpVerb.PUT);
 
@@ -138,8 +134,7 @@ public class TwitterDraftTweetsApiImpl implements TwitterDraftTweetApi {
         TwitterAdUtil.ensureNotNull(draftTweetId, "Tweet Id");
         String baseUrl = twitterAdsClient.getBaseAdsAPIUrl() + TwitterAdsConstants.PREFIX_ACCOUNTS_URI_5 + accountId
                 + PATH_DRAFT_TWEETS + draftTweetId;
-        Type type = new TypeToken<BaseAdsResponse<DraftTweet>>() {
-        }.getType();
+        Type type = responseType(DraftTweet.class);
         return twitterAdsClient.executeHttpRequest(baseUrl, null, type, HttpVerb.DELETE);
     }
 }
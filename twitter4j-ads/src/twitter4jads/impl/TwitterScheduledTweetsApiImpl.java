@@ -9,15 +9,15 @@ import static twitter4jads.TwitterAdsConstants.PARAM_TEXT;
 import static twitter4jads.TwitterAdsConstants.PARAM_USER_ID;
 import static twitter4jads.TwitterAdsConstants.PATH_SCHEDULED_TWEETS;
 import static twitter4jads.TwitterAdsConstants.PREFIX_ACCOUNTS_URI_5;
+import static twitter4jads.util.TwitterAdsGson.listResponseType;
+import static twitter4jads.util.TwitterAdsGson.responseType;
 
 import java.lang.reflect.Type;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 
-import com.google.gson.reflect.TypeToken;
 
-import twitter4jads.BaseAdsListResponse;
 import twitter4jads.BaseAdsListResponseIterable;
 import twitter4jads.BaseAdsResponse;
 import twitter4jads.TwitterAdsClient;
@@ -56,8 +56,7 @@ public class TwitterScheduledTweetsApiImpl implements TwitterScheduledTweetApi {
 
         final String baseUrl = twitterAdsClient.getBaseAdsAPIUrl() + PREFIX_ACCOUNTS_URI_5 + accountId
                 + PATH_SCHEDULED_TWEETS;
-        final Type type = new TypeToken<BaseAdsListResponse<ScheduledTweet>>() {
-        }.getType();
+        final Type type = listResponseType(ScheduledTweet.class);
         return twitterAdsClient.executeHttpListRequest(baseUrl, params, type);
     }
 
@@ -73,8 +72,7 @@ public class TwitterScheduledTweetsApiImpl implements TwitterScheduledTweetApi {
 
         final String baseUrl = twitterAdsClient.getBaseAdsAPIUrl() + PREFIX_ACCOUNTS_URI_5 + accountId
                 + PATH_SCHEDULED_TWEETS + scheduledTweetId;
-        final Type type = new TypeToken<BaseAdsResponse<ScheduledTweet>>() {
-        }.getType();
+        final Type type = responseType(ScheduledTweet.class);
         return twitterAdsClient.executeHttpRequest(baseUrl, params.toArray(new HttpParameter[params.size()]), type, HttpVerb.GET);
     }
 
@@ -102,8 +100,7 @@ public class TwitterScheduledTweetsApiImpl implements TwitterScheduledTweetApi {
 
         final String baseUrl = twitterAdsClient.getBaseAdsAPIUrl() + PREFIX_ACCOUNTS_URI_5 + accountId
                 + PATH_SCHEDULED_TWEETS;
-        final Type type = new TypeToken<BaseAdsResponse<ScheduledTweet>>() {
-        }.getType();
+        final Type type = responseType(ScheduledTweet.class);
         return twitterAdsClient.executeHttpRequest(baseUrl, params.toArray(new HttpParameter[params.size()]), type, HttpVerb.POST);
     }
 
@@ -129,8 +126,7 @@ public class TwitterScheduledTweetsApiImpl implements TwitterScheduledTweetApi {
 
         final String baseUrl = twitterAdsClient.getBaseAdsAPIUrl() + PREFIX_ACCOUNTS_URI_5 + accountId
                 + PATH_SCHEDULED_TWEETS + scheduledTweetId;
-        final Type type = new TypeToken<BaseAdsResponse<ScheduledTweet>>() {
-        }.getType();
+        final Type type = responseType(ScheduledTweet.class);
         return twitterAdsClient.executeHttpRequest(baseUrl, params.toArray(new HttpParameter[params.size()]), type, HttpVerb.PUT);
 
     }
@@ -142,7 +138,7 @@ public class TwitterScheduledTweetsApiImpl implements TwitterScheduledTweetApi {
         TwitterAdUtil.ensureNotNull(scheduledTweetId, "Tweet Id");
         String baseUrl = twitterAdsClient.getBaseAdsAPIUrl() + TwitterAdsConstants.PREFIX_ACCOUNTS_URI_5 + accountId
                 + PATH_SCHEDULED_TWEETS + scheduledTweetId;
-        Type type = new TypeToken<BaseAdsResponse<ScheduledTweet>>() {}.getType();
+        Type type = responseType(ScheduledTweet.class);
         return twitterAdsClient.executeHttpRequest(baseUrl, null, type, HttpVerb.DELETE);
     }
 }
@@ -0,0 +1,144 @@
+package twitter4jads.internal.async;
+
+import twitter4jads.internal.logging.Logger;
+import twitter4jads.internal.models4j.TwitterException;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Waits for uploaded media to be processed without parking a thread per media.
+ * <p/>
+ * Every pending media is a timer entry on one shared scheduler. When its time comes, one status request is made on a
+ * separate pool and the media is either completed or scheduled again after the interval the status asked for, e.g.
+ * {@code check_after_secs}. The scheduler only keeps time: a status request waiting out the rate limit of its account
+ * holds a thread of the pool, not the timers of the other media.
+ * Watching a media that is already watched returns the pending future instead of polling it twice. Cancelling a future
+ * stops its polling.
+ */
+public final class MediaProcessingWatcher {
+    private static final Logger logger = Logger.getLogger(MediaProcessingWatcher.class);
+
+    private static final int SCHEDULER_THREADS = 1;
+    private static final int CHECK_THREADS = 8;
+    private static final MediaProcessingWatcher INSTANCE = new MediaProcessingWatcher();
+
+    private final ScheduledThreadPoolExecutor scheduler;
+    private final ExecutorService checker;
+    private final ConcurrentMap<String, CompletableFuture<?>> pending = new ConcurrentHashMap<>();
+
+    private MediaProcessingWatcher() {
+        scheduler = TwitterAdsExecutors.newScheduledThreadPool("Twitter4J Ads Media Processing Watcher", SCHEDULER_THREADS);
+        checker = TwitterAdsExecutors.newSharedThreadPool("Twitter4J Ads Media Status Check", CHECK_THREADS, 1, TimeUnit.MINUTES);
+    }
+
+    public static MediaProcessingWatcher getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * One status request for a media being processed.
+     */
+    public interface StatusCheck<T> {
+
+        /**
+         * @return {@link Status#done(Object)} once processing has finished, {@link Status#checkAgainAfter(long)} while it is
+         * in progress
+         * @throws TwitterException if processing failed or the status could not be fetched; fails the future
+         */
+        Status<T> check() throws TwitterException;
+
+        /**
+         * Called instead of another check once the max wait time is over.
+         *
+         * @return the value to complete the future with
+         * @throws TwitterException to fail the future instead
+         */
+        T timedOut() throws TwitterException;
+    }
+
+    public static final class Status<T> {
+        private final boolean done;
+        private final T value;
+        private final long checkAgainAfterMillis;
+
+        private Status(boolean done, T value, long checkAgainAfterMillis) {
+            this.done = done;
+            this.value = value;
+            this.checkAgainAfterMillis = checkAgainAfterMillis;
+        }
+
+        public static <T> Status<T> done(T value) {
+            return new Status<>(true, value, 0);
+        }
+
+        public static <T> Status<T> checkAgainAfter(long millis) {
+            return new Status<>(false, null, Math.max(0, millis));
+        }
+    }
+
+    /**
+     * @param key           identifies the media, a second watch with the same key returns the first future while it is pending
+     * @param check         fetches the status
+     * @param initialDelay  delay before the first check, in milliseconds
+     * @param maxWaitMillis time after which {@link StatusCheck#timedOut()} completes the future
+     */
+    @SuppressWarnings("unchecked")
+    public <T> CompletableFuture<T> watch(final String key, final StatusCheck<T> check, long initialDelay, long maxWaitMillis) {
+        final CompletableFuture<T> future = new CompletableFuture<>();
+        CompletableFuture<?> existing = pending.putIfAbsent(key, future);
+        if (existing != null) {
+            return (CompletableFuture<T>) existing;
+        }
+        future.whenComplete((value, error) -> pending.remove(key, future));
+
+        final long deadline = System.currentTimeMillis() + maxWaitMillis;
+        schedule(new Runnable() {
+            @Override
+            public void run() {
+                if (future.isDone()) {
+                    return;
+                }
+                try {
+                    Status<T> status = check.check();
+                    if (status.done) {
+                        future.complete(status.value);
+                        return;
+                    }
+                    long next = System.currentTimeMillis() + status.checkAgainAfterMillis;
+                    if (next >= deadline) {
+                        future.complete(check.timedOut());
+                        return;
+                    }
+                    if (logger.isDebugEnabled()) {
+                        logger.debug("Media " + key + " still processing, checking again in " + status.checkAgainAfterMillis + "ms");
+                    }
+                    schedule(this, status.checkAgainAfterMillis);
+                } catch (TwitterException | RuntimeException e) {
+                    future.completeExceptionally(e);
+                }
+            }
+        }, Math.max(0, initialDelay));
+        return future;
+    }
+
+    private void schedule(final Runnable check, long delayMillis) {
+        scheduler.schedule(new Runnable() {
+            @Override
+            public void run() {
+                checker.execute(check);
+            }
+        }, delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * @return number of media being watched
+     */
+    public int getPendingCount() {
+        return pending.size();
+    }
+}
@@ -0,0 +1,183 @@
+package twitter4jads.internal.async;
+
+import twitter4jads.internal.models4j.TwitterException;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Thread pools and future handling shared by the classes sending ads requests concurrently.
+ * <p/>
+ * Every pool runs on daemon threads named {@code <name>-<n>}, so that a forgotten pool never keeps the JVM alive and its
+ * threads can be told apart in a thread dump.
+ */
+public final class TwitterAdsExecutors {
+
+    private TwitterAdsExecutors() {
+    }
+
+    public static ThreadFactory daemonThreadFactory(final String name) {
+        return new ThreadFactory() {
+            private final AtomicInteger count = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, name + "-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        };
+    }
+
+    /**
+     * @param name    thread name prefix
+     * @param threads number of threads
+     */
+    public static ExecutorService newFixedThreadPool(String name, int threads) {
+        return Executors.newFixedThreadPool(threads, daemonThreadFactory(name));
+    }
+
+    /**
+     * Pool for long-lived shared executors: its idle threads exit after the keep alive time.
+     *
+     * @param name    thread name prefix
+     * @param threads maximum number of threads
+     */
+    public static ExecutorService newSharedThreadPool(String name, int threads, long keepAlive, TimeUnit unit) {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, keepAlive, unit, new LinkedBlockingQueue<Runnable>(),
+                                                             daemonThreadFactory(name));
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * @param name    thread name prefix
+     * @param threads number of threads
+     * @return a scheduler that drops cancelled tasks from its queue right away
+     */
+    public static ScheduledThreadPoolExecutor newScheduledThreadPool(String name, int threads) {
+        ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(threads, daemonThreadFactory(name));
+        scheduler.setRemoveOnCancelPolicy(true);
+        return scheduler;
+    }
+
+    /**
+     * Waits for the result of a task. The task's {@link TwitterException} and unchecked exceptions are thrown as they are,
+     * other failures are wrapped in a {@link TwitterException}.
+     *
+     * @param future     task to wait for
+     * @param waitingFor what the task does, for the message thrown when the wait is interrupted
+     * @throws CancellationException if the task was cancelled
+     */
+    public static <T> T await(Future<T> future, String waitingFor) throws TwitterException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TwitterException("Interrupted while waiting for " + waitingFor, e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof TwitterException) {
+                throw (TwitterException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new TwitterException("Failed while waiting for " + waitingFor, cause);
+        }
+    }
+
+    /**
+     * Runs a task whose end can be waited for even after it was cancelled: once cancelled, the {@link Future#get()} of a
+     * plain {@link FutureTask} returns at once while the task may still be running, {@link #awaitQuietly(Future)} on the
+     * returned future waits for it to return.
+     *
+     * @throws java.util.concurrent.RejectedExecutionException if the executor does not take the task
+     */
+    public static <T> Future<T> submit(Executor executor, Callable<T> task) {
+        TrackedTask<T> tracked = new TrackedTask<>(task);
+        executor.execute(tracked);
+        return tracked;
+    }
+
+    /**
+     * Waits for a task whose outcome no longer matters, e.g. after cancelling it. A task run by
+     * {@link #submit(Executor, Callable)} is waited for until it has returned, even if it was cancelled while running; for
+     * other futures a cancellation ends the wait. Keeps the interrupt status.
+     */
+    public static void awaitQuietly(Future<?> future) {
+        try {
+            if (future instanceof TrackedTask) {
+                ((TrackedTask<?>) future).finished.await();
+            } else {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | CancellationException ignore) {
+        }
+    }
+
+    /**
+     * Cancels the tasks that have not started and waits for the running ones to finish, which takes tasks run by
+     * {@link #submit(Executor, Callable)}.
+     */
+    public static void cancelAndAwait(Iterable<? extends Future<?>> futures) {
+        for (Future<?> future : futures) {
+            future.cancel(false);
+        }
+        for (Future<?> future : futures) {
+            awaitQuietly(future);
+        }
+    }
+
+    /**
+     * Whichever of {@link #run()} and {@link #cancel(boolean)} comes first claims the task: a task cancelled before it
+     * started is finished right away, one that started is finished when it returns.
+     */
+    private static final class TrackedTask<T> extends FutureTask<T> {
+        private final AtomicBoolean claimed = new AtomicBoolean();
+        private final CountDownLatch finished = new CountDownLatch(1);
+
+        private TrackedTask(Callable<T> task) {
+            super(task);
+        }
+
+        @Override
+        public void run() {
+            if (!claimed.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                super.run();
+            } finally {
+                finished.countDown();
+            }
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            if (claimed.compareAndSet(false, true)) {
+                finished.countDown();
+            }
+            return super.cancel(mayInterruptIfRunning);
+        }
+    }
+}
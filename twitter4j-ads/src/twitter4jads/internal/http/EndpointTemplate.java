@@ -0,0 +1,214 @@
+package twitter4jads.internal.http;
+
+import twitter4jads.TwitterAdsConstants;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Maps request URLs to the endpoint they call, e.g. {@code GET /accounts/:id/line_items/:id} for a GET of
+ * https://ads-api.twitter.com/11/accounts/18ce54d4x5t/line_items/abc1?with_deleted=true.
+ * <p/>
+ * The route table is the set of literal path segments, collected once from the path and segment constants in
+ * {@link TwitterAdsConstants}; every other segment of a URL is an id. A URL is mapped in one scan over its path without
+ * a regex, leaving out the host, the API version and the query, so the same endpoint gets the same template in metrics,
+ * rate limit buckets and caches.
+ */
+public final class EndpointTemplate {
+    public static final String ID = ":id";
+
+    private static final String ACCOUNTS = "accounts";
+    private static final String JSON_SUFFIX = ".json";
+    private static final String PARAM_PREFIX = "PARAM_";
+    private static final String[] LITERALS = collectLiterals();
+
+    private EndpointTemplate() {
+    }
+
+    /**
+     * @return e.g. {@code GET /accounts/:id/line_items/:id}
+     */
+    public static String of(RequestMethod method, String url) {
+        StringBuilder template = new StringBuilder(64);
+        template.append(method.name()).append(' ');
+        appendPath(url, template);
+        return template.toString();
+    }
+
+    /**
+     * @return the template of the path alone, e.g. {@code /accounts/:id/line_items/:id}
+     */
+    public static String pathOf(String url) {
+        StringBuilder template = new StringBuilder(64);
+        appendPath(url, template);
+        return template.toString();
+    }
+
+    /**
+     * @return the id following /accounts/ in the path of the url, null if there is none
+     */
+    public static String accountId(String url) {
+        int pathEnd = pathEnd(url);
+        boolean afterAccounts = false;
+        for (int start = pathStart(url); start < pathEnd; ) {
+            int end = segmentEnd(url, start, pathEnd);
+            if (end > start) {
+                if (afterAccounts) {
+                    return url.substring(start, end);
+                }
+                afterAccounts = isSegment(url, start, end, ACCOUNTS);
+            }
+            start = end + 1;
+        }
+        return null;
+    }
+
+    private static void appendPath(String url, StringBuilder template) {
+        int length = template.length();
+        int pathEnd = pathEnd(url);
+        boolean first = true;
+        boolean afterAccounts = false;
+        for (int start = pathStart(url); start < pathEnd; ) {
+            int end = segmentEnd(url, start, pathEnd);
+            if (end > start && !(first && isVersion(url, start, end))) {
+                template.append('/');
+                if (!afterAccounts && isLiteral(url, start, end)) {
+                    template.append(url, start, end);
+                } else {
+                    template.append(ID);
+                }
+                afterAccounts = isSegment(url, start, end, ACCOUNTS);
+                first = false;
+            }
+            start = end + 1;
+        }
+        if (template.length() == length) {
+            template.append('/');
+        }
+    }
+
+    private static int pathStart(String url) {
+        int scheme = url.indexOf("://");
+        if (scheme == -1) {
+            return 0;
+        }
+        int path = url.indexOf('/', scheme + 3);
+        return path == -1 ? url.length() : path;
+    }
+
+    private static int pathEnd(String url) {
+        int length = url.length();
+        for (int i = 0; i < length; i++) {
+            char c = url.charAt(i);
+            if (c == '?' || c == '#') {
+                return i;
+            }
+        }
+        return length;
+    }
+
+    private static int segmentEnd(String url, int start, int pathEnd) {
+        int end = url.indexOf('/', start);
+        return end == -1 || end > pathEnd ? pathEnd : end;
+    }
+
+    private static boolean isLiteral(String url, int start, int end) {
+        int low = 0;
+        int high = LITERALS.length - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int compared = compare(url, start, end, LITERALS[middle]);
+            if (compared == 0) {
+                return true;
+            } else if (compared < 0) {
+                high = middle - 1;
+            } else {
+                low = middle + 1;
+            }
+        }
+        // resources of the REST API, like statuses/update.json
+        return end - start > JSON_SUFFIX.length() && url.regionMatches(end - JSON_SUFFIX.length(), JSON_SUFFIX, 0, JSON_SUFFIX.length())
+               && !containsDigit(url, start, end);
+    }
+
+    private static int compare(String url, int start, int end, String literal) {
+        int length = Math.min(end - start, literal.length());
+        for (int i = 0; i < length; i++) {
+            int compared = url.charAt(start + i) - literal.charAt(i);
+            if (compared != 0) {
+                return compared;
+            }
+        }
+        return (end - start) - literal.length();
+    }
+
+    private static boolean isSegment(String url, int start, int end, String segment) {
+        return end - start == segment.length() && url.regionMatches(start, segment, 0, segment.length());
+    }
+
+    private static boolean isVersion(String url, int start, int end) {
+        for (int i = start; i < end; i++) {
+            char c = url.charAt(i);
+            if ((c < '0' || c > '9') && c != '.') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean containsDigit(String url, int start, int end) {
+        for (int i = start; i < end; i++) {
+            char c = url.charAt(i);
+            if (c >= '0' && c <= '9') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String[] collectLiterals() {
+        Set<String> literals = new TreeSet<String>();
+        for (Field field : TwitterAdsConstants.class.getFields()) {
+            if (field.getType() != String.class || !Modifier.isStatic(field.getModifiers())) {
+                continue;
+            }
+            String value;
+            try {
+                value = (String) field.get(null);
+            } catch (IllegalAccessException e) {
+                continue;
+            }
+            if (value == null || field.getName().startsWith(PARAM_PREFIX)) {
+                continue;
+            }
+            if (value.indexOf('/') == -1) {
+                // segments appended on their own, like USERS in /custom_audiences/:id/users
+                if (!value.isEmpty() && isPathWord(value, 0, value.length())) {
+                    literals.add(value);
+                }
+                continue;
+            }
+            int pathEnd = pathEnd(value);
+            for (int start = pathStart(value); start < pathEnd; ) {
+                int end = segmentEnd(value, start, pathEnd);
+                if (end > start && !isVersion(value, start, end) && isPathWord(value, start, end)) {
+                    literals.add(value.substring(start, end));
+                }
+                start = end + 1;
+            }
+        }
+        return literals.toArray(new String[literals.size()]);
+    }
+
+    private static boolean isPathWord(String value, int start, int end) {
+        for (int i = start; i < end; i++) {
+            char c = value.charAt(i);
+            if (!((c >= 'a' && c <= 'z') || (c >= '0' && c <= '9') || c == '_' || c == '.' || c == '-')) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
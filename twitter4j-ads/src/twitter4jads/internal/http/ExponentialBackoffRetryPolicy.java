@@ -0,0 +1,235 @@
+package twitter4jads.internal.http;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.net.ConnectException;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static twitter4jads.internal.http.HttpResponseCode.ENHANCE_YOUR_CLAIM;
+import static twitter4jads.internal.http.HttpResponseCode.INTERNAL_SERVER_ERROR;
+import static twitter4jads.internal.http.HttpResponseCode.TOO_MANY_REQUESTS;
+
+/**
+ * Retries server errors and I/O errors with exponential backoff and decorrelated jitter, so that clients failing at the
+ * same moment spread their retries instead of coming back together.
+ * <p/>
+ * Only requests that can safely be sent twice are retried: GET, HEAD, PUT and DELETE by default, POST only for the
+ * endpoints allowed explicitly. Requests that never reached the server (connection refused) and requests rejected for
+ * a rate limit are retried whatever their method. A rate limited request waits for the Retry-After or
+ * X-Rate-Limit-Reset time when it is within {@link Builder#setMaxRateLimitWaitMillis(long)}. The waits for one request
+ * never add up to more than {@link Builder#setMaxTotalDelayMillis(long)}.
+ *
+ * @see <a href="https://aws.amazon.com/blogs/architecture/exponential-backoff-and-jitter/">Exponential Backoff And Jitter</a>
+ */
+public class ExponentialBackoffRetryPolicy implements RetryPolicy, Serializable {
+    private static final long serialVersionUID = 4271906183405470532L;
+
+    private final int maxRetries;
+    private final long baseDelayMillis;
+    private final long maxDelayMillis;
+    private final long maxTotalDelayMillis;
+    private final long maxRateLimitWaitMillis;
+    private final Set<RequestMethod> retryableMethods;
+    private final Set<String> retryableEndpoints;
+    private final Set<String> nonRetryableEndpoints;
+
+    private ExponentialBackoffRetryPolicy(Builder builder) {
+        this.maxRetries = builder.maxRetries;
+        this.baseDelayMillis = builder.baseDelayMillis;
+        this.maxDelayMillis = Math.max(builder.baseDelayMillis, builder.maxDelayMillis);
+        this.maxTotalDelayMillis = builder.maxTotalDelayMillis;
+        this.maxRateLimitWaitMillis = builder.maxRateLimitWaitMillis;
+        this.retryableMethods = Collections.unmodifiableSet(EnumSet.copyOf(builder.retryableMethods));
+        this.retryableEndpoints = Collections.unmodifiableSet(new HashSet<String>(builder.retryableEndpoints));
+        this.nonRetryableEndpoints = Collections.unmodifiableSet(new HashSet<String>(builder.nonRetryableEndpoints));
+    }
+
+    /**
+     * @return a builder starting from the retry count and interval of the configuration
+     */
+    public static Builder builder(HttpClientConfiguration conf) {
+        return new Builder().setMaxRetries(conf.getHttpRetryCount())
+                            .setBaseDelayMillis(TimeUnit.SECONDS.toMillis(conf.getHttpRetryIntervalSeconds()));
+    }
+
+    @Override
+    public long retryDelayMillis(HttpRequest req, int retryCount, HttpResponse res, IOException error, long previousDelayMillis,
+                                 long waitedMillis) {
+        if (retryCount >= maxRetries) {
+            return NO_RETRY;
+        }
+        String endpoint = null;
+        if (!retryableEndpoints.isEmpty() || !nonRetryableEndpoints.isEmpty()) {
+            endpoint = EndpointTemplate.of(req.getMethod(), req.getURL());
+            if (nonRetryableEndpoints.contains(endpoint)) {
+                return NO_RETRY;
+            }
+        }
+        boolean idempotent = retryableMethods.contains(req.getMethod()) || (endpoint != null && retryableEndpoints.contains(endpoint));
+
+        long delay;
+        if (res == null) {
+            // the request may have been processed unless the connection was never made
+            if (!idempotent && !(error instanceof ConnectException)) {
+                return NO_RETRY;
+            }
+            delay = backoff(previousDelayMillis);
+        } else {
+            int statusCode = res.getStatusCode();
+            if (statusCode == TOO_MANY_REQUESTS || statusCode == ENHANCE_YOUR_CLAIM) {
+                // rejected before being processed, safe to send again once the limit is reset
+                long wait = rateLimitWait(res);
+                if (wait < 0 || wait > maxRateLimitWaitMillis) {
+                    return NO_RETRY;
+                }
+                // spread the clients waiting for the same reset
+                delay = wait + (baseDelayMillis > 0 ? ThreadLocalRandom.current().nextLong(baseDelayMillis + 1) : 0);
+            } else if (statusCode >= INTERNAL_SERVER_ERROR && idempotent) {
+                delay = Math.max(backoff(previousDelayMillis), retryAfter(res));
+            } else {
+                return NO_RETRY;
+            }
+        }
+        if (waitedMillis + delay > maxTotalDelayMillis) {
+            return NO_RETRY;
+        }
+        return delay;
+    }
+
+    /**
+     * Decorrelated jitter: a random delay between the base delay and three times the previous one, capped.
+     */
+    private long backoff(long previousDelayMillis) {
+        if (baseDelayMillis <= 0) {
+            return 0;
+        }
+        long upper = Math.min(maxDelayMillis, Math.max(baseDelayMillis, previousDelayMillis) * 3);
+        if (upper <= baseDelayMillis) {
+            return baseDelayMillis;
+        }
+        return ThreadLocalRandom.current().nextLong(baseDelayMillis, upper + 1);
+    }
+
+    /**
+     * @return milliseconds until the rate limit is reset, -1 if the response does not say
+     */
+    private static long rateLimitWait(HttpResponse res) {
+        long retryAfter = retryAfter(res);
+        if (retryAfter > 0) {
+            return retryAfter;
+        }
+        long resetAt = epochSecondsHeader(res, "x-rate-limit-reset");
+        if (resetAt < 0) {
+            resetAt = epochSecondsHeader(res, "x-cost-rate-limit-reset");
+        }
+        return resetAt < 0 ? -1 : Math.max(0, resetAt - System.currentTimeMillis());
+    }
+
+    private static long retryAfter(HttpResponse res) {
+        String value = res.getResponseHeader("Retry-After");
+        if (value != null) {
+            try {
+                return TimeUnit.SECONDS.toMillis(Long.parseLong(value.trim()));
+            } catch (NumberFormatException ignore) {
+                // an HTTP date, not sent by the ads API
+            }
+        }
+        return 0;
+    }
+
+    private static long epochSecondsHeader(HttpResponse res, String name) {
+        String value = res.getResponseHeader(name);
+        if (value != null) {
+            try {
+                return TimeUnit.SECONDS.toMillis(Long.parseLong(value.trim()));
+            } catch (NumberFormatException ignore) {
+            }
+        }
+        return -1;
+    }
+
+    public static class Builder {
+        private int maxRetries = 0;
+        private long baseDelayMillis = TimeUnit.SECONDS.toMillis(5);
+        private long maxDelayMillis = TimeUnit.MINUTES.toMillis(1);
+        private long maxTotalDelayMillis = TimeUnit.MINUTES.toMillis(2);
+        private long maxRateLimitWaitMillis = TimeUnit.MINUTES.toMillis(1);
+        private final Set<RequestMethod> retryableMethods =
+                EnumSet.of(RequestMethod.GET, RequestMethod.HEAD, RequestMethod.PUT, RequestMethod.DELETE);
+        private final Set<String> retryableEndpoints = new HashSet<String>();
+        private final Set<String> nonRetryableEndpoints = new HashSet<String>();
+
+        public Builder setMaxRetries(int maxRetries) {
+            this.maxRetries = maxRetries;
+            return this;
+        }
+
+        /**
+         * @param baseDelayMillis shortest delay before a retry, 0 to retry immediately
+         */
+        public Builder setBaseDelayMillis(long baseDelayMillis) {
+            this.baseDelayMillis = baseDelayMillis;
+            return this;
+        }
+
+        public Builder setMaxDelayMillis(long maxDelayMillis) {
+            this.maxDelayMillis = maxDelayMillis;
+            return this;
+        }
+
+        /**
+         * @param maxTotalDelayMillis budget for all the waits of one request, a retry that would exceed it is not made
+         */
+        public Builder setMaxTotalDelayMillis(long maxTotalDelayMillis) {
+            this.maxTotalDelayMillis = maxTotalDelayMillis;
+            return this;
+        }
+
+        /**
+         * @param maxRateLimitWaitMillis longest wait for a rate limit reset, 0 to fail rate limited requests right away
+         */
+        public Builder setMaxRateLimitWaitMillis(long maxRateLimitWaitMillis) {
+            this.maxRateLimitWaitMillis = maxRateLimitWaitMillis;
+            return this;
+        }
+
+        /**
+         * @param methods the methods retried for every endpoint, replacing GET, HEAD, PUT and DELETE
+         */
+        public Builder setRetryableMethods(RequestMethod... methods) {
+            retryableMethods.clear();
+            Collections.addAll(retryableMethods, methods);
+            return this;
+        }
+
+        /**
+         * @param endpoint an endpoint whose requests may be sent twice whatever their method, e.g.
+         *                 {@code POST /accounts/:id/line_items} for a client that deduplicates created line items
+         * @see EndpointTemplate
+         */
+        public Builder addRetryableEndpoint(String endpoint) {
+            retryableEndpoints.add(endpoint);
+            nonRetryableEndpoints.remove(endpoint);
+            return this;
+        }
+
+        /**
+         * @param endpoint an endpoint that is never retried, e.g. {@code DELETE /accounts/:id/campaigns/:id}
+         * @see EndpointTemplate
+         */
+        public Builder addNonRetryableEndpoint(String endpoint) {
+            nonRetryableEndpoints.add(endpoint);
+            retryableEndpoints.remove(endpoint);
+            return this;
+        }
+
+        public ExponentialBackoffRetryPolicy build() {
+            return new ExponentialBackoffRetryPolicy(this);
+        }
+    }
+}
@@ -1,20 +1,72 @@
 package twitter4jads.internal.http;
 
 import twitter4jads.internal.logging.Logger;
+import twitter4jads.internal.models4j.TwitterException;
 
+import java.io.BufferedInputStream;
 import java.io.DataOutputStream;
+import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.io.Serializable;
 
 public abstract class HttpClientBase implements HttpClient, Serializable {
     private static final Logger logger = Logger.getLogger(HttpClientBase.class);
     private static final long serialVersionUID = 6944924907755685265L;
     protected final HttpClientConfiguration CONF;
+    private transient volatile RetryPolicy retryPolicy;
 
     public HttpClientBase(HttpClientConfiguration conf) {
         this.CONF = conf;
     }
 
+    /**
+     * @return the policy failed requests are retried by, by default {@link ExponentialBackoffRetryPolicy} with the retry
+     * count and interval of the configuration
+     */
+    public RetryPolicy getRetryPolicy() {
+        RetryPolicy policy = retryPolicy;
+        if (policy == null) {
+            policy = ExponentialBackoffRetryPolicy.builder(CONF).build();
+            retryPolicy = policy;
+        }
+        return policy;
+    }
+
+    public void setRetryPolicy(RetryPolicy retryPolicy) {
+        this.retryPolicy = retryPolicy;
+    }
+
+    /**
+     * @return whether the response code ends the request without an error
+     */
+    protected static boolean isSuccess(int responseCode) {
+        return responseCode >= HttpResponseCode.OK && (responseCode == HttpResponseCode.FOUND
+                                                       || responseCode == HttpResponseCode.RESUME_INCOMPLETE
+                                                       || responseCode < HttpResponseCode.MULTIPLE_CHOICES);
+    }
+
+    /**
+     * Waits before a retry. An interrupt fails the request instead of cutting the wait short and retrying. When the
+     * request runs under a {@link RetryDeferral}, the wait is left to its caller and the request is abandoned instead.
+     */
+    protected void awaitRetry(RetryDeferral.Progress progress, long delayMillis) throws TwitterException {
+        if (progress.retryAfter(delayMillis)) {
+            logger.debug("Leaving the wait of " + delayMillis + "ms until the next retry to the caller.");
+            throw new RetryDeferral.DeferredException(delayMillis);
+        }
+        if (delayMillis <= 0) {
+            return;
+        }
+        logger.debug("Waiting " + delayMillis + "ms until the next retry.");
+        try {
+            Thread.sleep(delayMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TwitterException("Interrupted while waiting to retry the request", e);
+        }
+    }
+
     @Override
     public void shutdown() {
     }
@@ -28,6 +80,95 @@ public abstract class HttpClientBase implements HttpClient, Serializable {
         logger.debug(outStr);
     }
 
+    /**
+     * Writes the file carrying parameters of the request as a multipart/form-data body, or as the raw file bytes for
+     * non multipart (ton) uploads.
+     *
+     * @param req      request containing at least one file parameter
+     * @param boundary multipart boundary without the leading dashes
+     * @param os       stream the body is written to
+     */
+    protected void writeMultipartBody(HttpRequest req, String boundary, OutputStream os) throws IOException {
+        boundary = "--" + boundary;
+        DataOutputStream out = new DataOutputStream(os);
+        for (HttpParameter param : req.getParameters()) {
+            if (param.isNonMultipartUpload()) {
+                out.write(param.getFileData(), 0, param.getFileData().length);
+            } else if (param.isFile()) {
+                write(out, filePartHeader(boundary, param));
+                BufferedInputStream in =
+                        new BufferedInputStream(param.hasFileBody() ? param.getFileBody() : new FileInputStream(param.getFile()));
+                byte[] buff = new byte[8192];
+                int length;
+                try {
+                    while ((length = in.read(buff)) != -1) {
+                        out.write(buff, 0, length);
+                    }
+                    write(out, "\r\n");
+                } finally {
+                    in.close();
+                }
+            } else {
+                write(out, textPartHeader(boundary, param));
+                logger.debug(param.getValue());
+                out.write(param.getValue().getBytes("UTF-8"));
+                write(out, "\r\n");
+            }
+        }
+        if (!req.isTonUploadRequest()) {
+            write(out, boundary + "--\r\n");
+            write(out, "\r\n");
+        }
+        out.flush();
+    }
+
+    /**
+     * @return number of bytes {@link #writeMultipartBody(HttpRequest, String, OutputStream)} writes for the request, -1 if
+     * the length of a file body is unknown
+     */
+    protected long multipartBodyLength(HttpRequest req, String boundary) throws IOException {
+        boundary = "--" + boundary;
+        long length = 0;
+        for (HttpParameter param : req.getParameters()) {
+            if (param.isNonMultipartUpload()) {
+                length += param.getFileData().length;
+            } else if (param.isFile()) {
+                long fileLength = param.hasFileBody() ? param.getFileBodyLength() : param.getFile().length();
+                if (fileLength < 0) {
+                    return -1;
+                }
+                // headers are written with writeBytes, one byte per char
+                length += filePartHeader(boundary, param).length() + fileLength + "\r\n".length();
+            } else {
+                length += textPartHeader(boundary, param).length() + param.getValue().getBytes("UTF-8").length + "\r\n".length();
+            }
+        }
+        if (!req.isTonUploadRequest()) {
+            length += (boundary + "--\r\n").length() + "\r\n".length();
+        }
+        return length;
+    }
+
+    private static String filePartHeader(String boundary, HttpParameter param) {
+        return boundary + "\r\n"
+               + "Content-Disposition: form-data; name=\"" + param.getName() + "\"; filename=\"" + param.getFile().getName() + "\"\r\n"
+               + "Content-Type: " + param.getContentType() + "\r\n\r\n";
+    }
+
+    private static String textPartHeader(String boundary, HttpParameter param) {
+        return boundary + "\r\n"
+               + "Content-Disposition: form-data; name=\"" + param.getName() + "\"\r\n"
+               + "Content-Type: text/plain; charset=UTF-8\r\n\r\n";
+    }
+
+    protected String ensureHttps(String url) {
+        if (url.startsWith("http://")) {
+            logger.error("Following url was still using (http) protocol: " + url);
+            url = "https://" + url.substring("http://".length());
+        }
+        return url;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -80,11 +80,12 @@ public class HttpClientImpl extends HttpClientBase implements HttpResponseCode,
 
     @Override
     public HttpResponse request(HttpRequest req) throws TwitterException {
-        int retriedCount;
-        int retry = CONF.getHttpRetryCount() + 1;
-        HttpResponse res = null;
-        for (retriedCount = 0; retriedCount < retry; retriedCount++) {
+        RetryPolicy retryPolicy = getRetryPolicy();
+        RetryDeferral.Progress progress = RetryDeferral.startRequest();
+        while (true) {
             int responseCode = -1;
+            HttpResponse res = null;
+            IOException error = null;
             try {
                 HttpURLConnection con;
                 OutputStream os = null;
@@ -100,44 +101,14 @@ public class HttpClientImpl extends HttpClientBase implements HttpResponseCode,
                                 //ton upload is non multi part
                                 con.setRequestProperty("Content-Type", "multipart/form-data; boundary=" + boundary);
                             }
-                            boundary = "--" + boundary;
+                            long length = multipartBodyLength(req, boundary);
+                            if (length >= 0) {
+                                // streamed as it is written instead of being buffered to count its length
+                                con.setFixedLengthStreamingMode(length);
+                            }
                             con.setDoOutput(true);
                             os = con.getOutputStream();
-                            DataOutputStream out = new DataOutputStream(os);
-                            for (HttpParameter param : req.getParameters()) {
-                                if (param.isNonMultipartUpload()) {
-                                    out.write(param.getFileData(), 0, param.getFileData().length);
-                                } else if (param.isFile()) {
-                                    write(out, boundary + "\r\n");
-                                    write(out, "Content-Disposition: form-data; name=\"" + param.getName() + "\"; filename=\"" +
-                                               param.getFile().getName() + "\"\r\n");
-                                    write(out, "Content-Type: " + param.getContentType() + "\r\n\r\n");
-                                    BufferedInputStream in =
-                                            new BufferedInputStream(param.hasFileBody() ? param.getFileBody() : new FileInputStream(param.getFile()));
-                                    byte[] buff = new byte[1024];
-                                    int length;
-                                    try {
-                                        while ((length = in.read(buff)) != -1) {
-                                            out.write(buff, 0, length);
-                                        }
-                                        write(out, "\r\n");
-                                    } finally {
-                                        in.close();
-                                    }
-                                } else {
-                                    write(out, boundary + "\r\n");
-                                    write(out, "Content-Disposition: form-data; name=\"" + param.getName() + "\"\r\n");
-                                    write(out, "Content-Type: text/plain; charset=UTF-8\r\n\r\n");
-                                    logger.debug(param.getValue());
-                                    out.write(param.getValue().getBytes("UTF-8"));
-                                    write(out, "\r\n");
-                                }
-                            }
-                            if (!req.isTonUploadRequest()) {
-                                write(out, boundary + "--\r\n");
-                                write(out, "\r\n");
-                            }
-
+                            writeMultipartBody(req, boundary, os);
                         } else if (req.getRequestBody() != null) {
                             con.setRequestProperty("Content-Type", "application/json");
                             String payload = req.getRequestBody();
@@ -178,16 +149,8 @@ public class HttpClientImpl extends HttpClientBase implements HttpResponseCode,
                             }
                         }
                     }
-                    if (responseCode < OK || (responseCode != FOUND && responseCode != RESUME_INCOMPLETE && MULTIPLE_CHOICES <= responseCode)) {
-                        if (responseCode == ENHANCE_YOUR_CLAIM ||
-                            responseCode == BAD_REQUEST ||
-                            responseCode < INTERNAL_SERVER_ERROR ||
-                            retriedCount == CONF.getHttpRetryCount()) {
-                            throw new TwitterException(res.asString(), req, res);
-                        }
-                        // will retry if the status code is INTERNAL_SERVER_ERROR
-                    } else {
-                        break;
+                    if (isSuccess(responseCode)) {
+                        return res;
                     }
                 } finally {
                     try {
@@ -197,21 +160,22 @@ public class HttpClientImpl extends HttpClientBase implements HttpResponseCode,
                 }
             } catch (IOException ioe) {
                 // connection timeout or read timeout
-                if (retriedCount == CONF.getHttpRetryCount()) {
-                    throw new TwitterException(ioe.getMessage(), ioe, responseCode);
-                }
+                error = ioe;
+                res = null;
             }
-            try {
-                if (logger.isDebugEnabled() && res != null) {
-                    res.asString();
+            long delay = retryPolicy.retryDelayMillis(req, progress.getRetriedCount(), res, error, progress.getPreviousDelayMillis(),
+                                                      progress.getWaitedMillis());
+            if (delay == RetryPolicy.NO_RETRY) {
+                if (error != null) {
+                    throw new TwitterException(error.getMessage(), error, responseCode);
                 }
-                logger.debug("Sleeping " + CONF.getHttpRetryIntervalSeconds() + " seconds until the next retry.");
-                Thread.sleep(CONF.getHttpRetryIntervalSeconds() * 1000);
-            } catch (InterruptedException ignore) {
-                //nothing to do
+                throw new TwitterException(res.asString(), req, res);
+            }
+            if (logger.isDebugEnabled() && res != null) {
+                res.asString();
             }
+            awaitRetry(progress, delay);
         }
-        return res;
     }
 
 
@@ -280,12 +244,4 @@ public class HttpClientImpl extends HttpClientBase implements HttpResponseCode,
         con.setInstanceFollowRedirects(false);
         return con;
     }
-
-    private String ensureHttps(String url) {
-        if (url.startsWith("http://")) {
-            logger.error("Following url was still using (http) protocol: " + url);
-            url = "https://" + url.substring("http://".length());
-        }
-        return url;
-    }
 }
@@ -38,11 +38,13 @@ public final class HttpClientWrapper implements java.io.Serializable {
     private final Map<String, String> requestHeaders;
     private static final long serialVersionUID = -6511977105603119379L;
     private HttpResponseListener httpResponseListener;
+    private transient RateLimitScheduler rateLimitScheduler;
 
     public HttpClientWrapper(HttpClientWrapperConfiguration wrapperConf) {
         this.wrapperConf = wrapperConf;
         requestHeaders = wrapperConf.getRequestHeaders();
         http = HttpClientFactory.getInstance(wrapperConf);
+        rateLimitScheduler = new RateLimitScheduler();
     }
 
     // never used with this project. Just for handiness for those using this class.
@@ -50,6 +52,7 @@ public final class HttpClientWrapper implements java.io.Serializable {
         this.wrapperConf = ConfigurationContext.getInstance();
         requestHeaders = wrapperConf.getRequestHeaders();
         http = HttpClientFactory.getInstance(wrapperConf);
+        rateLimitScheduler = new RateLimitScheduler();
     }
 
     public void shutdown() {
@@ -57,7 +60,12 @@ public final class HttpClientWrapper implements java.io.Serializable {
     }
 
     private HttpResponse request(HttpRequest req) throws TwitterException {
-        HttpResponse res;
+        final RateLimitScheduler scheduler = rateLimitScheduler;
+        if (scheduler != null) {
+            scheduler.beforeRequest(req);
+        }
+        HttpResponse res = null;
+        TwitterException error = null;
         try {
             res = http.request(req);
             //fire HttpResponseEvent
@@ -65,14 +73,35 @@ public final class HttpClientWrapper implements java.io.Serializable {
                 httpResponseListener.httpResponseReceived(new HttpResponseEvent(req, res, null));
             }
         } catch (TwitterException te) {
+            error = te;
             if (httpResponseListener != null) {
                 httpResponseListener.httpResponseReceived(new HttpResponseEvent(req, null, te));
             }
             throw te;
+        } finally {
+            if (scheduler != null) {
+                scheduler.afterResponse(req, res, error);
+            }
         }
         return res;
     }
 
+    /**
+     * @return the scheduler holding requests back while their rate limit is exhausted, null once deserialized
+     */
+    public RateLimitScheduler getRateLimitScheduler() {
+        return rateLimitScheduler;
+    }
+
+    /**
+     * @param retryPolicy policy failed requests are retried by, ignored by clients without retries
+     */
+    public void setRetryPolicy(RetryPolicy retryPolicy) {
+        if (http instanceof HttpClientBase) {
+            ((HttpClientBase) http).setRetryPolicy(retryPolicy);
+        }
+    }
+
     public void setHttpResponseListener(HttpResponseListener listener) {
         httpResponseListener = listener;
     }
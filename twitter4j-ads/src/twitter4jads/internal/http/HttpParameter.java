@@ -18,8 +18,6 @@ package twitter4jads.internal.http;
 
 import java.io.File;
 import java.io.InputStream;
-import java.io.UnsupportedEncodingException;
-import java.net.URLEncoder;
 import java.util.List;
 
 /**
@@ -32,6 +30,7 @@ public final class HttpParameter implements Comparable, java.io.Serializable {
     private String value = null;
     private File file = null;
     private InputStream fileBody = null;
+    private long fileBodyLength = -1;
     private byte[] fileData;
     private boolean nonMultipartUpload;
     private static final long serialVersionUID = -8708108746980739212L;
@@ -52,6 +51,14 @@ public final class HttpParameter implements Comparable, java.io.Serializable {
         this.fileBody = fileBody;
     }
 
+    /**
+     * @param fileBodyLength number of bytes the body holds, so that the request can be streamed with a Content-Length
+     */
+    public HttpParameter(String name, String fileName, InputStream fileBody, long fileBodyLength) {
+        this(name, fileName, fileBody);
+        this.fileBodyLength = fileBodyLength;
+    }
+
     public HttpParameter(String name, byte[] nonMultiPartData,boolean isNonMultiPartUpload) {
         this.name = name;
         this.fileData = nonMultiPartData;
@@ -102,6 +109,13 @@ public final class HttpParameter implements Comparable, java.io.Serializable {
         return fileBody != null;
     }
 
+    /**
+     * @return number of bytes of the file body, -1 if unknown
+     */
+    public long getFileBodyLength() {
+        return fileBodyLength;
+    }
+
     public byte[] getFileData() {
         return fileData;
     }
@@ -278,27 +292,69 @@ public final class HttpParameter implements Comparable, java.io.Serializable {
      * @see <a href="http://tools.ietf.org/html/rfc3986#section-2.1">RFC 3986 - Uniform Resource Identifier (URI): Generic Syntax - 2.1. Percent-Encoding</a>
      */
     public static String encode(String value) {
-        String encoded = null;
-        try {
-            encoded = URLEncoder.encode(value, "UTF-8");
-        } catch (UnsupportedEncodingException ignore) {
-        }
-        StringBuilder buf = new StringBuilder(encoded.length());
-        char focus;
-        for (int i = 0; i < encoded.length(); i++) {
-            focus = encoded.charAt(i);
-            if (focus == '*') {
-                buf.append("%2A");
-            } else if (focus == '+') {
-                buf.append("%20");
-            } else if (focus == '%' && (i + 1) < encoded.length()
-                    && encoded.charAt(i + 1) == '7' && encoded.charAt(i + 2) == 'E') {
-                buf.append('~');
-                i += 2;
+        StringBuilder buf = new StringBuilder(value.length() + 16);
+        encode(value, buf, "%");
+        return buf.toString();
+    }
+
+    /**
+     * Appends the value percent-encoded as in {@link #encode(String)}, without intermediate strings.
+     *
+     * @param value string to be encoded
+     * @param out   buffer to append to
+     */
+    public static void encode(String value, StringBuilder out) {
+        encode(value, out, "%");
+    }
+
+    /**
+     * Appends the value percent-encoded twice, as it appears in an OAuth signature base string. Same as
+     * {@code encode(encode(value))} in a single pass.
+     *
+     * @param value string to be encoded
+     * @param out   buffer to append to
+     */
+    public static void encodeTwice(String value, StringBuilder out) {
+        encode(value, out, "%25");
+    }
+
+    private static void encode(String value, StringBuilder out, String escape) {
+        int length = value.length();
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (isUnreserved(c)) {
+                out.append(c);
+            } else if (c < 0x80) {
+                appendEscaped(c, out, escape);
+            } else if (c < 0x800) {
+                appendEscaped(0xC0 | (c >> 6), out, escape);
+                appendEscaped(0x80 | (c & 0x3F), out, escape);
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                appendEscaped(0xF0 | (codePoint >> 18), out, escape);
+                appendEscaped(0x80 | ((codePoint >> 12) & 0x3F), out, escape);
+                appendEscaped(0x80 | ((codePoint >> 6) & 0x3F), out, escape);
+                appendEscaped(0x80 | (codePoint & 0x3F), out, escape);
+            } else if (Character.isSurrogate(c)) {
+                // unpaired surrogate, replaced like the UTF-8 encoder does
+                appendEscaped('?', out, escape);
             } else {
-                buf.append(focus);
+                appendEscaped(0xE0 | (c >> 12), out, escape);
+                appendEscaped(0x80 | ((c >> 6) & 0x3F), out, escape);
+                appendEscaped(0x80 | (c & 0x3F), out, escape);
             }
         }
-        return buf.toString();
+    }
+
+    private static final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+
+    // RFC 3986 unreserved characters
+    private static boolean isUnreserved(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9')
+               || c == '-' || c == '.' || c == '_' || c == '~';
+    }
+
+    private static void appendEscaped(int b, StringBuilder out, String escape) {
+        out.append(escape).append(HEX_DIGITS[(b >> 4) & 0xF]).append(HEX_DIGITS[b & 0xF]);
     }
 }
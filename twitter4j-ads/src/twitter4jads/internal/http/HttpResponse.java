@@ -16,6 +16,8 @@
 
 package twitter4jads.internal.http;
 
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonReader;
 import twitter4jads.conf.ConfigurationContext;
 import twitter4jads.internal.logging.Logger;
 import twitter4jads.internal.models4j.TwitterException;
@@ -25,6 +27,7 @@ import twitter4jads.internal.org.json.JSONObject;
 import twitter4jads.internal.org.json.JSONTokener;
 
 import java.io.*;
+import java.lang.reflect.Type;
 import java.util.List;
 import java.util.Map;
 
@@ -123,6 +126,43 @@ public abstract class HttpResponse {
         return responseAsString;
     }
 
+    /**
+     * Deserializes the response body with the given Gson, reading straight from the response stream instead of building
+     * the intermediate string {@link #asString()} does. Falls back to the string when it has already been read or when
+     * debug logging needs it.<br>
+     * Disconnects the internal HttpURLConnection silently.
+     *
+     * @param gson gson to deserialize with
+     * @param type type of the response body
+     * @return response body as an object of the given type, null if the body is empty
+     * @throws TwitterException when the body can not be read
+     */
+    public <T> T asObject(Gson gson, Type type) throws TwitterException {
+        if (responseAsString != null || logger.isDebugEnabled()) {
+            return gson.fromJson(asString(), type);
+        }
+        Reader reader = null;
+        try {
+            InputStream stream = asStream();
+            if (null == stream) {
+                return null;
+            }
+            streamConsumed = true;
+            reader = new InputStreamReader(stream, "UTF-8");
+            return gson.fromJson(new JsonReader(reader), type);
+        } catch (IOException e) {
+            throw new TwitterException(e.getMessage(), e);
+        } finally {
+            if (reader != null) {
+                try {
+                    reader.close();
+                } catch (IOException ignore) {
+                }
+            }
+            disconnectForcibly();
+        }
+    }
+
     private JSONObject json = null;
 
     /**
@@ -0,0 +1,297 @@
+package twitter4jads.internal.http;
+
+import org.apache.http.HttpHost;
+import org.apache.http.auth.AuthScope;
+import org.apache.http.auth.UsernamePasswordCredentials;
+import org.apache.http.client.CredentialsProvider;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpDelete;
+import org.apache.http.client.methods.HttpEntityEnclosingRequestBase;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpHead;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.client.methods.HttpPut;
+import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.http.entity.AbstractHttpEntity;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.impl.client.BasicCredentialsProvider;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.protocol.HTTP;
+import twitter4jads.internal.async.TwitterAdsExecutors;
+import twitter4jads.internal.logging.Logger;
+import twitter4jads.internal.models4j.TwitterException;
+import twitter4jads.internal.util.z_T4JInternalStringUtil;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import static twitter4jads.internal.http.RequestMethod.POST;
+import static twitter4jads.internal.http.RequestMethod.PUT;
+
+/**
+ * {@link HttpClient} backed by a pool of keep-alive connections, so consecutive requests to the same host (e.g. paging
+ * through ads-api.twitter.com) reuse an established TLS session instead of handshaking on every call.
+ * <p/>
+ * The pool is bounded by {@link HttpClientConfiguration#getHttpMaxTotalConnections()} and
+ * {@link HttpClientConfiguration#getHttpDefaultMaxPerRoute()}, and connections idle for longer than
+ * {@link #IDLE_CONNECTION_TIMEOUT_SECONDS} are evicted in the background.
+ * <p/>
+ * Enable with -Dtwitter4jads.http.httpClient=twitter4jads.internal.http.PooledHttpClientImpl
+ */
+public class PooledHttpClientImpl extends HttpClientBase implements HttpResponseCode, Serializable {
+    private static final Logger logger = Logger.getLogger(PooledHttpClientImpl.class);
+
+    private static final long serialVersionUID = 2384766135532811468L;
+
+    private static final long IDLE_CONNECTION_TIMEOUT_SECONDS = 30;
+    private static final long EVICTION_INTERVAL_SECONDS = 5;
+    private static final int VALIDATE_AFTER_INACTIVITY_MILLIS = 2000;
+
+    private static final ScheduledExecutorService EVICTOR =
+            TwitterAdsExecutors.newScheduledThreadPool("Twitter4J Idle Connection Evictor", 1);
+
+    private transient PoolingHttpClientConnectionManager connectionManager;
+    private transient CloseableHttpClient client;
+    private transient ScheduledFuture<?> evictionTask;
+
+    public PooledHttpClientImpl(HttpClientConfiguration conf) {
+        super(conf);
+        initialize();
+    }
+
+    private void initialize() {
+        final PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+        connectionManager.setMaxTotal(CONF.getHttpMaxTotalConnections());
+        connectionManager.setDefaultMaxPerRoute(CONF.getHttpDefaultMaxPerRoute());
+        connectionManager.setValidateAfterInactivity(VALIDATE_AFTER_INACTIVITY_MILLIS);
+
+        RequestConfig.Builder requestConfig = RequestConfig.custom().setRedirectsEnabled(false);
+        if (CONF.getHttpConnectionTimeout() > 0) {
+            requestConfig.setConnectTimeout(CONF.getHttpConnectionTimeout());
+            requestConfig.setConnectionRequestTimeout(CONF.getHttpConnectionTimeout());
+        }
+        if (CONF.getHttpReadTimeout() > 0) {
+            requestConfig.setSocketTimeout(CONF.getHttpReadTimeout());
+        }
+
+        HttpClientBuilder builder = HttpClientBuilder.create()
+                                                     .setConnectionManager(connectionManager)
+                                                     .setDefaultRequestConfig(requestConfig.build())
+                                                     .disableRedirectHandling()
+                                                     .disableAutomaticRetries()
+                                                     .disableCookieManagement();
+        if (!CONF.isGZIPEnabled()) {
+            builder.disableContentCompression();
+        }
+        if (isProxyConfigured()) {
+            if (logger.isDebugEnabled()) {
+                logger.debug("Opening proxied connection(" + CONF.getHttpProxyHost() + ":" + CONF.getHttpProxyPort() + ")");
+            }
+            builder.setProxy(new HttpHost(CONF.getHttpProxyHost(), CONF.getHttpProxyPort()));
+            if (CONF.getHttpProxyUser() != null && !CONF.getHttpProxyUser().equals("")) {
+                if (logger.isDebugEnabled()) {
+                    logger.debug("Proxy AuthUser: " + CONF.getHttpProxyUser());
+                    logger.debug("Proxy AuthPassword: " + z_T4JInternalStringUtil.maskString(CONF.getHttpProxyPassword()));
+                }
+                CredentialsProvider credentialsProvider = new BasicCredentialsProvider();
+                credentialsProvider.setCredentials(new AuthScope(CONF.getHttpProxyHost(), CONF.getHttpProxyPort()),
+                                                   new UsernamePasswordCredentials(CONF.getHttpProxyUser(), CONF.getHttpProxyPassword()));
+                builder.setDefaultCredentialsProvider(credentialsProvider);
+            }
+        }
+
+        this.connectionManager = connectionManager;
+        this.client = builder.build();
+        this.evictionTask = EVICTOR.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                connectionManager.closeExpiredConnections();
+                connectionManager.closeIdleConnections(IDLE_CONNECTION_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            }
+        }, EVICTION_INTERVAL_SECONDS, EVICTION_INTERVAL_SECONDS, TimeUnit.SECONDS);
+    }
+
+    @Override
+    public HttpResponse request(HttpRequest req) throws TwitterException {
+        RetryPolicy retryPolicy = getRetryPolicy();
+        RetryDeferral.Progress progress = RetryDeferral.startRequest();
+        while (true) {
+            int responseCode = -1;
+            HttpResponse res = null;
+            IOException error = null;
+            try {
+                HttpRequestBase method = createMethod(req);
+                res = new PooledHttpResponseImpl(client.execute(method), CONF);
+                responseCode = res.getStatusCode();
+                if (isSuccess(responseCode)) {
+                    return res;
+                }
+            } catch (IOException ioe) {
+                // connection timeout or read timeout
+                error = ioe;
+                res = null;
+            }
+            long delay = retryPolicy.retryDelayMillis(req, progress.getRetriedCount(), res, error, progress.getPreviousDelayMillis(),
+                                                      progress.getWaitedMillis());
+            if (delay == RetryPolicy.NO_RETRY) {
+                if (error != null) {
+                    throw new TwitterException(error.getMessage(), error, responseCode);
+                }
+                throw new TwitterException(res.asString(), req, res);
+            }
+            if (res != null) {
+                // hand the connection back to the pool before retrying
+                res.asString();
+            }
+            awaitRetry(progress, delay);
+        }
+    }
+
+    private HttpRequestBase createMethod(HttpRequest req) throws IOException {
+        String url = ensureHttps(req.getURL());
+        if (logger.isDebugEnabled()) {
+            logger.debug("Request: ");
+            logger.debug(req.getMethod().name() + " ", url);
+        }
+
+        HttpRequestBase method;
+        switch (req.getMethod()) {
+            case POST:
+                method = new HttpPost(url);
+                break;
+            case PUT:
+                method = new HttpPut(url);
+                break;
+            case DELETE:
+                method = new HttpDelete(url);
+                break;
+            case HEAD:
+                method = new HttpHead(url);
+                break;
+            default:
+                method = new HttpGet(url);
+                break;
+        }
+        setHeaders(req, method);
+        if (req.getMethod() == POST || req.getMethod() == PUT) {
+            setEntity(req, (HttpEntityEnclosingRequestBase) method);
+        }
+        return method;
+    }
+
+    private void setEntity(HttpRequest req, HttpEntityEnclosingRequestBase method) throws IOException {
+        if (HttpParameter.containsFile(req.getParameters())) {
+            String boundary = "----Twitter4J-upload" + System.currentTimeMillis();
+            AbstractHttpEntity entity;
+            long length = multipartBodyLength(req, boundary);
+            if (length >= 0) {
+                entity = new MultipartEntity(req, boundary, length);
+            } else {
+                // buffered so that the upload carries a Content-Length, as it does with HttpURLConnection
+                ByteArrayOutputStream body = new ByteArrayOutputStream();
+                writeMultipartBody(req, boundary, body);
+                entity = new ByteArrayEntity(body.toByteArray());
+            }
+            if (!req.isTonUploadRequest()) {
+                //ton upload is non multi part
+                entity.setContentType("multipart/form-data; boundary=" + boundary);
+            }
+            method.setEntity(entity);
+        } else if (req.getRequestBody() != null) {
+            String payload = req.getRequestBody();
+            logger.debug("Payload: ", payload);
+            ByteArrayEntity entity = new ByteArrayEntity(payload.getBytes("UTF-8"));
+            entity.setContentType("application/json");
+            method.setEntity(entity);
+        } else if (!req.isTonUploadRequest() || req.getParameters() != null) {
+            String postParam = HttpParameter.encodeParameters(req.getParameters());
+            logger.debug("Post Params: ", postParam);
+            ByteArrayEntity entity = new ByteArrayEntity(postParam.getBytes("UTF-8"));
+            entity.setContentType("application/x-www-form-urlencoded");
+            method.setEntity(entity);
+        }
+    }
+
+    private void setHeaders(HttpRequest req, HttpRequestBase method) {
+        String authorizationHeader;
+        if (req.getAuthorization() != null && (authorizationHeader = req.getAuthorization().getAuthorizationHeader(req)) != null) {
+            if (logger.isDebugEnabled()) {
+                logger.debug("Authorization: ", z_T4JInternalStringUtil.maskString(authorizationHeader));
+            }
+            method.addHeader("Authorization", authorizationHeader);
+        }
+        if (req.getRequestHeaders() != null) {
+            for (String key : req.getRequestHeaders().keySet()) {
+                if (HTTP.CONTENT_LEN.equalsIgnoreCase(key) || HTTP.TRANSFER_ENCODING.equalsIgnoreCase(key)) {
+                    // framed by the entity, HttpClient refuses requests already carrying these
+                    continue;
+                }
+                method.addHeader(key, req.getRequestHeaders().get(key));
+                logger.debug(key + ": " + req.getRequestHeaders().get(key));
+            }
+        }
+    }
+
+    @Override
+    public void shutdown() {
+        evictionTask.cancel(false);
+        try {
+            client.close();
+        } catch (IOException ignore) {
+        }
+    }
+
+    private Object readResolve() {
+        return new PooledHttpClientImpl(CONF);
+    }
+
+    /**
+     * Multipart body written straight to the connection as the request is sent, instead of being buffered first.
+     */
+    private final class MultipartEntity extends AbstractHttpEntity {
+        private final HttpRequest req;
+        private final String boundary;
+        private final long length;
+
+        private MultipartEntity(HttpRequest req, String boundary, long length) {
+            this.req = req;
+            this.boundary = boundary;
+            this.length = length;
+        }
+
+        @Override
+        public boolean isRepeatable() {
+            // retries build a new entity
+            return false;
+        }
+
+        @Override
+        public long getContentLength() {
+            return length;
+        }
+
+        @Override
+        public InputStream getContent() {
+            throw new UnsupportedOperationException("The multipart body is only written to the connection");
+        }
+
+        @Override
+        public void writeTo(OutputStream out) throws IOException {
+            writeMultipartBody(req, boundary, out);
+        }
+
+        @Override
+        public boolean isStreaming() {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package twitter4jads.internal.http;
+
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.util.EntityUtils;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Response of {@link PooledHttpClientImpl}. Fully reading or disconnecting the response hands its connection back to the pool.
+ */
+public class PooledHttpResponseImpl extends HttpResponse {
+    private final CloseableHttpResponse response;
+
+    PooledHttpResponseImpl(CloseableHttpResponse response, HttpClientConfiguration conf) throws IOException {
+        super(conf);
+        this.response = response;
+        this.statusCode = response.getStatusLine().getStatusCode();
+        HttpEntity entity = response.getEntity();
+        if (entity != null) {
+            // gzip bodies are already decompressed by the client
+            is = entity.getContent();
+        }
+    }
+
+    @Override
+    public String getResponseHeader(String name) {
+        // same as HttpURLConnection: the last occurrence wins
+        Header header = response.getLastHeader(name);
+        return header == null ? null : header.getValue();
+    }
+
+    @Override
+    public Map<String, List<String>> getResponseHeaderFields() {
+        Map<String, List<String>> headerFields = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        for (Header header : response.getAllHeaders()) {
+            List<String> values = headerFields.get(header.getName());
+            if (values == null) {
+                values = new ArrayList<>();
+                headerFields.put(header.getName(), values);
+            }
+            values.add(header.getValue());
+        }
+        Map<String, List<String>> result = new LinkedHashMap<>();
+        result.put(null, Collections.singletonList(response.getStatusLine().toString()));
+        result.putAll(headerFields);
+        return Collections.unmodifiableMap(result);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void disconnect() throws IOException {
+        try {
+            EntityUtils.consume(response.getEntity());
+        } finally {
+            response.close();
+        }
+    }
+}
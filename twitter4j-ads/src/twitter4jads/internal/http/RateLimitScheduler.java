@@ -0,0 +1,225 @@
+package twitter4jads.internal.http;
+
+import twitter4jads.internal.logging.Logger;
+import twitter4jads.internal.models4j.RateLimitStatus;
+import twitter4jads.internal.models4j.RateLimitStatusImpl;
+import twitter4jads.internal.models4j.TwitterException;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+import static twitter4jads.internal.http.HttpResponseCode.ENHANCE_YOUR_CLAIM;
+import static twitter4jads.internal.http.HttpResponseCode.TOO_MANY_REQUESTS;
+
+/**
+ * Holds requests back before they would be rejected for exceeding a rate limit, instead of letting them fail with a 429.
+ * <p/>
+ * Every (account, endpoint) pair gets a token bucket that is filled from the X-Rate-Limit-* and
+ * X-Cost-Rate-Limit-* headers of its last response and refilled at the reported reset time. A request takes a token (or,
+ * for cost based limits, the cost of the previous request) before it is sent; when the bucket is empty the calling thread
+ * waits for the reset. Buckets that have not seen a response yet never block.
+ */
+public class RateLimitScheduler {
+    private static final Logger logger = Logger.getLogger(RateLimitScheduler.class);
+
+    private final ConcurrentMap<String, Bucket> buckets = new ConcurrentHashMap<>();
+
+    /**
+     * Waits until the endpoint of the request has budget left and reserves it.
+     */
+    public void beforeRequest(HttpRequest req) throws TwitterException {
+        try {
+            bucket(req).acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TwitterException("Interrupted while waiting for the rate limit of " + req.getURL() + " to reset", e);
+        }
+    }
+
+    /**
+     * Releases the reservation made by {@link #beforeRequest(HttpRequest)} and learns the remaining budget from the response.
+     *
+     * @param res the response, null if the request failed
+     * @param te  the failure, null if the request succeeded
+     */
+    public void afterResponse(HttpRequest req, HttpResponse res, TwitterException te) {
+        if (res == null && te != null) {
+            res = te.getResponse();
+        }
+        bucket(req).release(res);
+    }
+
+    /**
+     * @return the last known budget per "method account endpoint" key
+     */
+    public Map<String, RateLimitStatus> getRateLimitStatuses() {
+        Map<String, RateLimitStatus> statuses = new TreeMap<>();
+        for (Map.Entry<String, Bucket> entry : buckets.entrySet()) {
+            RateLimitStatus status = entry.getValue().getStatus();
+            if (status != null) {
+                statuses.put(entry.getKey(), status);
+            }
+        }
+        return Collections.unmodifiableMap(statuses);
+    }
+
+    private Bucket bucket(HttpRequest req) {
+        String key = bucketKey(req);
+        Bucket bucket = buckets.get(key);
+        if (bucket == null) {
+            bucket = new Bucket(key);
+            Bucket existing = buckets.putIfAbsent(key, bucket);
+            if (existing != null) {
+                bucket = existing;
+            }
+        }
+        return bucket;
+    }
+
+    /**
+     * e.g. {@code GET 18ce54d4x5t /accounts/:id/line_items/:id} for GET /11/accounts/18ce54d4x5t/line_items/abc1
+     *
+     * @see EndpointTemplate
+     */
+    static String bucketKey(HttpRequest req) {
+        String url = req.getURL();
+        String account = EndpointTemplate.accountId(url);
+        return req.getMethod().name() + " " + (account == null ? "-" : account) + " " + EndpointTemplate.pathOf(url);
+    }
+
+    private static final class Bucket {
+        private final String key;
+
+        private int limit = -1;
+        private int remaining = -1;
+        private long resetAtMillis;
+        private int costLimit = -1;
+        private int costRemaining = -1;
+        private long costResetAtMillis;
+        private int lastCost = 1;
+        private int inFlight;
+
+        private Bucket(String key) {
+            this.key = key;
+        }
+
+        private synchronized void acquire() throws InterruptedException {
+            while (true) {
+                long now = System.currentTimeMillis();
+                if (remaining >= 0 && now >= resetAtMillis) {
+                    remaining = limit;
+                }
+                if (costRemaining >= 0 && now >= costResetAtMillis) {
+                    costRemaining = costLimit;
+                }
+                long waitUntil = 0;
+                if (remaining >= 0 && remaining - inFlight <= 0) {
+                    waitUntil = resetAtMillis;
+                }
+                if (costRemaining >= 0 && costRemaining - inFlight * lastCost < lastCost) {
+                    waitUntil = Math.max(waitUntil, costResetAtMillis);
+                }
+                if (waitUntil <= now) {
+                    inFlight++;
+                    return;
+                }
+                if (logger.isDebugEnabled()) {
+                    logger.debug("Rate limit of " + key + " exhausted, waiting " + (waitUntil - now) + "ms for the reset.");
+                }
+                wait(waitUntil - now);
+            }
+        }
+
+        private synchronized void release(HttpResponse res) {
+            inFlight = Math.max(0, inFlight - 1);
+            if (res != null) {
+                learn(res);
+            }
+            notifyAll();
+        }
+
+        private void learn(HttpResponse res) {
+            boolean throttled = res.getStatusCode() == TOO_MANY_REQUESTS || res.getStatusCode() == ENHANCE_YOUR_CLAIM;
+
+            int headerLimit = intHeader(res, "X-Rate-Limit-Limit");
+            int headerRemaining = intHeader(res, "X-Rate-Limit-Remaining");
+            long headerReset = resetHeader(res, "X-Rate-Limit-Reset");
+            if (headerRemaining >= 0) {
+                limit = headerLimit >= 0 ? headerLimit : Math.max(limit, headerRemaining);
+                remaining = headerRemaining;
+                resetAtMillis = headerReset;
+            }
+
+            int headerCostLimit = intHeader(res, "X-Cost-Rate-Limit-Limit");
+            int headerCostRemaining = intHeader(res, "X-Cost-Rate-Limit-Remaining");
+            long headerCostReset = resetHeader(res, "X-Cost-Rate-Limit-Reset");
+            int cost = intHeader(res, "X-Request-Cost");
+            if (headerCostRemaining >= 0) {
+                costLimit = headerCostLimit >= 0 ? headerCostLimit : Math.max(costLimit, headerCostRemaining);
+                costRemaining = headerCostRemaining;
+                costResetAtMillis = headerCostReset;
+            }
+            if (cost > 0) {
+                lastCost = cost;
+            }
+
+            if (throttled && headerRemaining < 0 && headerCostRemaining < 0) {
+                // throttled without telling us until when: hold the endpoint back for a short while
+                remaining = 0;
+                limit = Math.max(limit, 1);
+                resetAtMillis = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(Math.max(1, retryAfter(res)));
+            } else if (throttled) {
+                if (headerRemaining >= 0) {
+                    remaining = 0;
+                }
+                if (headerCostRemaining >= 0) {
+                    costRemaining = 0;
+                }
+            }
+        }
+
+        private synchronized RateLimitStatus getStatus() {
+            if (costRemaining >= 0 && (remaining < 0 || costRemaining / Math.max(1, lastCost) < remaining)) {
+                return new RateLimitStatusImpl(costRemaining, costLimit, (int) (costResetAtMillis / 1000), lastCost);
+            }
+            if (remaining >= 0) {
+                return new RateLimitStatusImpl(remaining, limit, (int) (resetAtMillis / 1000));
+            }
+            return null;
+        }
+
+        private static int intHeader(HttpResponse res, String name) {
+            String value = res.getResponseHeader(name);
+            if (value == null) {
+                return -1;
+            }
+            try {
+                return Integer.parseInt(value.trim());
+            } catch (NumberFormatException e) {
+                return -1;
+            }
+        }
+
+        private static long resetHeader(HttpResponse res, String name) {
+            String value = res.getResponseHeader(name);
+            if (value != null) {
+                try {
+                    // epoch seconds
+                    return Long.parseLong(value.trim()) * 1000;
+                } catch (NumberFormatException ignore) {
+                }
+            }
+            // reset unknown: assume the usual 15 minute window
+            return System.currentTimeMillis() + TimeUnit.MINUTES.toMillis(15);
+        }
+
+        private static int retryAfter(HttpResponse res) {
+            int retryAfter = intHeader(res, "Retry-After");
+            return retryAfter > 0 ? retryAfter : 60;
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package twitter4jads.internal.http;
+
+/**
+ * Hands the waits between retries over to a caller that can come back later, instead of having the sending thread sleep
+ * through them.
+ * <p/>
+ * Between {@link #begin()} and {@link #end()}, the first request sent on the calling thread does not wait for its next
+ * retry: it records how far its retries got and throws {@link DeferredException}. The caller runs the same work again on
+ * any thread once {@link #getDeferredDelayMillis()} has passed, and the first request then carries on from the recorded
+ * retries. Later requests of the same work wait as usual, since running the work again would send the earlier ones again.
+ * <p/>
+ * An instance belongs to one unit of work and is not meant to be shared by concurrent runs.
+ */
+public final class RetryDeferral {
+    private static final ThreadLocal<RetryDeferral> CURRENT = new ThreadLocal<>();
+
+    private Progress deferred;
+    private long deferredDelayMillis = -1;
+    private int requestsStarted;
+
+    /**
+     * Starts a run of the work on the calling thread.
+     */
+    public void begin() {
+        deferredDelayMillis = -1;
+        requestsStarted = 0;
+        CURRENT.set(this);
+    }
+
+    /**
+     * Ends the run started by {@link #begin()}, on the same thread.
+     */
+    public void end() {
+        CURRENT.remove();
+    }
+
+    /**
+     * @return whether the last run stopped to wait for a retry, in which case its outcome is to be ignored and the work run
+     * again after {@link #getDeferredDelayMillis()}
+     */
+    public boolean isDeferred() {
+        return deferredDelayMillis >= 0;
+    }
+
+    public long getDeferredDelayMillis() {
+        return deferredDelayMillis;
+    }
+
+    /**
+     * @return the retry progress of a request about to be sent on the calling thread
+     */
+    static Progress startRequest() {
+        RetryDeferral deferral = CURRENT.get();
+        if (deferral == null || deferral.requestsStarted++ > 0) {
+            return new Progress(null);
+        }
+        Progress progress = deferral.deferred;
+        deferral.deferred = null;
+        return progress != null ? progress : new Progress(deferral);
+    }
+
+    /**
+     * How far the retries of one request got.
+     */
+    static final class Progress {
+        private final RetryDeferral deferral;
+        private int retriedCount;
+        private long previousDelayMillis;
+        private long waitedMillis;
+
+        private Progress(RetryDeferral deferral) {
+            this.deferral = deferral;
+        }
+
+        int getRetriedCount() {
+            return retriedCount;
+        }
+
+        long getPreviousDelayMillis() {
+            return previousDelayMillis;
+        }
+
+        long getWaitedMillis() {
+            return waitedMillis;
+        }
+
+        /**
+         * Counts a retry about to be made after the delay.
+         *
+         * @return whether the wait is left to the caller, in which case the request is to be abandoned with a
+         * {@link DeferredException}
+         */
+        boolean retryAfter(long delayMillis) {
+            retriedCount++;
+            previousDelayMillis = delayMillis;
+            waitedMillis += delayMillis;
+            if (deferral == null) {
+                return false;
+            }
+            deferral.deferred = this;
+            deferral.deferredDelayMillis = delayMillis;
+            return true;
+        }
+    }
+
+    /**
+     * Thrown through the work when its first request leaves the wait for its next retry to the caller. Unchecked so that
+     * code catching {@link twitter4jads.internal.models4j.TwitterException} lets it through; callers check
+     * {@link #isDeferred()} anyway, in case it was caught along the way.
+     */
+    public static final class DeferredException extends RuntimeException {
+        private static final long serialVersionUID = -5301938733720371470L;
+
+        DeferredException(long delayMillis) {
+            super("Retry deferred by " + delayMillis + "ms", null, false, false);
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package twitter4jads.internal.http;
+
+import java.io.IOException;
+
+/**
+ * Decides whether a failed request is sent again and how long to wait before that.
+ *
+ * @see ExponentialBackoffRetryPolicy
+ * @see HttpClientBase#setRetryPolicy(RetryPolicy)
+ */
+public interface RetryPolicy {
+
+    long NO_RETRY = -1;
+
+    /**
+     * @param req                 the request that failed
+     * @param retryCount          number of times the request has been retried already
+     * @param res                 the error response, null if none was received
+     * @param error               the I/O error if no response was received
+     * @param previousDelayMillis delay before the previous retry, 0 before the first one
+     * @param waitedMillis        total time waited for retries of this request so far
+     * @return milliseconds to wait before sending the request again, {@link #NO_RETRY} to fail it
+     */
+    long retryDelayMillis(HttpRequest req, int retryCount, HttpResponse res, IOException error, long previousDelayMillis,
+                          long waitedMillis);
+}
@@ -1,5 +1,7 @@
 package twitter4jads.internal.models4j;
 
+import java.io.File;
+
 /**
  * Created by vedsurtani on 01/04/15.
  */
@@ -13,6 +15,7 @@ public class TonUpload {
     private String mediaUrl;
     private Long totalContentLength;
     private String contentType;
+    private File checkpointFile;
     public TonUpload() {
 
     }
@@ -53,5 +56,17 @@ public class TonUpload {
     public void setContentType(String contentType) {
         this.contentType = contentType;
     }
-}
 
+    public File getCheckpointFile() {
+        return checkpointFile;
+    }
+
+    /**
+     * @param checkpointFile (optional) where the progress of a chunked upload is saved. Uploading the same media with the
+     *                       same file again resumes where the previous attempt stopped. The file is deleted once the upload
+     *                       completes.
+     */
+    public void setCheckpointFile(File checkpointFile) {
+        this.checkpointFile = checkpointFile;
+    }
+}
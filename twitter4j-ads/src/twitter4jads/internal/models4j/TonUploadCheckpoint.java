@@ -0,0 +1,127 @@
+package twitter4jads.internal.models4j;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Objects;
+import java.util.Properties;
+
+/**
+ * Progress of a resumable TON upload, saved after every acknowledged chunk so that an interrupted upload of the same
+ * media continues at the session it started instead of uploading everything again.
+ *
+ * @see TonUpload#setCheckpointFile(File)
+ */
+final class TonUploadCheckpoint {
+
+    private static final String MEDIA_URL = "mediaUrl";
+    private static final String TOTAL_CONTENT_LENGTH = "totalContentLength";
+    private static final String LOCATION = "location";
+    private static final String MIN_CHUNK_SIZE = "minChunkSize";
+    private static final String MAX_CHUNK_SIZE = "maxChunkSize";
+    private static final String BYTES_ACKNOWLEDGED = "bytesAcknowledged";
+
+    private final String mediaUrl;
+    private final long totalContentLength;
+    private final String location;
+    private final long minChunkSize;
+    private final long maxChunkSize;
+    private final long bytesAcknowledged;
+
+    TonUploadCheckpoint(String mediaUrl, long totalContentLength, String location, long minChunkSize, long maxChunkSize,
+                        long bytesAcknowledged) {
+        this.mediaUrl = mediaUrl;
+        this.totalContentLength = totalContentLength;
+        this.location = location;
+        this.minChunkSize = minChunkSize;
+        this.maxChunkSize = maxChunkSize;
+        this.bytesAcknowledged = bytesAcknowledged;
+    }
+
+    String getLocation() {
+        return location;
+    }
+
+    long getMinChunkSize() {
+        return minChunkSize;
+    }
+
+    long getMaxChunkSize() {
+        return maxChunkSize;
+    }
+
+    long getBytesAcknowledged() {
+        return bytesAcknowledged;
+    }
+
+    TonUploadCheckpoint withBytesAcknowledged(long bytesAcknowledged) {
+        return new TonUploadCheckpoint(mediaUrl, totalContentLength, location, minChunkSize, maxChunkSize, bytesAcknowledged);
+    }
+
+    /**
+     * @return whether this checkpoint was saved by an upload of the same media
+     */
+    boolean isFor(TonUpload tonUpload) {
+        return Objects.equals(mediaUrl, tonUpload.getMediaUrl()) && tonUpload.getTotalContentLength() != null
+               && totalContentLength == tonUpload.getTotalContentLength();
+    }
+
+    /**
+     * @return the checkpoint saved in the file, null if there is none or it cannot be read
+     */
+    static TonUploadCheckpoint load(File file) {
+        if (file == null || !file.isFile()) {
+            return null;
+        }
+        Properties properties = new Properties();
+        try (InputStream in = Files.newInputStream(file.toPath())) {
+            properties.load(in);
+            return new TonUploadCheckpoint(properties.getProperty(MEDIA_URL),
+                                           Long.parseLong(properties.getProperty(TOTAL_CONTENT_LENGTH)),
+                                           properties.getProperty(LOCATION),
+                                           Long.parseLong(properties.getProperty(MIN_CHUNK_SIZE)),
+                                           Long.parseLong(properties.getProperty(MAX_CHUNK_SIZE)),
+                                           Long.parseLong(properties.getProperty(BYTES_ACKNOWLEDGED)));
+        } catch (IOException | RuntimeException e) {
+            // a half written or foreign file: start over
+            return null;
+        }
+    }
+
+    /**
+     * Replaces the file atomically, a crash while saving leaves the previous checkpoint in place.
+     */
+    void save(File file) throws IOException {
+        Properties properties = new Properties();
+        properties.setProperty(MEDIA_URL, mediaUrl);
+        properties.setProperty(TOTAL_CONTENT_LENGTH, String.valueOf(totalContentLength));
+        properties.setProperty(LOCATION, location);
+        properties.setProperty(MIN_CHUNK_SIZE, String.valueOf(minChunkSize));
+        properties.setProperty(MAX_CHUNK_SIZE, String.valueOf(maxChunkSize));
+        properties.setProperty(BYTES_ACKNOWLEDGED, String.valueOf(bytesAcknowledged));
+
+        Path target = file.toPath().toAbsolutePath();
+        Path temp = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+        try {
+            try (OutputStream out = Files.newOutputStream(temp)) {
+                properties.store(out, "TON upload checkpoint");
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    static void delete(File file) {
+        if (file != null) {
+            try {
+                Files.deleteIfExists(file.toPath());
+            } catch (IOException ignore) {
+            }
+        }
+    }
+}
@@ -16,18 +16,27 @@
 package twitter4jads.internal.models4j;
 
 import twitter4jads.conf.ConfigurationContext;
+import twitter4jads.internal.http.EndpointTemplate;
+import twitter4jads.internal.http.RequestMethod;
 import twitter4jads.internal.logging.Logger;
 import twitter4jads.management.APIStatistics;
+import twitter4jads.management.APIStatisticsExporter;
 import twitter4jads.management.APIStatisticsMBean;
 import twitter4jads.management.APIStatisticsOpenMBean;
 
 import javax.management.*;
 import java.lang.management.ManagementFactory;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
 
 /**
- * Singleton instance of all Twitter API monitoring. Handles URL parsing and "wire off" logic.
+ * Singleton instance of all Twitter API monitoring. Handles URL parsing and "wire off" logic. Calls are counted per
+ * endpoint template, see {@link EndpointTemplate}.
  * We could avoid using a singleton here if Twitter objects were instantiated
  * from a factory.
  *
@@ -36,14 +45,14 @@ import java.util.regex.Pattern;
  */
 public class TwitterAPIMonitor {
     private static final Logger logger = Logger.getLogger(TwitterAPIMonitor.class);
-    // https?:\/\/[^\/]+\/[0-9.]*\/([a-zA-Z_\.]*).*
-    // finds the "method" part a Twitter REST API url, ignoring member-specific resource names
-    private static final Pattern pattern =
-            Pattern.compile("https?:\\/\\/[^\\/]+\\/[0-9.]*\\/([a-zA-Z_\\.]*).*");
 
     private static final TwitterAPIMonitor SINGLETON = new TwitterAPIMonitor();
 
-    private static final APIStatistics STATISTICS = new APIStatistics(100);
+    private static final APIStatistics STATISTICS = new APIStatistics();
+
+    private final ConcurrentMap<APIStatisticsExporter, ScheduledFuture<?>> exporters =
+            new ConcurrentHashMap<APIStatisticsExporter, ScheduledFuture<?>>();
+    private ScheduledExecutorService exporterExecutor;
 
 
     static {
@@ -102,11 +111,61 @@ public class TwitterAPIMonitor {
         return STATISTICS;
     }
 
+    /**
+     * @deprecated use {@link #methodCalled(RequestMethod, String, long, int)}, which keeps statistics per HTTP method,
+     * account and status too
+     */
+    @Deprecated
     public void methodCalled(String twitterUrl, long elapsedTime, boolean success) {
-        Matcher matcher = pattern.matcher(twitterUrl);
-        if (matcher.matches() && matcher.groupCount() > 0) {
-            String method = matcher.group(1);
-            STATISTICS.methodCalled(method, elapsedTime, success);
+        STATISTICS.methodCalled(EndpointTemplate.pathOf(twitterUrl), elapsedTime, success);
+    }
+
+    /**
+     * Counts the call for its endpoint, e.g. {@code GET /accounts/:id/line_items/:id}.
+     *
+     * @param method      HTTP method of the call
+     * @param twitterUrl  the url called
+     * @param elapsedTime time the call took in milliseconds
+     * @param statusCode  HTTP status of the response, -1 if none was received
+     * @see EndpointTemplate
+     */
+    public void methodCalled(RequestMethod method, String twitterUrl, long elapsedTime, int statusCode) {
+        STATISTICS.methodCalled(EndpointTemplate.of(method, twitterUrl), EndpointTemplate.accountId(twitterUrl), statusCode,
+                                elapsedTime);
+    }
+
+    /**
+     * Exports the statistics periodically until the exporter is removed.
+     */
+    public synchronized void addExporter(final APIStatisticsExporter exporter, long period, TimeUnit unit) {
+        removeExporter(exporter);
+        if (exporterExecutor == null) {
+            exporterExecutor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable runnable) {
+                    Thread thread = new Thread(runnable, "Twitter4J Ads API Statistics Exporter");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+        exporters.put(exporter, exporterExecutor.scheduleAtFixedRate(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    exporter.export(STATISTICS);
+                } catch (RuntimeException e) {
+                    // keep exporting, the next run may succeed
+                    logger.warn("Failed to export API statistics: " + e.getMessage());
+                }
+            }
+        }, period, period, unit));
+    }
+
+    public synchronized void removeExporter(APIStatisticsExporter exporter) {
+        ScheduledFuture<?> export = exporters.remove(exporter);
+        if (export != null) {
+            export.cancel(false);
         }
     }
 }
@@ -23,10 +23,12 @@ import org.apache.commons.lang3.StringUtils;
 import org.codehaus.jackson.map.ObjectMapper;
 import twitter4jads.auth.*;
 import twitter4jads.conf.Configuration;
+import twitter4jads.internal.async.TwitterAdsExecutors;
 import twitter4jads.internal.http.*;
 import twitter4jads.internal.json.z_T4JInternalFactory;
 import twitter4jads.internal.json.z_T4JInternalJSONImplFactory;
 import twitter4jads.models.ads.HttpVerb;
+import twitter4jads.util.TwitterAdUtil;
 
 import java.io.*;
 import java.net.URL;
@@ -35,8 +37,14 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import static twitter4jads.internal.http.HttpResponseCode.ENHANCE_YOUR_CLAIM;
+import static twitter4jads.internal.http.HttpResponseCode.INTERNAL_SERVER_ERROR;
+import static twitter4jads.internal.http.HttpResponseCode.RESUME_INCOMPLETE;
 import static twitter4jads.internal.http.HttpResponseCode.SERVICE_UNAVAILABLE;
 
 /**
@@ -57,6 +65,15 @@ abstract class TwitterBaseImpl implements TwitterBase, Serializable, OAuthSuppor
     protected Authorization auth;
     private static final long serialVersionUID = -3812176145960812140L;
 
+    private static final int MAX_TON_CHUNK_ATTEMPTS = 3;
+    private static final long TON_CHUNK_RETRY_BACKOFF_MILLIS = TimeUnit.SECONDS.toMillis(2);
+    private static final long TON_CHUNK_TARGET_MILLIS = TimeUnit.SECONDS.toMillis(10);
+    private static final int TON_READER_THREADS = 4;
+
+    // reads the next chunk of every chunked TON upload while the current one is sent
+    private static final ExecutorService TON_READER =
+            TwitterAdsExecutors.newSharedThreadPool("Twitter4J Ads TON Reader", TON_READER_THREADS, 1, TimeUnit.MINUTES);
+
     /*package*/ TwitterBaseImpl(Configuration conf, Authorization auth) {
         this.conf = conf;
         this.auth = auth;
@@ -451,55 +468,222 @@ abstract class TwitterBaseImpl implements TwitterBase, Serializable, OAuthSuppor
     }
 
 
+    /**
+     * Uploads through a resumable TON session. Chunks have to arrive in order, so the next chunk is read from the source
+     * while the current one is being sent. The chunk size starts at X-TON-Min-Chunk-Size and is doubled, up to
+     * X-TON-Max-Chunk-Size, while chunks go through quickly, and halved when they are slow. A chunk that fails on a network
+     * or server error is sent again from the last byte TON acknowledged. With a checkpoint file, the session and the
+     * acknowledged bytes survive the process, and a later upload of the same media resumes there.
+     */
     private String uploadInChunks(TonUpload tonUpload) throws TwitterException {
-        HttpResponse httpResponse = initiateResumableUpload(tonUpload.getMediaType(), tonUpload.getTotalContentLength(), tonUpload.getContentType());
-        String location = httpResponse.getResponseHeader("Location");
-        Long maxChunkSize = Long.valueOf(httpResponse.getResponseHeader("X-TON-Max-Chunk-Size"));
-        Long minChunkSize = Long.valueOf(httpResponse.getResponseHeader("X-TON-Min-Chunk-Size"));
-        Long chunkSize = computeChunkSize(minChunkSize, maxChunkSize);
-        chunkSize = minChunkSize;
-        String filePath = downloadContentIntoFileReturningPath(tonUpload.getMediaUrl());
-        InputStream inputStream = null;
-        BufferedInputStream dataInputStream = null;
-        HttpResponse response = null;
+        final long totalContentLength = tonUpload.getTotalContentLength();
+        final String contentType = tonUpload.getContentType();
+        final File checkpointFile = tonUpload.getCheckpointFile();
+
+        TonUploadCheckpoint checkpoint = TonUploadCheckpoint.load(checkpointFile);
+        long offset = 0;
+        if (checkpoint != null && checkpoint.isFor(tonUpload)) {
+            try {
+                offset = queryAcknowledgedBytes(checkpoint.getLocation(), contentType, totalContentLength);
+            } catch (TwitterException e) {
+                if (e.isCausedByNetworkIssue() || e.getStatusCode() >= INTERNAL_SERVER_ERROR) {
+                    throw e;
+                }
+                // the session has expired
+                checkpoint = null;
+            }
+        } else {
+            checkpoint = null;
+        }
+        if (checkpoint == null) {
+            HttpResponse httpResponse = initiateResumableUpload(tonUpload.getMediaType(), totalContentLength, contentType);
+            checkpoint = new TonUploadCheckpoint(tonUpload.getMediaUrl(), totalContentLength, httpResponse.getResponseHeader("Location"),
+                                                 Long.valueOf(httpResponse.getResponseHeader("X-TON-Min-Chunk-Size")),
+                                                 Long.valueOf(httpResponse.getResponseHeader("X-TON-Max-Chunk-Size")), 0);
+            saveCheckpoint(checkpoint, checkpointFile);
+        }
+        final String location = checkpoint.getLocation();
+        final long minChunkSize = checkpoint.getMinChunkSize();
+        final long maxChunkSize = computeChunkSize(minChunkSize, checkpoint.getMaxChunkSize());
+
+        InputStream source = null;
+        Future<byte[]> nextChunk = null;
+        String responseLocation = null;
         try {
-            inputStream = new FileInputStream(filePath);
-            dataInputStream = new BufferedInputStream(inputStream);
-            byte[] chunk = new byte[chunkSize.intValue()];
-            int length;
-            Long bytesUploaded = 0l;
-
-            while ((length = dataInputStream.read(chunk)) != -1) {
-                if (length < chunkSize.intValue()) {
-                    chunk = Arrays.copyOf(chunk, length);
+            source = openSourceAt(tonUpload.getMediaUrl(), offset);
+            long chunkSize = minChunkSize;
+            long sourcePosition = offset;
+            nextChunk = TwitterAdsExecutors.submit(TON_READER, readChunk(source, Math.min(chunkSize, totalContentLength - offset)));
+            sourcePosition += Math.min(chunkSize, totalContentLength - offset);
+            byte[] chunk = null;
+            long chunkOffset = offset;
+            int attempt = 0;
+            TwitterException lastError = null;
+            while (offset < totalContentLength) {
+                if (chunk == null) {
+                    chunk = TwitterAdsExecutors.await(nextChunk, "media to be read");
+                    chunkOffset = offset;
+                    nextChunk = null;
+                    if (chunkOffset + chunk.length < totalContentLength) {
+                        long nextChunkSize = Math.min(chunkSize, totalContentLength - sourcePosition);
+                        nextChunk = TwitterAdsExecutors.submit(TON_READER, readChunk(source, nextChunkSize));
+                        sourcePosition += nextChunkSize;
+                    }
+                }
+
+                long start = System.currentTimeMillis();
+                long acknowledged;
+                try {
+                    HttpResponse response = uploadChunk(location, contentType, chunk, (int) (offset - chunkOffset), offset, totalContentLength);
+                    acknowledged = acknowledgedBytes(response, totalContentLength);
+                    if (acknowledged >= totalContentLength) {
+                        responseLocation = response.getResponseHeader("Location");
+                    }
+                    lastError = null;
+                } catch (TwitterException e) {
+                    if (!(e.isCausedByNetworkIssue() || e.getStatusCode() >= INTERNAL_SERVER_ERROR)) {
+                        throw e;
+                    }
+                    lastError = e;
+                    TwitterAdUtil.reallySleep(TON_CHUNK_RETRY_BACKOFF_MILLIS * (attempt + 1));
+                    acknowledged = queryAcknowledgedBytes(location, contentType, totalContentLength);
+                }
+                // TON cannot hold more than has been sent
+                acknowledged = Math.min(acknowledged, chunkOffset + chunk.length);
+
+                if (acknowledged < chunkOffset) {
+                    // TON dropped bytes of earlier chunks, read them again
+                    if (nextChunk != null) {
+                        // a read ahead that has started returns before its source is closed
+                        nextChunk.cancel(false);
+                        TwitterAdsExecutors.awaitQuietly(nextChunk);
+                    }
+                    IOUtils.closeQuietly(source);
+                    source = openSourceAt(tonUpload.getMediaUrl(), acknowledged);
+                    sourcePosition = acknowledged;
+                    offset = acknowledged;
+                    chunk = null;
+                    nextChunk = TwitterAdsExecutors.submit(TON_READER, readChunk(source, Math.min(chunkSize, totalContentLength - offset)));
+                    sourcePosition += Math.min(chunkSize, totalContentLength - offset);
+                    continue;
+                }
+                if (acknowledged > offset) {
+                    offset = acknowledged;
+                    attempt = 0;
+                    saveCheckpoint(checkpoint.withBytesAcknowledged(offset), checkpointFile);
+                } else if (++attempt >= MAX_TON_CHUNK_ATTEMPTS) {
+                    if (lastError != null) {
+                        throw lastError;
+                    }
+                    throw new TwitterException("TON did not accept any bytes after offset " + offset);
+                }
+                if (offset >= chunkOffset + chunk.length) {
+                    chunk = null;
+                    chunkSize = adaptChunkSize(chunkSize, minChunkSize, maxChunkSize, System.currentTimeMillis() - start);
                 }
-                response = uploadChunk(location, tonUpload.getContentType(), chunk, bytesUploaded, tonUpload.getTotalContentLength());
-                bytesUploaded += length;
             }
         } catch (IOException e) {
             throw new TwitterException(e);
         } finally {
-            IOUtils.closeQuietly(dataInputStream);
-            IOUtils.closeQuietly(inputStream);
-            deleteFile(filePath);
+            if (nextChunk != null) {
+                // the read ahead must not outlive its source: awaitQuietly waits for a running read to return
+                nextChunk.cancel(true);
+                TwitterAdsExecutors.awaitQuietly(nextChunk);
+            }
+            IOUtils.closeQuietly(source);
         }
-        String responseLocation = response.getResponseHeader("Location");
+        TonUploadCheckpoint.delete(checkpointFile);
+
         if (StringUtils.isNotBlank(responseLocation)) {
             return responseLocation;
         }
         return location;
-
     }
 
+    /**
+     * @return the largest multiple of min not above max
+     */
+    private long computeChunkSize(long min, long max) {
+        return Math.max(min, max / min * min);
+    }
 
-    private Long computeChunkSize(Long min, Long max) {
-        Long chunkSize = min;
-        while (chunkSize < max) {
-            chunkSize += min;
+    /**
+     * Chunks that take less than half of {@link #TON_CHUNK_TARGET_MILLIS} double the chunk size, chunks that take more than
+     * twice as long halve it. Chunk sizes stay multiples of the min chunk size.
+     */
+    private long adaptChunkSize(long chunkSize, long minChunkSize, long maxChunkSize, long elapsedMillis) {
+        if (elapsedMillis < TON_CHUNK_TARGET_MILLIS / 2) {
+            return Math.min(maxChunkSize, chunkSize * 2);
+        }
+        if (elapsedMillis > TON_CHUNK_TARGET_MILLIS * 2) {
+            return Math.max(minChunkSize, chunkSize / 2 / minChunkSize * minChunkSize);
         }
         return chunkSize;
     }
 
+    /**
+     * Opens the media of a chunked TON upload, skipping to the position. Read from a single thread at a time.
+     */
+    protected InputStream openSourceAt(String mediaUrl, long position) throws IOException {
+        InputStream source = new BufferedInputStream(new URL(mediaUrl).openStream());
+        try {
+            IOUtils.skipFully(source, position);
+        } catch (IOException e) {
+            IOUtils.closeQuietly(source);
+            throw e;
+        }
+        return source;
+    }
+
+    private Callable<byte[]> readChunk(final InputStream source, final long length) {
+        return new Callable<byte[]>() {
+            @Override
+            public byte[] call() throws IOException {
+                byte[] chunk = new byte[(int) length];
+                // throws EOFException if the media is shorter than its announced content length
+                new DataInputStream(source).readFully(chunk);
+                return chunk;
+            }
+        };
+    }
+
+    private long queryAcknowledgedBytes(String location, String contentType, long totalContentLength) throws TwitterException {
+        Map<String, String> customHeaders = Maps.newHashMap();
+        customHeaders.put("Content-Type", contentType);
+        customHeaders.put("Content-Length", "0");
+        customHeaders.put("Content-Range", "bytes */" + totalContentLength);
+        return acknowledgedBytes(putWithCustomHeaders(tonEndpoint(location), null, customHeaders, true), totalContentLength);
+    }
+
+    /**
+     * @return number of bytes TON holds, from the Range header of an incomplete upload
+     */
+    private long acknowledgedBytes(HttpResponse response, long totalContentLength) {
+        if (response.getStatusCode() != RESUME_INCOMPLETE) {
+            return totalContentLength;
+        }
+        String range = response.getResponseHeader("Range");
+        if (StringUtils.isBlank(range) || range.lastIndexOf('-') < 0) {
+            return 0;
+        }
+        try {
+            return Long.parseLong(range.substring(range.lastIndexOf('-') + 1).trim()) + 1;
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private void saveCheckpoint(TonUploadCheckpoint checkpoint, File checkpointFile) throws TwitterException {
+        if (checkpointFile == null) {
+            return;
+        }
+        try {
+            checkpoint.save(checkpointFile);
+        } catch (IOException e) {
+            throw new TwitterException("Failed to save TON upload checkpoint to " + checkpointFile, e);
+        }
+    }
+
     private HttpResponse initiateResumableUpload(TonUpload.MediaType mediaType, Long totalContentLength, String contentType) throws TwitterException {
         String bucketName = getBucketNameForTon(mediaType);
         String endpoint = conf.getTwitterTonBaseUrl() + bucketName + "?resumable=true";
@@ -512,17 +696,22 @@ abstract class TwitterBaseImpl implements TwitterBase, Serializable, OAuthSuppor
         return httpResponse;
     }
 
-    private HttpResponse uploadChunk(String location, String contentType, byte[] data, Long uploadedBytes, Long totalContentLength)
-            throws TwitterException {
-        String endpoint = "https://ton.twitter.com" + location;
+    private HttpResponse uploadChunk(String location, String contentType, byte[] chunk, int from, long uploadedBytes,
+                                     Long totalContentLength) throws TwitterException {
+        // only a chunk TON accepted in part is copied, to send its remainder
+        byte[] data = from == 0 ? chunk : Arrays.copyOfRange(chunk, from, chunk.length);
         Map<String, String> customHeaders = Maps.newHashMap();
         customHeaders.put("Content-Type", contentType);
         customHeaders.put("Content-Length", String.valueOf(data.length));
         customHeaders.put("Content-Range", createContentRange(uploadedBytes, data.length, totalContentLength));
         HttpParameter[] params = new HttpParameter[1];
         params[0] = new HttpParameter("file", data, true);
-        return putWithCustomHeaders(endpoint, params, customHeaders, true);
+        return putWithCustomHeaders(tonEndpoint(location), params, customHeaders, true);
+
+    }
 
+    private String tonEndpoint(String location) {
+        return "https://ton.twitter.com" + location;
     }
 
     private String createContentRange(Long uploadedBytes, int contentLength, Long totalContentLength) {
@@ -615,24 +804,35 @@ abstract class TwitterBaseImpl implements TwitterBase, Serializable, OAuthSuppor
             }
         }
         // intercept HTTP call for monitoring purposes
-        HttpResponse response = null;
+        int statusCode = -1;
         long start = System.currentTimeMillis();
         try {
+            HttpResponse response = null;
             switch (httpVerb) {
                 case GET:
-                    return http.get(url, auth);
+                    response = http.get(url, auth);
+                    break;
                 case POST:
-                    return http.post(url, auth);
+                    response = http.post(url, auth);
+                    break;
                 case PUT:
-                    return http.put(url, auth);
+                    response = http.put(url, auth);
+                    break;
                 case DELETE:
-                    return http.delete(url, auth);
+                    response = http.delete(url, auth);
+                    break;
+            }
+            if (response != null) {
+                statusCode = response.getStatusCode();
             }
+            return response;
+        } catch (TwitterException te) {
+            statusCode = te.getStatusCode();
+            throw te;
         } finally {
             long elapsedTime = System.currentTimeMillis() - start;
-            TwitterAPIMonitor.getInstance().methodCalled(url, elapsedTime, isOk(response));
+            TwitterAPIMonitor.getInstance().methodCalled(RequestMethod.valueOf(httpVerb.name()), url, elapsedTime, statusCode);
         }
-        return response;
     }
 
 
@@ -651,24 +851,35 @@ abstract class TwitterBaseImpl implements TwitterBase, Serializable, OAuthSuppor
             }
         }
         // intercept HTTP call for monitoring purposes
-        HttpResponse response = null;
+        int statusCode = -1;
         long start = System.currentTimeMillis();
         try {
+            HttpResponse response = null;
             switch (httpVerb) {
                 case GET:
-                return http.get(url, params, auth);
+                    response = http.get(url, params, auth);
+                    break;
                 case POST:
-                return http.post(url, params, auth);
+                    response = http.post(url, params, auth);
+                    break;
                 case PUT:
-                return http.put(url, params, auth);
+                    response = http.put(url, params, auth);
+                    break;
                 case DELETE:
-                return http.delete(url, params, auth);
+                    response = http.delete(url, params, auth);
+                    break;
             }
+            if (response != null) {
+                statusCode = response.getStatusCode();
+            }
+            return response;
+        } catch (TwitterException te) {
+            statusCode = te.getStatusCode();
+            throw te;
         } finally {
             long elapsedTime = System.currentTimeMillis() - start;
-            TwitterAPIMonitor.getInstance().methodCalled(url, elapsedTime, isOk(response));
+            TwitterAPIMonitor.getInstance().methodCalled(RequestMethod.valueOf(httpVerb.name()), url, elapsedTime, statusCode);
         }
-        return response;
     }
 
     protected HttpResponse get(String url) throws TwitterException {
@@ -677,15 +888,19 @@ abstract class TwitterBaseImpl implements TwitterBase, Serializable, OAuthSuppor
             return http.get(url, auth);
         } else {
             // intercept HTTP call for monitoring purposes
-            HttpResponse response = null;
+            int statusCode = -1;
             long start = System.currentTimeMillis();
             try {
-                response = http.get(url, auth);
+                HttpResponse response = http.get(url, auth);
+                statusCode = response.getStatusCode();
+                return response;
+            } catch (TwitterException te) {
+                statusCode = te.getStatusCode();
+                throw te;
             } finally {
                 long elapsedTime = System.currentTimeMillis() - start;
-                TwitterAPIMonitor.getInstance().methodCalled(url, elapsedTime, isOk(response));
+                TwitterAPIMonitor.getInstance().methodCalled(RequestMethod.GET, url, elapsedTime, statusCode);
             }
-            return response;
         }
     }
 
@@ -695,15 +910,19 @@ abstract class TwitterBaseImpl implements TwitterBase, Serializable, OAuthSuppor
             return http.get(url, params, auth);
         } else {
             // intercept HTTP call for monitoring purposes
-            HttpResponse response = null;
+            int statusCode = -1;
             long start = System.currentTimeMillis();
             try {
-                response = http.get(url, params, auth);
+                HttpResponse response = http.get(url, params, auth);
+                statusCode = response.getStatusCode();
+                return response;
+            } catch (TwitterException te) {
+                statusCode = te.getStatusCode();
+                throw te;
             } finally {
                 long elapsedTime = System.currentTimeMillis() - start;
-                TwitterAPIMonitor.getInstance().methodCalled(url, elapsedTime, isOk(response));
+                TwitterAPIMonitor.getInstance().methodCalled(RequestMethod.GET, url, elapsedTime, statusCode);
             }
-            return response;
         }
     }
 
@@ -713,15 +932,19 @@ abstract class TwitterBaseImpl implements TwitterBase, Serializable, OAuthSuppor
             return http.get(url, params, auth);
         } else {
             // intercept HTTP call for monitoring purposes
-            HttpResponse response = null;
+            int statusCode = -1;
             long start = System.currentTimeMillis();
             try {
-                response = http.get(url, params, auth);
+                HttpResponse response = http.get(url, params, auth);
+                statusCode = response.getStatusCode();
+                return response;
+            } catch (TwitterException te) {
+                statusCode = te.getStatusCode();
+                throw te;
             } finally {
                 long elapsedTime = System.currentTimeMillis() - start;
-                TwitterAPIMonitor.getInstance().methodCalled(url, elapsedTime, isOk(response));
+                TwitterAPIMonitor.getInstance().methodCalled(RequestMethod.GET, url, elapsedTime, statusCode);
             }
-            return response;
         }
     }
 
@@ -731,15 +954,19 @@ abstract class TwitterBaseImpl implements TwitterBase, Serializable, OAuthSuppor
             return http.post(url, auth);
         } else {
             // intercept HTTP call for monitoring purposes
-            HttpResponse response = null;
+            int statusCode = -1;
             long start = System.currentTimeMillis();
             try {
-                response = http.post(url, auth);
+                HttpResponse response = http.post(url, auth);
+                statusCode = response.getStatusCode();
+                return response;
+            } catch (TwitterException te) {
+                statusCode = te.getStatusCode();
+                throw te;
             } finally {
                 long elapsedTime = System.currentTimeMillis() - start;
-                TwitterAPIMonitor.getInstance().methodCalled(url, elapsedTime, isOk(response));
+                TwitterAPIMonitor.getInstance().methodCalled(RequestMethod.POST, url, elapsedTime, statusCode);
             }
-            return response;
         }
     }
 
@@ -749,15 +976,19 @@ abstract class TwitterBaseImpl implements TwitterBase, Serializable, OAuthSuppor
             return http.post(url, params, auth);
         } else {
             // intercept HTTP call for monitoring purposes
-            HttpResponse response = null;
+            int statusCode = -1;
             long start = System.currentTimeMillis();
             try {
-                response = http.post(url, params, auth);
+                HttpResponse response = http.post(url, params, auth);
+                statusCode = response.getStatusCode();
+                return response;
+            } catch (TwitterException te) {
+                statusCode = te.getStatusCode();
+                throw te;
             } finally {
                 long elapsedTime = System.currentTimeMillis() - start;
-                TwitterAPIMonitor.getInstance().methodCalled(url, elapsedTime, isOk(response));
+                TwitterAPIMonitor.getInstance().methodCalled(RequestMethod.POST, url, elapsedTime, statusCode);
             }
-            return response;
         }
     }
 
@@ -767,15 +998,19 @@ abstract class TwitterBaseImpl implements TwitterBase, Serializable, OAuthSuppor
             return http.post(url, requestBody, auth);
         } else {
             // intercept HTTP call for monitoring purposes
-            HttpResponse response = null;
+            int statusCode = -1;
             long start = System.currentTimeMillis();
             try {
-                response = http.post(url, requestBody, auth);
+                HttpResponse response = http.post(url, requestBody, auth);
+                statusCode = response.getStatusCode();
+                return response;
+            } catch (TwitterException te) {
+                statusCode = te.getStatusCode();
+                throw te;
             } finally {
                 long elapsedTime = System.currentTimeMillis() - start;
-                TwitterAPIMonitor.getInstance().methodCalled(url, elapsedTime, isOk(response));
+                TwitterAPIMonitor.getInstance().methodCalled(RequestMethod.POST, url, elapsedTime, statusCode);
             }
-            return response;
         }
     }
 
@@ -785,15 +1020,19 @@ abstract class TwitterBaseImpl implements TwitterBase, Serializable, OAuthSuppor
             return http.putRequest(url, requestBody, auth);
         } else {
             // intercept HTTP call for monitoring purposes
-            HttpResponse response = null;
+            int statusCode = -1;
             long start = System.currentTimeMillis();
             try {
-                response = http.putRequest(url, requestBody, auth);
+                HttpResponse response = http.putRequest(url, requestBody, auth);
+                statusCode = response.getStatusCode();
+                return response;
+            } catch (TwitterException te) {
+                statusCode = te.getStatusCode();
+                throw te;
             } finally {
                 long elapsedTime = System.currentTimeMillis() - start;
-                TwitterAPIMonitor.getInstance().methodCalled(url, elapsedTime, isOk(response));
+                TwitterAPIMonitor.getInstance().methodCalled(RequestMethod.PUT, url, elapsedTime, statusCode);
             }
-            return response;
         }
     }
 
@@ -804,15 +1043,19 @@ abstract class TwitterBaseImpl implements TwitterBase, Serializable, OAuthSuppor
             return http.postWithCustomHeaders(url, params, auth, customHeaders, isTonUpload);
         } else {
             // intercept HTTP call for monitoring purposes
-            HttpResponse response = null;
+            int statusCode = -1;
             long start = System.currentTimeMillis();
             try {
-                response = http.postWithCustomHeaders(url, params, auth, customHeaders, isTonUpload);
+                HttpResponse response = http.postWithCustomHeaders(url, params, auth, customHeaders, isTonUpload);
+                statusCode = response.getStatusCode();
+                return response;
+            } catch (TwitterException te) {
+                statusCode = te.getStatusCode();
+                throw te;
             } finally {
                 long elapsedTime = System.currentTimeMillis() - start;
-                TwitterAPIMonitor.getInstance().methodCalled(url, elapsedTime, isOk(response));
+                TwitterAPIMonitor.getInstance().methodCalled(RequestMethod.POST, url, elapsedTime, statusCode);
             }
-            return response;
         }
     }
 
@@ -823,15 +1066,19 @@ abstract class TwitterBaseImpl implements TwitterBase, Serializable, OAuthSuppor
             return http.putWithCustomHeaders(url, params, auth, customHeaders, isTonUpload);
         } else {
             // intercept HTTP call for monitoring purposes
-            HttpResponse response = null;
+            int statusCode = -1;
             long start = System.currentTimeMillis();
             try {
-                response = http.putWithCustomHeaders(url, params, auth, customHeaders, isTonUpload);
+                HttpResponse response = http.putWithCustomHeaders(url, params, auth, customHeaders, isTonUpload);
+                statusCode = response.getStatusCode();
+                return response;
+            } catch (TwitterException te) {
+                statusCode = te.getStatusCode();
+                throw te;
             } finally {
                 long elapsedTime = System.currentTimeMillis() - start;
-                TwitterAPIMonitor.getInstance().methodCalled(url, elapsedTime, isOk(response));
+                TwitterAPIMonitor.getInstance().methodCalled(RequestMethod.PUT, url, elapsedTime, statusCode);
             }
-            return response;
         }
     }
 
@@ -841,15 +1088,19 @@ abstract class TwitterBaseImpl implements TwitterBase, Serializable, OAuthSuppor
             return http.put(url, null, auth);
         } else {
             // intercept HTTP call for monitoring purposes
-            HttpResponse response = null;
+            int statusCode = -1;
             long start = System.currentTimeMillis();
             try {
-                response = http.put(url, null, auth);
+                HttpResponse response = http.put(url, null, auth);
+                statusCode = response.getStatusCode();
+                return response;
+            } catch (TwitterException te) {
+                statusCode = te.getStatusCode();
+                throw te;
             } finally {
                 long elapsedTime = System.currentTimeMillis() - start;
-                TwitterAPIMonitor.getInstance().methodCalled(url, elapsedTime, isOk(response));
+                TwitterAPIMonitor.getInstance().methodCalled(RequestMethod.PUT, url, elapsedTime, statusCode);
             }
-            return response;
         }
     }
 
@@ -859,15 +1110,19 @@ abstract class TwitterBaseImpl implements TwitterBase, Serializable, OAuthSuppor
             return http.postBatchRequest(url, null, auth, requestBody);
         } else {
             // intercept HTTP call for monitoring purposes
-            HttpResponse response = null;
+            int statusCode = -1;
             long start = System.currentTimeMillis();
             try {
-                response = http.put(url, null, auth);
+                HttpResponse response = http.put(url, null, auth);
+                statusCode = response.getStatusCode();
+                return response;
+            } catch (TwitterException te) {
+                statusCode = te.getStatusCode();
+                throw te;
             } finally {
                 long elapsedTime = System.currentTimeMillis() - start;
-                TwitterAPIMonitor.getInstance().methodCalled(url, elapsedTime, isOk(response));
+                TwitterAPIMonitor.getInstance().methodCalled(RequestMethod.PUT, url, elapsedTime, statusCode);
             }
-            return response;
         }
     }
 
@@ -877,15 +1132,19 @@ abstract class TwitterBaseImpl implements TwitterBase, Serializable, OAuthSuppor
             return http.put(url, params, auth);
         } else {
             // intercept HTTP call for monitoring purposes
-            HttpResponse response = null;
+            int statusCode = -1;
             long start = System.currentTimeMillis();
             try {
-                response = http.put(url, params, auth);
+                HttpResponse response = http.put(url, params, auth);
+                statusCode = response.getStatusCode();
+                return response;
+            } catch (TwitterException te) {
+                statusCode = te.getStatusCode();
+                throw te;
             } finally {
                 long elapsedTime = System.currentTimeMillis() - start;
-                TwitterAPIMonitor.getInstance().methodCalled(url, elapsedTime, isOk(response));
+                TwitterAPIMonitor.getInstance().methodCalled(RequestMethod.PUT, url, elapsedTime, statusCode);
             }
-            return response;
         }
     }
 
@@ -895,15 +1154,19 @@ abstract class TwitterBaseImpl implements TwitterBase, Serializable, OAuthSuppor
             return http.delete(url, null, auth);
         } else {
             // intercept HTTP call for monitoring purposes
-            HttpResponse response = null;
+            int statusCode = -1;
             long start = System.currentTimeMillis();
             try {
-                response = http.delete(url, null, auth);
+                HttpResponse response = http.delete(url, null, auth);
+                statusCode = response.getStatusCode();
+                return response;
+            } catch (TwitterException te) {
+                statusCode = te.getStatusCode();
+                throw te;
             } finally {
                 long elapsedTime = System.currentTimeMillis() - start;
-                TwitterAPIMonitor.getInstance().methodCalled(url, elapsedTime, isOk(response));
+                TwitterAPIMonitor.getInstance().methodCalled(RequestMethod.DELETE, url, elapsedTime, statusCode);
             }
-            return response;
         }
     }
 
@@ -913,15 +1176,19 @@ abstract class TwitterBaseImpl implements TwitterBase, Serializable, OAuthSuppor
             return http.delete(url, params, auth);
         } else {
             // intercept HTTP call for monitoring purposes
-            HttpResponse response = null;
+            int statusCode = -1;
             long start = System.currentTimeMillis();
             try {
-                response = http.delete(url, params, auth);
+                HttpResponse response = http.delete(url, params, auth);
+                statusCode = response.getStatusCode();
+                return response;
+            } catch (TwitterException te) {
+                statusCode = te.getStatusCode();
+                throw te;
             } finally {
                 long elapsedTime = System.currentTimeMillis() - start;
-                TwitterAPIMonitor.getInstance().methodCalled(url, elapsedTime, isOk(response));
+                TwitterAPIMonitor.getInstance().methodCalled(RequestMethod.DELETE, url, elapsedTime, statusCode);
             }
-            return response;
         }
     }
 
@@ -959,13 +1226,16 @@ abstract class TwitterBaseImpl implements TwitterBase, Serializable, OAuthSuppor
         }
     }
 
-    private boolean isOk(HttpResponse response) {
-        return response != null && response.getStatusCode() < 300;
-    }
-
     private byte[] getAllBytesToUpload(TonUpload tonUpload) throws TwitterException {
-        try {
-            return IOUtils.toByteArray(new URL(tonUpload.getMediaUrl()).openStream());
+        try (InputStream in = new URL(tonUpload.getMediaUrl()).openStream()) {
+            Long contentLength = tonUpload.getTotalContentLength();
+            if (contentLength == null || contentLength <= 0) {
+                return IOUtils.toByteArray(in);
+            }
+            // read straight into an array of the final size instead of growing and copying a buffer
+            byte[] data = new byte[contentLength.intValue()];
+            new DataInputStream(in).readFully(data);
+            return data;
         } catch (IOException e) {
             throw new TwitterException(e);
         }
@@ -998,31 +1268,4 @@ abstract class TwitterBaseImpl implements TwitterBase, Serializable, OAuthSuppor
         }
     }
 
-    private String downloadContentIntoFileReturningPath(String url) {
-        InputStream urlInputStream = null;
-        FileOutputStream temporaryFileStream = null;
-        try {
-            urlInputStream = new URL(url).openStream();
-            File tempMedia = File.createTempFile("tw-upload-temp-" + System.currentTimeMillis(), ".tmp");
-            tempMedia.deleteOnExit();
-            temporaryFileStream = new FileOutputStream(tempMedia);
-            IOUtils.copyLarge(urlInputStream, temporaryFileStream);
-            temporaryFileStream.flush();
-            return tempMedia.getAbsolutePath();
-
-        } catch (Exception e) {
-            throw new RuntimeException(e);
-        } finally {
-            IOUtils.closeQuietly(temporaryFileStream);
-            IOUtils.closeQuietly(urlInputStream);
-        }
-    }
-
-    private void deleteFile(String filePath) {
-        try {
-            new File(filePath).delete();
-        } catch (Exception e) {
-        }
-    }
-
 }
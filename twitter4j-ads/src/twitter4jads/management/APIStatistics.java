@@ -15,58 +15,128 @@
  */
 package twitter4jads.management;
 
-import java.util.Collection;
+import twitter4jads.internal.logging.Logger;
+
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Container for all InvocationStatisticsCalculators in a given API (like Twitter)
+ * <p/>
+ * Statistics are kept for the whole API, per method and per method, account and HTTP status. Recording a call takes no
+ * lock, so request threads do not wait on each other while monitoring is enabled.
  *
  * @author Nick Dellamaggiore (nick.dellamaggiore <at> gmail.com)
  */
 public class APIStatistics implements APIStatisticsMBean {
+    private static final Logger logger = Logger.getLogger(APIStatistics.class);
+
+    // bounds the memory taken by statistics per account, calls beyond it are only counted per method
+    private static final int MAX_ENDPOINT_STATISTICS = 10000;
+
     private final InvocationStatisticsCalculator API_STATS_CALCULATOR;
-    private final Map<String, InvocationStatisticsCalculator> METHOD_STATS_MAP;
-    private final int HISTORY_SIZE;
+    private final ConcurrentMap<String, InvocationStatisticsCalculator> METHOD_STATS_MAP;
+    private final ConcurrentMap<EndpointKey, InvocationStatisticsCalculator> ENDPOINT_STATS_MAP;
+    private final AtomicBoolean endpointLimitLogged = new AtomicBoolean();
+
+    public APIStatistics() {
+        API_STATS_CALCULATOR = new InvocationStatisticsCalculator("API");
+        METHOD_STATS_MAP = new ConcurrentHashMap<String, InvocationStatisticsCalculator>(100);
+        ENDPOINT_STATS_MAP = new ConcurrentHashMap<EndpointKey, InvocationStatisticsCalculator>(100);
+    }
 
     /**
-     * @param historySize the number of calls to track (for invocation time averaging)
+     * @param historySize ignored, times of all calls since the last reset are kept in histograms
+     * @deprecated use {@link #APIStatistics()}
      */
+    @Deprecated
     public APIStatistics(int historySize) {
-        API_STATS_CALCULATOR = new InvocationStatisticsCalculator("API", historySize);
-        METHOD_STATS_MAP = new HashMap<String, InvocationStatisticsCalculator>(100);
-        HISTORY_SIZE = historySize;
+        this();
     }
 
     /**
      * @param method the method invoked
      * @param time   the method execution time
      */
-    public synchronized void methodCalled(String method, long time, boolean success) {
+    public void methodCalled(String method, long time, boolean success) {
         getMethodStatistics(method).increment(time, success);
 
         // increment for entire API
         API_STATS_CALCULATOR.increment(time, success);
     }
 
-    private synchronized InvocationStatisticsCalculator getMethodStatistics(String method) {
+    /**
+     * @param method     the method invoked
+     * @param accountId  the ads account the method was invoked for, null if none
+     * @param statusCode the HTTP status of the response, -1 if none was received
+     * @param time       the method execution time
+     */
+    public void methodCalled(String method, String accountId, int statusCode, long time) {
+        boolean success = statusCode > 0 && statusCode < 300;
+        methodCalled(method, time, success);
+
+        InvocationStatisticsCalculator endpointStats = getEndpointStatistics(method, accountId, statusCode);
+        if (endpointStats != null) {
+            endpointStats.increment(time, success);
+        }
+    }
+
+    private InvocationStatisticsCalculator getMethodStatistics(String method) {
         InvocationStatisticsCalculator methodStats = METHOD_STATS_MAP.get(method);
 
         if (methodStats == null) {
-            methodStats = new InvocationStatisticsCalculator(method, HISTORY_SIZE);
-            METHOD_STATS_MAP.put(method, methodStats);
+            methodStats = new InvocationStatisticsCalculator(method);
+            InvocationStatisticsCalculator existing = METHOD_STATS_MAP.putIfAbsent(method, methodStats);
+            if (existing != null) {
+                methodStats = existing;
+            }
         }
         return methodStats;
     }
 
+    private InvocationStatisticsCalculator getEndpointStatistics(String method, String accountId, int statusCode) {
+        EndpointKey key = new EndpointKey(method, accountId, statusCode);
+        InvocationStatisticsCalculator endpointStats = ENDPOINT_STATS_MAP.get(key);
+
+        if (endpointStats == null) {
+            if (ENDPOINT_STATS_MAP.size() >= MAX_ENDPOINT_STATISTICS) {
+                if (endpointLimitLogged.compareAndSet(false, true)) {
+                    logger.warn("Statistics kept for " + MAX_ENDPOINT_STATISTICS + " method, account and status combinations, "
+                                + "further combinations are only counted per method until the statistics are reset");
+                }
+                return null;
+            }
+            endpointStats = new InvocationStatisticsCalculator(method, accountId, statusCode);
+            InvocationStatisticsCalculator existing = ENDPOINT_STATS_MAP.putIfAbsent(key, endpointStats);
+            if (existing != null) {
+                endpointStats = existing;
+            }
+        }
+        return endpointStats;
+    }
+
     @Override
-    public synchronized Iterable<? extends InvocationStatistics> getInvocationStatistics() {
+    public Iterable<? extends InvocationStatistics> getInvocationStatistics() {
         return METHOD_STATS_MAP.values();
     }
 
-    public synchronized void reset() {
+    /**
+     * @return statistics per method, account and HTTP status
+     */
+    @Override
+    public Iterable<InvocationStatisticsCalculator> getEndpointStatistics() {
+        return ENDPOINT_STATS_MAP.values();
+    }
+
+    public void reset() {
         API_STATS_CALCULATOR.reset();
         METHOD_STATS_MAP.clear();
+        ENDPOINT_STATS_MAP.clear();
+        endpointLimitLogged.set(false);
     }
 
     /**
@@ -93,12 +163,19 @@ public class APIStatistics implements APIStatisticsMBean {
         return API_STATS_CALCULATOR.getAverageTime();
     }
 
+    public long getMaxTime() {
+        return API_STATS_CALCULATOR.getMaxTime();
+    }
+
+    public long getTimeAtPercentile(double percentile) {
+        return API_STATS_CALCULATOR.getTimeAtPercentile(percentile);
+    }
+
     @Override
-    public synchronized Map<String, String> getMethodLevelSummariesAsString() {
+    public Map<String, String> getMethodLevelSummariesAsString() {
         Map<String, String> summariesMap = new HashMap<String, String>();
 
-        Collection<InvocationStatisticsCalculator> allMethodStats = METHOD_STATS_MAP.values();
-        for (InvocationStatisticsCalculator methodStats : allMethodStats) {
+        for (InvocationStatisticsCalculator methodStats : METHOD_STATS_MAP.values()) {
             summariesMap.put(methodStats.getName(), methodStats.toString());
         }
 
@@ -106,7 +183,37 @@ public class APIStatistics implements APIStatisticsMBean {
     }
 
     @Override
-    public synchronized String getMethodLevelSummary(String methodName) {
-        return METHOD_STATS_MAP.get(methodName).toString();
+    public String getMethodLevelSummary(String methodName) {
+        InvocationStatisticsCalculator methodStats = METHOD_STATS_MAP.get(methodName);
+        return methodStats == null ? null : methodStats.toString();
+    }
+
+    private static final class EndpointKey {
+        private final String method;
+        private final String accountId;
+        private final int statusCode;
+
+        EndpointKey(String method, String accountId, int statusCode) {
+            this.method = method;
+            this.accountId = accountId;
+            this.statusCode = statusCode;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof EndpointKey)) return false;
+
+            EndpointKey that = (EndpointKey) o;
+            return statusCode == that.statusCode && method.equals(that.method) && Objects.equals(accountId, that.accountId);
+        }
+
+        @Override
+        public int hashCode() {
+            int result = method.hashCode();
+            result = 31 * result + (accountId != null ? accountId.hashCode() : 0);
+            result = 31 * result + statusCode;
+            return result;
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,18 @@
+package twitter4jads.management;
+
+/**
+ * Publishes API statistics to a metrics system, e.g. as gauges of the percentiles of every method.
+ *
+ * @see twitter4jads.internal.models4j.TwitterAPIMonitor#addExporter(APIStatisticsExporter, long, java.util.concurrent.TimeUnit)
+ */
+public interface APIStatisticsExporter {
+
+    /**
+     * Called periodically with the statistics since the last reset. Runs on the monitor's exporter thread, a slow
+     * exporter delays the others.
+     *
+     * @param statistics totals of the API, {@link APIStatisticsMBean#getInvocationStatistics()} per method and
+     *                   {@link APIStatisticsMBean#getEndpointStatistics()} per method, account and HTTP status
+     */
+    void export(APIStatisticsMBean statistics);
+}
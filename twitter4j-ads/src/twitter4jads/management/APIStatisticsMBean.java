@@ -30,4 +30,6 @@ public interface APIStatisticsMBean extends InvocationStatistics {
     public String getMethodLevelSummary(String methodName);
 
     public Iterable<? extends InvocationStatistics> getInvocationStatistics();
+
+    public Iterable<InvocationStatisticsCalculator> getEndpointStatistics();
 }
@@ -28,19 +28,39 @@ import java.util.Iterator;
  */
 public class APIStatisticsOpenMBean implements DynamicMBean {
     // metadata
-    private static final String[] ITEM_NAMES = {"methodName", "callCount", "errorCount", "totalTime", "avgTime"};
+    private static final String[] ITEM_NAMES =
+            {"methodName", "callCount", "errorCount", "totalTime", "avgTime", "p50Time", "p99Time", "p999Time", "maxTime"};
     private static final OpenType[] ITEM_TYPES =
-            {SimpleType.STRING, SimpleType.LONG, SimpleType.LONG, SimpleType.LONG, SimpleType.LONG};
+            {SimpleType.STRING, SimpleType.LONG, SimpleType.LONG, SimpleType.LONG, SimpleType.LONG, SimpleType.LONG,
+                    SimpleType.LONG, SimpleType.LONG, SimpleType.LONG};
     private static final String[] ITEM_DESCRIPTIONS =
             {"The method name",
                     "The number of times this method has been called",
                     "The number of calls that failed",
                     "The total amount of time spent invoking this method in milliseconds",
-                    "The average amount of time spent invoking this method in milliseconds"};
+                    "The average amount of time spent invoking this method in milliseconds",
+                    "The median time spent invoking this method in milliseconds",
+                    "The 99th percentile of the time spent invoking this method in milliseconds",
+                    "The 99.9th percentile of the time spent invoking this method in milliseconds",
+                    "The longest time spent invoking this method in milliseconds"};
+    private static final String[] ENDPOINT_ITEM_NAMES =
+            {"methodName", "accountId", "statusCode", "callCount", "errorCount", "totalTime", "avgTime", "p50Time",
+                    "p99Time", "p999Time", "maxTime"};
+    private static final OpenType<?>[] ENDPOINT_ITEM_TYPES =
+            {SimpleType.STRING, SimpleType.STRING, SimpleType.INTEGER, SimpleType.LONG, SimpleType.LONG, SimpleType.LONG,
+                    SimpleType.LONG, SimpleType.LONG, SimpleType.LONG, SimpleType.LONG, SimpleType.LONG};
+    private static final String[] ENDPOINT_ITEM_DESCRIPTIONS =
+            {"The method name",
+                    "The ads account the method was invoked for, empty if none",
+                    "The HTTP status of the responses, -1 if none was received",
+                    ITEM_DESCRIPTIONS[1], ITEM_DESCRIPTIONS[2], ITEM_DESCRIPTIONS[3], ITEM_DESCRIPTIONS[4],
+                    ITEM_DESCRIPTIONS[5], ITEM_DESCRIPTIONS[6], ITEM_DESCRIPTIONS[7], ITEM_DESCRIPTIONS[8]};
     private final CompositeType METHOD_STATS_TYPE;
+    private final CompositeType ENDPOINT_STATS_TYPE;
 
     private final APIStatisticsMBean API_STATISTICS;
     private final TabularType API_STATISTICS_TYPE;
+    private final TabularType ENDPOINT_STATISTICS_TYPE;
 
     public APIStatisticsOpenMBean(APIStatistics apiStatistics) {
         API_STATISTICS = apiStatistics;
@@ -55,6 +75,15 @@ public class APIStatisticsOpenMBean implements DynamicMBean {
                     "list of methods",
                     METHOD_STATS_TYPE,
                     index);
+
+            ENDPOINT_STATS_TYPE =
+                    new CompositeType("endpoint statistics", "statistics of a method per account and status",
+                            ENDPOINT_ITEM_NAMES, ENDPOINT_ITEM_DESCRIPTIONS, ENDPOINT_ITEM_TYPES);
+            String[] endpointIndex = {"methodName", "accountId", "statusCode"};
+            ENDPOINT_STATISTICS_TYPE = new TabularType("endpoint statistics",
+                    "list of methods per account and status",
+                    ENDPOINT_STATS_TYPE,
+                    endpointIndex);
         } catch (OpenDataException e) {
             throw new RuntimeException(e);
         }
@@ -63,7 +92,7 @@ public class APIStatisticsOpenMBean implements DynamicMBean {
     @Override
     public MBeanInfo getMBeanInfo() {
         OpenMBeanInfoSupport info;
-        OpenMBeanAttributeInfoSupport[] attributes = new OpenMBeanAttributeInfoSupport[5];
+        OpenMBeanAttributeInfoSupport[] attributes = new OpenMBeanAttributeInfoSupport[10];
         OpenMBeanConstructorInfoSupport[] constructors = new OpenMBeanConstructorInfoSupport[1];
         OpenMBeanOperationInfoSupport[] operations = new OpenMBeanOperationInfoSupport[1];
         MBeanNotificationInfo[] notifications = new MBeanNotificationInfo[0];
@@ -89,11 +118,36 @@ public class APIStatisticsOpenMBean implements DynamicMBean {
                         "Average time spent invoking any API method",
                         SimpleType.LONG, true, false, false);
 
+        attributes[attrIdx++] =
+                new OpenMBeanAttributeInfoSupport("p50Time",
+                        "Median time spent invoking any API method",
+                        SimpleType.LONG, true, false, false);
+
+        attributes[attrIdx++] =
+                new OpenMBeanAttributeInfoSupport("p99Time",
+                        "99th percentile of the time spent invoking any API method",
+                        SimpleType.LONG, true, false, false);
+
+        attributes[attrIdx++] =
+                new OpenMBeanAttributeInfoSupport("p999Time",
+                        "99.9th percentile of the time spent invoking any API method",
+                        SimpleType.LONG, true, false, false);
+
+        attributes[attrIdx++] =
+                new OpenMBeanAttributeInfoSupport("maxTime",
+                        "Longest time spent invoking any API method",
+                        SimpleType.LONG, true, false, false);
+
         attributes[attrIdx++] =
                 new OpenMBeanAttributeInfoSupport("statisticsTable",
                         "Table of statisics for all API methods",
                         API_STATISTICS_TYPE, true, false, false);
 
+        attributes[attrIdx++] =
+                new OpenMBeanAttributeInfoSupport("endpointStatisticsTable",
+                        "Table of statisics for all API methods per account and status",
+                        ENDPOINT_STATISTICS_TYPE, true, false, false);
+
         constructors[0] = new OpenMBeanConstructorInfoSupport(
                 "APIStatisticsOpenMBean",
                 "Constructs an APIStatisticsOpenMBean instance",
@@ -124,7 +178,11 @@ public class APIStatisticsOpenMBean implements DynamicMBean {
                     methodStats.getCallCount(),
                     methodStats.getErrorCount(),
                     methodStats.getTotalTime(),
-                    methodStats.getAverageTime()};
+                    methodStats.getAverageTime(),
+                    methodStats.getTimeAtPercentile(50),
+                    methodStats.getTimeAtPercentile(99),
+                    methodStats.getTimeAtPercentile(99.9),
+                    methodStats.getMaxTime()};
 
             try {
                 CompositeData result = new CompositeDataSupport(METHOD_STATS_TYPE,
@@ -140,6 +198,32 @@ public class APIStatisticsOpenMBean implements DynamicMBean {
         return apiStatisticsTable;
     }
 
+    public TabularDataSupport getEndpointStatistics() {
+        TabularDataSupport endpointStatisticsTable = new TabularDataSupport(ENDPOINT_STATISTICS_TYPE);
+
+        for (InvocationStatisticsCalculator endpointStats : API_STATISTICS.getEndpointStatistics()) {
+            Object[] itemValues = {endpointStats.getName(),
+                    endpointStats.getAccountId() == null ? "" : endpointStats.getAccountId(),
+                    endpointStats.getStatusCode(),
+                    endpointStats.getCallCount(),
+                    endpointStats.getErrorCount(),
+                    endpointStats.getTotalTime(),
+                    endpointStats.getAverageTime(),
+                    endpointStats.getTimeAtPercentile(50),
+                    endpointStats.getTimeAtPercentile(99),
+                    endpointStats.getTimeAtPercentile(99.9),
+                    endpointStats.getMaxTime()};
+
+            try {
+                endpointStatisticsTable.put(new CompositeDataSupport(ENDPOINT_STATS_TYPE, ENDPOINT_ITEM_NAMES, itemValues));
+            } catch (OpenDataException e) {
+                throw new RuntimeException(e);
+            }
+        }
+
+        return endpointStatisticsTable;
+    }
+
     public void reset() {
         API_STATISTICS.reset();
     }
@@ -149,6 +233,8 @@ public class APIStatisticsOpenMBean implements DynamicMBean {
             throws AttributeNotFoundException, MBeanException, ReflectionException {
         if (attribute.equals("statisticsTable")) {
             return (TabularData) getStatistics();
+        } else if (attribute.equals("endpointStatisticsTable")) {
+            return (TabularData) getEndpointStatistics();
         } else if (attribute.equals("callCount")) {
             return API_STATISTICS.getCallCount();
         } else if (attribute.equals("errorCount")) {
@@ -157,6 +243,14 @@ public class APIStatisticsOpenMBean implements DynamicMBean {
             return API_STATISTICS.getTotalTime();
         } else if (attribute.equals("averageTime")) {
             return API_STATISTICS.getAverageTime();
+        } else if (attribute.equals("p50Time")) {
+            return API_STATISTICS.getTimeAtPercentile(50);
+        } else if (attribute.equals("p99Time")) {
+            return API_STATISTICS.getTimeAtPercentile(99);
+        } else if (attribute.equals("p999Time")) {
+            return API_STATISTICS.getTimeAtPercentile(99.9);
+        } else if (attribute.equals("maxTime")) {
+            return API_STATISTICS.getMaxTime();
         }
         throw new AttributeNotFoundException("Cannot find " + attribute + " attribute ");
     }
@@ -29,5 +29,16 @@ public interface InvocationStatistics {
 
     public long getAverageTime();
 
+    /**
+     * @return longest invocation time in milliseconds
+     */
+    public long getMaxTime();
+
+    /**
+     * @param percentile e.g. 50, 99 or 99.9
+     * @return invocation time in milliseconds that the given percentage of calls did not exceed
+     */
+    public long getTimeAtPercentile(double percentile);
+
     public void reset();
 }
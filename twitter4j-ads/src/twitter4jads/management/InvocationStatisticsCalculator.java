@@ -16,38 +16,61 @@
 
 package twitter4jads.management;
 
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Object that collects/aggregates statistics for the invocation of a given method.
+ * <p/>
+ * Recording a call never locks: the counters are {@link LongAdder}s and the times go into a {@link LatencyHistogram}.
+ * The statistics of an endpoint called by a single account and answered with a single HTTP status carry that account
+ * and status, the aggregated ones have neither.
  *
  * @author Nick Dellamaggiore (nick.dellamaggiore <at> gmail.com)
  */
 public class InvocationStatisticsCalculator implements InvocationStatistics {
-    private String name;
-    private long[] times;
-    private int index;
-    private long callCount;
-    private long errorCount;
-    private long totalTime;
+    private final String name;
+    private final String accountId;
+    private final int statusCode;
+    private final LongAdder callCount = new LongAdder();
+    private final LongAdder errorCount = new LongAdder();
+    private final LongAdder totalTime = new LongAdder();
+    private final LatencyHistogram times = new LatencyHistogram();
+
+    /**
+     * @param name the name of this API method
+     */
+    public InvocationStatisticsCalculator(String name) {
+        this(name, null, 0);
+    }
+
+    /**
+     * @param name       the name of this API method
+     * @param accountId  the ads account the calls were made for, null if not for a single account
+     * @param statusCode the HTTP status the calls were answered with, 0 if not for a single status
+     */
+    public InvocationStatisticsCalculator(String name, String accountId, int statusCode) {
+        this.name = name;
+        this.accountId = accountId;
+        this.statusCode = statusCode;
+    }
 
     /**
      * @param name        the name of this API method
-     * @param historySize the number of calls to track (for invocation time averaging)
+     * @param historySize ignored, times of all calls since the last reset are kept in a histogram
+     * @deprecated use {@link #InvocationStatisticsCalculator(String)}
      */
+    @Deprecated
     public InvocationStatisticsCalculator(String name, int historySize) {
-        this.name = name;
-        times = new long[historySize];
+        this(name);
     }
 
     void increment(long time, boolean success) {
-        callCount++;
-        errorCount += success ? 0 : 1;
-        totalTime += time;
-
-        times[index] = time;
-
-        if (++index >= times.length)
-            index = 0;
+        callCount.increment();
+        if (!success) {
+            errorCount.increment();
+        }
+        totalTime.add(time);
+        times.record(time);
     }
 
     @Override
@@ -55,54 +78,75 @@ public class InvocationStatisticsCalculator implements InvocationStatistics {
         return name;
     }
 
+    /**
+     * @return the ads account the calls were made for, null for statistics over all accounts
+     */
+    public String getAccountId() {
+        return accountId;
+    }
+
+    /**
+     * @return the HTTP status the calls were answered with, -1 if no response was received, 0 for statistics over all
+     * statuses
+     */
+    public int getStatusCode() {
+        return statusCode;
+    }
+
     @Override
     public long getCallCount() {
-        return callCount;
+        return callCount.sum();
     }
 
     @Override
     public long getErrorCount() {
-        return errorCount;
+        return errorCount.sum();
     }
 
     @Override
     public long getTotalTime() {
-        return totalTime;
+        return totalTime.sum();
     }
 
+    /**
+     * @return mean invocation time of all calls since the last reset
+     */
     @Override
-    public synchronized long getAverageTime() {
-        int stopIndex = Math.min(Math.abs((int) callCount), times.length);
-        if (stopIndex == 0) {
-            return 0;
-        }
+    public long getAverageTime() {
+        long calls = getCallCount();
+        return calls == 0 ? 0 : getTotalTime() / calls;
+    }
 
-        long totalTime = 0;
-        for (int i = 0; i < stopIndex; i++) {
-            totalTime += times[i];
+    @Override
+    public long getMaxTime() {
+        return times.getMax();
+    }
 
-        }
-        return totalTime / stopIndex;
+    @Override
+    public long getTimeAtPercentile(double percentile) {
+        return times.getValueAtPercentile(percentile);
     }
 
     @Override
-    public synchronized void reset() {
-        callCount = 0;
-        errorCount = 0;
-        totalTime = 0;
-        times = new long[times.length];
-        index = 0;
+    public void reset() {
+        callCount.reset();
+        errorCount.reset();
+        totalTime.reset();
+        times.reset();
     }
 
     @Override
     public String toString() {
-        // StringBuilder is faster... do we still need to support JDK 1.4?
         StringBuilder sb = new StringBuilder();
         sb.append("calls=").append(getCallCount()).append(",")
                 .append("errors=").append(getErrorCount()).append(",")
                 .append("totalTime=").append(getTotalTime()).append(",")
-                .append("avgTime=").append(getAverageTime());
+                .append("avgTime=").append(getAverageTime()).append(",")
+                .append("p50Time=").append(getTimeAtPercentile(50)).append(",")
+                .append("p99Time=").append(getTimeAtPercentile(99)).append(",")
+                .append("p999Time=").append(getTimeAtPercentile(99.9)).append(",")
+                .append("maxTime=").append(getMaxTime());
 
         return sb.toString();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,124 @@
+package twitter4jads.management;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAccumulator;
+
+/**
+ * Lock-free histogram of invocation times in milliseconds, laid out like an HdrHistogram: every power of two is split
+ * into 32 buckets, so a percentile read from it is within about 3% of the recorded time.
+ * <p/>
+ * The buckets of a power of two are only allocated once a time in it is recorded. Calls to one endpoint take similar
+ * times, so a histogram usually holds a handful of small arrays.
+ *
+ * @see <a href="http://hdrhistogram.org/">HdrHistogram</a>
+ */
+public final class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int SUB_BUCKET_MASK = SUB_BUCKET_COUNT - 1;
+    // times up to 2^31 ms, about 24 days; longer ones are counted in the last bucket
+    private static final int MAX_EXPONENT = 30;
+    private static final int ROW_COUNT = MAX_EXPONENT - SUB_BUCKET_BITS + 2;
+
+    private final AtomicReferenceArray<AtomicLongArray> rows = new AtomicReferenceArray<AtomicLongArray>(ROW_COUNT);
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    /**
+     * @param time invocation time in milliseconds, negative times count as 0
+     */
+    public void record(long time) {
+        long value = Math.max(0, time);
+        int row;
+        int slot;
+        if (value < SUB_BUCKET_COUNT) {
+            row = 0;
+            slot = (int) value;
+        } else {
+            int exponent = 63 - Long.numberOfLeadingZeros(value);
+            if (exponent > MAX_EXPONENT) {
+                row = ROW_COUNT - 1;
+                slot = SUB_BUCKET_MASK;
+            } else {
+                row = exponent - SUB_BUCKET_BITS + 1;
+                slot = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & SUB_BUCKET_MASK;
+            }
+        }
+        AtomicLongArray counts = rows.get(row);
+        if (counts == null) {
+            rows.compareAndSet(row, null, new AtomicLongArray(SUB_BUCKET_COUNT));
+            counts = rows.get(row);
+        }
+        counts.incrementAndGet(slot);
+        max.accumulate(value);
+    }
+
+    /**
+     * @return number of recorded times
+     */
+    public long getCount() {
+        long count = 0;
+        for (int row = 0; row < ROW_COUNT; row++) {
+            AtomicLongArray counts = rows.get(row);
+            if (counts != null) {
+                for (int slot = 0; slot < SUB_BUCKET_COUNT; slot++) {
+                    count += counts.get(slot);
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @return longest recorded time in milliseconds
+     */
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * @param percentile e.g. 50, 99 or 99.9
+     * @return time in milliseconds that the given percentage of the recorded times did not exceed, 0 if nothing was
+     * recorded
+     */
+    public long getValueAtPercentile(double percentile) {
+        long count = getCount();
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(Math.min(100, Math.max(0, percentile)) / 100 * count));
+        long seen = 0;
+        for (int row = 0; row < ROW_COUNT; row++) {
+            AtomicLongArray counts = rows.get(row);
+            if (counts == null) {
+                continue;
+            }
+            for (int slot = 0; slot < SUB_BUCKET_COUNT; slot++) {
+                seen += counts.get(slot);
+                if (seen >= rank) {
+                    return Math.min(highestValueIn(row, slot), getMax());
+                }
+            }
+        }
+        // times recorded while counting
+        return getMax();
+    }
+
+    /**
+     * Clears the histogram. Times recorded concurrently may or may not survive.
+     */
+    public void reset() {
+        for (int row = 0; row < ROW_COUNT; row++) {
+            rows.set(row, null);
+        }
+        max.reset();
+    }
+
+    private static long highestValueIn(int row, int slot) {
+        if (row == 0) {
+            return slot;
+        }
+        int shift = row - 1;
+        return ((long) (SUB_BUCKET_COUNT + slot + 1) << shift) - 1;
+    }
+}
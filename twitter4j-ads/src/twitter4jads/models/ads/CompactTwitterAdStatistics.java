@@ -0,0 +1,309 @@
+package twitter4jads.models.ads;
+
+import com.google.gson.JsonSyntaxException;
+import com.google.gson.TypeAdapter;
+import com.google.gson.annotations.JsonAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Column oriented alternative to {@link TwitterAdStatistics}: every reported time series is kept as a {@code long[]}
+ * keyed by {@link TwitterAdStatisticsMetric} (and {@link TwitterAdStatsBreakdownPart} for conversion breakdowns),
+ * parsed straight from the json numbers. Metrics missing from, or null in, the response take no space.
+ * <p/>
+ * Null entries inside a time series are read as 0. Returned arrays are the backing columns and must not be modified.
+ * Instances are immutable.
+ */
+@JsonAdapter(CompactTwitterAdStatistics.Adapter.class)
+public class CompactTwitterAdStatistics {
+
+    private static final int PART_COUNT = TwitterAdStatsBreakdownPart.values().length;
+    private static final int COLUMN_COUNT = TwitterAdStatisticsMetric.values().length * PART_COUNT;
+
+    // sorted ascending, see columnId()
+    private final int[] columnIds;
+    private final long[][] columns;
+
+    private CompactTwitterAdStatistics(int[] columnIds, long[][] columns) {
+        this.columnIds = columnIds;
+        this.columns = columns;
+    }
+
+    /**
+     * @return the time series of a plain metric, or the {@link TwitterAdStatsBreakdownPart#TOTAL} of a breakdown metric;
+     * null if the metric was not reported
+     */
+    public long[] get(TwitterAdStatisticsMetric metric) {
+        return get(metric, TwitterAdStatsBreakdownPart.TOTAL);
+    }
+
+    /**
+     * @return the given part of the time series of a metric, or null if it was not reported
+     */
+    public long[] get(TwitterAdStatisticsMetric metric, TwitterAdStatsBreakdownPart part) {
+        int index = Arrays.binarySearch(columnIds, columnId(metric, part));
+        return index < 0 ? null : columns[index];
+    }
+
+    public boolean contains(TwitterAdStatisticsMetric metric) {
+        return get(metric) != null;
+    }
+
+    /**
+     * @return the metrics that were reported
+     */
+    public Set<TwitterAdStatisticsMetric> getMetrics() {
+        Set<TwitterAdStatisticsMetric> metrics = EnumSet.noneOf(TwitterAdStatisticsMetric.class);
+        TwitterAdStatisticsMetric[] values = TwitterAdStatisticsMetric.values();
+        for (int columnId : columnIds) {
+            metrics.add(values[columnId / PART_COUNT]);
+        }
+        return metrics;
+    }
+
+    /**
+     * @return the number of points in the longest time series
+     */
+    public int getTimeSeriesLength() {
+        int length = 0;
+        for (long[] column : columns) {
+            length = Math.max(length, column.length);
+        }
+        return length;
+    }
+
+    /**
+     * @return the value at the given point of the time series, 0 if the metric was not reported
+     */
+    public long getValue(TwitterAdStatisticsMetric metric, int index) {
+        return getValue(metric, TwitterAdStatsBreakdownPart.TOTAL, index);
+    }
+
+    public long getValue(TwitterAdStatisticsMetric metric, TwitterAdStatsBreakdownPart part, int index) {
+        long[] column = get(metric, part);
+        return column == null || index >= column.length ? 0 : column[index];
+    }
+
+    /**
+     * @return sum over the whole time series, 0 if the metric was not reported
+     */
+    public long sum(TwitterAdStatisticsMetric metric) {
+        return sum(metric, TwitterAdStatsBreakdownPart.TOTAL);
+    }
+
+    public long sum(TwitterAdStatisticsMetric metric, TwitterAdStatsBreakdownPart part) {
+        long[] column = get(metric, part);
+        long sum = 0;
+        if (column != null) {
+            for (long value : column) {
+                sum += value;
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * Point-wise sum of the given statistics, e.g. to roll up the segments of an entity or the entities of a campaign.
+     * A metric is present in the result if it is present in any of the inputs.
+     */
+    public static CompactTwitterAdStatistics aggregate(Iterable<CompactTwitterAdStatistics> statistics) {
+        long[][] sums = new long[COLUMN_COUNT][];
+        int columnCount = 0;
+        for (CompactTwitterAdStatistics stats : statistics) {
+            if (stats == null) {
+                continue;
+            }
+            for (int i = 0; i < stats.columnIds.length; i++) {
+                long[] column = stats.columns[i];
+                long[] sum = sums[stats.columnIds[i]];
+                if (sum == null) {
+                    sums[stats.columnIds[i]] = column.clone();
+                    columnCount++;
+                    continue;
+                }
+                if (sum.length < column.length) {
+                    sum = Arrays.copyOf(sum, column.length);
+                    sums[stats.columnIds[i]] = sum;
+                }
+                for (int j = 0; j < column.length; j++) {
+                    sum[j] += column[j];
+                }
+            }
+        }
+
+        int[] columnIds = new int[columnCount];
+        long[][] columns = new long[columnCount][];
+        int next = 0;
+        for (int columnId = 0; columnId < COLUMN_COUNT; columnId++) {
+            if (sums[columnId] != null) {
+                columnIds[next] = columnId;
+                columns[next++] = sums[columnId];
+            }
+        }
+        return new CompactTwitterAdStatistics(columnIds, columns);
+    }
+
+    private static int columnId(TwitterAdStatisticsMetric metric, TwitterAdStatsBreakdownPart part) {
+        return metric.ordinal() * PART_COUNT + part.ordinal();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("CompactTwitterAdStatistics{");
+        TwitterAdStatisticsMetric[] metrics = TwitterAdStatisticsMetric.values();
+        TwitterAdStatsBreakdownPart[] parts = TwitterAdStatsBreakdownPart.values();
+        for (int i = 0; i < columnIds.length; i++) {
+            if (i > 0) {
+                builder.append(", ");
+            }
+            TwitterAdStatisticsMetric metric = metrics[columnIds[i] / PART_COUNT];
+            builder.append(metric.getJsonName());
+            if (metric.isBreakdown()) {
+                builder.append('.').append(parts[columnIds[i] % PART_COUNT].getJsonName());
+            }
+            builder.append('=').append(Arrays.toString(columns[i]));
+        }
+        return builder.append('}').toString();
+    }
+
+    /**
+     * Reads the metrics object of a stats response without going through strings or boxed numbers.
+     */
+    public static class Adapter extends TypeAdapter<CompactTwitterAdStatistics> {
+
+        @Override
+        public void write(JsonWriter out, CompactTwitterAdStatistics value) throws IOException {
+            if (value == null) {
+                out.nullValue();
+                return;
+            }
+            TwitterAdStatisticsMetric[] metrics = TwitterAdStatisticsMetric.values();
+            TwitterAdStatsBreakdownPart[] parts = TwitterAdStatsBreakdownPart.values();
+            out.beginObject();
+            int i = 0;
+            while (i < value.columnIds.length) {
+                TwitterAdStatisticsMetric metric = metrics[value.columnIds[i] / PART_COUNT];
+                out.name(metric.getJsonName());
+                if (!metric.isBreakdown()) {
+                    writeSeries(out, value.columns[i++]);
+                    continue;
+                }
+                out.beginObject();
+                while (i < value.columnIds.length && value.columnIds[i] / PART_COUNT == metric.ordinal()) {
+                    out.name(parts[value.columnIds[i] % PART_COUNT].getJsonName());
+                    writeSeries(out, value.columns[i++]);
+                }
+                out.endObject();
+            }
+            out.endObject();
+        }
+
+        private void writeSeries(JsonWriter out, long[] column) throws IOException {
+            out.beginArray();
+            for (long value : column) {
+                out.value(value);
+            }
+            out.endArray();
+        }
+
+        @Override
+        public CompactTwitterAdStatistics read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            ColumnsBuilder builder = new ColumnsBuilder();
+            in.beginObject();
+            while (in.hasNext()) {
+                TwitterAdStatisticsMetric metric = TwitterAdStatisticsMetric.fromJsonName(in.nextName());
+                if (metric == null) {
+                    // dates, granularity, segment etc. are described by the enclosing objects
+                    in.skipValue();
+                } else if (in.peek() == JsonToken.NULL) {
+                    in.nextNull();
+                } else if (metric.isBreakdown()) {
+                    in.beginObject();
+                    while (in.hasNext()) {
+                        TwitterAdStatsBreakdownPart part = TwitterAdStatsBreakdownPart.fromJsonName(in.nextName());
+                        if (part == null || in.peek() == JsonToken.NULL) {
+                            in.skipValue();
+                        } else {
+                            builder.add(columnId(metric, part), builder.readSeries(in));
+                        }
+                    }
+                    in.endObject();
+                } else {
+                    builder.add(columnId(metric, TwitterAdStatsBreakdownPart.TOTAL), builder.readSeries(in));
+                }
+            }
+            in.endObject();
+            return builder.build();
+        }
+    }
+
+    private static class ColumnsBuilder {
+        private int[] columnIds = new int[16];
+        private long[][] columns = new long[16][];
+        private int size;
+        private long[] buffer = new long[32];
+
+        private long[] readSeries(JsonReader in) throws IOException {
+            int length = 0;
+            in.beginArray();
+            while (in.hasNext()) {
+                long value;
+                if (in.peek() == JsonToken.NULL) {
+                    in.nextNull();
+                    value = 0;
+                } else {
+                    try {
+                        // also accepts numbers quoted as strings
+                        value = in.nextLong();
+                    } catch (NumberFormatException e) {
+                        throw new JsonSyntaxException(e);
+                    }
+                }
+                if (length == buffer.length) {
+                    buffer = Arrays.copyOf(buffer, length * 2);
+                }
+                buffer[length++] = value;
+            }
+            in.endArray();
+            return Arrays.copyOf(buffer, length);
+        }
+
+        private void add(int columnId, long[] column) {
+            if (size == columnIds.length) {
+                columnIds = Arrays.copyOf(columnIds, size * 2);
+                columns = Arrays.copyOf(columns, size * 2);
+            }
+            // responses list metrics in a stable order, so this insertion sort is mostly a no-op
+            int index = size++;
+            while (index > 0 && columnIds[index - 1] > columnId) {
+                columnIds[index] = columnIds[index - 1];
+                columns[index] = columns[index - 1];
+                index--;
+            }
+            if (index > 0 && columnIds[index - 1] == columnId) {
+                // duplicate key, last one wins as with reflective parsing
+                System.arraycopy(columnIds, index + 1, columnIds, index, size - index - 1);
+                System.arraycopy(columns, index + 1, columns, index, size - index - 1);
+                size--;
+                columns[index - 1] = column;
+                return;
+            }
+            columnIds[index] = columnId;
+            columns[index] = column;
+        }
+
+        private CompactTwitterAdStatistics build() {
+            return new CompactTwitterAdStatistics(Arrays.copyOf(columnIds, size), Arrays.copyOf(columns, size));
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package twitter4jads.models.ads;
+
+import com.google.gson.annotations.SerializedName;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * {@link TwitterEntityStatistics} with the metrics held as {@link CompactTwitterAdStatistics}.
+ */
+public class CompactTwitterEntityStatistics {
+
+    private static final String ID = "id";
+    private static final String ID_DATA = "id_data";
+
+    @SerializedName(ID)
+    private String id;
+
+    @SerializedName(ID_DATA)
+    private List<CompactTwitterMetricsBySegmentation> idData;
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public List<CompactTwitterMetricsBySegmentation> getIdData() {
+        return idData;
+    }
+
+    public void setIdData(List<CompactTwitterMetricsBySegmentation> idData) {
+        this.idData = idData;
+    }
+
+    /**
+     * @return point-wise sum of the metrics of all segments of this entity
+     */
+    public CompactTwitterAdStatistics getTotalMetrics() {
+        List<CompactTwitterAdStatistics> metrics = new ArrayList<>();
+        if (idData != null) {
+            for (CompactTwitterMetricsBySegmentation data : idData) {
+                metrics.add(data.getMetrics());
+            }
+        }
+        return CompactTwitterAdStatistics.aggregate(metrics);
+    }
+
+    @Override
+    public String toString() {
+        return "CompactTwitterEntityStatistics{" +
+               "id='" + id + '\'' +
+               ", idData=" + idData +
+               '}';
+    }
+}
@@ -0,0 +1,39 @@
+package twitter4jads.models.ads;
+
+import com.google.gson.annotations.SerializedName;
+
+/**
+ * {@link TwitterMetricsBySegmentation} with the metrics held as {@link CompactTwitterAdStatistics}.
+ */
+public class CompactTwitterMetricsBySegmentation {
+
+    @SerializedName(TwitterMetricsBySegmentation.SEGMENT)
+    private NewSegment segment;
+
+    @SerializedName(TwitterMetricsBySegmentation.METRICS)
+    private CompactTwitterAdStatistics metrics;
+
+    public NewSegment getSegment() {
+        return segment;
+    }
+
+    public void setSegment(NewSegment segment) {
+        this.segment = segment;
+    }
+
+    public CompactTwitterAdStatistics getMetrics() {
+        return metrics;
+    }
+
+    public void setMetrics(CompactTwitterAdStatistics metrics) {
+        this.metrics = metrics;
+    }
+
+    @Override
+    public String toString() {
+        return "CompactTwitterMetricsBySegmentation{" +
+               "segment=" + segment +
+               ", metrics=" + metrics +
+               '}';
+    }
+}
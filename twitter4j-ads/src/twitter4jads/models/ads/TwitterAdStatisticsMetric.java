@@ -0,0 +1,119 @@
+package twitter4jads.models.ads;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Metrics of {@link TwitterAdStatistics}, used as column keys by {@link CompactTwitterAdStatistics}.
+ * <p/>
+ * Plain metrics are a single time series; breakdown metrics (conversions) carry one time series per
+ * {@link TwitterAdStatsBreakdownPart}.
+ */
+public enum TwitterAdStatisticsMetric {
+    ENGAGEMENTS(TwitterAdStatistics.ENGAGEMENTS, false),
+    IMPRESSIONS(TwitterAdStatistics.IMPRESSIONS, false),
+    RETWEETS(TwitterAdStatistics.RETWEETS, false),
+    REPLIES(TwitterAdStatistics.REPLIES, false),
+    LIKES(TwitterAdStatistics.LIKES, false),
+    FOLLOWS(TwitterAdStatistics.FOLLOWS, false),
+    CARD_ENGAGEMENTS(TwitterAdStatistics.CARD_ENGAGEMENTS, false),
+    CLICKS(TwitterAdStatistics.CLICKS, false),
+    APP_CLICKS(TwitterAdStatistics.APP_CLICKS, false),
+    URL_CLICKS(TwitterAdStatistics.URL_CLICKS, false),
+    QUALIFIED_IMPRESSIONS(TwitterAdStatistics.QUALIFIED_IMPRESSIONS, false),
+    CAROUSEL_SWIPES(TwitterAdStatistics.CAROUSEL_SWIPES, false),
+    BILLED_ENGAGEMENTS(TwitterAdStatistics.BILLED_ENGAGEMENTS, false),
+    BILLED_CHARGE_LOCAL_MICRO(TwitterAdStatistics.BILLED_CHARGE_LOCAL_MICRO, false),
+    VIDEO_TOTAL_VIEWS(TwitterAdStatistics.VIDEO_TOTAL_VIEWS, false),
+    VIDEO_VIEWS_25(TwitterAdStatistics.VIDEO_VIEWS_25, false),
+    VIDEO_VIEWS_50(TwitterAdStatistics.VIDEO_VIEWS_50, false),
+    VIDEO_VIEWS_75(TwitterAdStatistics.VIDEO_VIEWS_75, false),
+    VIDEO_VIEWS_100(TwitterAdStatistics.VIDEO_VIEWS_100, false),
+    VIDEO_CTA_CLICKS(TwitterAdStatistics.VIDEO_CTA_CLICKS, false),
+    VIDEO_CONTENT_STARTS(TwitterAdStatistics.VIDEO_CONTENT_STARTS, false),
+    VIDEO_3S_100_VIEWS(TwitterAdStatistics.VIDEO_3S_100_VIEWS, false),
+    MEDIA_VIEWS(TwitterAdStatistics.MEDIA_VIEWS, false),
+    MEDIA_ENGAGEMENTS(TwitterAdStatistics.MEDIA_ENGAGEMENTS, false),
+
+    // conversion breakdowns
+    CONVERSION_PURCHASES(TwitterAdStatistics.CONVERSION_PURCHASES, true),
+    CONVERSION_SIGN_UPS(TwitterAdStatistics.CONVERSION_SIGN_UPS, true),
+    CONVERSION_SITE_VISITS(TwitterAdStatistics.CONVERSION_SITE_VISITS, true),
+    CONVERSION_DOWNLOADS(TwitterAdStatistics.CONVERSION_DOWNLOADS, true),
+    CONVERSION_CUSTOM(TwitterAdStatistics.CONVERSION_CUSTOM, true),
+    MOBILE_CONVERSION_SPENT_CREDITS(TwitterAdStatistics.MOBILE_CONVERSION_SPENT_CREDITS, true),
+    MOBILE_CONVERSION_INSTALLS(TwitterAdStatistics.MOBILE_CONVERSION_INSTALLS, true),
+    MOBILE_CONVERSION_CONTENT_VIEWS(TwitterAdStatistics.MOBILE_CONVERSION_CONTENT_VIEWS, true),
+    MOBILE_CONVERSION_ADD_TO_WISHLISTS(TwitterAdStatistics.MOBILE_CONVERSION_ADD_TO_WISHLISTS, true),
+    MOBILE_CONVERSION_CHECKOUTS_INITIATED(TwitterAdStatistics.MOBILE_CONVERSION_CHECKOUTS_INITIATIED, true),
+    MOBILE_CONVERSION_RESERVATIONS(TwitterAdStatistics.MOBILE_CONVERSION_RESERVATIONS, true),
+    MOBILE_CONVERSION_TUTORIALS_COMPLETED(TwitterAdStatistics.MOBILE_CONVERSION_TUTORIALS_COMPLETED, true),
+    MOBILE_CONVERSION_ACHIEVEMENTS_UNLOCKED(TwitterAdStatistics.MOBILE_CONVERSION_ACHIEVEMENTS_UNLOCKED, true),
+    MOBILE_CONVERSION_SEARCHES(TwitterAdStatistics.MOBILE_CONVERSION_SEARCHES, true),
+    MOBILE_CONVERSION_ADD_TO_CARTS(TwitterAdStatistics.MOBILE_CONVERSION_ADD_TO_CARTS, true),
+    MOBILE_CONVERSION_PAYMENT_INFO_ADDITIONS(TwitterAdStatistics.MOBILE_CONVERSION_PAYMENT_INFO_ADDITIONS, true),
+    MOBILE_CONVERSION_RE_ENGAGES(TwitterAdStatistics.MOBILE_CONVERSION_RE_ENGAGES, true),
+    MOBILE_CONVERSION_SHARES(TwitterAdStatistics.MOBILE_CONVERSION_SHARES, true),
+    MOBILE_CONVERSION_RATES(TwitterAdStatistics.MOBILE_CONVERSION_RATES, true),
+    MOBILE_CONVERSION_LOGINS(TwitterAdStatistics.MOBILE_CONVERSION_LOGINS, true),
+    MOBILE_CONVERSION_UPDATES(TwitterAdStatistics.MOBILE_CONVERSION_UPDATES, true),
+    MOBILE_CONVERSION_LEVELS_ACHIEVED(TwitterAdStatistics.MOBILE_CONVERSION_LEVELS_ACHIEVED, true),
+    MOBILE_CONVERSION_INVITES(TwitterAdStatistics.MOBILE_CONVERSION_INVITES, true),
+    MOBILE_CONVERSION_KEY_PAGE_VIEWS(TwitterAdStatistics.MOBILE_CONVERSION_KEY_PAGE_VIEWS, true),
+    MOBILE_CONVERSION_SITE_VISITS(TwitterAdStatistics.MOBILE_CONVERSION_SITE_VISITS, true),
+    MOBILE_CONVERSION_PURCHASES(TwitterAdStatistics.MOBILE_CONVERSION_PURCHASES, true),
+    MOBILE_CONVERSION_DOWNLOADS(TwitterAdStatistics.MOBILE_CONVERSION_DOWNLOADS, true),
+    MOBILE_CONVERSION_SIGN_UPS(TwitterAdStatistics.MOBILE_CONVERSION_SIGN_UPS, true),
+    MOBILE_CONVERSION_LIFETIME_VALUE_PURCHASES(TwitterAdStatistics.MOBILE_CONVERSION_LIFETIME_VALUE_PURCHASES, true),
+    MOBILE_CONVERSION_LIFETIME_VALUE_SIGN_UPS(TwitterAdStatistics.MOBILE_CONVERSION_LIFETIME_VALUE_SIGN_UPS, true),
+    MOBILE_CONVERSION_LIFETIME_VALUE_UPDATES(TwitterAdStatistics.MOBILE_CONVERSION_LIFETIME_VALUE_UPDATES, true),
+    MOBILE_CONVERSION_LIFETIME_VALUE_TUTORIALS_COMPLETED(TwitterAdStatistics.MOBILE_CONVERSION_LIFETIME_VALUE_TUTORIALS_COMPLETED, true),
+    MOBILE_CONVERSION_LIFETIME_VALUE_RESERVATIONS(TwitterAdStatistics.MOBILE_CONVERSION_LIFETIME_VALUE_RESERVATIONS, true),
+    MOBILE_CONVERSION_LIFETIME_VALUE_ADD_TO_CARTS(TwitterAdStatistics.MOBILE_CONVERSION_LIFETIME_VALUE_ADD_TO_CARTS, true),
+    MOBILE_CONVERSION_LIFETIME_VALUE_ADD_TO_WISHLISTS(TwitterAdStatistics.MOBILE_CONVERSION_LIFETIME_VALUE_ADD_TO_WISHLISTS, true),
+    MOBILE_CONVERSION_LIFETIME_VALUE_CHECKOUTS_INITIATED(TwitterAdStatistics.MOBILE_CONVERSION_LIFETIME_VALUE_CHECKOUTS_INITIATED, true),
+    MOBILE_CONVERSION_LIFETIME_VALUE_LEVELS_ACHIEVED(TwitterAdStatistics.MOBILE_CONVERSION_LIFETIME_VALUE_LEVELS_ACHIEVED, true),
+    MOBILE_CONVERSION_LIFETIME_VALUE_ACHIEVEMENTS_UNLOCKED(TwitterAdStatistics.MOBILE_CONVERSION_LIFETIME_VALUE_ACHIEVEMENTS_UNLOCKED, true),
+    MOBILE_CONVERSION_LIFETIME_VALUE_SHARES(TwitterAdStatistics.MOBILE_CONVERSION_LIFETIME_VALUE_SHARES, true),
+    MOBILE_CONVERSION_LIFETIME_VALUE_INVITES(TwitterAdStatistics.MOBILE_CONVERSION_LIFETIME_VALUE_INVITES, true),
+    MOBILE_CONVERSION_LIFETIME_VALUE_PAYMENT_INFO_ADDITIONS(TwitterAdStatistics.MOBILE_CONVERSION_LIFETIME_VALUE_PAYMENT_INFO_ADDITIONS, true),
+    MOBILE_CONVERSION_LIFETIME_VALUE_SPENT_CREDITS(TwitterAdStatistics.MOBILE_CONVERSION_LIFETIME_VALUE_SPENT_CREDITS, true),
+    MOBILE_CONVERSION_LIFETIME_VALUE_RATES(TwitterAdStatistics.MOBILE_CONVERSION_LIFETIME_VALUE_RATES, true),
+    MOBILE_CONVERSION_LIFETIME_VALUE_LOGINS(TwitterAdStatistics.MOBILE_CONVERSION_LIFETIME_VALUE_LOGINS, true),
+    MOBILE_CONVERSION_LIFETIME_VALUE_SEARCHES(TwitterAdStatistics.MOBILE_CONVERSION_LIFETIME_VALUE_SEARCHES, true),
+    MOBILE_CONVERSION_LIFETIME_VALUE_CONTENT_VIEWS(TwitterAdStatistics.MOBILE_CONVERSION_LIFETIME_VALUE_CONTENT_VIEWS, true);
+
+    private static final Map<String, TwitterAdStatisticsMetric> BY_JSON_NAME = new HashMap<>();
+
+    static {
+        for (TwitterAdStatisticsMetric metric : values()) {
+            BY_JSON_NAME.put(metric.jsonName, metric);
+        }
+    }
+
+    private final String jsonName;
+    private final boolean breakdown;
+
+    TwitterAdStatisticsMetric(String jsonName, boolean breakdown) {
+        this.jsonName = jsonName;
+        this.breakdown = breakdown;
+    }
+
+    public String getJsonName() {
+        return jsonName;
+    }
+
+    /**
+     * @return true if the metric is reported as a {@link TwitterAdStatsBreakdown} rather than a single time series
+     */
+    public boolean isBreakdown() {
+        return breakdown;
+    }
+
+    /**
+     * @return the metric with the given json name, or null if it is not known
+     */
+    public static TwitterAdStatisticsMetric fromJsonName(String jsonName) {
+        return BY_JSON_NAME.get(jsonName);
+    }
+}
@@ -0,0 +1,46 @@
+package twitter4jads.models.ads;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Time series of a {@link TwitterAdStatsBreakdown}. Plain metrics only have a {@link #TOTAL}.
+ */
+public enum TwitterAdStatsBreakdownPart {
+    TOTAL("total"),
+    POST_VIEW("post_view"),
+    POST_ENGAGEMENT("post_engagement"),
+    ASSISTED("assisted"),
+    SALE_AMOUNT("sale_amount"),
+    METRIC("metric"),
+    ORDER_QUANTITY("order_quantity"),
+    ORDER_QUANTITY_ENGAGEMENT("order_quantity_engagement"),
+    SALE_AMOUNT_ENGAGEMENT("sale_amount_engagement"),
+    SALE_AMOUNT_VIEW("sale_amount_view"),
+    ORDER_QUANTITY_VIEW("order_quantity_view");
+
+    private static final Map<String, TwitterAdStatsBreakdownPart> BY_JSON_NAME = new HashMap<>();
+
+    static {
+        for (TwitterAdStatsBreakdownPart part : values()) {
+            BY_JSON_NAME.put(part.jsonName, part);
+        }
+    }
+
+    private final String jsonName;
+
+    TwitterAdStatsBreakdownPart(String jsonName) {
+        this.jsonName = jsonName;
+    }
+
+    public String getJsonName() {
+        return jsonName;
+    }
+
+    /**
+     * @return the part with the given json name, or null if it is not known
+     */
+    public static TwitterAdStatsBreakdownPart fromJsonName(String jsonName) {
+        return BY_JSON_NAME.get(jsonName);
+    }
+}
@@ -3,7 +3,6 @@ package twitter4jads.models.ads.audience;
 import java.lang.reflect.Type;
 import java.util.List;
 
-import com.google.gson.Gson;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonDeserializationContext;
 import com.google.gson.JsonDeserializer;
@@ -112,7 +111,7 @@ public class AudienceApiResponse {
                 element = array;
             }
 
-            return new Gson().fromJson(element, type);
+            return context.deserialize(element, type);
         }
     }
 }
\ No newline at end of file
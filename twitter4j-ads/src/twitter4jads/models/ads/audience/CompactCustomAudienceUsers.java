@@ -0,0 +1,478 @@
+package twitter4jads.models.ads.audience;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.annotations.JsonAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * A deduplicated list of custom audience users holding SHA-256 hashed identifiers, packed into a few arrays.
+ * <p/>
+ * Every identifier is stored as its 32 byte digest plus one byte for its kind, every user as the end offset of its
+ * identifiers, so a user with one identifier takes about 45 bytes instead of the several hundred of a
+ * {@link CustomAudienceUserDetails} holding five {@link HashSet}s. Users with the same identifiers are only kept once; an
+ * open addressing table over the packed identifiers detects them without materializing any object.
+ * <p/>
+ * Serializes to the {@code users} array of an audience update request. {@link #subList(int, int)} returns read only views
+ * that share the packed arrays.
+ *
+ * @see CustomAudienceOperation#setCompactUsers(CompactCustomAudienceUsers)
+ */
+@JsonAdapter(CompactCustomAudienceUsers.Adapter.class)
+public class CompactCustomAudienceUsers implements Iterable<CustomAudienceUserDetails> {
+
+    private static final int DIGEST_LENGTH = 32;
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    // identifier kinds, in the order their json fields are written
+    private static final byte EMAIL = 0;
+    private static final byte PHONE_NUMBER = 1;
+    private static final byte DEVICE_ID = 2;
+    private static final byte HANDLE = 3;
+    private static final byte TWITTER_ID = 4;
+    private static final String[] FIELD_NAMES = {"email", "phone_number", "device_id", "handle", "twitter_id"};
+
+    private byte[] kinds;
+    private byte[] digests;
+    private int identifierCount;
+    // userEnds[i] is the index after the last identifier of user i
+    private int[] userEnds;
+    private final int fromUser;
+    private int toUser;
+    // user index + 1 per slot, 0 for a free slot; null for read only views
+    private int[] table;
+
+    public CompactCustomAudienceUsers() {
+        this(16);
+    }
+
+    /**
+     * @param expectedUsers number of users to size the arrays for
+     */
+    public CompactCustomAudienceUsers(int expectedUsers) {
+        int capacity = Math.max(expectedUsers, 1);
+        this.kinds = new byte[capacity];
+        this.digests = new byte[capacity * DIGEST_LENGTH];
+        this.userEnds = new int[capacity];
+        this.fromUser = 0;
+        this.toUser = 0;
+        this.table = new int[Integer.highestOneBit(capacity) * 4];
+    }
+
+    private CompactCustomAudienceUsers(CompactCustomAudienceUsers source, int fromUser, int toUser) {
+        this.kinds = source.kinds;
+        this.digests = source.digests;
+        this.userEnds = source.userEnds;
+        this.fromUser = fromUser;
+        this.toUser = toUser;
+        this.table = null;
+    }
+
+    /**
+     * Adds a user whose identifiers are hex encoded SHA-256 hashes, as produced by
+     * {@link twitter4jads.helpers.AudienceIdentifierHasher}.
+     *
+     * @return false if the user has no identifiers or one with the same identifiers has been added before
+     * @throws IllegalArgumentException if an identifier is not a hex encoded SHA-256 hash, nothing is added then
+     * @see #isHashed(CustomAudienceUserDetails)
+     */
+    public boolean add(CustomAudienceUserDetails user) {
+        if (table == null) {
+            throw new UnsupportedOperationException("Views of CompactCustomAudienceUsers are read only");
+        }
+        int start = identifierCount;
+        // identifiers are appended after the last user and only committed once the user turns out to be new
+        int end = append(user.getEmails(), EMAIL, start);
+        end = append(user.getPhoneNumbers(), PHONE_NUMBER, end);
+        end = append(user.getDeviceIds(), DEVICE_ID, end);
+        end = append(user.getTwitterHandles(), HANDLE, end);
+        end = append(user.getTwitterIds(), TWITTER_ID, end);
+        end = sortAndDedupe(start, end);
+        if (end == start) {
+            return false;
+        }
+
+        int hash = hash(start, end);
+        int mask = table.length - 1;
+        int slot = hash & mask;
+        while (table[slot] != 0) {
+            int other = table[slot] - 1;
+            if (sameIdentifiers(userStart(other), userEnds[other], start, end)) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        if (toUser == userEnds.length) {
+            userEnds = Arrays.copyOf(userEnds, userEnds.length * 2);
+        }
+        userEnds[toUser] = end;
+        table[slot] = ++toUser;
+        identifierCount = end;
+        if (toUser * 2 > table.length) {
+            rehash(table.length * 2);
+        }
+        return true;
+    }
+
+    /**
+     * @return true if every identifier of the user is a hex encoded SHA-256 hash, i.e. {@link #add} does not throw for the
+     * user
+     */
+    public static boolean isHashed(CustomAudienceUserDetails user) {
+        return allHashed(user.getEmails()) && allHashed(user.getPhoneNumbers()) && allHashed(user.getDeviceIds())
+               && allHashed(user.getTwitterHandles()) && allHashed(user.getTwitterIds());
+    }
+
+    /**
+     * @return true if the user has at least one identifier, without which {@link #add} ignores the user
+     */
+    public static boolean hasIdentifiers(CustomAudienceUserDetails user) {
+        return anyIdentifier(user.getEmails()) || anyIdentifier(user.getPhoneNumbers()) || anyIdentifier(user.getDeviceIds())
+               || anyIdentifier(user.getTwitterHandles()) || anyIdentifier(user.getTwitterIds());
+    }
+
+    public void addAll(Iterable<CustomAudienceUserDetails> users) {
+        for (CustomAudienceUserDetails user : users) {
+            add(user);
+        }
+    }
+
+    public int size() {
+        return toUser - fromUser;
+    }
+
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * @return the user at the given position, materialized as a new {@link CustomAudienceUserDetails}
+     */
+    public CustomAudienceUserDetails get(int index) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size());
+        }
+        int user = fromUser + index;
+        CustomAudienceUserDetailsBuilder builder = new CustomAudienceUserDetailsBuilder();
+        char[] hex = new char[DIGEST_LENGTH * 2];
+        for (int i = userStart(user); i < userEnds[user]; i++) {
+            String value = hex(i, hex);
+            switch (kinds[i]) {
+                case EMAIL:
+                    builder.addEmail(value);
+                    break;
+                case PHONE_NUMBER:
+                    builder.addPhoneNumber(value);
+                    break;
+                case DEVICE_ID:
+                    builder.addDeviceId(value);
+                    break;
+                case HANDLE:
+                    builder.addTwitterHandle(value);
+                    break;
+                default:
+                    builder.addTwitterId(value);
+                    break;
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * @return a read only view of the users in [fromIndex, toIndex), sharing the storage of this list
+     */
+    public CompactCustomAudienceUsers subList(int fromIndex, int toIndex) {
+        if (fromIndex < 0 || toIndex > size() || fromIndex > toIndex) {
+            throw new IndexOutOfBoundsException("fromIndex: " + fromIndex + ", toIndex: " + toIndex + ", size: " + size());
+        }
+        return new CompactCustomAudienceUsers(this, fromUser + fromIndex, fromUser + toIndex);
+    }
+
+    @Override
+    public Iterator<CustomAudienceUserDetails> iterator() {
+        return new Iterator<CustomAudienceUserDetails>() {
+            private int index;
+
+            @Override
+            public boolean hasNext() {
+                return index < size();
+            }
+
+            @Override
+            public CustomAudienceUserDetails next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return get(index++);
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+
+    private int userStart(int user) {
+        return user == 0 ? 0 : userEnds[user - 1];
+    }
+
+    private int append(Collection<String> values, byte kind, int end) {
+        if (values == null) {
+            return end;
+        }
+        for (String value : values) {
+            if (value == null) {
+                continue;
+            }
+            ensureIdentifierCapacity(end + 1);
+            kinds[end] = kind;
+            parseHex(value, end * DIGEST_LENGTH);
+            end++;
+        }
+        return end;
+    }
+
+    private static boolean allHashed(Collection<String> values) {
+        if (values == null) {
+            return true;
+        }
+        for (String value : values) {
+            if (value != null && !isHexDigest(value)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean anyIdentifier(Collection<String> values) {
+        if (values == null) {
+            return false;
+        }
+        for (String value : values) {
+            if (value != null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isHexDigest(String value) {
+        if (value.length() != DIGEST_LENGTH * 2) {
+            return false;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            if (Character.digit(value.charAt(i), 16) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void ensureIdentifierCapacity(int capacity) {
+        if (capacity > kinds.length) {
+            int newLength = Math.max(capacity, kinds.length * 2);
+            kinds = Arrays.copyOf(kinds, newLength);
+            digests = Arrays.copyOf(digests, newLength * DIGEST_LENGTH);
+        }
+    }
+
+    private void parseHex(String value, int offset) {
+        if (value.length() != DIGEST_LENGTH * 2) {
+            throw new IllegalArgumentException(value + " is not a hex encoded SHA-256 hash");
+        }
+        for (int i = 0; i < DIGEST_LENGTH; i++) {
+            int high = Character.digit(value.charAt(i * 2), 16);
+            int low = Character.digit(value.charAt(i * 2 + 1), 16);
+            if (high < 0 || low < 0) {
+                throw new IllegalArgumentException(value + " is not a hex encoded SHA-256 hash");
+            }
+            digests[offset + i] = (byte) ((high << 4) | low);
+        }
+    }
+
+    private String hex(int identifier, char[] hex) {
+        int offset = identifier * DIGEST_LENGTH;
+        for (int i = 0; i < DIGEST_LENGTH; i++) {
+            hex[i * 2] = HEX[(digests[offset + i] >> 4) & 0xF];
+            hex[i * 2 + 1] = HEX[digests[offset + i] & 0xF];
+        }
+        return new String(hex);
+    }
+
+    /**
+     * Brings the identifiers of a user into a canonical order, so that equal users have equal packed bytes. Users hold a
+     * handful of identifiers, an insertion sort is all it takes.
+     */
+    private int sortAndDedupe(int start, int end) {
+        for (int i = start + 1; i < end; i++) {
+            for (int j = i; j > start && compare(j - 1, j) > 0; j--) {
+                swap(j - 1, j);
+            }
+        }
+        int last = start;
+        for (int i = start + 1; i < end; i++) {
+            if (compare(last, i) != 0) {
+                last++;
+                if (last != i) {
+                    copy(i, last);
+                }
+            }
+        }
+        return end == start ? start : last + 1;
+    }
+
+    private int compare(int a, int b) {
+        if (kinds[a] != kinds[b]) {
+            return kinds[a] - kinds[b];
+        }
+        int offsetA = a * DIGEST_LENGTH;
+        int offsetB = b * DIGEST_LENGTH;
+        for (int i = 0; i < DIGEST_LENGTH; i++) {
+            int diff = (digests[offsetA + i] & 0xFF) - (digests[offsetB + i] & 0xFF);
+            if (diff != 0) {
+                return diff;
+            }
+        }
+        return 0;
+    }
+
+    private void swap(int a, int b) {
+        byte kind = kinds[a];
+        kinds[a] = kinds[b];
+        kinds[b] = kind;
+        int offsetA = a * DIGEST_LENGTH;
+        int offsetB = b * DIGEST_LENGTH;
+        for (int i = 0; i < DIGEST_LENGTH; i++) {
+            byte digest = digests[offsetA + i];
+            digests[offsetA + i] = digests[offsetB + i];
+            digests[offsetB + i] = digest;
+        }
+    }
+
+    private void copy(int from, int to) {
+        kinds[to] = kinds[from];
+        System.arraycopy(digests, from * DIGEST_LENGTH, digests, to * DIGEST_LENGTH, DIGEST_LENGTH);
+    }
+
+    private boolean sameIdentifiers(int startA, int endA, int startB, int endB) {
+        if (endA - startA != endB - startB) {
+            return false;
+        }
+        for (int i = 0; i < endA - startA; i++) {
+            if (compare(startA + i, startB + i) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int hash(int start, int end) {
+        // digests are uniformly distributed already, their first bytes make a good hash
+        int hash = 1;
+        for (int i = start; i < end; i++) {
+            int offset = i * DIGEST_LENGTH;
+            int prefix = (digests[offset] & 0xFF) << 24 | (digests[offset + 1] & 0xFF) << 16 | (digests[offset + 2] & 0xFF) << 8
+                         | (digests[offset + 3] & 0xFF);
+            hash = 31 * hash + (prefix ^ kinds[i]);
+        }
+        return hash;
+    }
+
+    private void rehash(int capacity) {
+        int[] newTable = new int[capacity];
+        int mask = capacity - 1;
+        for (int user = 0; user < toUser; user++) {
+            int slot = hash(userStart(user), userEnds[user]) & mask;
+            while (newTable[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            newTable[slot] = user + 1;
+        }
+        table = newTable;
+    }
+
+    static final class Adapter extends TypeAdapter<CompactCustomAudienceUsers> {
+
+        @Override
+        public void write(JsonWriter out, CompactCustomAudienceUsers users) throws IOException {
+            if (users == null) {
+                out.nullValue();
+                return;
+            }
+            char[] hex = new char[DIGEST_LENGTH * 2];
+            out.beginArray();
+            for (int user = users.fromUser; user < users.toUser; user++) {
+                out.beginObject();
+                int kind = -1;
+                for (int i = users.userStart(user); i < users.userEnds[user]; i++) {
+                    if (users.kinds[i] != kind) {
+                        if (kind >= 0) {
+                            out.endArray();
+                        }
+                        kind = users.kinds[i];
+                        out.name(FIELD_NAMES[kind]).beginArray();
+                    }
+                    out.value(users.hex(i, hex));
+                }
+                if (kind >= 0) {
+                    out.endArray();
+                }
+                out.endObject();
+            }
+            out.endArray();
+        }
+
+        @Override
+        public CompactCustomAudienceUsers read(JsonReader in) throws IOException {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                return null;
+            }
+            CompactCustomAudienceUsers users = new CompactCustomAudienceUsers();
+            in.beginArray();
+            while (in.hasNext()) {
+                CustomAudienceUserDetails user = new CustomAudienceUserDetails();
+                in.beginObject();
+                while (in.hasNext()) {
+                    String name = in.nextName();
+                    if (in.peek() != JsonToken.BEGIN_ARRAY) {
+                        in.skipValue();
+                        continue;
+                    }
+                    Set<String> values = new HashSet<>();
+                    in.beginArray();
+                    while (in.hasNext()) {
+                        values.add(in.nextString());
+                    }
+                    in.endArray();
+                    if (FIELD_NAMES[EMAIL].equals(name)) {
+                        user.setEmails(values);
+                    } else if (FIELD_NAMES[PHONE_NUMBER].equals(name)) {
+                        user.setPhoneNumbers(values);
+                    } else if (FIELD_NAMES[DEVICE_ID].equals(name)) {
+                        user.setDeviceIds(values);
+                    } else if (FIELD_NAMES[HANDLE].equals(name)) {
+                        user.setTwitterHandles(values);
+                    } else if (FIELD_NAMES[TWITTER_ID].equals(name)) {
+                        user.setTwitterIds(values);
+                    }
+                }
+                in.endObject();
+                users.add(user);
+            }
+            in.endArray();
+            return users;
+        }
+    }
+}
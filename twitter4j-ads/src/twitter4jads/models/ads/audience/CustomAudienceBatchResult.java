@@ -0,0 +1,80 @@
+package twitter4jads.models.ads.audience;
+
+import twitter4jads.internal.models4j.TwitterException;
+
+import java.util.List;
+
+/**
+ * Outcome of one batch of a streamed custom audience upload.
+ */
+public class CustomAudienceBatchResult {
+
+    private final int batchNumber;
+    private final CustomAudienceOperation operation;
+    private final long successCount;
+    private final TwitterException exception;
+    private final List<CustomAudienceUserDetails> rejectedUsers;
+
+    public CustomAudienceBatchResult(int batchNumber, CustomAudienceOperation operation, long successCount, TwitterException exception,
+                                     List<CustomAudienceUserDetails> rejectedUsers) {
+        this.batchNumber = batchNumber;
+        this.operation = operation;
+        this.successCount = successCount;
+        this.exception = exception;
+        this.rejectedUsers = rejectedUsers;
+    }
+
+    /**
+     * @return position of the batch in the upload, starting at 0
+     */
+    public int getBatchNumber() {
+        return batchNumber;
+    }
+
+    /**
+     * @return the operation as sent, with the errors reported by the API filled in
+     */
+    public CustomAudienceOperation getOperation() {
+        return operation;
+    }
+
+    /**
+     * @return number of users the API accepted
+     */
+    public long getSuccessCount() {
+        return successCount;
+    }
+
+    /**
+     * @return the exception if the batch could not be sent at all
+     */
+    public TwitterException getException() {
+        return exception;
+    }
+
+    /**
+     * @return users read for this batch but not sent, because they have no identifier or one that is not a hex encoded
+     * SHA-256 hash
+     */
+    public List<CustomAudienceUserDetails> getRejectedUsers() {
+        return rejectedUsers;
+    }
+
+    public boolean isSuccessful() {
+        return exception == null && rejectedUsers.isEmpty() && operation.getErrors().isEmpty() && operation.getOperationErrors().isEmpty()
+               && successCount == operation.getUserCount();
+    }
+
+    @Override
+    public String toString() {
+        return "CustomAudienceBatchResult{" +
+               "batchNumber=" + batchNumber +
+               ", users=" + operation.getUserCount() +
+               ", successCount=" + successCount +
+               ", rejectedUsers=" + rejectedUsers.size() +
+               ", errors=" + operation.getErrors() +
+               ", operationErrors=" + operation.getOperationErrors() +
+               ", exception=" + exception +
+               '}';
+    }
+}
@@ -18,6 +18,7 @@ public class CustomAudienceOperation {
     private String expireAt;
     private CustomAudienceOperationType operationType;
     private Set<CustomAudienceUserDetails> users;
+    private CompactCustomAudienceUsers compactUsers;
     private List<String> errors = Lists.newArrayList();
     private List<String> operationErrors = Lists.newArrayList();
 
@@ -53,6 +54,27 @@ public class CustomAudienceOperation {
         this.users = users;
     }
 
+    public CompactCustomAudienceUsers getCompactUsers() {
+        return compactUsers;
+    }
+
+    /**
+     * Packed alternative to {@link #setUsers(Set)} for large operations. When set, it is sent instead of {@link #getUsers()}.
+     */
+    public void setCompactUsers(CompactCustomAudienceUsers compactUsers) {
+        this.compactUsers = compactUsers;
+    }
+
+    /**
+     * @return number of users sent by this operation
+     */
+    public int getUserCount() {
+        if (compactUsers != null) {
+            return compactUsers.size();
+        }
+        return users == null ? 0 : users.size();
+    }
+
     public List<String> getErrors() {
         return errors;
     }
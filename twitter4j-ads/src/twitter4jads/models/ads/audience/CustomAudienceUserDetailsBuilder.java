@@ -4,7 +4,8 @@ import java.util.HashSet;
 import java.util.Set;
 
 /**
- * Builder for CustomAudienceUserDetails
+ * Builder for CustomAudienceUserDetails. All values are expected to be normalized and hashed already, see
+ * twitter4jads.helpers.AudienceIdentifierHasher to hash plain values.
  * User: mayankbhargava
  *
  * @date 26/11/18
@@ -1,6 +1,5 @@
 package twitter4jads.util;
 
-import com.google.common.reflect.TypeToken;
 import com.google.gson.Gson;
 import org.joda.time.DateTime;
 import org.joda.time.DateTimeZone;
@@ -9,6 +8,7 @@ import twitter4jads.BaseAdsListResponse;
 import twitter4jads.BaseAdsResponse;
 import twitter4jads.internal.http.HttpResponse;
 import twitter4jads.internal.models4j.RateLimitStatus;
+import twitter4jads.internal.models4j.TwitterException;
 import twitter4jads.models.ads.TrackingTag;
 import twitter4jads.models.ads.TwitterAdObjective;
 import twitter4jads.models.ads.audience.AudienceApiResponse;
@@ -157,19 +157,46 @@ public final class TwitterAdUtil {
         return rv;
     }
 
+    /**
+     * Same as {@link #constructBaseAdsResponse(HttpResponse, String, Type)} but deserializes straight from the response stream.
+     */
+    public static <T> BaseAdsResponse<T> constructBaseAdsResponse(HttpResponse httpResponse, Type type) throws IOException, TwitterException {
+        if (type == null) {
+            // still read the body so that the connection is released
+            httpResponse.asString();
+            return null;
+        }
+        Gson gson = TwitterAdsGson.GSON;
+        BaseAdsResponse<T> baseResponse = httpResponse.asObject(gson, type);
+        RateLimitStatus rateLimitStatus = createFromResponseHeader(httpResponse);
+        baseResponse.setRateLimitStatus(rateLimitStatus);
+        return baseResponse;
+    }
+
     public static <T> BaseAdsResponse<T> constructBaseAdsResponse(HttpResponse httpResponse, String response, Type type) throws IOException {
         if (type == null) {
             return null;
         }
-        Gson gson = new Gson();
+        Gson gson = TwitterAdsGson.GSON;
         BaseAdsResponse<T> baseResponse = gson.fromJson(response, type);
         RateLimitStatus rateLimitStatus = createFromResponseHeader(httpResponse);
         baseResponse.setRateLimitStatus(rateLimitStatus);
         return baseResponse;
     }
 
+    /**
+     * Same as {@link #constructBaseAdsListResponse(HttpResponse, String, Type)} but deserializes straight from the response stream.
+     */
+    public static <T> BaseAdsListResponse<T> constructBaseAdsListResponse(HttpResponse httpResponse, Type type) throws IOException, TwitterException {
+        Gson gson = TwitterAdsGson.GSON;
+        BaseAdsListResponse<T> baseResponse = httpResponse.asObject(gson, type);
+        RateLimitStatus rateLimitStatus = createFromResponseHeader(httpResponse);
+        baseResponse.setRateLimitStatus(rateLimitStatus);
+        return baseResponse;
+    }
+
     public static <T> BaseAdsListResponse<T> constructBaseAdsListResponse(HttpResponse httpResponse, String response, Type type) throws IOException {
-        Gson gson = new Gson();
+        Gson gson = TwitterAdsGson.GSON;
         BaseAdsListResponse<T> baseResponse = gson.fromJson(response, type);
         RateLimitStatus rateLimitStatus = createFromResponseHeader(httpResponse);
         baseResponse.setRateLimitStatus(rateLimitStatus);
@@ -177,7 +204,7 @@ public final class TwitterAdUtil {
     }
 
     public static <T> BaseAdsListBatchPostResponse<T> constructBaseAdsListBatchPostResponse(HttpResponse httpResponse, String response, Type type) throws IOException {
-        Gson gson = new Gson();
+        Gson gson = TwitterAdsGson.GSON;
         BaseAdsListBatchPostResponse<T> baseResponse = gson.fromJson(response, type);
         RateLimitStatus rateLimitStatus = createFromResponseHeader(httpResponse);
         baseResponse.setRateLimitStatus(rateLimitStatus);
@@ -185,10 +212,8 @@ public final class TwitterAdUtil {
     }
 
     public static AudienceApiResponse constructAudienceApiResponse(HttpResponse httpResponse, String response) {
-        Gson gson = new Gson();
-        Type audienceApiResponseType = new TypeToken<AudienceApiResponse>() {
-        }.getType();
-        AudienceApiResponse audienceApiResponse = gson.fromJson(response, audienceApiResponseType);
+        Gson gson = TwitterAdsGson.GSON;
+        AudienceApiResponse audienceApiResponse = gson.fromJson(response, AudienceApiResponse.class);
         RateLimitStatus rateLimitStatus = createFromResponseHeader(httpResponse);
         audienceApiResponse.setRateLimitStatus(rateLimitStatus);
         return audienceApiResponse;
@@ -0,0 +1,90 @@
+package twitter4jads.util;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.reflect.TypeToken;
+import twitter4jads.BaseAdsListResponse;
+import twitter4jads.BaseAdsResponse;
+
+import java.lang.reflect.Type;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Shared, thread-safe Gson used for all ads API (de)serialization.
+ * <p/>
+ * A Gson instance caches the type adapters it builds for every type it has seen, so creating one per call throws that
+ * work away. All serialization should go through {@link #GSON}; custom adapters belong in {@link #createGson()}.
+ * Response types are cached as well, so hot paths do not need to build a {@code TypeToken} per call.
+ */
+public final class TwitterAdsGson {
+
+    public static final Gson GSON = createGson();
+
+    private static final ConcurrentMap<TypeKey, Type> TYPE_CACHE = new ConcurrentHashMap<>();
+
+    private TwitterAdsGson() {
+    }
+
+    private static Gson createGson() {
+        return new GsonBuilder().create();
+    }
+
+    /**
+     * @return {@code BaseAdsResponse<dataType>}
+     */
+    public static Type responseType(Class<?> dataType) {
+        return parameterizedType(BaseAdsResponse.class, dataType);
+    }
+
+    /**
+     * @return {@code BaseAdsListResponse<dataType>}
+     */
+    public static Type listResponseType(Class<?> dataType) {
+        return parameterizedType(BaseAdsListResponse.class, dataType);
+    }
+
+    /**
+     * @return {@code rawType<typeArguments>}, cached
+     */
+    public static Type parameterizedType(Class<?> rawType, Type... typeArguments) {
+        TypeKey key = new TypeKey(rawType, typeArguments);
+        Type type = TYPE_CACHE.get(key);
+        if (type == null) {
+            type = TypeToken.getParameterized(rawType, typeArguments).getType();
+            Type existing = TYPE_CACHE.putIfAbsent(key, type);
+            if (existing != null) {
+                type = existing;
+            }
+        }
+        return type;
+    }
+
+    private static final class TypeKey {
+        private final Class<?> rawType;
+        private final Type[] typeArguments;
+
+        private TypeKey(Class<?> rawType, Type[] typeArguments) {
+            this.rawType = rawType;
+            this.typeArguments = typeArguments;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof TypeKey)) {
+                return false;
+            }
+            TypeKey that = (TypeKey) o;
+            return rawType.equals(that.rawType) && Arrays.equals(typeArguments, that.typeArguments);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * rawType.hashCode() + Arrays.hashCode(typeArguments);
+        }
+    }
+}
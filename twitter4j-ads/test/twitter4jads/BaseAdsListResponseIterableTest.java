@@ -0,0 +1,114 @@
+package twitter4jads;
+
+import com.google.gson.reflect.TypeToken;
+import org.junit.Test;
+import twitter4jads.BaseAdsListResponseIterable.PrefetchingBaseAdsListResponseIterator;
+import twitter4jads.conf.ConfigurationBuilder;
+import twitter4jads.internal.http.HttpParameter;
+import twitter4jads.internal.http.HttpResponse;
+import twitter4jads.internal.models4j.TwitterException;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static twitter4jads.internal.http.StubHttpResponse.withBody;
+
+public class BaseAdsListResponseIterableTest {
+
+    private static final Type TYPE = new TypeToken<BaseAdsListResponse<String>>() {
+    }.getType();
+    private static final int PAGES = 5;
+
+    private final AtomicInteger requests = new AtomicInteger();
+    private final CountDownLatch releaseLastPage = new CountDownLatch(1);
+
+    private final TwitterAdsClient client = new TwitterAdsClient(new ConfigurationBuilder().build(), null) {
+        @Override
+        public HttpResponse get(String url, HttpParameter... params) throws TwitterException {
+            requests.incrementAndGet();
+            int page = 0;
+            for (HttpParameter param : params) {
+                if ("cursor".equals(param.getName())) {
+                    page = Integer.parseInt(param.getValue());
+                }
+            }
+            if (page == PAGES - 1) {
+                try {
+                    releaseLastPage.await();
+                } catch (InterruptedException e) {
+                    throw new TwitterException("interrupted", e);
+                }
+            }
+            return page(page);
+        }
+    };
+
+    @Test
+    public void pagesAreReturnedInOrder() throws Exception {
+        releaseLastPage.countDown();
+        List<String> items = new ArrayList<>();
+        PrefetchingBaseAdsListResponseIterator<String> iterator = iterable().prefetchingIterator(2);
+        while (iterator.hasNext()) {
+            items.addAll(iterator.next().getData());
+        }
+
+        assertEquals(PAGES, items.size());
+        for (int i = 0; i < PAGES; i++) {
+            assertEquals("item" + i, items.get(i));
+        }
+        assertEquals(PAGES - 1, requests.get());
+    }
+
+    @Test(timeout = 10000)
+    public void pageIsReturnedWithoutWaitingForTheFollowingOne() throws Exception {
+        PrefetchingBaseAdsListResponseIterator<String> iterator = iterable().prefetchingIterator(1);
+        try {
+            for (int i = 0; i < PAGES - 1; i++) {
+                assertTrue(iterator.hasNext());
+                assertEquals("item" + i, iterator.next().getData().get(0));
+            }
+            assertTrue(iterator.hasNext());
+            releaseLastPage.countDown();
+            assertEquals("item" + (PAGES - 1), iterator.next().getData().get(0));
+            assertFalse(iterator.hasNext());
+        } finally {
+            releaseLastPage.countDown();
+            iterator.close();
+        }
+    }
+
+    @Test
+    public void closedIteratorStopsFetching() throws Exception {
+        releaseLastPage.countDown();
+        PrefetchingBaseAdsListResponseIterator<String> iterator = iterable().prefetchingIterator(1);
+        iterator.next();
+        iterator.close();
+        TimeUnit.SECONDS.sleep(1);
+        int requestsOnClose = requests.get();
+
+        TimeUnit.SECONDS.sleep(1);
+        assertFalse(iterator.hasNext());
+        assertEquals(requestsOnClose, requests.get());
+        assertTrue(requestsOnClose < PAGES - 1);
+    }
+
+    private BaseAdsListResponseIterable<String> iterable() throws IOException, TwitterException {
+        return new BaseAdsListResponseIterable<>(client, "https://ads-api.twitter.com/accounts/abc1/line_items",
+                                                 Collections.<HttpParameter>emptyList(), TYPE, page(0), false);
+    }
+
+    private static HttpResponse page(int page) {
+        String nextCursor = page == PAGES - 1 ? "null" : "\"" + (page + 1) + "\"";
+        final String body = "{\"data\":[\"item" + page + "\"],\"next_cursor\":" + nextCursor + "}";
+        return withBody(body);
+    }
+}
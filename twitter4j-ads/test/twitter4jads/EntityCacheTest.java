@@ -0,0 +1,167 @@
+package twitter4jads;
+
+import com.google.gson.reflect.TypeToken;
+import org.junit.Test;
+import twitter4jads.internal.http.HttpParameter;
+import twitter4jads.internal.http.RequestMethod;
+
+import java.lang.reflect.Type;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class EntityCacheTest {
+
+    private static final Type TYPE = new TypeToken<BaseAdsResponse<Map<String, String>>>() {
+    }.getType();
+    private static final String ACCOUNT = "https://ads-api.twitter.com/11/accounts/18ce54d4x5t";
+    private static final String OTHER_ACCOUNT = "https://ads-api.twitter.com/11/accounts/5gvk9h";
+    private static final HttpParameter[] NO_PARAMS = new HttpParameter[0];
+
+    private final EntityCache cache = EntityCache.builder()
+                                                 .setTimeToLive(EntityCache.ACCOUNTS, 1, TimeUnit.HOURS)
+                                                 .setTimeToLive(EntityCache.CAMPAIGNS, 1, TimeUnit.HOURS)
+                                                 .setTimeToLive(EntityCache.LINE_ITEMS, 1, TimeUnit.HOURS)
+                                                 .setTimeToLive(EntityCache.WEBSITE_CARDS, 1, TimeUnit.HOURS)
+                                                 .build();
+
+    @Test
+    public void readIsServedFromTheCacheAsANewResponse() {
+        String campaign = ACCOUNT + "/campaigns/8wku2";
+        assertNull(get(campaign));
+        put(campaign, "8wku2");
+
+        BaseAdsResponse<Map<String, String>> first = get(campaign);
+        BaseAdsResponse<Map<String, String>> second = get(campaign);
+        assertEquals("8wku2", first.getData().get("id"));
+        assertNotSame(first, second);
+        assertNotSame(first.getData(), second.getData());
+
+        EntityCache.Statistics statistics = cache.getStatistics().get(EntityCache.CAMPAIGNS);
+        assertEquals(2, statistics.getHits());
+        assertEquals(1, statistics.getMisses());
+    }
+
+    @Test
+    public void onlyEntitiesOfTheConfiguredTypesAreCached() {
+        assertTrue(cache.isCached(ACCOUNT));
+        assertTrue(cache.isCached(ACCOUNT + "/campaigns/8wku2"));
+        assertTrue(cache.isCached(ACCOUNT + "/cards/website/1x2y"));
+        assertFalse(cache.isCached(ACCOUNT + "/funding_instruments/lygyi"));
+        assertFalse(cache.isCached(ACCOUNT + "/campaigns"));
+        assertFalse(cache.isCached("https://ads-api.twitter.com/11/targeting_criteria/locations"));
+    }
+
+    @Test
+    public void parameterVariantsAreKeptApart() {
+        String campaign = ACCOUNT + "/campaigns/8wku2";
+        HttpParameter[] withDeleted = {new HttpParameter("with_deleted", true)};
+        cache.put(campaign, withDeleted, body("deleted"), null, cache.generation());
+
+        assertNull(get(campaign));
+        assertEquals("deleted", cache.<Map<String, String>>get(campaign, withDeleted, TYPE).getData().get("id"));
+    }
+
+    @Test
+    public void updateInvalidatesTheEntityOnly() {
+        put(ACCOUNT + "/campaigns/8wku2", "8wku2");
+        put(ACCOUNT + "/campaigns/9abc", "9abc");
+
+        cache.invalidate(RequestMethod.PUT, ACCOUNT + "/campaigns/8wku2?name=renamed");
+
+        assertNull(get(ACCOUNT + "/campaigns/8wku2"));
+        assertNotNull(get(ACCOUNT + "/campaigns/9abc"));
+    }
+
+    @Test
+    public void createInvalidatesNothing() {
+        put(ACCOUNT + "/campaigns/8wku2", "8wku2");
+        long generation = cache.generation();
+
+        cache.invalidate(RequestMethod.POST, ACCOUNT + "/campaigns?name=new");
+
+        assertNotNull(get(ACCOUNT + "/campaigns/8wku2"));
+        assertEquals(generation, cache.generation());
+    }
+
+    @Test
+    public void deleteInvalidatesTheWholeAccount() {
+        put(ACCOUNT, "18ce54d4x5t");
+        put(ACCOUNT + "/campaigns/8wku2", "8wku2");
+        put(ACCOUNT + "/line_items/abc1", "abc1");
+        put(OTHER_ACCOUNT + "/campaigns/8wku2", "other");
+
+        cache.invalidate(RequestMethod.DELETE, ACCOUNT + "/campaigns/8wku2");
+
+        assertNull(get(ACCOUNT));
+        assertNull(get(ACCOUNT + "/campaigns/8wku2"));
+        assertNull(get(ACCOUNT + "/line_items/abc1"));
+        assertEquals("other", get(OTHER_ACCOUNT + "/campaigns/8wku2").getData().get("id"));
+    }
+
+    @Test
+    public void batchInvalidatesTheWholeAccount() {
+        put(ACCOUNT + "/line_items/abc1", "abc1");
+        put(OTHER_ACCOUNT + "/line_items/abc1", "other");
+
+        cache.invalidate(RequestMethod.POST, "https://ads-api.twitter.com/11/batch/accounts/18ce54d4x5t/line_items");
+
+        assertNull(get(ACCOUNT + "/line_items/abc1"));
+        assertNotNull(get(OTHER_ACCOUNT + "/line_items/abc1"));
+    }
+
+    @Test
+    public void readRacingWithAnInvalidationIsNotCached() {
+        String campaign = ACCOUNT + "/campaigns/8wku2";
+        long generationBeforeRequest = cache.generation();
+        cache.invalidate(RequestMethod.PUT, campaign);
+
+        cache.put(campaign, NO_PARAMS, body("stale"), null, generationBeforeRequest);
+
+        assertNull(get(campaign));
+    }
+
+    @Test
+    public void entityExpiresAfterTheTimeToLiveOfItsType() throws Exception {
+        EntityCache shortLived = EntityCache.builder()
+                                            .setTimeToLive(EntityCache.CAMPAIGNS, 50, TimeUnit.MILLISECONDS)
+                                            .setTimeToLive(EntityCache.LINE_ITEMS, 1, TimeUnit.HOURS)
+                                            .build();
+        shortLived.put(ACCOUNT + "/campaigns/8wku2", NO_PARAMS, body("8wku2"), null, shortLived.generation());
+        shortLived.put(ACCOUNT + "/line_items/abc1", NO_PARAMS, body("abc1"), null, shortLived.generation());
+
+        TimeUnit.MILLISECONDS.sleep(100);
+
+        assertNull(shortLived.get(ACCOUNT + "/campaigns/8wku2", NO_PARAMS, TYPE));
+        assertNotNull(shortLived.get(ACCOUNT + "/line_items/abc1", NO_PARAMS, TYPE));
+    }
+
+    @Test
+    public void sizeIsBounded() {
+        EntityCache small = EntityCache.builder().setMaximumSize(10).setTimeToLive(EntityCache.CAMPAIGNS, 1, TimeUnit.HOURS).build();
+        for (int i = 0; i < 100; i++) {
+            small.put(ACCOUNT + "/campaigns/c" + i, NO_PARAMS, body("c" + i), null, small.generation());
+        }
+
+        assertTrue(small.size() <= 10);
+        assertTrue(small.getEvictionCount() >= 90);
+    }
+
+    private BaseAdsResponse<Map<String, String>> get(String url) {
+        return cache.get(url, NO_PARAMS, TYPE);
+    }
+
+    private void put(String url, String id) {
+        cache.put(url, NO_PARAMS, body(id), null, cache.generation());
+    }
+
+    private static String body(String id) {
+        return "{\"data\":{\"id\":\"" + id + "\"}}";
+    }
+}
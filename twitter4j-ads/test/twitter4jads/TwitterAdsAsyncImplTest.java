@@ -0,0 +1,177 @@
+package twitter4jads;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.Test;
+import twitter4jads.conf.ConfigurationBuilder;
+import twitter4jads.internal.async.TwitterAdsExecutors;
+import twitter4jads.internal.http.ExponentialBackoffRetryPolicy;
+import twitter4jads.internal.http.HttpRequest;
+import twitter4jads.internal.http.PooledHttpClientImpl;
+import twitter4jads.internal.http.RequestMethod;
+import twitter4jads.internal.models4j.TwitterException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class TwitterAdsAsyncImplTest {
+
+    @Test(timeout = 10000)
+    public void callsRunConcurrently() throws Exception {
+        TwitterAdsAsync async = new TwitterAdsAsyncImpl(null, TwitterAdsExecutors.newFixedThreadPool("test", 4));
+        assertConcurrent(async, 4);
+        async.shutdown();
+    }
+
+    @Test(timeout = 10000)
+    public void poolIsSizedForTheConnectionPool() throws Exception {
+        TwitterAdsAsync async = new TwitterAdsFactory(new ConfigurationBuilder().setHttpMaxTotalConnections(7).build()).getAdsAsyncInstance();
+        assertConcurrent(async, 7);
+        async.shutdown();
+    }
+
+    @Test(timeout = 10000)
+    public void deserializedInstanceHasAPoolOfItsOwn() throws Exception {
+        TwitterAdsAsync async = new TwitterAdsFactory(new ConfigurationBuilder().setHttpMaxTotalConnections(3).build()).getAdsAsyncInstance();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(async);
+        }
+        async.shutdown();
+
+        TwitterAdsAsync deserialized;
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            deserialized = (TwitterAdsAsync) in.readObject();
+        }
+        assertConcurrent(deserialized, 3);
+        deserialized.shutdown();
+    }
+
+    @Test
+    public void failureCompletesTheFutureExceptionally() throws Exception {
+        TwitterAdsAsync async = new TwitterAdsAsyncImpl(null, TwitterAdsExecutors.newFixedThreadPool("test", 1));
+        final TwitterException failure = new TwitterException("failed");
+        try {
+            async.execute(new TwitterAdsCallable<Object>() {
+                @Override
+                public Object call(TwitterAds twitterAds) throws TwitterException {
+                    throw failure;
+                }
+            }).get(5, TimeUnit.SECONDS);
+            fail("the failure was swallowed");
+        } catch (ExecutionException e) {
+            assertEquals(failure, e.getCause());
+        }
+        async.shutdown();
+    }
+
+    @Test
+    public void callAfterShutdownCompletesExceptionally() throws Exception {
+        TwitterAdsAsync async = new TwitterAdsAsyncImpl(null, TwitterAdsExecutors.newFixedThreadPool("test", 1));
+        async.shutdown();
+
+        CompletableFuture<Object> future = async.execute(new TwitterAdsCallable<Object>() {
+            @Override
+            public Object call(TwitterAds twitterAds) {
+                return new Object();
+            }
+        });
+
+        assertTrue(future.isCompletedExceptionally());
+        try {
+            future.get();
+            fail("a call made after shutdown completed");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof RejectedExecutionException);
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void backingOffCallGivesItsThreadBack() throws Exception {
+        final AtomicInteger requests = new AtomicInteger();
+        HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                exchange.getResponseHeaders().set("Connection", "close");
+                exchange.sendResponseHeaders(requests.incrementAndGet() == 1 ? 503 : 200, -1);
+                exchange.close();
+            }
+        });
+        server.start();
+        final PooledHttpClientImpl http = new PooledHttpClientImpl(new ConfigurationBuilder().build()) {
+            @Override
+            protected String ensureHttps(String url) {
+                return url;
+            }
+        };
+        http.setRetryPolicy(new ExponentialBackoffRetryPolicy.Builder().setMaxRetries(1).setBaseDelayMillis(1000).build());
+        final String url = "http://localhost:" + server.getAddress().getPort() + "/11/accounts/abc1/line_items";
+        TwitterAdsCallable<Integer> get = new TwitterAdsCallable<Integer>() {
+            @Override
+            public Integer call(TwitterAds twitterAds) throws TwitterException {
+                return http.request(new HttpRequest(RequestMethod.GET, url, null, null, null, null)).getStatusCode();
+            }
+        };
+        TwitterAdsAsync async = new TwitterAdsAsyncImpl(null, TwitterAdsExecutors.newFixedThreadPool("test", 1));
+        try {
+            CompletableFuture<Integer> backingOff = async.execute(get);
+            while (requests.get() == 0) {
+                TimeUnit.MILLISECONDS.sleep(10);
+            }
+
+            // served by the only thread of the pool while the first call waits for its retry
+            assertEquals(Integer.valueOf(200), async.execute(get).get(500, TimeUnit.MILLISECONDS));
+            assertFalse(backingOff.isDone());
+            assertEquals(Integer.valueOf(200), backingOff.get());
+            assertEquals(3, requests.get());
+        } finally {
+            async.shutdown();
+            http.shutdown();
+            server.stop(0);
+        }
+    }
+
+    private static void assertConcurrent(TwitterAdsAsync async, int calls) throws Exception {
+        final CountDownLatch allStarted = new CountDownLatch(calls);
+        List<CompletableFuture<Integer>> futures = new ArrayList<>();
+        for (int i = 0; i < calls; i++) {
+            final int call = i;
+            futures.add(async.execute(new TwitterAdsCallable<Integer>() {
+                @Override
+                public Integer call(TwitterAds twitterAds) throws TwitterException {
+                    allStarted.countDown();
+                    try {
+                        // only returns if every call is in flight at the same time
+                        allStarted.await();
+                    } catch (InterruptedException e) {
+                        throw new TwitterException("interrupted", e);
+                    }
+                    return call;
+                }
+            }));
+        }
+
+        for (int i = 0; i < calls; i++) {
+            assertEquals(Integer.valueOf(i), futures.get(i).get());
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package twitter4jads;
+
+import com.google.gson.reflect.TypeToken;
+import org.junit.Test;
+import twitter4jads.conf.ConfigurationBuilder;
+import twitter4jads.internal.http.HttpParameter;
+import twitter4jads.internal.http.HttpResponse;
+import twitter4jads.internal.models4j.TwitterException;
+
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+import static twitter4jads.internal.http.StubHttpResponse.withBody;
+
+public class TwitterAdsClientTest {
+
+    private static final Type TYPE = new TypeToken<BaseAdsListResponse<String>>() {
+    }.getType();
+    private static final String LINE_ITEMS = "https://ads-api.twitter.com/11/accounts/18ce54d4x5t/line_items";
+    private static final int MAX_IDS = 3;
+    // the ids of a request are returned two per page
+    private static final int PAGE_SIZE = 2;
+
+    private final List<String> requests = new CopyOnWriteArrayList<>();
+    private volatile String failingId;
+
+    private final TwitterAdsClient client = new TwitterAdsClient(new ConfigurationBuilder().build(), null) {
+        @Override
+        public HttpResponse get(String url, HttpParameter... params) throws TwitterException {
+            List<String> ids = new ArrayList<>();
+            int cursor = 0;
+            StringBuilder request = new StringBuilder();
+            for (HttpParameter param : params) {
+                request.append(request.length() == 0 ? "" : "&").append(param.getName()).append('=').append(param.getValue());
+                if ("cursor".equals(param.getName())) {
+                    cursor = Integer.parseInt(param.getValue());
+                } else if (param.getName().endsWith("_ids")) {
+                    for (String id : param.getValue().split(",")) {
+                        ids.add(param.getName().charAt(0) + id);
+                    }
+                }
+            }
+            requests.add(request.toString());
+            if (failingId != null && ids.contains(failingId)) {
+                throw new TwitterException("failed", null, 503);
+            }
+            List<String> page = ids.subList(Math.min(cursor, ids.size()), Math.min(cursor + PAGE_SIZE, ids.size()));
+            return page(page, cursor + PAGE_SIZE < ids.size() ? String.valueOf(cursor + PAGE_SIZE) : null);
+        }
+    };
+
+    @Test
+    public void shortIdListIsSentInOneRequest() throws Exception {
+        assertEquals(Arrays.asList("l1", "l2", "l3"), listAll(filters("line_item_ids", "1", "2", "3")));
+
+        assertEquals(Arrays.asList("line_item_ids=1,2,3", "line_item_ids=1,2,3&cursor=2"), requests);
+    }
+
+    @Test
+    public void longIdListIsSplitAndEveryIdReturnedOnceInOrder() throws Exception {
+        List<String> ids = listAll(filters("line_item_ids", "1", "2", "3", "4", "2", "5", "6", "7"));
+
+        assertEquals(Arrays.asList("l1", "l2", "l3", "l4", "l5", "l6", "l7"), ids);
+        assertEquals(Arrays.asList("line_item_ids=1,2,3", "line_item_ids=4,5,6", "line_item_ids=7"), sorted(firstPageRequests()));
+        // the second pages of the full chunks
+        assertEquals(5, requests.size());
+    }
+
+    @Test
+    public void requestIsSplitPerCombinationOfLongLists() throws Exception {
+        Map<String, Collection<String>> filters = filters("line_item_ids", "1", "2", "3", "4");
+        filters.put("campaign_ids", Arrays.asList("7", "8", "9", "10"));
+
+        List<String> ids = listAll(filters);
+
+        assertEquals(Arrays.asList("line_item_ids=1,2,3&campaign_ids=10", "line_item_ids=1,2,3&campaign_ids=7,8,9",
+                                   "line_item_ids=4&campaign_ids=10", "line_item_ids=4&campaign_ids=7,8,9"), sorted(firstPageRequests()));
+        assertEquals(Arrays.asList("l1", "l2", "l3", "c7", "c8", "c9",
+                                   "l1", "l2", "l3", "c10",
+                                   "l4", "c7", "c8", "c9",
+                                   "l4", "c10"), ids);
+    }
+
+    @Test
+    public void cursorCannotBeUsedWithASplitRequest() throws Exception {
+        try {
+            client.executeHttpListRequest(LINE_ITEMS, new ArrayList<>(Collections.singletonList(new HttpParameter("cursor", "2"))), TYPE,
+                                          filters("line_item_ids", "1", "2", "3", "4"), MAX_IDS);
+            fail("the cursor was applied to one of the sub-requests");
+        } catch (IllegalArgumentException expected) {
+            assertEquals(0, requests.size());
+        }
+    }
+
+    @Test
+    public void failedSubRequestFailsTheListing() throws Exception {
+        failingId = "l5";
+        try {
+            listAll(filters("line_item_ids", "1", "2", "3", "4", "5", "6", "7"));
+            fail("the failed sub-request was ignored");
+        } catch (TwitterException e) {
+            assertEquals(503, e.getStatusCode());
+        }
+    }
+
+    private List<String> listAll(Map<String, Collection<String>> filters) throws TwitterException {
+        List<String> ids = new ArrayList<>();
+        BaseAdsListResponseIterable<String> iterable = client.executeHttpListRequest(LINE_ITEMS, new ArrayList<HttpParameter>(), TYPE,
+                                                                                     filters, MAX_IDS);
+        for (BaseAdsListResponse<String> page : iterable) {
+            ids.addAll(page.getData());
+        }
+        return ids;
+    }
+
+    private List<String> firstPageRequests() {
+        List<String> firstPages = new ArrayList<>();
+        for (String request : requests) {
+            if (!request.contains("cursor=")) {
+                firstPages.add(request);
+            }
+        }
+        return firstPages;
+    }
+
+    private static Map<String, Collection<String>> filters(String name, String... ids) {
+        Map<String, Collection<String>> filters = new LinkedHashMap<>();
+        filters.put(name, Arrays.asList(ids));
+        return filters;
+    }
+
+    private static List<String> sorted(List<String> values) {
+        List<String> sorted = new ArrayList<>(values);
+        Collections.sort(sorted);
+        return sorted;
+    }
+
+    private static HttpResponse page(List<String> ids, String nextCursor) {
+        StringBuilder body = new StringBuilder("{\"data\":[");
+        for (int i = 0; i < ids.size(); i++) {
+            body.append(i == 0 ? "" : ",").append('"').append(ids.get(i)).append('"');
+        }
+        body.append("],\"next_cursor\":").append(nextCursor == null ? "null" : "\"" + nextCursor + "\"").append('}');
+        return withBody(body.toString());
+    }
+}
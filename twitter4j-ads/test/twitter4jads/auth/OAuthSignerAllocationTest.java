@@ -0,0 +1,70 @@
+package twitter4jads.auth;
+
+import org.junit.Test;
+import twitter4jads.conf.ConfigurationBuilder;
+import twitter4jads.internal.http.HttpParameter;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Compares the bytes allocated per signature by {@link OAuthSigner} and by the code it replaced. The jmh source set has
+ * the benchmark of the same request, {@code OAuthSignerBenchmark}.
+ */
+public class OAuthSignerAllocationTest {
+
+    private static final int SIGNATURES = 20000;
+    private static final String CONSUMER_KEY = "xvz1evFS4wEEPTGEFPHBog";
+    private static final String CONSUMER_SECRET = "kAcSOqF21Fu85e7zjz7ZN2U4ZRhfV3WpwPAoE3Z7kBw";
+    private static final AccessToken TOKEN = new AccessToken("370773112-GmHxMAgYyLbNEtIKZeRNFsMKPR9EyMZeS9weJAEb",
+                                                             "LswwdoUaIvS8ltyTt5jkRh4J50vUPVVHtR2YPi5kE");
+    private static final String URL = "https://ads-api.twitter.com/11/stats/accounts/18ce54d4x5t?entity=LINE_ITEM&granularity=DAY";
+    private static final HttpParameter[] PARAMS = {new HttpParameter("entity_ids", "8u94t,8v53k,8wztq"),
+            new HttpParameter("metric_groups", "ENGAGEMENT,BILLING"), new HttpParameter("start_time", "2017-05-19T07:00:00Z")};
+
+    private final OAuthAuthorization authorization = new OAuthAuthorization(
+            new ConfigurationBuilder().setOAuthConsumerKey(CONSUMER_KEY).setOAuthConsumerSecret(CONSUMER_SECRET).build());
+    // keeps the headers from being optimized away
+    private long sink;
+
+    @Test
+    public void signatureAllocatesLessThanWithThePreviousSigner() {
+        java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        assumeTrue(threads instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean allocations = (com.sun.management.ThreadMXBean) threads;
+        assumeTrue(allocations.isThreadAllocatedMemorySupported() && allocations.isThreadAllocatedMemoryEnabled());
+
+        Runnable previous = new Runnable() {
+            @Override
+            public void run() {
+                sink += PreviousOAuthSigner.authorizationHeader(CONSUMER_KEY, CONSUMER_SECRET, "GET", URL, PARAMS, "4629346538",
+                                                                "1318622958", TOKEN, null).length();
+            }
+        };
+        Runnable current = new Runnable() {
+            @Override
+            public void run() {
+                sink += authorization.generateAuthorizationHeader("GET", URL, PARAMS, "4629346538", "1318622958", TOKEN).length();
+            }
+        };
+        // the first round only warms up both
+        bytesPerSignature(allocations, previous);
+        bytesPerSignature(allocations, current);
+        long previousBytes = bytesPerSignature(allocations, previous);
+        long currentBytes = bytesPerSignature(allocations, current);
+
+        assertTrue("bytes per signature: " + currentBytes + ", previously " + previousBytes, currentBytes * 2 < previousBytes);
+        assertTrue(sink > 0);
+    }
+
+    private static long bytesPerSignature(com.sun.management.ThreadMXBean allocations, Runnable signature) {
+        long threadId = Thread.currentThread().getId();
+        long before = allocations.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < SIGNATURES; i++) {
+            signature.run();
+        }
+        return (allocations.getThreadAllocatedBytes(threadId) - before) / SIGNATURES;
+    }
+}
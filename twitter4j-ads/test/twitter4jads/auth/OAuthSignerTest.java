@@ -0,0 +1,130 @@
+package twitter4jads.auth;
+
+import org.junit.Test;
+import twitter4jads.conf.ConfigurationBuilder;
+import twitter4jads.internal.http.HttpParameter;
+
+import java.io.ByteArrayInputStream;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class OAuthSignerTest {
+
+    private static final String CONSUMER_KEY = "xvz1evFS4wEEPTGEFPHBog";
+    private static final String CONSUMER_SECRET = "kAcSOqF21Fu85e7zjz7ZN2U4ZRhfV3WpwPAoE3Z7kBw";
+    private static final AccessToken TOKEN = new AccessToken("370773112-GmHxMAgYyLbNEtIKZeRNFsMKPR9EyMZeS9weJAEb",
+                                                             "LswwdoUaIvS8ltyTt5jkRh4J50vUPVVHtR2YPi5kE");
+    private static final String[] URLS = {
+            "https://ads-api.twitter.com/11/accounts/18ce54d4x5t/line_items",
+            "https://ads-api.twitter.com/11/accounts/18ce54d4x5t/line_items?count=1000&with_deleted=true",
+            "HTTPS://Ads-API.Twitter.com:443/11/accounts?account_ids=a%2Cb&q=caf%C3%A9+bar",
+            "http://localhost:8080/11/stats?metric_groups=ENGAGEMENT&metric_groups=BILLING&flag",
+            "https://ads-api.twitter.com/11/targeting_criteria/locations?q=new%20york&q=a=b=c&",
+            "https://ads-api.twitter.com/11/accounts/abc1/cards?",
+    };
+    private static final String VALUE_CHARACTERS = "aZ09 -._~*+=&%!?/:@,;$'()[]#\"\\é中😀";
+
+    private final Random random = new Random(17);
+
+    // the example request of Twitter's "Creating a signature" guide
+    @Test
+    public void signatureOfTheReferenceRequestIsUnchanged() {
+        OAuthAuthorization authorization = authorization();
+        HttpParameter[] params = {new HttpParameter("status", "Hello Ladies + Gentlemen, a signed OAuth request!")};
+
+        String header = authorization.generateAuthorizationHeader("POST", "https://api.twitter.com/1/statuses/update.json?include_entities=true",
+                                                                  params, "kYjzVBB8Y0ZFabxSWbWovY3uYSQ2pTgmZeNu2VS4cg", "1318622958", TOKEN);
+
+        assertTrue(header, header.contains("oauth_signature=\"tnnArxj06cWHq44gCs1OSKk%2FjLY%3D\""));
+    }
+
+    @Test
+    public void headerIsTheOneOfThePreviousSigner() {
+        for (int i = 0; i < 500; i++) {
+            String method = random.nextBoolean() ? "GET" : "POST";
+            String url = URLS[random.nextInt(URLS.length)];
+            HttpParameter[] params = randomParameters();
+            String nonce = String.valueOf(random.nextLong());
+            String timestamp = String.valueOf(1500000000 + random.nextInt(100000000));
+            OAuthToken token = random.nextInt(4) == 0 ? null : TOKEN;
+            String realm = random.nextInt(4) == 0 ? "https://ads-api.twitter.com/" : null;
+
+            OAuthAuthorization authorization = authorization();
+            authorization.setOAuthRealm(realm);
+            assertEquals(url + " " + Arrays.toString(params),
+                         previousAuthorizationHeader(method, url, params, nonce, timestamp, token, realm),
+                         authorization.generateAuthorizationHeader(method, url, params, nonce, timestamp, token));
+        }
+    }
+
+    @Test
+    public void fileParametersAreLeftOutOfTheSignature() {
+        HttpParameter[] params = {new HttpParameter("media_id", "710511363345354753"),
+                new HttpParameter("media", "segment-0", new ByteArrayInputStream(new byte[16]))};
+
+        assertEquals(previousAuthorizationHeader("POST", URLS[0], params, "1", "1318622958", TOKEN, null),
+                     authorization().generateAuthorizationHeader("POST", URLS[0], params, "1", "1318622958", TOKEN));
+    }
+
+    @Test
+    public void signedParametersAreTheOnesOfThePreviousSigner() {
+        OAuthSigner signer = new OAuthSigner(CONSUMER_KEY, CONSUMER_SECRET, TOKEN);
+        for (String url : URLS) {
+            HttpParameter[] signed = signer.signedOAuthParameters("GET", url, null, "42", "1318622958");
+            String header = "OAuth " + PreviousOAuthSigner.encodeParameters(Arrays.asList(signed), ",", true);
+
+            assertEquals(url, previousAuthorizationHeader("GET", url, null, "42", "1318622958", TOKEN, null), header);
+        }
+    }
+
+    @Test
+    public void newEncodingIsThePreviousOne() {
+        for (int i = 0; i < 1000; i++) {
+            String value = randomValue();
+            assertEquals(value, PreviousOAuthSigner.encode(value), HttpParameter.encode(value));
+        }
+    }
+
+    private OAuthAuthorization authorization() {
+        return new OAuthAuthorization(new ConfigurationBuilder().setOAuthConsumerKey(CONSUMER_KEY)
+                                                                .setOAuthConsumerSecret(CONSUMER_SECRET)
+                                                                .build());
+    }
+
+    private HttpParameter[] randomParameters() {
+        int count = random.nextInt(6);
+        if (count == 0 && random.nextBoolean()) {
+            return null;
+        }
+        HttpParameter[] params = new HttpParameter[count];
+        for (int i = 0; i < count; i++) {
+            // a few shared names, so that parameters are also sorted by value
+            String name = random.nextBoolean() ? "p" + random.nextInt(3) : randomValue();
+            params[i] = random.nextInt(5) == 0 ? new HttpParameter(name, random.nextLong()) : new HttpParameter(name, randomValue());
+        }
+        return params;
+    }
+
+    private String randomValue() {
+        StringBuilder value = new StringBuilder();
+        int length = random.nextInt(12);
+        for (int i = 0; i < length; i++) {
+            char c = VALUE_CHARACTERS.charAt(random.nextInt(VALUE_CHARACTERS.length()));
+            value.append(c);
+            if (Character.isHighSurrogate(c)) {
+                value.append('\ude00');
+            } else if (Character.isLowSurrogate(c)) {
+                value.insert(value.length() - 1, '\ud83d');
+            }
+        }
+        return value.toString();
+    }
+
+    private static String previousAuthorizationHeader(String method, String url, HttpParameter[] params, String nonce, String timestamp,
+                                                      OAuthToken token, String realm) {
+        return PreviousOAuthSigner.authorizationHeader(CONSUMER_KEY, CONSUMER_SECRET, method, url, params, nonce, timestamp, token, realm);
+    }
+}
@@ -0,0 +1,126 @@
+package twitter4jads.auth;
+
+import twitter4jads.internal.http.BASE64Encoder;
+import twitter4jads.internal.http.HttpParameter;
+import twitter4jads.internal.util.z_T4JInternalStringUtil;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.UnsupportedEncodingException;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The signing code {@link OAuthSigner} replaced, kept as a reference for its output and its cost.
+ */
+final class PreviousOAuthSigner {
+
+    private PreviousOAuthSigner() {
+    }
+
+    static String authorizationHeader(String consumerKey, String consumerSecret, String method, String url, HttpParameter[] params,
+                                      String nonce, String timestamp, OAuthToken token, String realm) {
+        if (params == null) {
+            params = new HttpParameter[0];
+        }
+        List<HttpParameter> oauthHeaderParams = new ArrayList<HttpParameter>(5);
+        oauthHeaderParams.add(new HttpParameter("oauth_consumer_key", consumerKey));
+        oauthHeaderParams.add(new HttpParameter("oauth_signature_method", "HMAC-SHA1"));
+        oauthHeaderParams.add(new HttpParameter("oauth_timestamp", timestamp));
+        oauthHeaderParams.add(new HttpParameter("oauth_nonce", nonce));
+        oauthHeaderParams.add(new HttpParameter("oauth_version", "1.0"));
+        if (token != null) {
+            oauthHeaderParams.add(new HttpParameter("oauth_token", token.getToken()));
+        }
+        List<HttpParameter> signatureBaseParams = new ArrayList<HttpParameter>(oauthHeaderParams);
+        if (!HttpParameter.containsFile(params)) {
+            signatureBaseParams.addAll(Arrays.asList(params));
+        }
+        int queryStart = url.indexOf("?");
+        if (-1 != queryStart) {
+            for (String query : z_T4JInternalStringUtil.split(url.substring(queryStart + 1), "&")) {
+                String[] split = z_T4JInternalStringUtil.split(query, "=");
+                signatureBaseParams.add(new HttpParameter(decode(split[0]), split.length == 2 ? decode(split[1]) : ""));
+            }
+        }
+        Collections.sort(signatureBaseParams);
+        String base = method + "&" + encode(OAuthAuthorization.constructRequestURL(url)) + "&"
+                      + encode(encodeParameters(signatureBaseParams, "&", false));
+
+        String key = encode(consumerSecret) + "&" + (token == null ? "" : encode(token.getTokenSecret()));
+        oauthHeaderParams.add(new HttpParameter("oauth_signature", sign(base, key)));
+        if (realm != null) {
+            oauthHeaderParams.add(new HttpParameter("realm", realm));
+        }
+        return "OAuth " + encodeParameters(oauthHeaderParams, ",", true);
+    }
+
+    private static String sign(String data, String key) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA1");
+            mac.init(new SecretKeySpec(key.getBytes(), "HmacSHA1"));
+            return BASE64Encoder.encode(mac.doFinal(data.getBytes()));
+        } catch (Exception e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    static String encodeParameters(List<HttpParameter> httpParams, String splitter, boolean quot) {
+        StringBuilder buf = new StringBuilder();
+        for (HttpParameter param : httpParams) {
+            if (!param.isFile()) {
+                if (buf.length() != 0) {
+                    if (quot) {
+                        buf.append("\"");
+                    }
+                    buf.append(splitter);
+                }
+                buf.append(encode(param.getName())).append("=");
+                if (quot) {
+                    buf.append("\"");
+                }
+                buf.append(encode(param.getValue()));
+            }
+        }
+        if (buf.length() != 0 && quot) {
+            buf.append("\"");
+        }
+        return buf.toString();
+    }
+
+    static String encode(String value) {
+        String encoded;
+        try {
+            encoded = URLEncoder.encode(value, "UTF-8");
+        } catch (UnsupportedEncodingException e) {
+            throw new AssertionError(e);
+        }
+        StringBuilder buf = new StringBuilder(encoded.length());
+        for (int i = 0; i < encoded.length(); i++) {
+            char focus = encoded.charAt(i);
+            if (focus == '*') {
+                buf.append("%2A");
+            } else if (focus == '+') {
+                buf.append("%20");
+            } else if (focus == '%' && (i + 1) < encoded.length() && encoded.charAt(i + 1) == '7' && encoded.charAt(i + 2) == 'E') {
+                buf.append('~');
+                i += 2;
+            } else {
+                buf.append(focus);
+            }
+        }
+        return buf.toString();
+    }
+
+    private static String decode(String value) {
+        try {
+            return URLDecoder.decode(value, "UTF-8");
+        } catch (UnsupportedEncodingException e) {
+            throw new AssertionError(e);
+        }
+    }
+}
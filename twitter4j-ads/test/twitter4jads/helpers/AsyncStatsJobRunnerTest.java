@@ -0,0 +1,169 @@
+package twitter4jads.helpers;
+
+import com.google.common.base.Optional;
+import com.google.gson.reflect.TypeToken;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import twitter4jads.BaseAdsListResponse;
+import twitter4jads.BaseAdsListResponseIterable;
+import twitter4jads.BaseAdsResponse;
+import twitter4jads.StatsJobDataIterator;
+import twitter4jads.TwitterAdsClient;
+import twitter4jads.api.TwitterAdsStatApi;
+import twitter4jads.conf.ConfigurationBuilder;
+import twitter4jads.internal.http.HttpParameter;
+import twitter4jads.internal.http.HttpResponse;
+import twitter4jads.internal.models4j.TwitterException;
+import twitter4jads.models.Granularity;
+import twitter4jads.models.TwitterSegmentationType;
+import twitter4jads.models.ads.JobDetails;
+import twitter4jads.models.ads.TwitterEntityStatistics;
+import twitter4jads.models.ads.TwitterEntityType;
+import twitter4jads.util.TwitterAdUtil;
+
+import java.io.StringReader;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+import static twitter4jads.TwitterAdsConstants.MAX_STATS_JOB_ENTITY_IDS;
+import static twitter4jads.internal.http.StubHttpResponse.withBody;
+
+public class AsyncStatsJobRunnerTest {
+
+    private final AtomicInteger jobsCreated = new AtomicInteger();
+    private final AtomicInteger downloadsRunning = new AtomicInteger();
+    private volatile boolean jobMissing;
+    private volatile boolean statusPageFails;
+    private final Consumer<TwitterEntityStatistics> received = new Consumer<TwitterEntityStatistics>() {
+        @Override
+        public void accept(TwitterEntityStatistics statistics) {
+        }
+    };
+
+    private final TwitterAdsClient client = new TwitterAdsClient(new ConfigurationBuilder().build(), null) {
+        @Override
+        public HttpResponse get(String url, HttpParameter... params) throws TwitterException {
+            throw new TwitterException("status page failed", null, 503);
+        }
+    };
+    private final TwitterAdsStatApi statApi = (TwitterAdsStatApi) Proxy.newProxyInstance(
+            TwitterAdsStatApi.class.getClassLoader(), new Class<?>[]{TwitterAdsStatApi.class}, new InvocationHandler() {
+                @Override
+                public Object invoke(Object proxy, Method method, Object[] args) throws Exception {
+                    switch (method.getName()) {
+                        case "createAsyncJob":
+                            return createAsyncJob();
+                        case "getJobExecutionDetails":
+                            return jobExecutionDetails();
+                        case "streamJobDataAsync":
+                            return jobData((String) args[0]);
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                }
+            });
+    private final AsyncStatsJobRunner runner = new AsyncStatsJobRunner(statApi, 2);
+
+    @Before
+    public void setUp() {
+        runner.setPollInterval(1, 1, TimeUnit.MILLISECONDS);
+    }
+
+    @After
+    public void tearDown() {
+        runner.shutdown();
+    }
+
+    @Test
+    public void responseWithoutJobIsReported() throws Exception {
+        jobMissing = true;
+        try {
+            run(ids(1), received);
+            fail("the missing job was ignored");
+        } catch (TwitterException expected) {
+        }
+    }
+
+    @Test
+    public void failedStatusPageIsThrownAsTwitterException() throws Exception {
+        statusPageFails = true;
+        try {
+            run(ids(1), received);
+            fail("the failed status page was ignored");
+        } catch (TwitterException expected) {
+        }
+    }
+
+    @Test
+    public void consumerFailureIsThrownOnceTheOtherDownloadsAreOver() throws Exception {
+        final RuntimeException failure = new IllegalStateException("consumer failed");
+        try {
+            // job0 is downloaded at once and refused by the consumer, job1 takes a while
+            run(ids(2 * MAX_STATS_JOB_ENTITY_IDS), new Consumer<TwitterEntityStatistics>() {
+                @Override
+                public void accept(TwitterEntityStatistics statistics) {
+                    throw failure;
+                }
+            });
+            fail("the consumer failure was ignored");
+        } catch (IllegalStateException e) {
+            assertSame(failure, e);
+        }
+
+        assertEquals(0, downloadsRunning.get());
+    }
+
+    private void run(List<String> ids, Consumer<TwitterEntityStatistics> consumer) throws TwitterException {
+        runner.run("abc1", TwitterEntityType.LINE_ITEM, ids, 0, TimeUnit.DAYS.toMillis(1), false, Granularity.DAY, null,
+                   Optional.<TwitterSegmentationType>absent(), consumer);
+    }
+
+    private BaseAdsResponse<JobDetails> createAsyncJob() {
+        BaseAdsResponse<JobDetails> response = new BaseAdsResponse<>();
+        if (!jobMissing) {
+            JobDetails job = new JobDetails();
+            job.setJobId("job" + jobsCreated.getAndIncrement());
+            response.setData(job);
+        }
+        return response;
+    }
+
+    private BaseAdsListResponseIterable<JobDetails> jobExecutionDetails() throws Exception {
+        String body;
+        if (statusPageFails) {
+            body = "{\"data\":[{\"id\":\"job0\",\"status\":\"PROCESSING\"}],\"next_cursor\":\"1\"}";
+        } else {
+            body = "{\"data\":[{\"id\":\"job0\",\"status\":\"SUCCESS\",\"url\":\"job0\"},"
+                   + "{\"id\":\"job1\",\"status\":\"SUCCESS\",\"url\":\"job1\"}]}";
+        }
+        return new BaseAdsListResponseIterable<>(client, "jobs", null, new TypeToken<BaseAdsListResponse<JobDetails>>() {
+        }.getType(), withBody(body), false);
+    }
+
+    private StatsJobDataIterator<TwitterEntityStatistics> jobData(String url) {
+        if ("job1".equals(url)) {
+            downloadsRunning.incrementAndGet();
+            TwitterAdUtil.reallySleep(300);
+            downloadsRunning.decrementAndGet();
+        }
+        return new StatsJobDataIterator<>(new StringReader("[{\"id\":\"" + url + "\"}]"), TwitterEntityStatistics.class);
+    }
+
+    private static List<String> ids(int count) {
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            ids.add("id" + i);
+        }
+        return ids;
+    }
+}
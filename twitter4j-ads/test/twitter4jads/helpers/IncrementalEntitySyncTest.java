@@ -0,0 +1,252 @@
+package twitter4jads.helpers;
+
+import com.google.gson.reflect.TypeToken;
+import org.junit.Test;
+import twitter4jads.BaseAdsListResponse;
+import twitter4jads.BaseAdsListResponseIterable;
+import twitter4jads.TwitterAdsClient;
+import twitter4jads.conf.ConfigurationBuilder;
+import twitter4jads.helpers.IncrementalEntitySync.HighWaterMark;
+import twitter4jads.helpers.IncrementalEntitySync.SyncResult;
+import twitter4jads.internal.http.HttpParameter;
+import twitter4jads.internal.http.HttpResponse;
+import twitter4jads.internal.models4j.TwitterException;
+import twitter4jads.util.TwitterAdsGson;
+
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+import static twitter4jads.internal.http.StubHttpResponse.withBody;
+
+public class IncrementalEntitySyncTest {
+
+    private static final String ACCOUNT = "18ce54d4x5t";
+    private static final String CAMPAIGNS = "https://ads-api.twitter.com/11/accounts/" + ACCOUNT + "/campaigns";
+    private static final Type TYPE = new TypeToken<BaseAdsListResponse<Entity>>() {
+    }.getType();
+    private static final int PAGE_SIZE = 2;
+
+    // the account's entities, by id
+    private final Map<String, Entity> entities = new LinkedHashMap<>();
+    private final AtomicInteger requests = new AtomicInteger();
+
+    private final TwitterAdsClient client = new TwitterAdsClient(new ConfigurationBuilder().build(), null) {
+        @Override
+        public HttpResponse get(String url, HttpParameter... params) {
+            requests.incrementAndGet();
+            int cursor = 0;
+            for (HttpParameter param : params) {
+                if ("cursor".equals(param.getName())) {
+                    cursor = Integer.parseInt(param.getValue());
+                }
+            }
+            List<Entity> sorted = new ArrayList<>(entities.values());
+            Collections.sort(sorted, new Comparator<Entity>() {
+                @Override
+                public int compare(Entity first, Entity second) {
+                    return Long.compare(second.updated, first.updated);
+                }
+            });
+            List<Entity> page = sorted.subList(Math.min(cursor, sorted.size()), Math.min(cursor + PAGE_SIZE, sorted.size()));
+            String nextCursor = cursor + PAGE_SIZE < sorted.size() ? "\"" + (cursor + PAGE_SIZE) + "\"" : "null";
+            return withBody("{\"data\":" + TwitterAdsGson.GSON.toJson(page) + ",\"next_cursor\":" + nextCursor + "}");
+        }
+    };
+    private final IncrementalEntitySync.EntitySource<Entity> source = new IncrementalEntitySync.EntitySource<Entity>() {
+        @Override
+        public BaseAdsListResponseIterable<Entity> listByUpdatedAtDesc(String accountId) throws TwitterException {
+            return client.executeHttpListRequest(CAMPAIGNS, new ArrayList<HttpParameter>(), TYPE);
+        }
+
+        @Override
+        public String getId(Entity entity) {
+            return entity.id;
+        }
+
+        @Override
+        public Date getCreatedAt(Entity entity) {
+            return new Date(entity.created);
+        }
+
+        @Override
+        public Date getUpdatedAt(Entity entity) {
+            return new Date(entity.updated);
+        }
+
+        @Override
+        public boolean isDeleted(Entity entity) {
+            return entity.deleted;
+        }
+    };
+    private final IncrementalEntitySync.InMemoryHighWaterMarkStore store = new IncrementalEntitySync.InMemoryHighWaterMarkStore();
+    private final IncrementalEntitySync<Entity> sync = new IncrementalEntitySync<>("campaigns", source, store);
+    private final RecordingListener listener = new RecordingListener();
+
+    @Test
+    public void firstRunInsertsEveryLiveEntity() throws Exception {
+        put("a", 1000, 1000, false);
+        put("b", 2000, 3000, false);
+        put("c", 1000, 4000, true);
+
+        SyncResult result = sync.sync(ACCOUNT, listener);
+
+        assertEquals("[insert b, insert a]", listener.changes.toString());
+        assertEquals(2, result.getInserted());
+        assertEquals(4000, store.load(ACCOUNT, "campaigns").getUpdatedAt());
+    }
+
+    @Test
+    public void unchangedAccountCostsOneRequestAndReportsNothing() throws Exception {
+        for (int i = 0; i < 10; i++) {
+            put("e" + i, 1000, 1000 + i * 1000, false);
+        }
+        sync.sync(ACCOUNT, listener);
+        listener.changes.clear();
+        requests.set(0);
+
+        SyncResult result = sync.sync(ACCOUNT, listener);
+
+        assertEquals(Collections.emptyList(), listener.changes);
+        assertEquals(1, requests.get());
+        assertEquals(1, result.getPages());
+    }
+
+    @Test
+    public void changesSinceTheMarkAreReportedAsInsertsUpdatesAndDeletes() throws Exception {
+        for (int i = 0; i < 10; i++) {
+            put("e" + i, 1000, 1000 + i * 1000, false);
+        }
+        sync.sync(ACCOUNT, listener);
+        listener.changes.clear();
+        requests.set(0);
+
+        put("e2", 1000, 20000, false);
+        put("e3", 1000, 21000, true);
+        put("new", 22000, 22000, false);
+        SyncResult result = sync.sync(ACCOUNT, listener);
+
+        assertEquals("[insert new, delete e3, update e2]", listener.changes.toString());
+        assertEquals(1, result.getInserted());
+        assertEquals(1, result.getUpdated());
+        assertEquals(1, result.getDeleted());
+        // stopped at the first entity older than the mark, e8 on the third page; e9 at the mark was skipped
+        assertEquals(3, requests.get());
+        assertEquals(22000, store.load(ACCOUNT, "campaigns").getUpdatedAt());
+    }
+
+    @Test
+    public void entityUpdatedInTheSecondOfTheMarkIsNeitherMissedNorReportedTwice() throws Exception {
+        put("a", 1000, 5000, false);
+        sync.sync(ACCOUNT, listener);
+        listener.changes.clear();
+
+        // updated_at has a one second resolution, b changed right after the previous run read a
+        put("b", 1000, 5000, false);
+        put("c", 5000, 5000, false);
+        sync.sync(ACCOUNT, listener);
+        assertEquals("[insert c, update b]", sorted(listener.changes));
+        listener.changes.clear();
+
+        sync.sync(ACCOUNT, listener);
+        assertEquals(Collections.emptyList(), listener.changes);
+    }
+
+    @Test
+    public void updateShowingUpLateIsReportedOnceWithinTheOverlap() throws Exception {
+        sync.setOverlap(10, TimeUnit.SECONDS);
+        put("a", 1000, 1000, false);
+        put("b", 1000, 50000, false);
+        sync.sync(ACCOUNT, listener);
+        listener.changes.clear();
+
+        // updated before the mark, but only listed after the previous run
+        put("a", 1000, 45000, false);
+        sync.sync(ACCOUNT, listener);
+        assertEquals("[update a]", listener.changes.toString());
+        listener.changes.clear();
+
+        sync.sync(ACCOUNT, listener);
+        assertEquals(Collections.emptyList(), listener.changes);
+    }
+
+    @Test
+    public void failedRunIsReplayedByTheNextOne() throws Exception {
+        put("a", 1000, 1000, false);
+        put("b", 2000, 2000, false);
+        listener.failOn = "a";
+        try {
+            sync.sync(ACCOUNT, listener);
+            fail("the listener failure was swallowed");
+        } catch (IllegalStateException expected) {
+            assertNull(store.load(ACCOUNT, "campaigns"));
+        }
+        listener.changes.clear();
+        listener.failOn = null;
+
+        sync.sync(ACCOUNT, listener);
+
+        assertEquals("[insert b, insert a]", listener.changes.toString());
+        HighWaterMark mark = store.load(ACCOUNT, "campaigns");
+        assertEquals(2000, mark.getUpdatedAt());
+    }
+
+    private void put(String id, long created, long updated, boolean deleted) {
+        Entity entity = new Entity();
+        entity.id = id;
+        entity.created = created;
+        entity.updated = updated;
+        entity.deleted = deleted;
+        entities.put(id, entity);
+    }
+
+    private static String sorted(List<String> changes) {
+        List<String> sorted = new ArrayList<>(changes);
+        Collections.sort(sorted);
+        return sorted.toString();
+    }
+
+    private static final class Entity {
+        private String id;
+        private long created;
+        private long updated;
+        private boolean deleted;
+    }
+
+    private static final class RecordingListener implements IncrementalEntitySync.Listener<Entity> {
+        private final List<String> changes = new ArrayList<>();
+        private String failOn;
+
+        @Override
+        public void onInsert(String accountId, Entity entity) {
+            record("insert", entity);
+        }
+
+        @Override
+        public void onUpdate(String accountId, Entity entity) {
+            record("update", entity);
+        }
+
+        @Override
+        public void onDelete(String accountId, Entity entity) {
+            record("delete", entity);
+        }
+
+        private void record(String change, Entity entity) {
+            if (entity.id.equals(failOn)) {
+                throw new IllegalStateException("could not write " + entity.id);
+            }
+            changes.add(change + " " + entity.id);
+        }
+    }
+}
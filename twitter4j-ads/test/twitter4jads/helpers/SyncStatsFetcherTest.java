@@ -0,0 +1,63 @@
+package twitter4jads.helpers;
+
+import org.junit.After;
+import org.junit.Test;
+import twitter4jads.api.TwitterAdsStatApi;
+import twitter4jads.internal.models4j.TwitterException;
+import twitter4jads.models.Granularity;
+import twitter4jads.models.ads.TwitterEntityType;
+import twitter4jads.util.TwitterAdUtil;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static twitter4jads.TwitterAdsConstants.MAX_SYNC_STATS_TIME_SPAN;
+
+public class SyncStatsFetcherTest {
+
+    private static final int WINDOWS = 10;
+
+    private final AtomicInteger requests = new AtomicInteger();
+    private final TwitterException failure = new TwitterException("stats failed", null, 400);
+    private final TwitterAdsStatApi statApi = (TwitterAdsStatApi) Proxy.newProxyInstance(
+            TwitterAdsStatApi.class.getClassLoader(), new Class<?>[]{TwitterAdsStatApi.class}, new InvocationHandler() {
+                @Override
+                public Object invoke(Object proxy, Method method, Object[] args) throws TwitterException {
+                    // the first request fails at once, the others only after a while
+                    if (requests.incrementAndGet() > 1) {
+                        TwitterAdUtil.reallySleep(100);
+                    }
+                    throw failure;
+                }
+            });
+    private final SyncStatsFetcher fetcher = new SyncStatsFetcher(statApi, 1);
+
+    @After
+    public void tearDown() {
+        fetcher.shutdown();
+    }
+
+    @Test
+    public void failedRequestCancelsTheOnesNotStarted() throws Exception {
+        try {
+            fetcher.fetch("abc1", TwitterEntityType.LINE_ITEM, Collections.singleton("8v53k"), 0, WINDOWS * MAX_SYNC_STATS_TIME_SPAN,
+                          false, Granularity.DAY, null);
+            fail("the failed request was ignored");
+        } catch (TwitterException e) {
+            assertSame(failure, e);
+        }
+        int requestsOnReturn = requests.get();
+
+        TwitterAdUtil.reallySleep(300);
+
+        assertTrue("requests sent after the failure: " + requestsOnReturn, requestsOnReturn <= 2);
+        assertEquals(requestsOnReturn, requests.get());
+    }
+}
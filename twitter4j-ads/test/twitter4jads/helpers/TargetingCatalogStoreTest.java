@@ -0,0 +1,160 @@
+package twitter4jads.helpers;
+
+import com.google.gson.reflect.TypeToken;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import twitter4jads.BaseAdsListResponse;
+import twitter4jads.BaseAdsListResponseIterable;
+import twitter4jads.TwitterAdsClient;
+import twitter4jads.api.TwitterAdsTargetingApi;
+import twitter4jads.conf.ConfigurationBuilder;
+import twitter4jads.internal.http.HttpParameter;
+import twitter4jads.internal.http.HttpResponse;
+import twitter4jads.internal.models4j.TwitterException;
+import twitter4jads.models.LocationType;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static twitter4jads.internal.http.StubHttpResponse.withBody;
+
+public class TargetingCatalogStoreTest {
+
+    private static final TwitterAdsTargetingApi API = (TwitterAdsTargetingApi) Proxy.newProxyInstance(
+            TwitterAdsTargetingApi.class.getClassLoader(), new Class<?>[]{TwitterAdsTargetingApi.class}, new InvocationHandler() {
+                @Override
+                public Object invoke(Object proxy, Method method, Object[] args) {
+                    throw new UnsupportedOperationException(method.getName());
+                }
+            });
+    private static final TargetingTypeahead.Attributes<String> NAMES = new TargetingTypeahead.Attributes<String>() {
+        @Override
+        public String nameOf(String entry) {
+            return entry;
+        }
+
+        @Override
+        public long weightOf(String entry) {
+            return 0;
+        }
+
+        @Override
+        public LocationType locationTypeOf(String entry) {
+            return null;
+        }
+    };
+
+    private final AtomicInteger loads = new AtomicInteger();
+    private final AtomicInteger loading = new AtomicInteger();
+    private final AtomicInteger mostLoadingAtOnce = new AtomicInteger();
+    private final TargetingCatalogStore.Catalog<String> cities =
+            new TargetingCatalogStore.Catalog<>("cities", String.class, new TargetingCatalogStore.Loader<String>() {
+                @Override
+                public BaseAdsListResponseIterable<String> load(TwitterAdsTargetingApi api) throws TwitterException {
+                    int load = loads.incrementAndGet();
+                    int concurrentLoads = loading.incrementAndGet();
+                    try {
+                        mostLoadingAtOnce.set(Math.max(mostLoadingAtOnce.get(), concurrentLoads));
+                        TimeUnit.MILLISECONDS.sleep(50);
+                        return page("New York " + load, "Paris " + load);
+                    } catch (InterruptedException | IOException e) {
+                        throw new TwitterException("could not load", e);
+                    } finally {
+                        loading.decrementAndGet();
+                    }
+                }
+            }, NAMES);
+
+    private File snapshotDirectory;
+
+    @Before
+    public void setUp() throws IOException {
+        snapshotDirectory = Files.createTempDirectory("targeting-catalog-store-test").toFile();
+    }
+
+    @After
+    public void tearDown() {
+        for (File file : snapshotDirectory.listFiles()) {
+            file.delete();
+        }
+        snapshotDirectory.delete();
+    }
+
+    @Test
+    public void snapshotServesTheNextStoreWithoutLoading() throws Exception {
+        TargetingCatalogStore store = store();
+        assertEquals(Arrays.asList("New York 1", "Paris 1"), store.get(cities));
+        store.close();
+
+        TargetingCatalogStore warmStore = store();
+        assertEquals(Arrays.asList("New York 1", "Paris 1"), warmStore.get(cities));
+        assertEquals(Collections.singletonList("Paris 1"), warmStore.search(cities, "par", 10));
+        assertEquals(1, loads.get());
+        warmStore.close();
+
+        assertArrayEquals(new String[]{"cities.json.gz"}, snapshotDirectory.list());
+    }
+
+    @Test(timeout = 10000)
+    public void concurrentRefreshesOfACatalogRunOneAtATime() throws Exception {
+        final TargetingCatalogStore store = store();
+        ExecutorService threads = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Void>> refreshes = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                refreshes.add(threads.submit(new Callable<Void>() {
+                    @Override
+                    public Void call() throws TwitterException {
+                        store.refresh(cities);
+                        return null;
+                    }
+                }));
+            }
+            for (Future<Void> refresh : refreshes) {
+                refresh.get();
+            }
+        } finally {
+            threads.shutdown();
+            store.close();
+        }
+
+        assertEquals(4, loads.get());
+        assertEquals(1, mostLoadingAtOnce.get());
+        assertEquals(Arrays.asList("New York 4", "Paris 4"), store.get(cities));
+        assertArrayEquals(new String[]{"cities.json.gz"}, snapshotDirectory.list());
+    }
+
+    private TargetingCatalogStore store() {
+        return new TargetingCatalogStore(API, snapshotDirectory, 1, TimeUnit.HOURS);
+    }
+
+    private static BaseAdsListResponseIterable<String> page(String... items) throws IOException, TwitterException {
+        StringBuilder body = new StringBuilder("{\"data\":[");
+        for (int i = 0; i < items.length; i++) {
+            body.append(i == 0 ? "" : ",").append('"').append(items[i]).append('"');
+        }
+        HttpResponse response = withBody(body.append("],\"next_cursor\":null}").toString());
+        return new BaseAdsListResponseIterable<>(new TwitterAdsClient(new ConfigurationBuilder().build(), null),
+                                                 "https://ads-api.twitter.com/11/targeting_criteria/locations",
+                                                 Collections.<HttpParameter>emptyList(),
+                                                 new TypeToken<BaseAdsListResponse<String>>() {
+                                                 }.getType(), response, false);
+    }
+}
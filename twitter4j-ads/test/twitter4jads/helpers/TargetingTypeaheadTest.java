@@ -0,0 +1,163 @@
+package twitter4jads.helpers;
+
+import org.junit.Test;
+import twitter4jads.models.LocationType;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+
+public class TargetingTypeaheadTest {
+
+    private static final TargetingTypeahead.Attributes<Entry> ATTRIBUTES = new TargetingTypeahead.Attributes<Entry>() {
+        @Override
+        public String nameOf(Entry entry) {
+            return entry.name;
+        }
+
+        @Override
+        public long weightOf(Entry entry) {
+            return entry.weight;
+        }
+
+        @Override
+        public LocationType locationTypeOf(Entry entry) {
+            return entry.locationType;
+        }
+    };
+    private static final String[] SYLLABLES = {"new", "york", "or", "san", "an", "to", "ni", "o", "ber", "lin", "é", "-", " ", "'"};
+    private static final LocationType[] LOCATION_TYPES = {null, LocationType.COUNTRIES, LocationType.CITIES, LocationType.METROS};
+
+    private final TargetingTypeahead<Entry> typeahead = new TargetingTypeahead<>(Arrays.asList(
+            new Entry("York", 10, LocationType.CITIES),
+            new Entry("New York", 100, LocationType.METROS),
+            new Entry("New York", 1000, LocationType.REGIONS),
+            new Entry("Yorkshire", 50, LocationType.REGIONS),
+            new Entry("Newark", 30, LocationType.CITIES),
+            new Entry("Cork", 20, LocationType.CITIES),
+            new Entry("São Paulo", 500, LocationType.CITIES),
+            new Entry("Saint-Étienne", 40, LocationType.CITIES)), ATTRIBUTES);
+
+    @Test
+    public void nameStartsComeFirstThenWordStartsThenInfixes() {
+        assertEquals("[Yorkshire, York, New York (1000), New York (100)]", names(typeahead.search("york", 10)));
+        assertEquals("[New York (1000), New York (100)]", names(typeahead.search("new y", 10)));
+        assertEquals("[New York (1000), New York (100), Yorkshire, Cork, York]", names(typeahead.search("ork", 10)));
+    }
+
+    @Test
+    public void caseAccentsAndPunctuationAreIgnored() {
+        assertEquals("[São Paulo]", names(typeahead.search("SAO PAU", 10)));
+        assertEquals("[Saint-Étienne]", names(typeahead.search("saint etienne", 10)));
+        assertEquals("[Saint-Étienne]", names(typeahead.search("étien", 10)));
+    }
+
+    @Test
+    public void shortQueryOnlyMatchesNameAndWordStarts() {
+        assertEquals("[New York (1000), New York (100), Newark]", names(typeahead.search("ne", 10)));
+        assertEquals("[]", names(typeahead.search("rk", 10)));
+    }
+
+    @Test
+    public void resultsCanBeRestrictedToALocationType() {
+        assertEquals("[Cork, York]", names(typeahead.search("ork", LocationType.CITIES, 10)));
+        assertEquals("[São Paulo, Saint-Étienne, Newark, Cork, York]", names(typeahead.search("", LocationType.CITIES, 10)));
+    }
+
+    @Test
+    public void blankQueryReturnsTheHeaviestEntries() {
+        assertEquals("[New York (1000), São Paulo]", names(typeahead.search(" ", 2)));
+        assertEquals(Collections.<Entry>emptyList(), typeahead.search("york", 0));
+    }
+
+    @Test
+    public void resultsAreTheOnesOfABruteForceScan() {
+        Random random = new Random(25);
+        List<Entry> catalog = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            catalog.add(new Entry(randomName(random, 1 + random.nextInt(4)), random.nextInt(50),
+                                  LOCATION_TYPES[random.nextInt(LOCATION_TYPES.length)]));
+        }
+        TargetingTypeahead<Entry> index = new TargetingTypeahead<>(catalog, ATTRIBUTES);
+        List<Entry> ranked = new ArrayList<>(catalog);
+        Collections.sort(ranked, new Comparator<Entry>() {
+            @Override
+            public int compare(Entry a, Entry b) {
+                return Long.compare(b.weight, a.weight);
+            }
+        });
+
+        for (int i = 0; i < 2000; i++) {
+            String q = randomName(random, 1 + random.nextInt(2));
+            if (random.nextBoolean()) {
+                q = q.substring(random.nextInt(q.length()));
+            }
+            LocationType locationType = LOCATION_TYPES[random.nextInt(LOCATION_TYPES.length)];
+            int limit = 1 + random.nextInt(30);
+
+            assertEquals(q + " " + locationType + " " + limit, bruteForce(ranked, q, locationType, limit),
+                         index.search(q, locationType, limit));
+        }
+    }
+
+    private static List<Entry> bruteForce(List<Entry> ranked, String q, LocationType locationType, int limit) {
+        String query = TargetingTypeahead.normalize(q);
+        List<List<Entry>> groups = Arrays.<List<Entry>>asList(new ArrayList<Entry>(), new ArrayList<Entry>(), new ArrayList<Entry>());
+        for (Entry entry : ranked) {
+            if (locationType != null && entry.locationType != locationType) {
+                continue;
+            }
+            String name = TargetingTypeahead.normalize(entry.name);
+            if (name.startsWith(query)) {
+                groups.get(0).add(entry);
+            } else if ((" " + name).contains(" " + query)) {
+                groups.get(1).add(entry);
+            } else if (query.length() >= 3 && name.contains(query)) {
+                groups.get(2).add(entry);
+            }
+        }
+        List<Entry> result = new ArrayList<>();
+        for (List<Entry> group : groups) {
+            result.addAll(group);
+        }
+        return result.subList(0, Math.min(limit, result.size()));
+    }
+
+    private static String randomName(Random random, int syllables) {
+        StringBuilder name = new StringBuilder();
+        for (int i = 0; i < syllables; i++) {
+            name.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+        }
+        return name.toString();
+    }
+
+    private static String names(List<Entry> entries) {
+        List<String> names = new ArrayList<>();
+        for (Entry entry : entries) {
+            names.add(entry.name.equals("New York") ? entry.name + " (" + entry.weight + ")" : entry.name);
+        }
+        return names.toString();
+    }
+
+    private static final class Entry {
+        private final String name;
+        private final long weight;
+        private final LocationType locationType;
+
+        private Entry(String name, long weight, LocationType locationType) {
+            this.name = name;
+            this.weight = weight;
+            this.locationType = locationType;
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+}
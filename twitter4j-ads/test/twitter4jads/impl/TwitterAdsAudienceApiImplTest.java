@@ -0,0 +1,225 @@
+package twitter4jads.impl;
+
+import org.junit.Test;
+import twitter4jads.TwitterAdsClient;
+import twitter4jads.conf.ConfigurationBuilder;
+import twitter4jads.internal.http.HttpResponse;
+import twitter4jads.internal.models4j.TwitterException;
+import twitter4jads.models.ads.audience.CustomAudienceBatchResult;
+import twitter4jads.models.ads.audience.CustomAudienceOperationType;
+import twitter4jads.models.ads.audience.CustomAudienceUserDetails;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static twitter4jads.TwitterAdsConstants.CUSTOM_AUDIENCE_UPDATE_BATCH_SIZE;
+import static twitter4jads.internal.http.HttpResponseCode.BAD_REQUEST;
+import static twitter4jads.internal.http.HttpResponseCode.TOO_MANY_REQUESTS;
+import static twitter4jads.internal.http.StubHttpResponse.withBody;
+
+public class TwitterAdsAudienceApiImplTest {
+
+    private final AtomicInteger requests = new AtomicInteger();
+    private volatile TwitterException failure;
+    private final AtomicInteger failuresLeft = new AtomicInteger(Integer.MAX_VALUE);
+
+    private final TwitterAdsClient client = new TwitterAdsClient(new ConfigurationBuilder().build(), null) {
+        @Override
+        public HttpResponse postRequest(String url, String requestBody) throws TwitterException {
+            requests.incrementAndGet();
+            if (failure != null && failuresLeft.getAndDecrement() > 0) {
+                throw failure;
+            }
+            int users = requestBody.split("\"twitter_id\"", -1).length - 1;
+            return withBody(200, "{\"data\":{\"success_count\":" + users + ",\"total_count\":" + users + "}}");
+        }
+    };
+    private final TwitterAdsAudienceApiImpl audienceApi = new TwitterAdsAudienceApiImpl(client);
+
+    @Test
+    public void everyBatchIsReportedOnce() throws TwitterException {
+        final List<CustomAudienceBatchResult> results = Collections.synchronizedList(new ArrayList<CustomAudienceBatchResult>());
+
+        int failedBatches = upload(CUSTOM_AUDIENCE_UPDATE_BATCH_SIZE * 3 + 1, 2, new Consumer<CustomAudienceBatchResult>() {
+            @Override
+            public void accept(CustomAudienceBatchResult result) {
+                results.add(result);
+            }
+        });
+
+        assertEquals(0, failedBatches);
+        assertEquals(4, requests.get());
+        assertEquals(4, results.size());
+    }
+
+    @Test
+    public void batchResultCanBePrinted() throws TwitterException {
+        final List<String> printed = Collections.synchronizedList(new ArrayList<String>());
+
+        upload(3, 1, new Consumer<CustomAudienceBatchResult>() {
+            @Override
+            public void accept(CustomAudienceBatchResult result) {
+                printed.add(result.toString());
+            }
+        });
+
+        assertEquals(1, printed.size());
+        assertTrue(printed.get(0), printed.get(0).contains("users=3, successCount=3, rejectedUsers=0"));
+    }
+
+    @Test
+    public void throttledBatchIsRetriedUntilItSucceeds() throws TwitterException {
+        failure = new TwitterException("Rate limit exceeded", withBody(TOO_MANY_REQUESTS, "", "Retry-After", "1"));
+        failuresLeft.set(2);
+        final List<CustomAudienceBatchResult> results = Collections.synchronizedList(new ArrayList<CustomAudienceBatchResult>());
+
+        int failedBatches = upload(CUSTOM_AUDIENCE_UPDATE_BATCH_SIZE * 2, 2, new Consumer<CustomAudienceBatchResult>() {
+            @Override
+            public void accept(CustomAudienceBatchResult result) {
+                results.add(result);
+            }
+        });
+
+        assertEquals(0, failedBatches);
+        assertEquals(4, requests.get());
+        for (CustomAudienceBatchResult result : results) {
+            assertTrue(result.isSuccessful());
+        }
+    }
+
+    @Test
+    public void rejectedBatchIsReportedNotRetried() throws TwitterException {
+        failure = new TwitterException("Bad request", null, BAD_REQUEST);
+        final List<CustomAudienceBatchResult> results = Collections.synchronizedList(new ArrayList<CustomAudienceBatchResult>());
+
+        int failedBatches = upload(CUSTOM_AUDIENCE_UPDATE_BATCH_SIZE, 1, new Consumer<CustomAudienceBatchResult>() {
+            @Override
+            public void accept(CustomAudienceBatchResult result) {
+                results.add(result);
+            }
+        });
+
+        assertEquals(1, failedBatches);
+        assertEquals(1, requests.get());
+        assertSame(failure, results.get(0).getException());
+    }
+
+    @Test
+    public void listenerFailureIsThrownToTheCaller() throws TwitterException {
+        final IllegalStateException listenerFailure = new IllegalStateException("listener failed");
+        final AtomicInteger calls = new AtomicInteger();
+        try {
+            upload(CUSTOM_AUDIENCE_UPDATE_BATCH_SIZE * 10, 1, new Consumer<CustomAudienceBatchResult>() {
+                @Override
+                public void accept(CustomAudienceBatchResult result) {
+                    calls.incrementAndGet();
+                    throw listenerFailure;
+                }
+            });
+            fail("the listener failure was swallowed");
+        } catch (IllegalStateException e) {
+            assertSame(listenerFailure, e);
+        }
+        assertEquals(1, calls.get());
+        // the upload stops instead of sending the remaining batches
+        assertTrue(requests.get() < 10);
+    }
+
+    @Test
+    public void usersWithoutHashedIdentifiersAreReportedNotSent() throws TwitterException {
+        final List<CustomAudienceBatchResult> results = Collections.synchronizedList(new ArrayList<CustomAudienceBatchResult>());
+        List<CustomAudienceUserDetails> users = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            users.add(user(String.format("%064x", i)));
+        }
+        CustomAudienceUserDetails plain = user("12345");
+        users.add(plain);
+        CustomAudienceUserDetails anonymous = new CustomAudienceUserDetails();
+        users.add(anonymous);
+
+        int failedBatches = audienceApi.uploadCustomAudienceUsers("abc1", "1nmth", CustomAudienceOperationType.Update, null, null,
+                                                                  users.iterator(), 1, new Consumer<CustomAudienceBatchResult>() {
+                    @Override
+                    public void accept(CustomAudienceBatchResult result) {
+                        results.add(result);
+                    }
+                });
+
+        assertEquals(1, failedBatches);
+        assertEquals(1, requests.get());
+        assertEquals(10, results.get(0).getOperation().getUserCount());
+        assertEquals(Arrays.asList(plain, anonymous), results.get(0).getRejectedUsers());
+    }
+
+    @Test
+    public void iteratorFailureIsThrownOnceBatchesInFlightAreDone() throws TwitterException {
+        final RuntimeException readFailure = new IllegalStateException("source failed");
+        final Iterator<CustomAudienceUserDetails> source = users(CUSTOM_AUDIENCE_UPDATE_BATCH_SIZE * 2);
+        final AtomicInteger reported = new AtomicInteger();
+        try {
+            audienceApi.uploadCustomAudienceUsers("abc1", "1nmth", CustomAudienceOperationType.Update, null, null,
+                                                  new Iterator<CustomAudienceUserDetails>() {
+                                                      @Override
+                                                      public boolean hasNext() {
+                                                          return true;
+                                                      }
+
+                                                      @Override
+                                                      public CustomAudienceUserDetails next() {
+                                                          if (!source.hasNext()) {
+                                                              throw readFailure;
+                                                          }
+                                                          return source.next();
+                                                      }
+                                                  }, 4, new Consumer<CustomAudienceBatchResult>() {
+                        @Override
+                        public void accept(CustomAudienceBatchResult result) {
+                            reported.incrementAndGet();
+                        }
+                    });
+            fail("the iterator failure was swallowed");
+        } catch (IllegalStateException e) {
+            assertSame(readFailure, e);
+        }
+        // nothing runs behind the caller's back once the call has returned
+        int reportedOnReturn = reported.get();
+        assertTrue(reportedOnReturn <= 2);
+        assertEquals(reportedOnReturn, requests.get());
+    }
+
+    private int upload(int userCount, int parallelism, Consumer<CustomAudienceBatchResult> listener) throws TwitterException {
+        return audienceApi.uploadCustomAudienceUsers("abc1", "1nmth", CustomAudienceOperationType.Update, null, null, users(userCount),
+                                                     parallelism, listener);
+    }
+
+    private static Iterator<CustomAudienceUserDetails> users(final int count) {
+        return new Iterator<CustomAudienceUserDetails>() {
+            private int next;
+
+            @Override
+            public boolean hasNext() {
+                return next < count;
+            }
+
+            @Override
+            public CustomAudienceUserDetails next() {
+                return user(String.format("%064x", next++));
+            }
+        };
+    }
+
+    private static CustomAudienceUserDetails user(String twitterId) {
+        CustomAudienceUserDetails user = new CustomAudienceUserDetails();
+        user.setTwitterIds(Collections.singleton(twitterId));
+        return user;
+    }
+}
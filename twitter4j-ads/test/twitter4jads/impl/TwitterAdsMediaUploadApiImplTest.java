@@ -0,0 +1,261 @@
+package twitter4jads.impl;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import twitter4jads.TwitterAdsClient;
+import twitter4jads.conf.ConfigurationBuilder;
+import twitter4jads.internal.http.HttpParameter;
+import twitter4jads.internal.http.HttpResponse;
+import twitter4jads.internal.models4j.Image;
+import twitter4jads.internal.models4j.Media;
+import twitter4jads.internal.models4j.TwitterException;
+import twitter4jads.models.ads.HttpVerb;
+import twitter4jads.models.media.TwitterMediaType;
+import twitter4jads.models.video.UploadMediaObjectResponse;
+import twitter4jads.util.TwitterAdUtil;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Type;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static twitter4jads.TwitterAdsConstants.CHUNK_SIZE_IN_BYTES;
+import static twitter4jads.internal.http.HttpResponseCode.BAD_REQUEST;
+import static twitter4jads.internal.http.HttpResponseCode.TOO_MANY_REQUESTS;
+import static twitter4jads.internal.http.StubHttpResponse.withStatus;
+
+public class TwitterAdsMediaUploadApiImplTest {
+
+    private static final int SEGMENTS = 3;
+    private static final long MEDIA_SIZE = (long) CHUNK_SIZE_IN_BYTES * (SEGMENTS - 1) + 12345;
+
+    private Path media;
+    private final AtomicInteger initCalls = new AtomicInteger();
+    private final List<Integer> sentSegments = Collections.synchronizedList(new ArrayList<Integer>());
+    private final AtomicInteger bytesSent = new AtomicInteger();
+    private volatile int failingSegment = -1;
+    private volatile int failureStatusCode;
+    private final AtomicInteger failuresLeft = new AtomicInteger(Integer.MAX_VALUE);
+    private volatile int slowSegment = -1;
+    private final CountDownLatch slowSegmentStarted = new CountDownLatch(1);
+
+    private final TwitterAdsClient client = new TwitterAdsClient(new ConfigurationBuilder().build(), null) {
+        @Override
+        public Media mediaUploadInitOrFinalize(String url, HttpParameter[] parameters) {
+            return media(String.valueOf(initCalls.incrementAndGet()));
+        }
+
+        @Override
+        public HttpResponse postRequest(String url, HttpParameter[] params) throws TwitterException {
+            int segmentIndex = Integer.parseInt(value(params, "segment_index"));
+            if (segmentIndex == slowSegment) {
+                slowSegmentStarted.countDown();
+                TwitterAdUtil.reallySleep(300);
+            }
+            if (segmentIndex == failingSegment && failuresLeft.getAndDecrement() > 0) {
+                if (slowSegment >= 0) {
+                    await(slowSegmentStarted);
+                }
+                throw new TwitterException("segment failed", null, failureStatusCode);
+            }
+            for (HttpParameter param : params) {
+                if (param.hasFileBody()) {
+                    assertEquals(param.getFileBodyLength(), drain(param.getFileBody()));
+                    bytesSent.addAndGet((int) param.getFileBodyLength());
+                }
+            }
+            sentSegments.add(segmentIndex);
+            return withStatus(204);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> T executeRequest(String baseUrl, HttpParameter[] params, Type typeToken, HttpVerb httpVerb) {
+            UploadMediaObjectResponse response = new UploadMediaObjectResponse();
+            response.setMediaId(value(params, "media_id"));
+            response.setMediaKey("7_" + value(params, "media_id"));
+            return (T) response;
+        }
+    };
+    private final TwitterAdsMediaUploadApiImpl mediaUploadApi = new TwitterAdsMediaUploadApiImpl(client);
+
+    @Before
+    public void setUp() throws IOException {
+        media = Files.createTempFile("media-upload-test", ".mp4");
+        Files.write(media, new byte[(int) MEDIA_SIZE]);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(media);
+    }
+
+    @Test
+    public void everySegmentIsSentOnce() throws Exception {
+        assertEquals("7_1", upload());
+
+        assertEquals(SEGMENTS, sentSegments.size());
+        assertEquals(MEDIA_SIZE, bytesSent.get());
+    }
+
+    @Test
+    public void uploadFailingOnATransientErrorResumesFromTheAcknowledgedSegments() throws Exception {
+        failingSegment = 1;
+        failureStatusCode = TOO_MANY_REQUESTS;
+        try {
+            upload();
+            fail("the failed segment was ignored");
+        } catch (TwitterException e) {
+            assertEquals(TOO_MANY_REQUESTS, e.getStatusCode());
+        }
+        int sentBeforeFailure = sentSegments.size();
+        failingSegment = -1;
+
+        assertEquals("7_1", upload());
+
+        assertEquals(1, initCalls.get());
+        assertEquals(SEGMENTS, sentSegments.size());
+        assertEquals(SEGMENTS - 1, sentBeforeFailure);
+        assertEquals(Integer.valueOf(1), sentSegments.get(SEGMENTS - 1));
+        assertEquals(MEDIA_SIZE, bytesSent.get());
+    }
+
+    @Test
+    public void throttledSegmentIsRetriedOnItsOwn() throws Exception {
+        failingSegment = 1;
+        failureStatusCode = TOO_MANY_REQUESTS;
+        failuresLeft.set(1);
+
+        assertEquals("7_1", upload());
+
+        assertEquals(1, initCalls.get());
+        assertEquals(SEGMENTS, sentSegments.size());
+        assertEquals(MEDIA_SIZE, bytesSent.get());
+    }
+
+    @Test
+    public void uploadFailingOnAClientErrorStartsOver() throws Exception {
+        failingSegment = 1;
+        failureStatusCode = BAD_REQUEST;
+        try {
+            upload();
+            fail("the failed segment was ignored");
+        } catch (TwitterException e) {
+            assertEquals(BAD_REQUEST, e.getStatusCode());
+        }
+        failingSegment = -1;
+        sentSegments.clear();
+
+        assertEquals("7_2", upload());
+
+        assertEquals(2, initCalls.get());
+        assertEquals(SEGMENTS, sentSegments.size());
+    }
+
+    @Test
+    public void failedUploadWaitsForTheSegmentsStillSending() throws Exception {
+        failingSegment = 0;
+        failureStatusCode = BAD_REQUEST;
+        slowSegment = 1;
+        try {
+            upload();
+            fail("the failed segment was ignored");
+        } catch (TwitterException e) {
+            assertEquals(BAD_REQUEST, e.getStatusCode());
+        }
+
+        // sent in full from the spooled media, which was only closed afterwards
+        assertTrue(sentSegments.contains(1));
+    }
+
+    private String upload() throws TwitterException {
+        return mediaUploadApi.uploadMediaAndGetMediaKey(media.toUri().toString(), Collections.singleton("12"), TwitterMediaType.VIDEO,
+                                                        "creative");
+    }
+
+    private static String value(HttpParameter[] params, String name) {
+        for (HttpParameter param : params) {
+            if (name.equals(param.getName())) {
+                return param.getValue();
+            }
+        }
+        return null;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static long drain(InputStream in) {
+        try {
+            long count = 0;
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                count += read;
+            }
+            in.close();
+            return count;
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Media media(final String mediaId) {
+        return new Media() {
+            @Override
+            public Long getMediaId() {
+                return Long.valueOf(mediaId);
+            }
+
+            @Override
+            public String getMediaIdString() {
+                return mediaId;
+            }
+
+            @Override
+            public Long getSize() {
+                return null;
+            }
+
+            @Override
+            public Image getImage() {
+                return null;
+            }
+
+            @Override
+            public String getState() {
+                return null;
+            }
+
+            @Override
+            public boolean isStatePending() {
+                return false;
+            }
+
+            @Override
+            public boolean isStateSucceeded() {
+                return false;
+            }
+
+            @Override
+            public boolean isStateInProgress() {
+                return false;
+            }
+        };
+    }
+}
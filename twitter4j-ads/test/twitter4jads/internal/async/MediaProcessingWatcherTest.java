@@ -0,0 +1,81 @@
+package twitter4jads.internal.async;
+
+import org.junit.Test;
+import twitter4jads.internal.async.MediaProcessingWatcher.Status;
+import twitter4jads.internal.async.MediaProcessingWatcher.StatusCheck;
+import twitter4jads.internal.models4j.TwitterException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+
+public class MediaProcessingWatcherTest {
+
+    private static final long MAX_WAIT_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
+    private final MediaProcessingWatcher watcher = MediaProcessingWatcher.getInstance();
+
+    @Test(timeout = 10000)
+    public void checksWaitingOutARateLimitDoNotHoldUpTheOthers() throws Exception {
+        final CountDownLatch rateLimitReset = new CountDownLatch(1);
+        final CountDownLatch throttledChecksStarted = new CountDownLatch(2);
+        List<CompletableFuture<String>> throttled = new ArrayList<>();
+        try {
+            for (int i = 0; i < 2; i++) {
+                throttled.add(watcher.watch("throttled" + i, new Check() {
+                    @Override
+                    public Status<String> check() throws TwitterException {
+                        throttledChecksStarted.countDown();
+                        try {
+                            rateLimitReset.await();
+                        } catch (InterruptedException e) {
+                            throw new TwitterException("interrupted", e);
+                        }
+                        return Status.done("throttled");
+                    }
+                }, 0, MAX_WAIT_MILLIS));
+            }
+            throttledChecksStarted.await();
+
+            CompletableFuture<String> other = watcher.watch("other", new Check() {
+                @Override
+                public Status<String> check() {
+                    return Status.done("other");
+                }
+            }, 0, MAX_WAIT_MILLIS);
+
+            assertEquals("other", other.get());
+        } finally {
+            rateLimitReset.countDown();
+        }
+        for (CompletableFuture<String> future : throttled) {
+            assertEquals("throttled", future.get());
+        }
+    }
+
+    @Test(timeout = 10000)
+    public void mediaIsCheckedAgainUntilDone() throws Exception {
+        CompletableFuture<String> future = watcher.watch("processing", new Check() {
+            private int checks;
+
+            @Override
+            public Status<String> check() {
+                return ++checks < 3 ? Status.<String>checkAgainAfter(10) : Status.done("checks: " + checks);
+            }
+        }, 0, MAX_WAIT_MILLIS);
+
+        assertEquals("checks: 3", future.get());
+    }
+
+    private abstract static class Check implements StatusCheck<String> {
+
+        @Override
+        public String timedOut() {
+            return "timed out";
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package twitter4jads.internal.async;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TwitterAdsExecutorsTest {
+
+    private final ExecutorService executor = TwitterAdsExecutors.newFixedThreadPool("test", 1);
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test(timeout = 10000)
+    public void cancelAndAwaitWaitsForTheRunningTaskToReturn() throws Exception {
+        final CountDownLatch started = new CountDownLatch(1);
+        final AtomicBoolean returned = new AtomicBoolean();
+        final AtomicInteger queuedRuns = new AtomicInteger();
+        Future<Void> running = TwitterAdsExecutors.submit(executor, new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+                started.countDown();
+                TimeUnit.MILLISECONDS.sleep(300);
+                returned.set(true);
+                return null;
+            }
+        });
+        Future<Void> queued = TwitterAdsExecutors.submit(executor, new Callable<Void>() {
+            @Override
+            public Void call() {
+                queuedRuns.incrementAndGet();
+                return null;
+            }
+        });
+        started.await();
+
+        TwitterAdsExecutors.cancelAndAwait(Arrays.asList(running, queued));
+
+        assertTrue("returned before the running task", returned.get());
+        assertTrue(running.isCancelled());
+        assertTrue(queued.isCancelled());
+        executor.shutdown();
+        executor.awaitTermination(5, TimeUnit.SECONDS);
+        assertEquals(0, queuedRuns.get());
+    }
+
+    @Test(timeout = 10000)
+    public void taskCancelledBeforeItStartedIsNotWaitedFor() {
+        final CountDownLatch release = new CountDownLatch(1);
+        TwitterAdsExecutors.submit(executor, new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+                release.await();
+                return null;
+            }
+        });
+        Future<Void> queued = TwitterAdsExecutors.submit(executor, new Callable<Void>() {
+            @Override
+            public Void call() {
+                return null;
+            }
+        });
+
+        // the only thread of the pool is busy, the queued task never starts
+        queued.cancel(false);
+        TwitterAdsExecutors.awaitQuietly(queued);
+
+        assertTrue(queued.isDone());
+        release.countDown();
+    }
+}
@@ -0,0 +1,53 @@
+package twitter4jads.internal.http;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class EndpointTemplateTest {
+
+    private static final String[][] URL_TEMPLATES = {
+            {"https://ads-api.twitter.com/11/accounts", "/accounts"},
+            {"https://ads-api.twitter.com/11/accounts/18ce54d4x5t", "/accounts/:id"},
+            {"https://ads-api.twitter.com/11/accounts/18ce54d4x5t/line_items", "/accounts/:id/line_items"},
+            {"https://ads-api.twitter.com/11/accounts/18ce54d4x5t/line_items/abc1?with_deleted=true", "/accounts/:id/line_items/:id"},
+            {"https://ads-api.twitter.com/11/accounts/18ce54d4x5t/campaigns/", "/accounts/:id/campaigns"},
+            {"https://ads-api.twitter.com/11/accounts/18ce54d4x5t/cards/website/1x2y", "/accounts/:id/cards/website/:id"},
+            {"https://ads-api.twitter.com/11/accounts/18ce54d4x5t/custom_audiences/2906h/users", "/accounts/:id/custom_audiences/:id/users"},
+            {"https://ads-api.twitter.com/11/accounts/18ce54d4x5t/custom_audiences/2906h/permissions/3f1",
+             "/accounts/:id/custom_audiences/:id/permissions/:id"},
+            {"https://ads-api.twitter.com/11/stats/accounts/18ce54d4x5t?entity=LINE_ITEM", "/stats/accounts/:id"},
+            {"https://ads-api.twitter.com/11/stats/jobs/accounts/18ce54d4x5t/1234567890", "/stats/jobs/accounts/:id/:id"},
+            {"https://ads-api.twitter.com/11/batch/accounts/18ce54d4x5t/campaigns", "/batch/accounts/:id/campaigns"},
+            {"https://ads-api.twitter.com/11/targeting_criteria/locations?q=paris", "/targeting_criteria/locations"},
+            {"https://ads-api.twitter.com/11/targeting_criteria/tv_shows/", "/targeting_criteria/tv_shows"},
+            {"https://upload.twitter.com/1.1/media/upload.json?command=STATUS", "/media/upload.json"},
+            {"https://ads-api.twitter.com/11/", "/"},
+            {"/11/accounts/18ce54d4x5t/promoted_tweets#top", "/accounts/:id/promoted_tweets"},
+    };
+
+    @Test
+    public void urlsMapToTheirTemplates() {
+        for (String[] urlTemplate : URL_TEMPLATES) {
+            assertEquals(urlTemplate[0], urlTemplate[1], EndpointTemplate.pathOf(urlTemplate[0]));
+        }
+    }
+
+    @Test
+    public void templateStartsWithTheMethod() {
+        assertEquals("DELETE /accounts/:id/line_items/:id",
+                     EndpointTemplate.of(RequestMethod.DELETE, "https://ads-api.twitter.com/11/accounts/18ce54d4x5t/line_items/abc1"));
+    }
+
+    @Test
+    public void idLookingLikeALiteralIsStillAnIdAfterAccounts() {
+        assertEquals("/accounts/:id/users", EndpointTemplate.pathOf("https://ads-api.twitter.com/11/accounts/users/users"));
+    }
+
+    @Test
+    public void accountIdIsTheSegmentAfterAccounts() {
+        assertEquals("18ce54d4x5t", EndpointTemplate.accountId("https://ads-api.twitter.com/11/stats/jobs/accounts/18ce54d4x5t/123"));
+        assertNull(EndpointTemplate.accountId("https://ads-api.twitter.com/11/targeting_criteria/locations"));
+    }
+}
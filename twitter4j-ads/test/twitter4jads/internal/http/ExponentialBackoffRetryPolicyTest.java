@@ -0,0 +1,116 @@
+package twitter4jads.internal.http;
+
+import org.junit.Test;
+import twitter4jads.conf.ConfigurationBuilder;
+
+import java.net.ConnectException;
+import java.net.SocketTimeoutException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static twitter4jads.internal.http.RetryPolicy.NO_RETRY;
+import static twitter4jads.internal.http.StubHttpResponse.withStatus;
+
+public class ExponentialBackoffRetryPolicyTest {
+
+    private static final String LINE_ITEMS = "https://ads-api.twitter.com/11/accounts/18ce54d4x5t/line_items";
+
+    private final ExponentialBackoffRetryPolicy policy = new ExponentialBackoffRetryPolicy.Builder().setMaxRetries(3)
+                                                                                                   .setBaseDelayMillis(100)
+                                                                                                   .setMaxDelayMillis(1000)
+                                                                                                   .setMaxTotalDelayMillis(2000)
+                                                                                                   .setMaxRateLimitWaitMillis(5000)
+                                                                                                   .build();
+
+    @Test
+    public void nothingIsRetriedByDefault() {
+        RetryPolicy defaults = ExponentialBackoffRetryPolicy.builder(new ConfigurationBuilder().build()).build();
+
+        assertEquals(NO_RETRY, defaults.retryDelayMillis(request(RequestMethod.GET), 0, withStatus(503), null, 0, 0));
+    }
+
+    @Test
+    public void serverErrorIsRetriedUpToTheMaximum() {
+        HttpRequest req = request(RequestMethod.GET);
+        long previousDelay = 0;
+        long waited = 0;
+        for (int retryCount = 0; retryCount < 3; retryCount++) {
+            long delay = policy.retryDelayMillis(req, retryCount, withStatus(500), null, previousDelay, waited);
+            assertTrue("delay " + delay, delay >= 100 && delay <= 1000);
+            previousDelay = delay;
+            waited += delay;
+        }
+
+        assertEquals(NO_RETRY, policy.retryDelayMillis(req, 3, withStatus(500), null, previousDelay, 0));
+    }
+
+    @Test
+    public void clientErrorIsNotRetried() {
+        assertEquals(NO_RETRY, policy.retryDelayMillis(request(RequestMethod.GET), 0, withStatus(400), null, 0, 0));
+        assertEquals(NO_RETRY, policy.retryDelayMillis(request(RequestMethod.GET), 0, withStatus(404), null, 0, 0));
+    }
+
+    @Test
+    public void postIsOnlyRetriedOnItsRetryableEndpoints() {
+        HttpRequest post = request(RequestMethod.POST);
+        assertEquals(NO_RETRY, policy.retryDelayMillis(post, 0, withStatus(503), null, 0, 0));
+        assertEquals(NO_RETRY, policy.retryDelayMillis(post, 0, null, new SocketTimeoutException(), 0, 0));
+
+        RetryPolicy retryingPost = new ExponentialBackoffRetryPolicy.Builder().setMaxRetries(3)
+                                                                            .setBaseDelayMillis(100)
+                                                                            .addRetryableEndpoint("POST /accounts/:id/line_items")
+                                                                            .build();
+        assertTrue(retryingPost.retryDelayMillis(post, 0, withStatus(503), null, 0, 0) >= 100);
+        assertTrue(retryingPost.retryDelayMillis(post, 0, null, new SocketTimeoutException(), 0, 0) >= 100);
+    }
+
+    @Test
+    public void refusedConnectionIsRetriedWhateverTheMethod() {
+        assertTrue(policy.retryDelayMillis(request(RequestMethod.POST), 0, null, new ConnectException(), 0, 0) >= 100);
+    }
+
+    @Test
+    public void nonRetryableEndpointIsNeverRetried() {
+        RetryPolicy noLineItemRetries = new ExponentialBackoffRetryPolicy.Builder().setMaxRetries(3)
+                                                                                 .addNonRetryableEndpoint("GET /accounts/:id/line_items")
+                                                                                 .build();
+
+        assertEquals(NO_RETRY, noLineItemRetries.retryDelayMillis(request(RequestMethod.GET), 0, withStatus(503), null, 0, 0));
+    }
+
+    @Test
+    public void rateLimitedRequestWaitsForTheRetryAfterTime() {
+        long delay = policy.retryDelayMillis(request(RequestMethod.POST), 0, withStatus(429, "Retry-After", "1"), null, 0, 0);
+
+        // the jitter spreading the clients waiting for the same reset is at most the base delay
+        assertTrue("delay " + delay, delay >= 1000 && delay <= 1100);
+    }
+
+    @Test
+    public void rateLimitedRequestFailsWhenTheResetIsTooFar() {
+        String resetAt = String.valueOf(System.currentTimeMillis() / 1000 + 60);
+
+        assertEquals(NO_RETRY, policy.retryDelayMillis(request(RequestMethod.GET), 0, withStatus(429, "x-rate-limit-reset", resetAt),
+                                                       null, 0, 0));
+        assertEquals(NO_RETRY, policy.retryDelayMillis(request(RequestMethod.GET), 0, withStatus(429), null, 0, 0));
+    }
+
+    @Test
+    public void waitsNeverAddUpToMoreThanTheTotalDelay() {
+        assertEquals(NO_RETRY, policy.retryDelayMillis(request(RequestMethod.GET), 1, withStatus(500), null, 1000, 1900));
+    }
+
+    @Test
+    public void delayGrowsFromThePreviousOneWithinTheMaximum() {
+        for (int i = 0; i < 100; i++) {
+            long delay = policy.retryDelayMillis(request(RequestMethod.GET), 1, withStatus(500), null, 200, 0);
+            assertTrue("delay " + delay, delay >= 100 && delay <= 600);
+            delay = policy.retryDelayMillis(request(RequestMethod.GET), 1, withStatus(500), null, 900, 0);
+            assertTrue("delay " + delay, delay >= 100 && delay <= 1000);
+        }
+    }
+
+    private static HttpRequest request(RequestMethod method) {
+        return new HttpRequest(method, LINE_ITEMS, null, null, null, null);
+    }
+}
@@ -0,0 +1,157 @@
+package twitter4jads.internal.http;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import twitter4jads.conf.ConfigurationBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class PooledHttpClientImplTest {
+
+    private HttpServer server;
+    private PooledHttpClientImpl client;
+    private volatile String receivedMethod;
+    private volatile String receivedContentLength;
+    private volatile String receivedContentRange;
+    private volatile String receivedTransferEncoding;
+    private volatile byte[] receivedBody;
+
+    @Before
+    public void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                receivedMethod = exchange.getRequestMethod();
+                receivedContentLength = exchange.getRequestHeaders().getFirst("Content-Length");
+                receivedContentRange = exchange.getRequestHeaders().getFirst("Content-Range");
+                receivedTransferEncoding = exchange.getRequestHeaders().getFirst("Transfer-Encoding");
+                receivedBody = readAll(exchange.getRequestBody());
+                exchange.sendResponseHeaders(200, -1);
+                exchange.close();
+            }
+        });
+        server.start();
+        client = new PooledHttpClientImpl(new ConfigurationBuilder().build()) {
+            @Override
+            protected String ensureHttps(String url) {
+                // the test server speaks plain http
+                return url;
+            }
+        };
+    }
+
+    @After
+    public void tearDown() {
+        client.shutdown();
+        server.stop(0);
+    }
+
+    @Test
+    public void tonChunkUploadIsFramedByItsBody() throws Exception {
+        byte[] chunk = new byte[100000];
+        for (int i = 0; i < chunk.length; i++) {
+            chunk[i] = (byte) i;
+        }
+        Map<String, String> headers = new HashMap<>();
+        headers.put("Content-Type", "video/mp4");
+        headers.put("Content-Length", String.valueOf(chunk.length));
+        headers.put("Content-Range", "bytes 0-99999/250000");
+        HttpRequest req = new HttpRequest(RequestMethod.PUT, url("/1.1/ton/data/ads/abc"),
+                                          new HttpParameter[]{new HttpParameter("file", chunk, true)}, null, null, headers);
+        req.setTonUploadRequest(true);
+
+        HttpResponse res = client.request(req);
+
+        assertEquals(200, res.getStatusCode());
+        assertEquals("PUT", receivedMethod);
+        assertEquals(String.valueOf(chunk.length), receivedContentLength);
+        assertEquals("bytes 0-99999/250000", receivedContentRange);
+        assertNull(receivedTransferEncoding);
+        assertArrayEquals(chunk, receivedBody);
+    }
+
+    @Test
+    public void resumableUploadIsStartedWithAnEmptyBody() throws Exception {
+        Map<String, String> headers = new HashMap<>();
+        headers.put("Content-Type", "video/mp4");
+        headers.put("content-length", "0");
+        headers.put("Transfer-Encoding", "chunked");
+        headers.put("X-TON-Content-Length", "250000");
+        HttpRequest req = new HttpRequest(RequestMethod.POST, url("/1.1/ton/bucket/ta_partner?resumable=true"), null, null, null, headers);
+
+        HttpResponse res = client.request(req);
+
+        assertEquals(200, res.getStatusCode());
+        assertEquals("POST", receivedMethod);
+        assertEquals("0", receivedContentLength);
+        assertNull(receivedTransferEncoding);
+        assertEquals(0, receivedBody.length);
+    }
+
+    @Test
+    public void multipartUploadIsStreamedWithItsLength() throws Exception {
+        assertMultipartUploadIsStreamedWithItsLength(client);
+    }
+
+    @Test
+    public void multipartUploadIsStreamedWithItsLengthOverHttpUrlConnection() throws Exception {
+        HttpClientImpl urlConnectionClient = new HttpClientImpl(new ConfigurationBuilder().build()) {
+            @Override
+            protected String ensureHttps(String url) {
+                return url;
+            }
+        };
+        assertMultipartUploadIsStreamedWithItsLength(urlConnectionClient);
+    }
+
+    private void assertMultipartUploadIsStreamedWithItsLength(HttpClient http) throws Exception {
+        byte[] segment = new byte[300000];
+        for (int i = 0; i < segment.length; i++) {
+            segment[i] = (byte) (i * 7);
+        }
+        HttpParameter[] parameters = {new HttpParameter("command", "APPEND"), new HttpParameter("media_id", "1234\u00e9"),
+                new HttpParameter("media", "segment-0", new ByteArrayInputStream(segment), segment.length)};
+        HttpRequest req = new HttpRequest(RequestMethod.POST, url("/1.1/media/upload.json"), parameters, null, null, null);
+
+        HttpResponse res = http.request(req);
+
+        assertEquals(200, res.getStatusCode());
+        assertNull(receivedTransferEncoding);
+        assertEquals(String.valueOf(receivedBody.length), receivedContentLength);
+        String body = new String(receivedBody, StandardCharsets.ISO_8859_1);
+        assertTrue(body.contains("name=\"media\"; filename=\"segment-0\""));
+        assertTrue(body.endsWith("--\r\n\r\n"));
+        assertTrue(receivedBody.length > segment.length);
+    }
+
+    private String url(String path) {
+        return "http://localhost:" + server.getAddress().getPort() + path;
+    }
+
+    private static byte[] readAll(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,150 @@
+package twitter4jads.internal.http;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import twitter4jads.conf.ConfigurationBuilder;
+import twitter4jads.internal.models4j.TwitterException;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class RetryDeferralTest {
+
+    private static final long RETRY_DELAY_MILLIS = 300;
+
+    private HttpServer server;
+    private PooledHttpClientImpl client;
+    private final AtomicInteger requests = new AtomicInteger();
+    private volatile int failingRequests;
+
+    @Before
+    public void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                int request = requests.incrementAndGet();
+                // the server drops the connection after an error response without announcing it
+                exchange.getResponseHeaders().set("Connection", "close");
+                exchange.sendResponseHeaders(request <= failingRequests ? 503 : 200, -1);
+                exchange.close();
+            }
+        });
+        server.start();
+        client = new PooledHttpClientImpl(new ConfigurationBuilder().build()) {
+            @Override
+            protected String ensureHttps(String url) {
+                // the test server speaks plain http
+                return url;
+            }
+        };
+        client.setRetryPolicy(new ExponentialBackoffRetryPolicy.Builder().setMaxRetries(2)
+                                                                         .setBaseDelayMillis(RETRY_DELAY_MILLIS)
+                                                                         .setMaxDelayMillis(RETRY_DELAY_MILLIS)
+                                                                         .build());
+    }
+
+    @After
+    public void tearDown() {
+        client.shutdown();
+        server.stop(0);
+    }
+
+    @Test
+    public void synchronousRequestWaitsForItsRetries() throws Exception {
+        failingRequests = 2;
+        long start = System.currentTimeMillis();
+
+        HttpResponse res = client.request(get());
+
+        assertEquals(200, res.getStatusCode());
+        assertEquals(3, requests.get());
+        assertTrue(System.currentTimeMillis() - start >= 2 * RETRY_DELAY_MILLIS);
+    }
+
+    @Test
+    public void deferredRequestCarriesOnWithItsRetries() throws Exception {
+        failingRequests = 2;
+        RetryDeferral deferral = new RetryDeferral();
+
+        for (int run = 1; run <= 2; run++) {
+            long start = System.currentTimeMillis();
+            assertDeferred(deferral);
+            assertTrue("the thread waited for the retry", System.currentTimeMillis() - start < RETRY_DELAY_MILLIS);
+            assertEquals(RETRY_DELAY_MILLIS, deferral.getDeferredDelayMillis());
+            assertEquals(run, requests.get());
+        }
+
+        deferral.begin();
+        try {
+            assertEquals(200, client.request(get()).getStatusCode());
+        } finally {
+            deferral.end();
+        }
+        assertFalse(deferral.isDeferred());
+        assertEquals(3, requests.get());
+    }
+
+    @Test
+    public void retriesOfDeferredRequestAreCountedAcrossRuns() throws Exception {
+        failingRequests = 10;
+        RetryDeferral deferral = new RetryDeferral();
+        assertDeferred(deferral);
+        assertDeferred(deferral);
+
+        deferral.begin();
+        try {
+            client.request(get());
+            fail("the request was retried more than the maximum");
+        } catch (TwitterException e) {
+            assertEquals(503, e.getStatusCode());
+        } finally {
+            deferral.end();
+        }
+        assertFalse(deferral.isDeferred());
+        assertEquals(3, requests.get());
+    }
+
+    @Test
+    public void laterRequestsOfTheSameRunWaitForTheirRetries() throws Exception {
+        RetryDeferral deferral = new RetryDeferral();
+        deferral.begin();
+        try {
+            assertEquals(200, client.request(get()).getStatusCode());
+            failingRequests = 3;
+
+            assertEquals(200, client.request(get()).getStatusCode());
+        } finally {
+            deferral.end();
+        }
+        assertFalse(deferral.isDeferred());
+        assertEquals(4, requests.get());
+    }
+
+    private void assertDeferred(RetryDeferral deferral) throws TwitterException {
+        deferral.begin();
+        try {
+            client.request(get());
+            fail("the request waited for its retry");
+        } catch (RetryDeferral.DeferredException expected) {
+            assertTrue(deferral.isDeferred());
+        } finally {
+            deferral.end();
+        }
+    }
+
+    private HttpRequest get() {
+        return new HttpRequest(RequestMethod.GET, "http://localhost:" + server.getAddress().getPort() + "/11/accounts/abc1/line_items",
+                               null, null, null, null);
+    }
+}
@@ -0,0 +1,66 @@
+package twitter4jads.internal.http;
+
+import twitter4jads.conf.ConfigurationBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A canned response for tests that stub the client below the HTTP layer.
+ */
+public final class StubHttpResponse extends HttpResponse {
+
+    private final Map<String, String> headers = new HashMap<>();
+
+    /**
+     * @param headers header names and values, alternating
+     */
+    private StubHttpResponse(int statusCode, String body, String... headers) {
+        super(new ConfigurationBuilder().build());
+        this.statusCode = statusCode;
+        this.is = body == null ? null : new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+        for (int i = 0; i < headers.length; i += 2) {
+            this.headers.put(headers[i], headers[i + 1]);
+        }
+    }
+
+    /**
+     * @return a 200 response with the body
+     */
+    public static StubHttpResponse withBody(String body) {
+        return new StubHttpResponse(200, body);
+    }
+
+    /**
+     * @param headers header names and values, alternating
+     */
+    public static StubHttpResponse withBody(int statusCode, String body, String... headers) {
+        return new StubHttpResponse(statusCode, body, headers);
+    }
+
+    /**
+     * @param headers header names and values, alternating
+     * @return a response without body
+     */
+    public static StubHttpResponse withStatus(int statusCode, String... headers) {
+        return new StubHttpResponse(statusCode, null, headers);
+    }
+
+    @Override
+    public String getResponseHeader(String name) {
+        return headers.get(name);
+    }
+
+    @Override
+    public Map<String, List<String>> getResponseHeaderFields() {
+        return Collections.emptyMap();
+    }
+
+    @Override
+    public void disconnect() {
+    }
+}
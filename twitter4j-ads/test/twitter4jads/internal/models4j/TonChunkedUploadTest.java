@@ -0,0 +1,336 @@
+package twitter4jads.internal.models4j;
+
+import com.google.common.util.concurrent.Uninterruptibles;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import twitter4jads.TwitterAdsClient;
+import twitter4jads.conf.ConfigurationBuilder;
+import twitter4jads.internal.http.HttpParameter;
+import twitter4jads.internal.http.HttpResponse;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static twitter4jads.internal.http.StubHttpResponse.withStatus;
+
+public class TonChunkedUploadTest {
+
+    private static final long MEDIA_SIZE = 64000000 + 123457;
+    private static final int MIN_CHUNK_SIZE = 8 * 1024 * 1024;
+    private static final int MAX_CHUNK_SIZE = 2 * MIN_CHUNK_SIZE;
+    private static final String TON = "https://ton.twitter.com";
+    private static final String UPLOADED_LOCATION = "/1.1/ton/data/ta_partner/uploaded.mp4";
+
+    private Path directory;
+    private Path media;
+    private File checkpointFile;
+
+    private final AtomicInteger sessions = new AtomicInteger();
+    private final AtomicInteger chunkPuts = new AtomicInteger();
+    private final Map<String, Long> receivedBytes = Collections.synchronizedMap(new HashMap<String, Long>());
+    private final Set<String> expiredLocations = Collections.synchronizedSet(new HashSet<String>());
+    private final List<String> contentRanges = Collections.synchronizedList(new ArrayList<String>());
+    private volatile int failingChunkPut = -1;
+    private volatile long partiallyAcceptedBytes;
+    private volatile int droppingChunkPut = -1;
+    private volatile boolean slowSource;
+    private final AtomicInteger runningReads = new AtomicInteger();
+    private final AtomicBoolean closedWhileRead = new AtomicBoolean();
+
+    private final TwitterAdsClient client = new TwitterAdsClient(new ConfigurationBuilder().build(), null) {
+        @Override
+        protected HttpResponse postWithCustomHeaders(String url, HttpParameter[] params, Map<String, String> customHeaders,
+                                                     boolean isTonUpload) {
+            assertEquals(String.valueOf(MEDIA_SIZE), customHeaders.get("X-TON-Content-Length"));
+            String location = "/1.1/ton/data/ta_partner/session" + sessions.incrementAndGet();
+            receivedBytes.put(location, 0L);
+            return withStatus(201, "Location", location, "X-TON-Min-Chunk-Size", String.valueOf(MIN_CHUNK_SIZE),
+                              "X-TON-Max-Chunk-Size", String.valueOf(MAX_CHUNK_SIZE));
+        }
+
+        @Override
+        protected HttpResponse putWithCustomHeaders(String url, HttpParameter[] params, Map<String, String> customHeaders,
+                                                    boolean isTonUpload) throws TwitterException {
+            return receiveTonRequest(url.substring(TON.length()), params, customHeaders.get("Content-Range"));
+        }
+
+        @Override
+        protected InputStream openSourceAt(String mediaUrl, long position) throws IOException {
+            return slowSource ? new SlowSource(position) : super.openSourceAt(mediaUrl, position);
+        }
+    };
+
+    @Before
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("ton-upload-test");
+        media = directory.resolve("media.mp4");
+        byte[] block = new byte[1024 * 1024];
+        try (RandomAccessFile file = new RandomAccessFile(media.toFile(), "rw")) {
+            for (long position = 0; position < MEDIA_SIZE; position += block.length) {
+                for (int i = 0; i < block.length; i++) {
+                    block[i] = expectedByte(position + i);
+                }
+                file.write(block, 0, (int) Math.min(block.length, MEDIA_SIZE - position));
+            }
+        }
+        checkpointFile = directory.resolve("media.checkpoint").toFile();
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        File[] files = directory.toFile().listFiles();
+        if (files != null) {
+            for (File file : files) {
+                Files.deleteIfExists(file.toPath());
+            }
+        }
+        Files.deleteIfExists(directory);
+    }
+
+    @Test
+    public void everyByteIsSentOnceAndInOrder() throws Exception {
+        partiallyAcceptedBytes = 1000;
+
+        assertEquals(UPLOADED_LOCATION, upload());
+
+        assertEquals(1, sessions.get());
+        assertEquals(Long.valueOf(MEDIA_SIZE), receivedBytes.get(location(1)));
+        assertEquals("bytes 1000-" + (MIN_CHUNK_SIZE - 1) + "/" + MEDIA_SIZE, contentRanges.get(1));
+        assertFalse(checkpointFile.exists());
+    }
+
+    @Test
+    public void interruptedUploadResumesFromItsCheckpoint() throws Exception {
+        failingChunkPut = 3;
+        assertInterrupted();
+
+        TonUploadCheckpoint checkpoint = TonUploadCheckpoint.load(checkpointFile);
+        assertNotNull(checkpoint);
+        assertEquals(location(1), checkpoint.getLocation());
+        assertEquals(receivedBytes.get(location(1)).longValue(), checkpoint.getBytesAcknowledged());
+        assertTrue(checkpoint.getBytesAcknowledged() > 0);
+        failingChunkPut = -1;
+        int rangesBeforeResume = contentRanges.size();
+
+        assertEquals(UPLOADED_LOCATION, upload());
+
+        assertEquals(1, sessions.get());
+        assertEquals("bytes */" + MEDIA_SIZE, contentRanges.get(rangesBeforeResume));
+        assertTrue(contentRanges.get(rangesBeforeResume + 1).startsWith("bytes " + checkpoint.getBytesAcknowledged() + "-"));
+        assertEquals(Long.valueOf(MEDIA_SIZE), receivedBytes.get(location(1)));
+        assertFalse(checkpointFile.exists());
+    }
+
+    @Test
+    public void expiredSessionStartsOver() throws Exception {
+        failingChunkPut = 2;
+        assertInterrupted();
+        failingChunkPut = -1;
+        expiredLocations.add(location(1));
+
+        assertEquals(UPLOADED_LOCATION, upload());
+
+        assertEquals(2, sessions.get());
+        assertEquals(Long.valueOf(MEDIA_SIZE), receivedBytes.get(location(2)));
+        assertFalse(checkpointFile.exists());
+    }
+
+    @Test
+    public void checkpointOfOtherMediaIsIgnored() throws Exception {
+        new TonUploadCheckpoint(directory.resolve("other.mp4").toUri().toString(), MEDIA_SIZE, "/other", MIN_CHUNK_SIZE,
+                                MAX_CHUNK_SIZE, MIN_CHUNK_SIZE).save(checkpointFile);
+
+        assertEquals(UPLOADED_LOCATION, upload());
+
+        assertEquals(1, sessions.get());
+        assertFalse(contentRanges.contains("bytes */" + MEDIA_SIZE));
+        assertEquals(Long.valueOf(MEDIA_SIZE), receivedBytes.get(location(1)));
+    }
+
+    @Test
+    public void failedUploadClosesTheSourceOnlyAfterTheReadAhead() throws Exception {
+        slowSource = true;
+        failingChunkPut = 1;
+
+        assertInterrupted();
+
+        assertEquals(0, runningReads.get());
+        assertFalse(closedWhileRead.get());
+    }
+
+    @Test
+    public void droppedBytesAreReadAgainOnceTheReadAheadIsDone() throws Exception {
+        slowSource = true;
+        droppingChunkPut = 2;
+
+        assertEquals(UPLOADED_LOCATION, upload());
+
+        assertTrue(contentRanges.get(2).startsWith("bytes " + MIN_CHUNK_SIZE / 2 + "-"));
+        assertEquals(Long.valueOf(MEDIA_SIZE), receivedBytes.get(location(1)));
+        assertFalse(closedWhileRead.get());
+    }
+
+    @Test
+    public void checkpointIsReadBackAsSaved() throws Exception {
+        TonUpload tonUpload = tonUpload();
+        new TonUploadCheckpoint(tonUpload.getMediaUrl(), MEDIA_SIZE, "/session", 10, 20, 30).save(checkpointFile);
+        new TonUploadCheckpoint(tonUpload.getMediaUrl(), MEDIA_SIZE, "/session", 10, 20, 40).save(checkpointFile);
+
+        TonUploadCheckpoint checkpoint = TonUploadCheckpoint.load(checkpointFile);
+
+        assertEquals("/session", checkpoint.getLocation());
+        assertEquals(10, checkpoint.getMinChunkSize());
+        assertEquals(20, checkpoint.getMaxChunkSize());
+        assertEquals(40, checkpoint.getBytesAcknowledged());
+        assertTrue(checkpoint.isFor(tonUpload));
+        tonUpload.setTotalContentLength(MEDIA_SIZE - 1);
+        assertFalse(checkpoint.isFor(tonUpload));
+        // the temporary files of the saves are gone
+        assertEquals(2, directory.toFile().list().length);
+    }
+
+    @Test
+    public void unreadableCheckpointIsIgnored() throws Exception {
+        assertNull(TonUploadCheckpoint.load(checkpointFile));
+        Files.write(checkpointFile.toPath(), "location=/session\nbytesAcknowledged=".getBytes(StandardCharsets.UTF_8));
+
+        assertNull(TonUploadCheckpoint.load(checkpointFile));
+    }
+
+    private HttpResponse receiveTonRequest(String location, HttpParameter[] params, String contentRange) throws TwitterException {
+        contentRanges.add(contentRange);
+        if (params == null) {
+            if (expiredLocations.contains(location)) {
+                throw new TwitterException("not found", null, 404);
+            }
+            return incomplete(receivedBytes.get(location));
+        }
+        if (chunkPuts.incrementAndGet() == failingChunkPut) {
+            throw new TwitterException("chunk refused", null, 400);
+        }
+        long from = Long.parseLong(contentRange.substring("bytes ".length(), contentRange.indexOf('-')));
+        long to = Long.parseLong(contentRange.substring(contentRange.indexOf('-') + 1, contentRange.indexOf('/')));
+        byte[] data = params[0].getFileData();
+        assertEquals(receivedBytes.get(location).longValue(), from);
+        assertEquals(to - from + 1, data.length);
+        for (int i = 0; i < data.length; i++) {
+            if (data[i] != expectedByte(from + i)) {
+                fail("unexpected byte at " + (from + i));
+            }
+        }
+
+        if (chunkPuts.get() == droppingChunkPut) {
+            // TON lost the end of the first chunk
+            receivedBytes.put(location, (long) MIN_CHUNK_SIZE / 2);
+            return incomplete(MIN_CHUNK_SIZE / 2);
+        }
+        long accepted = partiallyAcceptedBytes > 0 ? partiallyAcceptedBytes : data.length;
+        partiallyAcceptedBytes = 0;
+        receivedBytes.put(location, from + accepted);
+        if (from + accepted == MEDIA_SIZE) {
+            return withStatus(201, "Location", UPLOADED_LOCATION);
+        }
+        return incomplete(from + accepted);
+    }
+
+    private void assertInterrupted() throws Exception {
+        try {
+            upload();
+            fail("the refused chunk was ignored");
+        } catch (TwitterException e) {
+            assertEquals(400, e.getStatusCode());
+        }
+    }
+
+    private String upload() throws TwitterException {
+        TonUpload tonUpload = tonUpload();
+        tonUpload.setCheckpointFile(checkpointFile);
+        return client.uploadToTon(tonUpload);
+    }
+
+    private TonUpload tonUpload() {
+        TonUpload tonUpload = new TonUpload(TonUpload.MediaType.VIDEO, media.toUri().toString());
+        tonUpload.setTotalContentLength(MEDIA_SIZE);
+        tonUpload.setContentType("video/mp4");
+        return tonUpload;
+    }
+
+    private static String location(int session) {
+        return "/1.1/ton/data/ta_partner/session" + session;
+    }
+
+    private static byte expectedByte(long position) {
+        return (byte) (position * 31 + position / 4096);
+    }
+
+    /**
+     * The media served slowly, to have the read ahead still running when a chunk fails.
+     */
+    private final class SlowSource extends InputStream {
+        private long position;
+        private volatile boolean reading;
+
+        private SlowSource(long position) {
+            this.position = position;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] single = new byte[1];
+            return read(single, 0, 1) == -1 ? -1 : single[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            reading = true;
+            runningReads.incrementAndGet();
+            try {
+                Uninterruptibles.sleepUninterruptibly(10, TimeUnit.MILLISECONDS);
+                if (position >= MEDIA_SIZE) {
+                    return -1;
+                }
+                int read = (int) Math.min(Math.min(len, 1024 * 1024), MEDIA_SIZE - position);
+                for (int i = 0; i < read; i++) {
+                    b[off + i] = expectedByte(position++);
+                }
+                return read;
+            } finally {
+                runningReads.decrementAndGet();
+                reading = false;
+            }
+        }
+
+        @Override
+        public void close() {
+            if (reading) {
+                closedWhileRead.set(true);
+            }
+        }
+    }
+
+    private static HttpResponse incomplete(long received) {
+        return received == 0 ? withStatus(308) : withStatus(308, "Range", "bytes=0-" + (received - 1));
+    }
+}
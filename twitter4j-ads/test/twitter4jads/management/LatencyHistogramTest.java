@@ -0,0 +1,104 @@
+package twitter4jads.management;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class LatencyHistogramTest {
+
+    private static final double[] PERCENTILES = {0, 1, 10, 50, 90, 99, 99.9, 100};
+
+    @Test
+    public void emptyHistogramReadsZero() {
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getMax());
+        assertEquals(0, histogram.getValueAtPercentile(99));
+    }
+
+    @Test
+    public void smallTimesAreExact() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int time = 1; time <= 20; time++) {
+            histogram.record(time);
+        }
+
+        assertEquals(10, histogram.getValueAtPercentile(50));
+        assertEquals(20, histogram.getValueAtPercentile(100));
+        assertEquals(20, histogram.getMax());
+    }
+
+    @Test
+    public void percentilesAreWithinThreePercentOfTheRecordedTimes() {
+        Random random = new Random(42);
+        long[] times = new long[100000];
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < times.length; i++) {
+            // log-normal, like response times: mostly tens to hundreds of milliseconds with a long tail
+            times[i] = (long) Math.exp(5 + 1.5 * random.nextGaussian());
+            histogram.record(times[i]);
+        }
+        Arrays.sort(times);
+
+        assertEquals(times.length, histogram.getCount());
+        assertEquals(times[times.length - 1], histogram.getMax());
+        for (double percentile : PERCENTILES) {
+            long expected = times[(int) Math.max(0, Math.ceil(percentile / 100 * times.length) - 1)];
+            long actual = histogram.getValueAtPercentile(percentile);
+            assertTrue("p" + percentile + " " + actual + " for " + expected, actual >= expected && actual <= expected * 1.03 + 1);
+        }
+    }
+
+    @Test
+    public void timesOutOfRangeAreClamped() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(-5);
+        histogram.record(Long.MAX_VALUE);
+
+        assertEquals(0, histogram.getValueAtPercentile(50));
+        // counted in the last bucket, about 24 days
+        assertEquals(Integer.MAX_VALUE, histogram.getValueAtPercentile(100));
+        assertEquals(Long.MAX_VALUE, histogram.getMax());
+        assertEquals(2, histogram.getCount());
+    }
+
+    @Test
+    public void resetClearsTheTimes() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(100);
+        histogram.reset();
+
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getMax());
+    }
+
+    @Test(timeout = 10000)
+    public void concurrentRecordsAreAllCounted() throws Exception {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        ExecutorService threads = Executors.newFixedThreadPool(8);
+        for (int thread = 0; thread < 8; thread++) {
+            final int offset = thread;
+            threads.execute(new Runnable() {
+                @Override
+                public void run() {
+                    for (int i = 0; i < 10000; i++) {
+                        histogram.record(offset * 1000 + i);
+                    }
+                }
+            });
+        }
+        threads.shutdown();
+        assertTrue(threads.awaitTermination(5, TimeUnit.SECONDS));
+
+        assertEquals(80000, histogram.getCount());
+        assertEquals(7000 + 9999, histogram.getMax());
+    }
+}